@@ -0,0 +1,54 @@
+package com.savvato.tribeapp.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The named caches CacheService creates at startup, bound from app.cache.* properties, e.g.
+ *
+ *   app.cache.caches[ConnectQRCodeString].heap-entries=1000
+ *   app.cache.caches[ConnectQRCodeString].off-heap-mb=64
+ *   app.cache.caches[ConnectQRCodeString].time-to-idle=PT5M
+ *
+ * Each cache lives on the heap, and may add an off-heap and a disk tier below it. Entries that don't
+ * fit in the heap tier are kept serialized in the lower tiers, outside the garbage collected heap,
+ * until that tier's byte budget is used up. Off-heap memory comes out of the JVM's direct memory, so
+ * -XX:MaxDirectMemorySize must allow for the sum of the off-heap budgets. A cache that is used
+ * without being declared here gets the defaults below.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.cache")
+@Getter
+@Setter
+public class CacheProperties {
+
+  /** Where caches with a disk tier keep their files. */
+  private String diskDirectory = "cache-dir";
+
+  private Map<String, CacheSpec> caches = new LinkedHashMap<>();
+
+  @Getter
+  @Setter
+  public static class CacheSpec {
+
+    private long heapEntries = 1000;
+
+    /** Size of the off-heap tier in megabytes, or 0 for none. */
+    private long offHeapMb = 0;
+
+    /** Size of the disk tier in megabytes, or 0 for none. */
+    private long diskMb = 0;
+
+    /** How long an entry lives after it was last read or written; five minutes unless set. */
+    private Duration timeToIdle = Duration.ofMinutes(5);
+
+    /** How long an entry lives after it was written, if set. Takes precedence over timeToIdle. */
+    private Duration timeToLive;
+  }
+}
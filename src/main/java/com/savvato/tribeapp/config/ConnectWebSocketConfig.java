@@ -1,6 +1,10 @@
 package com.savvato.tribeapp.config;
 
+import com.savvato.tribeapp.config.filters.NotificationCatchUpInterceptor;
+import com.savvato.tribeapp.config.filters.StompAuthenticationInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,17 +14,30 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class ConnectWebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    StompAuthenticationInterceptor stompAuthenticationInterceptor;
+
+    @Autowired
+    NotificationCatchUpInterceptor notificationCatchUpInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // broker will carry messages back to client based on link "/secured/user/queue/specific-user-userabcde123"
-        config.enableSimpleBroker("/connect/user/queue/specific-user");
+        // and notifications, subscribed to as "/connect/user/queue/notifications", on "/queue/notifications-userabcde123"
+        config.enableSimpleBroker("/connect/user/queue/specific-user", "/queue/notifications");
         // set prefix that prompts Spring to make a new queue specific to the user
         config.setUserDestinationPrefix("/connect/user");
     }
 
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // sessions are authenticated on CONNECT, and caught up on notifications once they've subscribed
+        registration.interceptors(stompAuthenticationInterceptor, notificationCatchUpInterceptor);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // the endpoint which frontend will subscribe to
         registry.addEndpoint("/connect/room").withSockJS();
     }
-}
\ No newline at end of file
+}
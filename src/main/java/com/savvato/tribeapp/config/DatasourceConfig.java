@@ -1,23 +1,90 @@
 package com.savvato.tribeapp.config;
 
+import com.savvato.tribeapp.config.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @EnableWebMvc
 @Configuration
 @ComponentScan({"com.savvato.tribeapp.*"})
 public class DatasourceConfig {
 
+	/**
+	 * A pooled DataSource. Pool sizing, validation, leak detection and the driver's prepared statement
+	 * cache are bound from the spring.datasource.hikari.* properties of the active profile; the
+	 * connection settings fall back to the local development database.
+	 *
+	 * The pool reports to the metrics endpoint as hikaricp.connections.*, including the time spent
+	 * waiting for a connection (hikaricp.connections.acquire) and the active and idle counts.
+	 */
+	@Bean(name = "primaryDataSource")
+	@ConfigurationProperties(prefix = "spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(
+			@Value("${spring.datasource.driver-class-name:com.mysql.jdbc.Driver}") String driverClassName,
+			@Value("${spring.datasource.url:jdbc:mysql://localhost:3306/tribeapp_db?verifyServerCertificate=false&useSSL=true&useUnicode=true&useJDBCCompliantTimezoneShift=true&useLegacyDatetimeCode=false&serverTimezone=UTC}") String url,
+			@Value("${spring.datasource.username:tribeapp_db_user}") String username,
+			@Value("${spring.datasource.password:supersecure}") String password,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setPoolName("tribeapp");
+		dataSource.setDriverClassName(driverClassName);
+		dataSource.setJdbcUrl(url);
+		dataSource.setUsername(username);
+		dataSource.setPassword(password);
+
+		// has to be set before the pool starts, which happens on the first borrow
+		meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+		return dataSource;
+	}
+
+	/**
+	 * Sends read-only transactions to the read replicas in app.datasource.replicas, each pooled like
+	 * the primary, and everything else to the primary.
+	 */
+	@Bean
+	public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource, ReadReplicaProperties properties) {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+
+		for (int i = 0; i < properties.getReplicas().size(); i++) {
+			ReadReplicaProperties.Replica replica = properties.getReplicas().get(i);
+
+			HikariConfig config = new HikariConfig();
+			primaryDataSource.copyStateTo(config);
+			config.setPoolName("tribeapp-replica-" + i);
+			config.setJdbcUrl(replica.getUrl());
+			config.setUsername(replica.getUsername());
+			config.setPassword(replica.getPassword());
+			config.setReadOnly(true);
+
+			// a replica that is down at startup just takes no reads until it comes up
+			config.setInitializationFailTimeout(-1);
+
+			replicas.put(config.getPoolName(), new HikariDataSource(config));
+		}
+
+		return new ReadWriteRoutingDataSource(primaryDataSource, replicas, properties.getMaxReplicaLag(),
+				properties.getReplicaLagQuery(), properties.getReplicaLagColumn());
+	}
+
 	@Bean(name = "dataSource")
-	public DriverManagerDataSource dataSource() {
-	    DriverManagerDataSource driverManagerDataSource = new DriverManagerDataSource();
-	    driverManagerDataSource.setDriverClassName("com.mysql.jdbc.Driver");
-	    driverManagerDataSource.setUrl("jdbc:mysql://localhost:3306/tribeapp_db?verifyServerCertificate=false&useSSL=true&useUnicode=true&useJDBCCompliantTimezoneShift=true&useLegacyDatetimeCode=false&serverTimezone=UTC");
-	    driverManagerDataSource.setUsername("tribeapp_db_user");
-	    driverManagerDataSource.setPassword("supersecure");
-	    return driverManagerDataSource;
+	@Primary
+	public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+		return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
 	}
 }
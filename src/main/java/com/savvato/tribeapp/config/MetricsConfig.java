@@ -0,0 +1,132 @@
+package com.savvato.tribeapp.config;
+
+import com.savvato.tribeapp.config.datasource.ReadWriteRoutingDataSource;
+import com.savvato.tribeapp.dto.CacheStatisticsDTO;
+import com.savvato.tribeapp.services.CacheService;
+import com.savvato.tribeapp.services.ImageCacheService;
+import com.savvato.tribeapp.services.RejectionFilterService;
+import com.savvato.tribeapp.services.ThumbnailService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the app's own gauges to the actuator metrics endpoint.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public MeterBinder rejectionFilterMetrics(RejectionFilterService rejectionFilterService) {
+    return registry -> {
+      Gauge.builder("tribeapp.rejection.filter.fpp.expected", rejectionFilterService, RejectionFilterService::getExpectedFalsePositiveRate)
+          .description("False positive probability implied by the filter's fill level")
+          .register(registry);
+      Gauge.builder("tribeapp.rejection.filter.fpp.observed", rejectionFilterService, RejectionFilterService::getObservedFalsePositiveRate)
+          .description("Share of database-confirmed misses among lookups the filter answered")
+          .register(registry);
+      Gauge.builder("tribeapp.rejection.filter.size", rejectionFilterService, RejectionFilterService::getSizeInBits)
+          .description("Size of the filter")
+          .baseUnit("bits")
+          .register(registry);
+      Gauge.builder("tribeapp.rejection.filter.entries", rejectionFilterService, RejectionFilterService::getEntryCount)
+          .description("Rejected words and phrases put into the filter")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder cacheMetrics(CacheService cacheService) {
+    return registry -> {
+      for (String cacheName : cacheService.getCacheNames()) {
+        registerCacheCounter(registry, cacheService, cacheName, "tribeapp.cache.hits", "Lookups that found an entry", s -> s.hits);
+        registerCacheCounter(registry, cacheService, cacheName, "tribeapp.cache.misses", "Lookups that found no entry", s -> s.misses);
+        registerCacheCounter(registry, cacheService, cacheName, "tribeapp.cache.evictions", "Entries pushed out to make room", s -> s.evictions);
+        registerCacheCounter(registry, cacheService, cacheName, "tribeapp.cache.expirations", "Entries removed because they expired", s -> s.expirations);
+      }
+    };
+  }
+
+  @Bean
+  public MeterBinder imageCacheMetrics(ImageCacheService imageCacheService) {
+    return registry -> {
+      FunctionCounter.builder("tribeapp.image.cache.hits", imageCacheService, ImageCacheService::getHitCount)
+          .description("Pictures served from the cache")
+          .register(registry);
+      FunctionCounter.builder("tribeapp.image.cache.misses", imageCacheService, ImageCacheService::getMissCount)
+          .description("Pictures read from the file because they weren't cached, or had changed")
+          .register(registry);
+      FunctionCounter.builder("tribeapp.image.cache.evictions", imageCacheService, ImageCacheService::getEvictionCount)
+          .description("Pictures dropped to stay within the byte budget")
+          .register(registry);
+      Gauge.builder("tribeapp.image.cache.hit.ratio", imageCacheService, ImageCacheService::getHitRatio)
+          .description("Share of lookups served from the cache")
+          .register(registry);
+      Gauge.builder("tribeapp.image.cache.used", imageCacheService, ImageCacheService::getUsedBytes)
+          .description("Off-heap memory holding cached pictures")
+          .baseUnit("bytes")
+          .register(registry);
+      Gauge.builder("tribeapp.image.cache.max", imageCacheService, ImageCacheService::getMaxBytes)
+          .description("Byte budget of the cache")
+          .baseUnit("bytes")
+          .register(registry);
+      Gauge.builder("tribeapp.image.cache.entries", imageCacheService, ImageCacheService::getEntryCount)
+          .description("Pictures in the cache")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder readReplicaMetrics(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+    return registry -> {
+      Gauge.builder("tribeapp.datasource.replicas.available", readWriteRoutingDataSource, ReadWriteRoutingDataSource::getAvailableReplicaCount)
+          .description("Read replicas currently taking read-only transactions")
+          .register(registry);
+      Gauge.builder("tribeapp.datasource.replicas.lag", readWriteRoutingDataSource, ReadWriteRoutingDataSource::getMaxAvailableReplicaLagSeconds)
+          .description("Largest lag behind the primary among the replicas taking reads")
+          .baseUnit("seconds")
+          .register(registry);
+    };
+  }
+
+  @Bean
+  public MeterBinder thumbnailMetrics(ThumbnailService thumbnailService) {
+    return registry -> {
+      Gauge.builder("tribeapp.thumbnails.queue.depth", thumbnailService, ThumbnailService::getQueueDepth)
+          .description("Thumbnails waiting for a worker")
+          .register(registry);
+      Gauge.builder("tribeapp.thumbnails.workers.active", thumbnailService, ThumbnailService::getActiveWorkerCount)
+          .description("Workers generating a thumbnail right now")
+          .register(registry);
+      FunctionTimer.builder("tribeapp.thumbnails.latency", thumbnailService,
+              ThumbnailService::getCompletedCount, ThumbnailService::getTotalLatencyNanos, TimeUnit.NANOSECONDS)
+          .description("Time from upload to thumbnail written, retries included")
+          .register(registry);
+      FunctionCounter.builder("tribeapp.thumbnails.retries", thumbnailService, ThumbnailService::getRetryCount)
+          .description("Failed attempts that were scheduled to be tried again")
+          .register(registry);
+      FunctionCounter.builder("tribeapp.thumbnails.failures", thumbnailService, ThumbnailService::getFailedCount)
+          .description("Thumbnails given up on after the last attempt")
+          .register(registry);
+      FunctionCounter.builder("tribeapp.thumbnails.ran.on.caller", thumbnailService, ThumbnailService::getRanOnCallerCount)
+          .description("Thumbnails generated on the upload request thread because the queue was full")
+          .register(registry);
+    };
+  }
+
+  private static void registerCacheCounter(MeterRegistry registry, CacheService cacheService,
+      String cacheName, String meterName, String description, ToLongFunction<CacheStatisticsDTO> value) {
+    FunctionCounter.builder(meterName, cacheService,
+            service -> service.getStatistics(cacheName).map(value::applyAsLong).orElse(0L))
+        .description(description)
+        .tag("cache", cacheName)
+        .register(registry);
+  }
+}
@@ -0,0 +1,49 @@
+package com.savvato.tribeapp.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The read replicas that read-only transactions are sent to, bound from app.datasource.* properties, e.g.
+ *
+ *   app.datasource.replicas[0].url=jdbc:mysql://replica-1:3306/tribeapp_db
+ *   app.datasource.replicas[0].username=tribeapp_db_user
+ *   app.datasource.replicas[0].password=supersecure
+ *
+ * Each replica gets its own pool, sized and tuned like the primary's. With no replicas declared,
+ * everything goes to the primary.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.datasource")
+@Getter
+@Setter
+public class ReadReplicaProperties {
+
+  private List<Replica> replicas = new ArrayList<>();
+
+  /** A replica further behind the primary than this gets no reads until it catches up. */
+  private Duration maxReplicaLag = Duration.ofSeconds(10);
+
+  /** Run against each replica to find how far behind it is. Leave blank to only check that it answers. */
+  private String replicaLagQuery = "SHOW REPLICA STATUS";
+
+  /** The column of the lag query's first row holding the lag in seconds. */
+  private String replicaLagColumn = "Seconds_Behind_Source";
+
+  @Getter
+  @Setter
+  public static class Replica {
+
+    private String url;
+
+    private String username;
+
+    private String password;
+  }
+}
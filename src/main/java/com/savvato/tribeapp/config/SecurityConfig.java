@@ -2,12 +2,17 @@ package com.savvato.tribeapp.config;
 
 import java.util.Arrays;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 
 import com.savvato.tribeapp.config.filters.JwtTokenFilter;
+import com.savvato.tribeapp.config.principal.JwtAuthenticator;
+import com.savvato.tribeapp.config.principal.JwtPrincipalCache;
+import com.savvato.tribeapp.services.UserPrincipalService;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -52,6 +57,19 @@ public class SecurityConfig {
         return authProvider;
     }
 
+    // static, so the filter can have it injected before this configuration itself is created
+    @Bean
+    public static JwtPrincipalCache jwtPrincipalCache(@Value("${app.jwt.principal-cache.max-entries:10000}") int maxEntries,
+                                                      @Value("${app.jwt.principal-cache.max-age-seconds:600}") long maxAgeSeconds) {
+        return new JwtPrincipalCache(maxEntries, maxAgeSeconds);
+    }
+
+    // static for the same reason; the filter and the STOMP interceptor both authenticate with it
+    @Bean
+    public static JwtAuthenticator jwtAuthenticator(UserPrincipalService userPrincipalService, JwtPrincipalCache jwtPrincipalCache) {
+        return new JwtAuthenticator(userPrincipalService, jwtPrincipalCache);
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -92,6 +110,11 @@ public class SecurityConfig {
                                 .requestMatchers(HttpMethod.POST,   "/api/public/sendSMSChallengeCodeToPhoneNumber").permitAll()
                                 .requestMatchers(HttpMethod.POST,   "/api/public/isAValidSMSChallengeCode").permitAll()
                                 .requestMatchers("/swagger-ui/**", "/swagger-ui**", "/docs/**", "/docs**").permitAll()
+                                // STOMP sessions are authenticated on CONNECT, by StompAuthenticationInterceptor
+                                .requestMatchers("/connect/room/**", "/connect/room").permitAll()
+                                // a streamed response finishes on an async dispatch, which JwtTokenFilter doesn't run on.
+                                // The request was already authorized when it first came in
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .anyRequest().hasAnyRole("admin", "accountholder")
                 );
 
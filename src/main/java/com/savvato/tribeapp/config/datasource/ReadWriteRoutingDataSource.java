@@ -0,0 +1,184 @@
+package com.savvato.tribeapp.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections to a read replica while a read-only transaction is active, i.e. inside
+ * {@code @Transactional(readOnly = true)}, and to the primary otherwise. Replicas take turns.
+ *
+ * A replica only gets reads after {@link #checkReplicaLag()} has found it answering and no further
+ * behind the primary than maxLag, and stops getting them as soon as a check finds otherwise or it
+ * fails to hand out a connection. With no replica available, reads go to the primary.
+ *
+ * The read-only flag is only known once the transaction has started, so this has to sit behind a
+ * LazyConnectionDataSourceProxy, which defers fetching the real connection to the first statement.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagSeconds;
+    private final String lagQuery;
+    private final String lagColumn;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                      Duration maxLag, String lagQuery, String lagColumn) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.maxLagSeconds = maxLag.toSeconds();
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.markUnavailable("could not get a connection - " + e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = chooseReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection(username, password);
+            } catch (SQLException e) {
+                replica.markUnavailable("could not get a connection - " + e.getMessage());
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Measures every replica's lag, and decides which ones may take reads until the next check.
+     */
+    public void checkReplicaLag() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (StringUtils.isBlank(lagQuery)) {
+                    if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                        replica.markAvailable(0);
+                    } else {
+                        replica.markUnavailable("connection is not valid");
+                    }
+                    continue;
+                }
+
+                try (Statement statement = connection.createStatement();
+                     ResultSet rs = statement.executeQuery(lagQuery)) {
+                    Object lag = rs.next() ? rs.getObject(lagColumn) : null;
+
+                    if (lag == null) {
+                        replica.markUnavailable("replication is not running");
+                    } else if (((Number) lag).longValue() > maxLagSeconds) {
+                        replica.markUnavailable(lag + "s behind the primary");
+                    } else {
+                        replica.markAvailable(((Number) lag).longValue());
+                    }
+                }
+            } catch (SQLException e) {
+                replica.markUnavailable("lag check failed - " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Closes the replica pools. The primary is left to whoever created it.
+     */
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public int getAvailableReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.available).count();
+    }
+
+    /**
+     * The largest lag seen by the last check among the replicas taking reads, in seconds.
+     */
+    public long getMaxAvailableReplicaLagSeconds() {
+        return replicas.stream().filter(replica -> replica.available).mapToLong(replica -> replica.lagSeconds).max().orElse(0);
+    }
+
+    private Replica chooseReplica() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+
+        // no reads until the first check has seen it healthy
+        private volatile boolean available = false;
+        private volatile boolean checked = false;
+        private volatile long lagSeconds;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void markAvailable(long lagSeconds) {
+            this.lagSeconds = lagSeconds;
+            if (!available) {
+                log.info("Read replica " + name + " is taking reads, " + lagSeconds + "s behind the primary");
+                available = true;
+            }
+            checked = true;
+        }
+
+        private void markUnavailable(String reason) {
+            if (available || !checked) {
+                log.warn("Read replica " + name + " is not taking reads: " + reason);
+                available = false;
+            }
+            checked = true;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.savvato.tribeapp.config.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReplicaLagMonitor {
+
+    @Autowired
+    ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica-lag-check-interval:PT5S}")
+    public void checkReplicaLag() {
+        if (readWriteRoutingDataSource.getReplicaCount() > 0) {
+            readWriteRoutingDataSource.checkReplicaLag();
+        }
+    }
+}
@@ -1,17 +1,16 @@
 package com.savvato.tribeapp.config.filters;
 
 import java.io.IOException;
-import java.util.List;
+import java.util.Optional;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
-import com.savvato.tribeapp.constants.Constants;
-import com.savvato.tribeapp.services.UserPrincipalService;
+import com.savvato.tribeapp.config.principal.JwtAuthenticator;
+import com.savvato.tribeapp.config.principal.UserPrincipal;
 
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -21,19 +20,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.SignatureException;
-import io.jsonwebtoken.UnsupportedJwtException;
-
 @Component
-@Slf4j
 public class JwtTokenFilter extends OncePerRequestFilter {
 	
-	@Autowired
-    UserPrincipalService userPrincipalService;
+    @Autowired
+    JwtAuthenticator jwtAuthenticator;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -47,21 +38,19 @@ public class JwtTokenFilter extends OncePerRequestFilter {
             return;
         }
 
-        // Get jwt token and validate
+        // Get jwt token, and the user it was issued to
         final String token = header.split(" ")[1].trim();
-        if (!validate(token)) {
+        Optional<UserPrincipal> principal = jwtAuthenticator.authenticate(token);
+        if (principal.isEmpty()) {
             chain.doFilter(request, response);
             return;
         }
+        UserDetails userDetails = principal.get();
 
-        // Get user identity and set it on the spring security context
-        UserDetails userDetails = this.userPrincipalService.getUserPrincipalByEmail(getEmailAddress(token));
-
+        // set it on the spring security context
         UsernamePasswordAuthenticationToken
             authentication = new UsernamePasswordAuthenticationToken(
-                userDetails, null,
-                userDetails == null ?
-                    List.of() : userDetails.getAuthorities()
+                userDetails, null, userDetails.getAuthorities()
             );
 
         authentication.setDetails(
@@ -71,33 +60,4 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(authentication);
         chain.doFilter(request, response);
     }
-    
-    // taken from: https://github.com/Yoh0xFF/java-spring-security-example/blob/master/src/main/java/io/example/configuration/security/JwtTokenUtil.java
-    private boolean validate(String token) {
-        try {
-            Jwts.parser().setSigningKey(Constants.JWT_SECRET).parseClaimsJws(token);
-            return true;
-        } catch (SignatureException ex) {
-            log.error("Invalid JWT signature - " + ex.getMessage());
-        } catch (MalformedJwtException ex) {
-            log.error("Invalid JWT token - " + ex.getMessage());
-        } catch (ExpiredJwtException ex) {
-            log.error("Expired JWT token - " + ex.getMessage());
-        } catch (UnsupportedJwtException ex) {
-            log.error("Unsupported JWT token - " + ex.getMessage());
-        } catch (IllegalArgumentException ex) {
-            log.error("JWT claims string is empty - " + ex.getMessage());
-        }
-        return false;
-    }
-    
-    // taken from: https://github.com/Yoh0xFF/java-spring-security-example/blob/master/src/main/java/io/example/configuration/security/JwtTokenUtil.java
-    public String getEmailAddress(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(Constants.JWT_SECRET)
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject().split(",")[1];
-    }    
 }
@@ -0,0 +1,72 @@
+package com.savvato.tribeapp.config.filters;
+
+import com.savvato.tribeapp.config.principal.StompUserPrincipal;
+import com.savvato.tribeapp.dto.NotificationDTO;
+import com.savvato.tribeapp.services.NotificationPushService;
+import com.savvato.tribeapp.services.NotificationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Catches a session up on the notifications it missed. A client subscribing to its notifications
+ * with a last-seen-id header is sent the user's notifications newer than that id, oldest first,
+ * once the subscription is in place, so nothing created in between is lost. What's created while
+ * it's being caught up may arrive twice; clients ignore ids they've already seen.
+ */
+@Component
+@Slf4j
+public class NotificationCatchUpInterceptor implements ExecutorChannelInterceptor {
+
+    public static final String NOTIFICATIONS_SUBSCRIPTION = "/connect/user/queue/notifications";
+    public static final String LAST_SEEN_ID_HEADER = "last-seen-id";
+
+    // lazily, as the notification services are made after the message broker that this is part of
+    @Autowired
+    @Lazy
+    NotificationService notificationService;
+
+    @Autowired
+    @Lazy
+    NotificationPushService notificationPushService;
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        // the user destination handler has resolved the subscription to the session's own queue and
+        // handed it to the broker by now, so what's sent from here reaches the session
+        if (ex != null || !(handler instanceof UserDestinationMessageHandler)) {
+            return;
+        }
+
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE
+                || !NOTIFICATIONS_SUBSCRIPTION.equals(accessor.getDestination())) {
+            return;
+        }
+
+        String lastSeenId = accessor.getFirstNativeHeader(LAST_SEEN_ID_HEADER);
+        Optional<Long> userId = accessor.getUser() == null ? Optional.empty() : StompUserPrincipal.userIdOf(accessor.getUser());
+        if (lastSeenId == null || userId.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<NotificationDTO> missed = notificationService.getUserNotificationsAfter(userId.get(), Long.parseLong(lastSeenId.trim()));
+            notificationPushService.pushNotificationsToSession(userId.get(), accessor.getSessionId(), missed);
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring last-seen-id " + lastSeenId + " of session " + accessor.getSessionId());
+        }
+    }
+}
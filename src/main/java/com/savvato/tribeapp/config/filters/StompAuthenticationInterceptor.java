@@ -0,0 +1,73 @@
+package com.savvato.tribeapp.config.filters;
+
+import com.savvato.tribeapp.config.principal.JwtAuthenticator;
+import com.savvato.tribeapp.config.principal.StompUserPrincipal;
+import com.savvato.tribeapp.config.principal.UserPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Optional;
+
+/**
+ * Authenticates STOMP sessions. Browsers can't set headers on a WebSocket handshake, so the client
+ * sends its access token in an Authorization header of the CONNECT frame instead, as it would on an
+ * HTTP request. A session whose handshake was already authenticated by JwtTokenFilter needs none.
+ *
+ * The session's user is the user's id, so messages sent to a user reach that user's sessions only.
+ * Subscribing to another session's queue directly, rather than through /connect/user, is refused.
+ */
+@Component
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    JwtAuthenticator jwtAuthenticator;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        if (accessor.getCommand() == StompCommand.CONNECT) {
+            accessor.setUser(authenticate(accessor));
+        } else if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            if (accessor.getUser() == null) {
+                throw new MessagingException(message, "Not authenticated.");
+            }
+            String destination = accessor.getDestination();
+            if (destination != null && destination.startsWith("/queue/")) {
+                throw new MessagingException(message, "Subscribe to " + destination + " through /connect/user instead.");
+            }
+        }
+
+        return message;
+    }
+
+    private StompUserPrincipal authenticate(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader(AUTHORIZATION_HEADER);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            Optional<UserPrincipal> principal = jwtAuthenticator.authenticate(header.substring(BEARER_PREFIX.length()).trim());
+            if (principal.isPresent()) {
+                return StompUserPrincipal.of(principal.get());
+            }
+        }
+
+        // no token, or not a valid one; fall back on the user the handshake was made as
+        Principal handshakeUser = accessor.getUser();
+        Optional<Long> userId = handshakeUser == null ? Optional.empty() : StompUserPrincipal.userIdOf(handshakeUser);
+        return userId.map(StompUserPrincipal::new)
+                .orElseThrow(() -> new MessagingException("Not authenticated."));
+    }
+}
@@ -0,0 +1,75 @@
+package com.savvato.tribeapp.config.principal;
+
+import com.savvato.tribeapp.constants.Constants;
+import com.savvato.tribeapp.services.UserPrincipalService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Optional;
+
+/**
+ * Finds the user an access token was issued to. JwtTokenFilter uses it for HTTP requests, and
+ * StompAuthenticationInterceptor for STOMP sessions, whose token comes in the CONNECT frame rather
+ * than an HTTP header. What a token was found to be is kept in the JwtPrincipalCache.
+ */
+@Slf4j
+public class JwtAuthenticator {
+
+    private final UserPrincipalService userPrincipalService;
+    private final JwtPrincipalCache jwtPrincipalCache;
+
+    public JwtAuthenticator(UserPrincipalService userPrincipalService, JwtPrincipalCache jwtPrincipalCache) {
+        this.userPrincipalService = userPrincipalService;
+        this.jwtPrincipalCache = jwtPrincipalCache;
+    }
+
+    /**
+     * The user the token was issued to, or empty if the token isn't valid.
+     */
+    public Optional<UserPrincipal> authenticate(String token) {
+        // reuse what we learned from the token the last time we saw it
+        Optional<JwtPrincipalCache.CachedAuthentication> cached = jwtPrincipalCache.get(token);
+        if (cached.isPresent()) {
+            return Optional.ofNullable(cached.get().principal());
+        }
+
+        // validate the token, parsing it only once
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            return Optional.empty();
+        }
+
+        // Get user identity
+        long generation = jwtPrincipalCache.getGeneration();
+        UserPrincipal principal = this.userPrincipalService.getUserPrincipalByEmail(getEmailAddress(claims));
+        jwtPrincipalCache.put(token, claims, principal, generation);
+        return Optional.ofNullable(principal);
+    }
+
+    // taken from: https://github.com/Yoh0xFF/java-spring-security-example/blob/master/src/main/java/io/example/configuration/security/JwtTokenUtil.java
+    private Claims parseClaims(String token) {
+        try {
+            return Jwts.parser().setSigningKey(Constants.JWT_SECRET).parseClaimsJws(token).getBody();
+        } catch (SignatureException ex) {
+            log.error("Invalid JWT signature - " + ex.getMessage());
+        } catch (MalformedJwtException ex) {
+            log.error("Invalid JWT token - " + ex.getMessage());
+        } catch (ExpiredJwtException ex) {
+            log.error("Expired JWT token - " + ex.getMessage());
+        } catch (UnsupportedJwtException ex) {
+            log.error("Unsupported JWT token - " + ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            log.error("JWT claims string is empty - " + ex.getMessage());
+        }
+        return null;
+    }
+
+    private String getEmailAddress(Claims claims) {
+        return claims.getSubject().split(",")[1];
+    }
+}
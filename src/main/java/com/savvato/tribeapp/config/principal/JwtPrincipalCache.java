@@ -0,0 +1,146 @@
+package com.savvato.tribeapp.config.principal;
+
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the verified claims and the resolved UserPrincipal of recently seen JWTs, so that a
+ * request carrying a token we have already checked skips both the signature check and the user
+ * lookup. Entries are keyed by a SHA-256 digest of the whole token, signature included, and expire
+ * when the token does, or after maxAgeSeconds if that is sooner.
+ *
+ * Anything that changes a user's details or roles must call {@link #invalidateUser(Long)}, or the
+ * old principal will keep being used until its entry expires.
+ */
+public class JwtPrincipalCache {
+
+    public record CachedAuthentication(Claims claims, UserPrincipal principal, long expiresAtMillis) {
+    }
+
+    private final int maxEntries;
+    private final long maxAgeMillis;
+
+    private final ConcurrentHashMap<String, CachedAuthentication> authenticationsByDigest = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<String>> digestsByUserId = new ConcurrentHashMap<>();
+
+    // bumped by every invalidation, so a principal read from the database before it isn't cached after it
+    private final AtomicLong generation = new AtomicLong();
+
+    public JwtPrincipalCache(int maxEntries, long maxAgeSeconds) {
+        this.maxEntries = maxEntries;
+        this.maxAgeMillis = maxAgeSeconds * 1000;
+    }
+
+    public Optional<CachedAuthentication> get(String token) {
+        String digest = digest(token);
+        CachedAuthentication cached = authenticationsByDigest.get(digest);
+
+        if (cached == null) {
+            return Optional.empty();
+        }
+
+        if (cached.expiresAtMillis() <= System.currentTimeMillis()) {
+            remove(digest, cached);
+            return Optional.empty();
+        }
+
+        return Optional.of(cached);
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a verified token, unless a user was invalidated since {@code generationAtLookup} was
+     * read, in which case the principal may already be out of date.
+     */
+    public void put(String token, Claims claims, UserPrincipal principal, long generationAtLookup) {
+        if (maxEntries <= 0 || principal == null || principal.getId() == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Date expiration = claims.getExpiration();
+        long expiresAt = Math.min(now + maxAgeMillis, expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        if (expiresAt <= now) {
+            return;
+        }
+
+        if (authenticationsByDigest.size() >= maxEntries) {
+            makeRoom(now);
+        }
+
+        String digest = digest(token);
+        digestsByUserId.computeIfAbsent(principal.getId(), id -> ConcurrentHashMap.newKeySet()).add(digest);
+        authenticationsByDigest.put(digest, new CachedAuthentication(claims, principal, expiresAt));
+
+        if (generation.get() != generationAtLookup) {
+            invalidateUser(principal.getId());
+        }
+    }
+
+    public void invalidateUser(Long userId) {
+        generation.incrementAndGet();
+
+        Set<String> digests = digestsByUserId.remove(userId);
+        if (digests != null) {
+            digests.forEach(authenticationsByDigest::remove);
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        authenticationsByDigest.clear();
+        digestsByUserId.clear();
+    }
+
+    public int size() {
+        return authenticationsByDigest.size();
+    }
+
+    // drops expired entries, then, if that wasn't enough, about a tenth of the rest
+    private void makeRoom(long now) {
+        authenticationsByDigest.forEach((digest, cached) -> {
+            if (cached.expiresAtMillis() <= now) {
+                remove(digest, cached);
+            }
+        });
+
+        int toDrop = authenticationsByDigest.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<Map.Entry<String, CachedAuthentication>> it = authenticationsByDigest.entrySet().iterator();
+        while (toDrop-- > 0 && it.hasNext()) {
+            Map.Entry<String, CachedAuthentication> entry = it.next();
+            remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void remove(String digest, CachedAuthentication cached) {
+        if (authenticationsByDigest.remove(digest, cached)) {
+            Set<String> digests = digestsByUserId.get(cached.principal().getId());
+            if (digests != null) {
+                digests.remove(digest);
+            }
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
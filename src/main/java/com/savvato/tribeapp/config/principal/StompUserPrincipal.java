@@ -0,0 +1,36 @@
+package com.savvato.tribeapp.config.principal;
+
+import org.springframework.security.core.Authentication;
+
+import java.security.Principal;
+import java.util.Optional;
+
+/**
+ * The user of a STOMP session. Its name is the user's id, which is what messages sent to a user,
+ * like convertAndSendToUser("42", ...), are addressed by. User names aren't unique, so they can't be.
+ */
+public record StompUserPrincipal(Long userId) implements Principal {
+
+    @Override
+    public String getName() {
+        return String.valueOf(userId);
+    }
+
+    public static StompUserPrincipal of(UserPrincipal principal) {
+        return new StompUserPrincipal(principal.getId());
+    }
+
+    /**
+     * The user id of a session's principal: one set by StompAuthenticationInterceptor, or the
+     * authentication the WebSocket handshake was made with.
+     */
+    public static Optional<Long> userIdOf(Principal principal) {
+        if (principal instanceof StompUserPrincipal stompUser) {
+            return Optional.ofNullable(stompUser.userId());
+        }
+        if (principal instanceof Authentication authentication && authentication.getPrincipal() instanceof UserPrincipal user) {
+            return Optional.ofNullable(user.getId());
+        }
+        return Optional.empty();
+    }
+}
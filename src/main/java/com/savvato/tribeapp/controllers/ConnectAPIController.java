@@ -9,9 +9,13 @@ import com.savvato.tribeapp.dto.*;
 import com.savvato.tribeapp.services.ConnectService;
 import com.savvato.tribeapp.services.CosignService;
 import com.savvato.tribeapp.services.GenericResponseService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -20,11 +24,13 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Slf4j
 @RestController
@@ -39,6 +45,9 @@ public class ConnectAPIController {
   @Autowired
   GenericResponseService genericResponseService;
 
+  @Autowired
+  ObjectMapper objectMapper;
+
   @ExceptionHandler(NoSuchElementException.class)
   public ResponseEntity<String> handleNoSuchElementException(NoSuchElementException ex) {
     log.error("Exception occurred: " + ex.getMessage());
@@ -62,6 +71,69 @@ public class ConnectAPIController {
     }
   }
 
+  @GetConnectionsPage
+  @GetMapping("/{userId}/connections")
+  public ResponseEntity<ConnectionPageDTO> getConnectionsPage(
+      @Parameter(description = "The user ID of a user", example = "1") @PathVariable Long userId,
+      @Parameter(description = "The nextCursor of the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+      @Parameter(description = "The number of connections per page, at most 500", example = "50") @RequestParam(defaultValue = "50") int size) {
+
+    try {
+      return ResponseEntity.status(HttpStatus.OK).body(connectService.getConnectionsPageForAUser(userId, cursor, size));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+    }
+  }
+
+  @StreamConnections
+  @GetMapping("/{userId}/connections/stream")
+  public ResponseEntity<StreamingResponseBody> streamConnections(
+      @Parameter(description = "The user ID of a user", example = "1") @PathVariable Long userId) {
+
+    // written out a batch at a time as it is read, so the whole list is never held in memory
+    StreamingResponseBody body = outputStream -> {
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+        generator.writeStartArray();
+        connectService.streamAllConnectionsForAUser(userId, connection -> {
+          try {
+            generator.writeObject(connection);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+        generator.writeEndArray();
+      }
+    };
+
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
+  @GetMutualConnections
+  @GetMapping("/{userId}/mutual/{otherUserId}")
+  public ResponseEntity<List<UsernameDTO>> getMutualConnections(
+      @Parameter(description = "The user ID of a user", example = "1") @PathVariable Long userId,
+      @Parameter(description = "The user ID of another user", example = "2") @PathVariable Long otherUserId) {
+
+    List<UsernameDTO> list = connectService.getMutualConnections(userId, otherUserId);
+
+    return ResponseEntity.status(HttpStatus.OK).body(list);
+  }
+
+  @GetConnectionPath
+  @GetMapping("/{userId}/path/{otherUserId}")
+  public ResponseEntity<ConnectionPathDTO> getConnectionPath(
+      @Parameter(description = "The user ID of a user", example = "1") @PathVariable Long userId,
+      @Parameter(description = "The user ID of another user", example = "2") @PathVariable Long otherUserId) {
+
+    Optional<ConnectionPathDTO> opt = connectService.getConnectionPath(userId, otherUserId);
+
+    if (opt.isPresent()) {
+      return ResponseEntity.status(HttpStatus.OK).body(opt.get());
+    } else {
+      return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+    }
+  }
+
   @GetQRCodeString
   @GetMapping("/{userId}")
   public ResponseEntity getQrCodeString(
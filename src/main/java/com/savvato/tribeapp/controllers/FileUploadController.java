@@ -3,21 +3,30 @@ package com.savvato.tribeapp.controllers;
 import com.savvato.tribeapp.constants.ResourceTypeConstants;
 import com.savvato.tribeapp.controllers.annotations.controllers.FileUploadController.DeleteFile;
 import com.savvato.tribeapp.controllers.annotations.controllers.FileUploadController.FileIsFound;
+import com.savvato.tribeapp.controllers.annotations.controllers.FileUploadController.GetThumbnailStatus;
 import com.savvato.tribeapp.controllers.annotations.controllers.FileUploadController.HandleFileUpload;
 import com.savvato.tribeapp.controllers.annotations.controllers.FileUploadController.ServeFile;
+import com.savvato.tribeapp.dto.ThumbnailStatusDTO;
 import com.savvato.tribeapp.services.PictureService;
 import com.savvato.tribeapp.services.StorageService;
+import com.savvato.tribeapp.services.ThumbnailService;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.io.IOException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/api/resource/{resourceType}/{resourceId}")
 @Tag(name = "resource", description = "Files that are uploaded by the user")
@@ -26,11 +35,16 @@ public class FileUploadController {
 
   private final StorageService storageService;
   private final PictureService pictureService;
+  private final ThumbnailService thumbnailService;
+
+  @Value("${app.pictures.cache-max-age-seconds:60}")
+  long cacheMaxAgeSeconds;
 
   @Autowired
-  public FileUploadController(StorageService storageService, PictureService pictureService) {
+  public FileUploadController(StorageService storageService, PictureService pictureService, ThumbnailService thumbnailService) {
     this.storageService = storageService;
     this.pictureService = pictureService;
+    this.thumbnailService = thumbnailService;
   }
 
   @FileIsFound
@@ -69,21 +83,63 @@ public class FileUploadController {
 
   @ServeFile
   @GetMapping
-  public ResponseEntity<byte[]> serveFile(
+  public ResponseEntity<Resource> serveFile(
       HttpServletRequest request,
       @Parameter(description = "The resource type", example = "photo") @PathVariable
           String resourceType,
       @Parameter(description = "The resource ID", example = "1") @PathVariable String resourceId,
       @Parameter(description = "The photo size", example = "120x120") @RequestParam("photoSize")
           String photoSize) {
-    String filename = storageService.getDefaultFilename(resourceType, resourceId);
-    filename = pictureService.transformFilenameUsingSizeInfo(photoSize, filename);
+    String originalFilename = storageService.getDefaultFilename(resourceType, resourceId);
+    String filename = pictureService.transformFilenameUsingSizeInfo(photoSize, originalFilename);
 
     log.debug("^^^^^ About to call storageservice to load --> " + filename);
-    byte[] fileAsByteArray = storageService.loadAsByteArray(resourceType, filename);
+    Resource file = storageService.loadAsResource(resourceType, filename);
+
+    // pictures uploaded before a variant size was added don't have that variant
+    if (file == null && !filename.equals(originalFilename)) {
+      filename = originalFilename;
+      file = storageService.loadAsResource(resourceType, filename);
+    }
+
+    if (file == null) {
+      return ResponseEntity.notFound().build();
+    }
+
+    long lastModified;
+    long length;
+    try {
+      lastModified = file.lastModified();
+      length = file.contentLength();
+    } catch (IOException e) {
+      log.error("Could not read the attributes of " + filename, e);
+      return ResponseEntity.notFound().build();
+    }
 
+    // The file is streamed to the response rather than read into memory. Spring answers
+    // If-None-Match and If-Modified-Since with a 304 from these headers, and a Range request
+    // with just the part asked for
     log.debug("^^^^^^ Back from storageservice call to load --> " + filename);
-    return ResponseEntity.ok().contentType(MediaType.IMAGE_JPEG).body(fileAsByteArray);
+    return ResponseEntity.ok()
+        .contentType(MediaType.IMAGE_JPEG)
+        .eTag(Long.toHexString(lastModified) + "-" + Long.toHexString(length))
+        .lastModified(lastModified)
+        .cacheControl(CacheControl.maxAge(cacheMaxAgeSeconds, TimeUnit.SECONDS).cachePrivate())
+        .body(file);
+  }
+
+  @GetThumbnailStatus
+  @GetMapping("/thumbnail")
+  public ResponseEntity<ThumbnailStatusDTO> getThumbnailStatus(
+      @Parameter(description = "The resource type", example = "photo") @PathVariable
+          String resourceType,
+      @Parameter(description = "The resource ID", example = "1") @PathVariable String resourceId) {
+    if (!isValidResourceType(resourceType)) {
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+    }
+
+    String filename = storageService.getDefaultFilename(resourceType, resourceId);
+    return ResponseEntity.ok(ThumbnailStatusDTO.builder().status(thumbnailService.getStatus(resourceType, filename)).build());
   }
 
   @HandleFileUpload
@@ -100,14 +156,14 @@ public class FileUploadController {
       log.debug("^^^^ About to call storage service to save --> " + filename);
       storageService.store(resourceType, file, filename);
 
-      try {
-        log.debug("^^^^ About to call pictureservice to write thumbnail --> " + filename);
-        pictureService.writeThumbnailFromOriginal(resourceType, filename);
-      } catch (IOException ioe) {
+      log.debug("^^^^ About to queue the thumbnail for --> " + filename);
+      ThumbnailService.ThumbnailStatus thumbnailStatus = thumbnailService.submit(resourceType, filename);
+
+      if (thumbnailStatus == ThumbnailService.ThumbnailStatus.FAILED) {
         return "{\"msg\":\"error\"}";
       }
 
-      return "{\"msg\":\"ok\"}";
+      return "{\"msg\":\"ok\",\"thumbnail\":\"" + thumbnailStatus + "\"}";
     }
 
     log.debug("^^^^^ COULD NOT do the HandleFileUpload!");
@@ -1,10 +1,12 @@
 package com.savvato.tribeapp.controllers;
 
+import com.savvato.tribeapp.controllers.annotations.controllers.NotificationController.GetUnreadNotificationCount;
 import com.savvato.tribeapp.controllers.annotations.controllers.NotificationController.GetUserNotifications;
 import com.savvato.tribeapp.controllers.annotations.controllers.NotificationController.UpdateNotification;
 import com.savvato.tribeapp.controllers.dto.NotificationRequest;
 import com.savvato.tribeapp.dto.NotificationDTO;
 import com.savvato.tribeapp.dto.GenericResponseDTO;
+import com.savvato.tribeapp.dto.UnreadNotificationCountDTO;
 import com.savvato.tribeapp.services.GenericResponseService;
 import com.savvato.tribeapp.services.NotificationService;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -61,8 +63,21 @@ public class NotificationAPIController {
   @GetUserNotifications
   @GetMapping("/user/{user_id}")
   public ResponseEntity<List<NotificationDTO>> getUserNotifications(
-      @Parameter(description = "A user ID", example = "1") @PathVariable Long user_id) {
-    List<NotificationDTO> rtn = notificationService.getUserNotifications(user_id);
+      @Parameter(description = "A user ID", example = "1") @PathVariable Long user_id,
+      @Parameter(description = "The ID of the last notification of the previous page; omit for the first page", example = "42") @RequestParam(required = false) Long before,
+      @Parameter(description = "The number of notifications per page, at most 100", example = "20") @RequestParam(required = false) Integer limit) {
+    List<NotificationDTO> rtn = notificationService.getUserNotifications(user_id, before, limit);
     return ResponseEntity.ok(rtn);
   };
+
+  @GetUnreadNotificationCount
+  @GetMapping("/user/{user_id}/unread-count")
+  public ResponseEntity<UnreadNotificationCountDTO> getUnreadNotificationCount(
+      @Parameter(description = "A user ID", example = "1") @PathVariable Long user_id) {
+    UnreadNotificationCountDTO rtn = UnreadNotificationCountDTO.builder()
+        .userId(user_id)
+        .unreadCount(notificationService.getUnreadNotificationCount(user_id))
+        .build();
+    return ResponseEntity.ok(rtn);
+  }
 }
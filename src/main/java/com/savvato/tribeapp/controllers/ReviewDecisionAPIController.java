@@ -1,20 +1,28 @@
 package com.savvato.tribeapp.controllers;
 
+import com.savvato.tribeapp.config.principal.UserPrincipal;
 import com.savvato.tribeapp.controllers.annotations.controllers.ReviewDecisionAPIController.SaveReviewDecision;
+import com.savvato.tribeapp.controllers.annotations.controllers.ReviewDecisionAPIController.SaveReviewDecisions;
+import com.savvato.tribeapp.controllers.dto.ReviewDecisionBatchRequest;
 import com.savvato.tribeapp.controllers.dto.ReviewDecisionRequest;
 import com.savvato.tribeapp.dto.ReviewDecisionDTO;
 import com.savvato.tribeapp.entities.ReviewDecision;
 import com.savvato.tribeapp.services.ReviewDecisionService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @Tag(name = "reviewer-decision", description = "Decisions made after reviewing an attribute")
 @RequestMapping("/api/reviewer-decision")
+@Slf4j
 public class ReviewDecisionAPIController {
   @Autowired ReviewDecisionService reviewDecisionService;
 
@@ -32,4 +40,30 @@ public class ReviewDecisionAPIController {
     rtn.reasonId = decisionSaved.getReasonId();
     return ResponseEntity.status(HttpStatus.OK).body(rtn);
   }
+
+  @SaveReviewDecisions
+  @PostMapping("/batch")
+  public ResponseEntity<List<ReviewDecisionDTO>> saveReviewDecisions(
+      @AuthenticationPrincipal UserPrincipal reviewer,
+      @RequestBody @Valid ReviewDecisionBatchRequest request) {
+    List<ReviewDecision> decisionsSaved =
+        reviewDecisionService.saveReviewDecisions(reviewer.getId(), request.decisions);
+    List<ReviewDecisionDTO> rtn =
+        decisionsSaved.stream()
+            .map(
+                decision ->
+                    ReviewDecisionDTO.builder()
+                        .reviewId(decision.getReviewId())
+                        .userId(decision.getUserId())
+                        .reasonId(decision.getReasonId())
+                        .build())
+            .toList();
+    return ResponseEntity.status(HttpStatus.OK).body(rtn);
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+    log.warn("Review decisions not saved: " + ex.getMessage());
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + ex.getMessage());
+  }
 }
@@ -1,5 +1,6 @@
 package com.savvato.tribeapp.controllers;
 
+import com.savvato.tribeapp.config.principal.UserPrincipal;
 import com.savvato.tribeapp.controllers.annotations.controllers.ToBeReviewedAPIController.GetPhrase;
 import com.savvato.tribeapp.dto.ToBeReviewedDTO;
 import com.savvato.tribeapp.repositories.ToBeReviewedRepository;
@@ -9,6 +10,7 @@ import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -24,8 +26,8 @@ public class ToBeReviewedAPIController {
 
   @GetPhrase
   @GetMapping
-  public ResponseEntity getPhrase() {
-    Optional<ToBeReviewedDTO> opt = toBeReviewedService.getReviewPhrase();
+  public ResponseEntity getPhrase(@AuthenticationPrincipal UserPrincipal reviewer) {
+    Optional<ToBeReviewedDTO> opt = toBeReviewedService.getReviewPhrase(reviewer.getId());
     if (opt.isPresent()) {
       return ResponseEntity.status(HttpStatus.OK).body(opt.get());
     } else {
@@ -0,0 +1,18 @@
+package com.savvato.tribeapp.controllers.annotations.controllers.ConnectAPIController;
+
+import com.savvato.tribeapp.controllers.annotations.responses.NotFound;
+import com.savvato.tribeapp.controllers.annotations.responses.Success;
+import com.savvato.tribeapp.dto.ConnectionPathDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import java.lang.annotation.*;
+
+/** Documentation for getting the degrees of separation between two users */
+@Target({ElementType.METHOD, ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Operation(
+    summary = "Get the shortest chain of connections between two users",
+    description = "Provided two user IDs, get the shortest chain of connections from the first user to the second. ")
+@Success(description = "", implementation = ConnectionPathDTO.class)
+@NotFound(description = "The users are not connected within the maximum search depth")
+public @interface GetConnectionPath {}
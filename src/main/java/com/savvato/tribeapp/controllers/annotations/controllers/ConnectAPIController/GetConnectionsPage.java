@@ -0,0 +1,18 @@
+package com.savvato.tribeapp.controllers.annotations.controllers.ConnectAPIController;
+
+import com.savvato.tribeapp.controllers.annotations.responses.BadRequest;
+import com.savvato.tribeapp.controllers.annotations.responses.Success;
+import com.savvato.tribeapp.dto.ConnectionPageDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import java.lang.annotation.*;
+
+/** Documentation for getting one page of a user's connections */
+@Target({ElementType.METHOD, ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Operation(
+    summary = "Get a page of connections for a user",
+    description = "Provided a user ID, get up to size of their connections, oldest first. Pass the returned nextCursor to get the next page. ")
+@Success(description = "", implementation = ConnectionPageDTO.class)
+@BadRequest(description = "The cursor is not valid", noContent = true)
+public @interface GetConnectionsPage {}
@@ -0,0 +1,15 @@
+package com.savvato.tribeapp.controllers.annotations.controllers.ConnectAPIController;
+
+import com.savvato.tribeapp.controllers.annotations.responses.Success;
+import io.swagger.v3.oas.annotations.Operation;
+import java.lang.annotation.*;
+
+/** Documentation for getting the connections two users have in common */
+@Target({ElementType.METHOD, ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Operation(
+    summary = "Get mutual connections of two users",
+    description = "Provided two user IDs, get the users that both of them are connected with. ")
+@Success(description = "", example = "")
+public @interface GetMutualConnections {}
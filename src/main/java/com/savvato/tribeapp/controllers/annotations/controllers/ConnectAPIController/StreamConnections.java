@@ -0,0 +1,15 @@
+package com.savvato.tribeapp.controllers.annotations.controllers.ConnectAPIController;
+
+import com.savvato.tribeapp.controllers.annotations.responses.Success;
+import io.swagger.v3.oas.annotations.Operation;
+import java.lang.annotation.*;
+
+/** Documentation for streaming all of a user's connections */
+@Target({ElementType.METHOD, ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Operation(
+    summary = "Stream all connections for a user",
+    description = "Provided a user ID, get all of their connections, oldest first, as a JSON array that is written while it is read. For users with very many connections. ")
+@Success(description = "", example = "")
+public @interface StreamConnections {}
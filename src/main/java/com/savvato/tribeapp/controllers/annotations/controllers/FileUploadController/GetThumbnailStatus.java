@@ -0,0 +1,18 @@
+package com.savvato.tribeapp.controllers.annotations.controllers.FileUploadController;
+
+import com.savvato.tribeapp.controllers.annotations.responses.BadRequest;
+import com.savvato.tribeapp.controllers.annotations.responses.Success;
+import com.savvato.tribeapp.dto.ThumbnailStatusDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import java.lang.annotation.*;
+
+@Target({ElementType.METHOD, ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Operation(
+    summary = "Check on the thumbnail of an uploaded file",
+    description =
+        "Provided a resource type and a resource ID, return whether its thumbnail is waiting to be generated, being generated, ready or failed.")
+@Success(description = "Status of the thumbnail", implementation = ThumbnailStatusDTO.class)
+@BadRequest(description = "Invalid resource type")
+public @interface GetThumbnailStatus {}
@@ -10,12 +10,12 @@ import java.lang.annotation.*;
 @Documented
 @Operation(
     summary = "Handle a file upload",
-    description = "Provided a resource type, a resource ID, and a file, upload it.")
+    description = "Provided a resource type, a resource ID, and a file, upload it. The thumbnail is generated in the background; its status can be checked at /thumbnail.")
 @Success(
     description = "Status of attempt to upload file",
     examples = {
-      @ExampleObject(name = "Uploaded successfully", value = "{\"msg\":\"error\"}"),
-      @ExampleObject(name = "Failed to upload file", value = "{\"msg\":\"ok\"}"),
+      @ExampleObject(name = "Uploaded successfully", value = "{\"msg\":\"ok\",\"thumbnail\":\"PENDING\"}"),
+      @ExampleObject(name = "Failed to upload file", value = "{\"msg\":\"error\"}"),
       @ExampleObject(name = "Invalid resource type", value = "")
     })
 public @interface HandleFileUpload {}
@@ -1,8 +1,8 @@
 package com.savvato.tribeapp.controllers.annotations.controllers.FileUploadController;
 
+import com.savvato.tribeapp.controllers.annotations.responses.NotFound;
 import com.savvato.tribeapp.controllers.annotations.responses.Success;
 import io.swagger.v3.oas.annotations.Operation;
-import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.lang.annotation.*;
@@ -12,8 +12,10 @@ import java.lang.annotation.*;
 @Documented
 @Operation(
     summary = "Serve a file",
-    description = "Provided a resource type, a resource ID, and a photo size, serve a file.")
+    description =
+        "Provided a resource type, a resource ID, and a photo size, serve a file. The response has an ETag and Last-Modified, so a request with If-None-Match or If-Modified-Since gets a 304 if the file hasn't changed. A Range request gets a 206 with just that part of the file.")
 @Success(
-    description = "Successfully loaded file",
-    array = @ArraySchema(schema = @Schema(implementation = Byte.class)))
+    description = "The file, a JPEG image, or the part of it asked for by a Range header",
+    schema = @Schema(type = "string", format = "binary", implementation = byte[].class))
+@NotFound(description = "No such file")
 public @interface ServeFile {}
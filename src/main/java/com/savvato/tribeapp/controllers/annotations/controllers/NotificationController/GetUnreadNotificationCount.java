@@ -0,0 +1,17 @@
+package com.savvato.tribeapp.controllers.annotations.controllers.NotificationController;
+
+import com.savvato.tribeapp.controllers.annotations.responses.Success;
+import com.savvato.tribeapp.dto.UnreadNotificationCountDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import java.lang.annotation.*;
+
+@Target({ElementType.METHOD, ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Operation(
+    summary = "Get the number of a user's unread notifications",
+    description = "Provided a user ID, get how many of that user's notifications haven't been read.")
+@Success(
+    description = "Successfully retrieved the unread count",
+    implementation = UnreadNotificationCountDTO.class)
+public @interface GetUnreadNotificationCount {}
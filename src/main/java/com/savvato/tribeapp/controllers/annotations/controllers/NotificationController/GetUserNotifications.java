@@ -13,8 +13,8 @@ import java.lang.annotation.*;
 @Operation(
     summary = "Get a user's notifications",
     description =
-        "Provided a user ID, get a list of all of the notifications belonging to that user.")
+        "Provided a user ID, get a page of the notifications belonging to that user, newest first. For the next page, pass the ID of the last notification on this one as before.")
 @Success(
-    description = "Successfully retrieved all notifications",
+    description = "Successfully retrieved notifications",
     array = @ArraySchema(schema = @Schema(implementation = NotificationDTO.class)))
 public @interface GetUserNotifications {}
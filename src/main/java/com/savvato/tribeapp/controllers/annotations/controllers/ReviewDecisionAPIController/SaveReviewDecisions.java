@@ -0,0 +1,27 @@
+package com.savvato.tribeapp.controllers.annotations.controllers.ReviewDecisionAPIController;
+
+import com.savvato.tribeapp.controllers.annotations.requests.DocumentedRequestBody;
+import com.savvato.tribeapp.controllers.annotations.responses.BadRequest;
+import com.savvato.tribeapp.controllers.annotations.responses.Success;
+import com.savvato.tribeapp.controllers.dto.ReviewDecisionBatchRequest;
+import com.savvato.tribeapp.dto.ReviewDecisionDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.lang.annotation.*;
+
+@Target({ElementType.METHOD, ElementType.TYPE, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Operation(
+    summary = "Save a batch of review decisions",
+    description =
+        "Given a valid ReviewDecisionBatchRequest (see schema), save all of its review decisions, or none of them, and approve or reject their phrases. The decisions are the signed in reviewer's, whatever reviewerId they give, and each phrase must be leased to the reviewer.")
+@DocumentedRequestBody(implementation = ReviewDecisionBatchRequest.class)
+@Success(
+    description = "Successfully saved review decisions",
+    array = @ArraySchema(schema = @Schema(implementation = ReviewDecisionDTO.class)))
+@BadRequest(
+    description = "The batch is empty or too big, decides a phrase twice, has an unknown phrase or reason, or has a phrase not leased to the reviewer",
+    example = "Error: 4 is not a review decision reason.")
+public @interface SaveReviewDecisions {}
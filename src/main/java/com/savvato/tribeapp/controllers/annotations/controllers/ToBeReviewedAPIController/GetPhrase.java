@@ -11,7 +11,8 @@ import java.lang.annotation.*;
 @Documented
 @Operation(
     summary = "Get the next phrase to review",
-    description = "Get the next phrase to review.")
+    description =
+        "Get the next phrase to review. The phrase is held for the calling reviewer for a while, during which no other reviewer is given it. Asking again gives the next one.")
 @Success(description = "Found next phrase", implementation = ToBeReviewedDTO.class)
 @BadRequest(
     noContent = true,
@@ -0,0 +1,12 @@
+package com.savvato.tribeapp.controllers.dto;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "A request containing a batch of review decisions, at most one per phrase")
+public class ReviewDecisionBatchRequest {
+  @ArraySchema(schema = @Schema(implementation = ReviewDecisionRequest.class))
+  public List<ReviewDecisionRequest> decisions;
+}
@@ -0,0 +1,19 @@
+package com.savvato.tribeapp.dto;
+
+import lombok.Builder;
+
+@Builder
+public class CacheStatisticsDTO {
+
+    public String cacheName;
+
+    public long hits;
+
+    public long misses;
+
+    public long evictions;
+
+    public long expirations;
+
+    public float hitPercentage;
+}
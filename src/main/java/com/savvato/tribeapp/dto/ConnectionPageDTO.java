@@ -0,0 +1,18 @@
+package com.savvato.tribeapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+@Schema(description = "One page of a user's connections")
+@Builder
+public class ConnectionPageDTO {
+
+    public List<ConnectOutgoingMessageDTO> connections;
+
+    @Schema(description = "Pass as the cursor parameter to get the next page. Absent on the last page.", example = "MTcwMDAwMDAwMDAwMDo3MzI")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.savvato.tribeapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+import java.util.List;
+
+@Schema(description = "The shortest chain of connections between two users")
+@Builder
+public class ConnectionPathDTO {
+
+    @Schema(example = "2")
+    public int degreesOfSeparation;
+
+    @Schema(example = "[{\"userId\": 1, \"username\": \"testuser\"}, {\"userId\": 2, \"username\": \"otheruser\"}, {\"userId\": 3, \"username\": \"thirduser\"}]")
+    public List<UsernameDTO> path;
+}
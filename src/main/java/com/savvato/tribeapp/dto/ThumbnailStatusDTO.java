@@ -0,0 +1,13 @@
+package com.savvato.tribeapp.dto;
+
+import com.savvato.tribeapp.services.ThumbnailService;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+@Schema(description = "Where the thumbnail of an uploaded picture is in its generation")
+@Builder
+public class ThumbnailStatusDTO {
+
+    @Schema(example = "READY")
+    public ThumbnailService.ThumbnailStatus status;
+}
@@ -0,0 +1,15 @@
+package com.savvato.tribeapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+@Builder
+@Schema(description = "The number of a user's notifications that haven't been read")
+public class UnreadNotificationCountDTO {
+
+  @Schema(example = "1")
+  public Long userId;
+
+  @Schema(example = "3")
+  public long unreadCount;
+}
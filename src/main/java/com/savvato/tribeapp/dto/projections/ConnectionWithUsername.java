@@ -0,0 +1,14 @@
+package com.savvato.tribeapp.dto.projections;
+
+import java.sql.Timestamp;
+
+public interface ConnectionWithUsername {
+
+    Long getUserId();
+
+    String getUsername();
+
+    Long getRequestingUserId();
+
+    Timestamp getCreated();
+}
@@ -0,0 +1,39 @@
+package com.savvato.tribeapp.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "phrase_user_count")
+public class PhraseUserCount {
+
+    @Id
+    private Long phraseId;
+
+    private Long userCount;
+
+    public PhraseUserCount() {
+    }
+
+    public PhraseUserCount(Long phraseId, Long userCount) {
+        this.phraseId = phraseId;
+        this.userCount = userCount;
+    }
+
+    public Long getPhraseId() {
+        return phraseId;
+    }
+
+    public void setPhraseId(Long phraseId) {
+        this.phraseId = phraseId;
+    }
+
+    public Long getUserCount() {
+        return userCount;
+    }
+
+    public void setUserCount(Long userCount) {
+        this.userCount = userCount;
+    }
+}
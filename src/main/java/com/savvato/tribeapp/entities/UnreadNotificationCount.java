@@ -0,0 +1,39 @@
+package com.savvato.tribeapp.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "unread_notification_count")
+public class UnreadNotificationCount {
+
+    @Id
+    private Long userId;
+
+    private Long unreadCount;
+
+    public UnreadNotificationCount() {
+    }
+
+    public UnreadNotificationCount(Long userId, Long unreadCount) {
+        this.userId = userId;
+        this.unreadCount = unreadCount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(Long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
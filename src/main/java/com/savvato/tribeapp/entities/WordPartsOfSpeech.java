@@ -0,0 +1,60 @@
+package com.savvato.tribeapp.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * The parts of speech the Words API gave for a word, comma separated, as of fetchedAt. An empty list
+ * means the Words API didn't know the word.
+ */
+@Entity
+@Table(name = "word_parts_of_speech")
+public class WordPartsOfSpeech {
+
+    @Id
+    @Column(name = "word", nullable = false)
+    private String word;
+
+    @Column(name = "parts_of_speech", nullable = false)
+    private String partsOfSpeech;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    public WordPartsOfSpeech() {
+    }
+
+    public WordPartsOfSpeech(String word, String partsOfSpeech, LocalDateTime fetchedAt) {
+        this.word = word;
+        this.partsOfSpeech = partsOfSpeech;
+        this.fetchedAt = fetchedAt;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public void setWord(String word) {
+        this.word = word;
+    }
+
+    public String getPartsOfSpeech() {
+        return partsOfSpeech;
+    }
+
+    public void setPartsOfSpeech(String partsOfSpeech) {
+        this.partsOfSpeech = partsOfSpeech;
+    }
+
+    public LocalDateTime getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(LocalDateTime fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+}
@@ -1,10 +1,12 @@
 package com.savvato.tribeapp.repositories;
 
+import com.savvato.tribeapp.dto.projections.ConnectionWithUsername;
 import com.savvato.tribeapp.entities.Connection;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +19,26 @@ public interface ConnectionsRepository extends CrudRepository<Connection, Long>
     @Query(nativeQuery = true, value = "select * from connections where to_be_connected_with_user_id=?1 and requesting_user_id=?2")
     Optional<Connection> findExistingConnectionWithReversedUserIds(Long requestingUserId, Long toBeConnectedWithUserId);
 
+    // the connections of user ?1 that come after (?2, ?3) in (created, other user id) order, with the other user's name
+    @Query(nativeQuery = true, value = """
+            select page.* from (
+                (select c.to_be_connected_with_user_id as userId, u.name as username, c.requesting_user_id as requestingUserId, c.created as created
+                from connections c join user u on u.id = c.to_be_connected_with_user_id
+                where c.requesting_user_id = ?1
+                and (c.created > ?2 or (c.created = ?2 and c.to_be_connected_with_user_id > ?3))
+                order by c.created, c.to_be_connected_with_user_id
+                limit ?4)
+                union all
+                (select c.requesting_user_id as userId, u.name as username, c.requesting_user_id as requestingUserId, c.created as created
+                from connections c join user u on u.id = c.requesting_user_id
+                where c.to_be_connected_with_user_id = ?1
+                and (c.created > ?2 or (c.created = ?2 and c.requesting_user_id > ?3))
+                order by c.created, c.requesting_user_id
+                limit ?4)
+            ) page
+            order by page.created, page.userId
+            limit ?4
+            """)
+    List<ConnectionWithUsername> findConnectionsWithUsernamesAfter(Long userId, Timestamp afterCreated, Long afterUserId, int limit);
+
 }
@@ -1,7 +1,10 @@
 package com.savvato.tribeapp.repositories;
 
 import com.savvato.tribeapp.entities.Notification;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -10,5 +13,27 @@ import java.util.List;
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
+    @EntityGraph(attributePaths = "type")
     List<Notification> findByUserId(Long userId);
+
+    // newest first, the ones older than the given id; their types come in the same query
+    @Query("select n from Notification n join fetch n.type where n.userId = ?1 and n.id < ?2 order by n.id desc")
+    List<Notification> findByUserIdBefore(Long userId, Long before, Limit limit);
+
+    // newest first, the ones newer than the given id
+    @Query("select n from Notification n join fetch n.type where n.userId = ?1 and n.id > ?2 order by n.id desc")
+    List<Notification> findByUserIdAfter(Long userId, Long after, Limit limit);
+
+    // each of these changes the notification only in the state it names, and says whether it did
+    @Modifying
+    @Query(nativeQuery = true, value = "update notifications set is_read = 1 where id = ?1 and is_read = 0")
+    int markRead(Long id);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from notifications where id = ?1 and is_read = 0")
+    int deleteUnread(Long id);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from notifications where id = ?1 and is_read = 1")
+    int deleteRead(Long id);
 }
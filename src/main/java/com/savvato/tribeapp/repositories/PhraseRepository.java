@@ -7,17 +7,26 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PhraseRepository extends CrudRepository<Phrase, Long> {
 
     @Query("""
-            SELECT new com.savvato.tribeapp.dto.projections.PhraseWithUserCountDTO(p.id, p.adverbId, p.verbId, p.prepositionId, p.nounId, COUNT(u.id) AS userCount) FROM Phrase p LEFT JOIN p.users u GROUP BY p HAVING p.id = :id
+            SELECT new com.savvato.tribeapp.dto.projections.PhraseWithUserCountDTO(p.id, p.adverbId, p.verbId, p.prepositionId, p.nounId, COALESCE(c.userCount, 0L)) FROM Phrase p LEFT JOIN PhraseUserCount c ON c.phraseId = p.id WHERE p.id = :id
             """)
     Optional<PhraseWithUserCountDTO> findPhraseByPhraseId(Long id);
 
+    @Query("""
+            SELECT new com.savvato.tribeapp.dto.projections.PhraseWithUserCountDTO(p.id, p.adverbId, p.verbId, p.prepositionId, p.nounId, COALESCE(c.userCount, 0L)) FROM UserPhrase up JOIN Phrase p ON p.id = up.phraseId LEFT JOIN PhraseUserCount c ON c.phraseId = p.id WHERE up.userId = :userId
+            """)
+    List<PhraseWithUserCountDTO> findPhrasesWithUserCountByUserId(Long userId);
+
     Optional<Phrase> findByAdverbIdAndVerbIdAndPrepositionIdAndNounId(Long AdverbId, Long VerbId, Long PrepositionId, Long NounId);
 
+    List<Phrase> findAllByVerbIdInAndNounIdIn(Collection<Long> verbIds, Collection<Long> nounIds);
+
 }
 
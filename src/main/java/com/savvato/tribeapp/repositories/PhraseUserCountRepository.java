@@ -0,0 +1,45 @@
+package com.savvato.tribeapp.repositories;
+
+import com.savvato.tribeapp.entities.PhraseUserCount;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface PhraseUserCountRepository extends CrudRepository<PhraseUserCount, Long> {
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into phrase_user_count (phrase_id, user_count) values (?1, 1) on duplicate key update user_count = user_count + 1")
+    int incrementUserCount(Long phraseId);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "update phrase_user_count set user_count = user_count - 1 where phrase_id = ?1 and user_count > 0")
+    int decrementUserCount(Long phraseId);
+
+    @Query(nativeQuery = true, value = """
+            select count(*) from phrase p
+            left join phrase_user_count puc on puc.phrase_id = p.id
+            left join (select phrase_id, count(*) as user_count from user_phrase group by phrase_id) up on up.phrase_id = p.id
+            where coalesce(puc.user_count, -1) <> coalesce(up.user_count, 0)
+            """)
+    long countDriftedPhrases();
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into phrase_user_count (phrase_id, user_count)
+            select p.id, count(up.user_id) from phrase p left join user_phrase up on up.phrase_id = p.id group by p.id
+            on duplicate key update user_count = values(user_count)
+            """)
+    int recomputeAllUserCounts();
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into phrase_user_count (phrase_id, user_count)
+            select p.id, count(up.user_id) from phrase p left join user_phrase up on up.phrase_id = p.id where p.id in ?1 group by p.id
+            on duplicate key update user_count = values(user_count)
+            """)
+    int recomputeUserCounts(Collection<Long> phraseIds);
+}
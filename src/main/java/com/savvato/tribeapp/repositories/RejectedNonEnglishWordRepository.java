@@ -1,5 +1,6 @@
 package com.savvato.tribeapp.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
 import com.savvato.tribeapp.entities.RejectedNonEnglishWord;
@@ -14,4 +15,7 @@ public interface RejectedNonEnglishWordRepository extends CrudRepository<Rejecte
     @Query(nativeQuery = true, value = "select rnew.* from rejected_non_english_word rnew where rnew.word=?1")
     Optional<RejectedNonEnglishWord> findByWord(String word);
 
+    @Query(nativeQuery = true, value = "select rnew.* from rejected_non_english_word rnew where rnew.id > ?1")
+    List<RejectedNonEnglishWord> findByIdGreaterThan(long id);
+
 }
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +14,6 @@ public interface RejectedPhraseRepository extends CrudRepository<RejectedPhrase,
 
     Optional<RejectedPhrase> findByRejectedPhrase(String rejectedPhrase);
 
+    List<RejectedPhrase> findByIdGreaterThan(long id);
+
 }
@@ -1,12 +1,16 @@
 package com.savvato.tribeapp.repositories;
 
 import com.savvato.tribeapp.entities.ReviewDecision;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface ReviewDecisionRepository extends CrudRepository<ReviewDecision, Long> {
 
+    @Query(nativeQuery = true, value = "select distinct rd.to_be_reviewed_id from review_decision rd where rd.to_be_reviewed_id in ?1")
+    List<Long> findDecidedReviewIds(Collection<Long> reviewIds);
 }
@@ -1,11 +1,14 @@
 package com.savvato.tribeapp.repositories;
 
 import com.savvato.tribeapp.entities.ReviewSubmittingUser;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.IdClass;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -16,4 +19,13 @@ public interface ReviewSubmittingUserRepository extends CrudRepository<ReviewSub
 
     @Query(nativeQuery = true, value="select rsu.to_be_reviewed_id from review_submitting_user rsu where rsu.user_id=?1")
     List<Long> findToBeReviewedIdByUserId(Long userId);
+
+    @Query(nativeQuery = true, value="select rsu.* from review_submitting_user rsu where rsu.to_be_reviewed_id in ?1")
+    List<ReviewSubmittingUser> findAllByToBeReviewedIds(Collection<Long> toBeReviewedIds);
+
+    // transactional itself, for grooming, which deletes outside of any transaction
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value="delete from review_submitting_user where to_be_reviewed_id in ?1")
+    int deleteAllByToBeReviewedIds(Collection<Long> toBeReviewedIds);
 }
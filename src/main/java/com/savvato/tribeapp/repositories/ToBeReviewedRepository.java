@@ -1,22 +1,48 @@
 package com.savvato.tribeapp.repositories;
 
 import com.savvato.tribeapp.entities.ToBeReviewed;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ToBeReviewedRepository extends CrudRepository<ToBeReviewed, Long> {
-    @Query(nativeQuery = true, value = "select tbr.* from to_be_reviewed tbr where tbr.id>?1 and tbr.has_been_groomed=1 order by id limit 1")
-    Optional<ToBeReviewed> findNextReviewEligible(Long id);
-    @Query(nativeQuery = true, value = "select tbr.* from to_be_reviewed tbr where tbr.has_been_groomed=0")
-    List<ToBeReviewed> getAllUngroomed();
+    // the first groomed phrase nobody has decided on or holds an unexpired lease on. Locks it, skipping
+    // phrases another transaction has locked, so concurrent callers each get a different one
+    @Query(nativeQuery = true, value = """
+            select tbr.* from to_be_reviewed tbr
+            where tbr.has_been_groomed=1
+            and (tbr.lease_expires_at is null or tbr.lease_expires_at <= now())
+            and not exists (select 1 from review_decision rd where rd.to_be_reviewed_id = tbr.id)
+            order by tbr.id limit 1
+            for update skip locked
+            """)
+    Optional<ToBeReviewed> findNextReviewEligibleForUpdate();
+
+    @Modifying
+    @Query(nativeQuery = true, value = "update to_be_reviewed set leased_to = ?2, lease_expires_at = date_add(now(), interval ?3 second) where id = ?1")
+    int lease(Long id, Long reviewerId, long leaseSeconds);
+
+    // of the given phrases, the ones leased to the reviewer whose lease hasn't run out
+    @Query(nativeQuery = true, value = "select tbr.id from to_be_reviewed tbr where tbr.id in ?1 and tbr.leased_to = ?2 and tbr.lease_expires_at > now()")
+    List<Long> findIdsLeasedTo(Collection<Long> ids, Long reviewerId);
+
+    @Query(nativeQuery = true, value = "select tbr.* from to_be_reviewed tbr where tbr.has_been_groomed=0 and tbr.id>?1 order by tbr.id limit ?2")
+    List<ToBeReviewed> findUngroomedAfter(Long id, int limit);
 
     void deleteById(Long id);
 
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "delete from to_be_reviewed where id in ?1")
+    int deleteAllByIds(Collection<Long> ids);
+
     Optional<ToBeReviewed> findByAdverbAndVerbAndNounAndPreposition(String adverb, String verb, String noun, String preposition);
 
 }
\ No newline at end of file
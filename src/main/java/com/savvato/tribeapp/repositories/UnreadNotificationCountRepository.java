@@ -0,0 +1,36 @@
+package com.savvato.tribeapp.repositories;
+
+import com.savvato.tribeapp.entities.UnreadNotificationCount;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UnreadNotificationCountRepository extends CrudRepository<UnreadNotificationCount, Long> {
+
+    @Modifying
+    @Query(nativeQuery = true, value = "insert into unread_notification_count (user_id, unread_count) values (?1, 1) on duplicate key update unread_count = unread_count + 1")
+    int incrementUnreadCount(Long userId);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "update unread_notification_count set unread_count = unread_count - 1 where user_id = ?1 and unread_count > 0")
+    int decrementUnreadCount(Long userId);
+
+    @Query(nativeQuery = true, value = """
+            select count(*) from (select user_id from notifications union select user_id from unread_notification_count) u
+            left join unread_notification_count unc on unc.user_id = u.user_id
+            left join (select user_id, count(*) as unread_count from notifications where is_read = 0 group by user_id) n on n.user_id = u.user_id
+            where coalesce(unc.unread_count, -1) <> coalesce(n.unread_count, 0)
+            """)
+    long countDriftedUsers();
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into unread_notification_count (user_id, unread_count)
+            select u.user_id, count(n.id) from (select user_id from notifications union select user_id from unread_notification_count) u
+            left join notifications n on n.user_id = u.user_id and n.is_read = 0 group by u.user_id
+            on duplicate key update unread_count = values(unread_count)
+            """)
+    int recomputeAllUnreadCounts();
+}
@@ -2,6 +2,7 @@ package com.savvato.tribeapp.repositories;
 
 import com.savvato.tribeapp.entities.UserPhrase;
 import com.savvato.tribeapp.entities.UserPhraseId;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
@@ -13,4 +14,8 @@ import java.util.Optional;
 public interface UserPhraseRepository extends CrudRepository<UserPhrase, UserPhraseId> {
     @Query(nativeQuery = true, value = "select phrase_id from user_phrase where user_id = ?")
     Optional<List<Long>> findPhraseIdsByUserId(Long Id);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from user_phrase where user_id = ?1 and phrase_id = ?2")
+    int deleteByUserIdAndPhraseId(Long userId, Long phraseId);
 }
@@ -0,0 +1,10 @@
+package com.savvato.tribeapp.repositories;
+
+import com.savvato.tribeapp.entities.WordPartsOfSpeech;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WordPartsOfSpeechRepository extends CrudRepository<WordPartsOfSpeech, String> {
+
+}
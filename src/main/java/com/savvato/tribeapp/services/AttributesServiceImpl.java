@@ -5,6 +5,7 @@ import com.savvato.tribeapp.dto.PhraseDTO;
 import com.savvato.tribeapp.repositories.UserPhraseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,6 +22,7 @@ public class AttributesServiceImpl implements AttributesService {
     UserPhraseRepository userPhraseRepository;
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<List<AttributeDTO>> getAttributesByUserId(Long userId) {
 
 
@@ -1,5 +1,10 @@
 package com.savvato.tribeapp.services;
 
+import com.savvato.tribeapp.dto.CacheStatisticsDTO;
+
+import java.util.Optional;
+import java.util.Set;
+
 public interface CacheService {
 
 	public void put(String cacheName, String key, String value);
@@ -7,4 +12,7 @@ public interface CacheService {
 	public boolean contains(String cacheName, String key);
 	public void remove(String cacheName, String key);	
 
+	public Set<String> getCacheNames();
+	public Optional<CacheStatisticsDTO> getStatistics(String cacheName);
+
 }
@@ -1,62 +1,141 @@
 package com.savvato.tribeapp.services;
 
+import com.savvato.tribeapp.config.CacheProperties;
+import com.savvato.tribeapp.config.CacheProperties.CacheSpec;
+import com.savvato.tribeapp.dto.CacheStatisticsDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.ehcache.Cache;
 import org.ehcache.CacheManager;
 import org.ehcache.config.builders.CacheConfigurationBuilder;
 import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
 import org.ehcache.config.builders.ResourcePoolsBuilder;
-import org.ehcache.expiry.Duration;
-import org.ehcache.expiry.Expirations;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.internal.statistics.DefaultStatisticsService;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.concurrent.TimeUnit;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Key/value string caches, all living on one Ehcache CacheManager. The caches declared in
+ * {@link CacheProperties} are created when the service starts; a cache that is used without being
+ * declared is created on first use with the default settings.
+ */
 @Service
 @Slf4j
 public class CacheServiceImpl implements CacheService {
 
-	HashMap<String, Cache<String, String>> mapCacheNameToCacheOfStringKtoStringV = new HashMap<>();
-	
+	@Autowired
+	CacheProperties cacheProperties;
+
+	private final DefaultStatisticsService statisticsService = new DefaultStatisticsService();
+
+	private final ConcurrentHashMap<String, Cache<String, String>> cachesByName = new ConcurrentHashMap<>();
+
+	private CacheManager cacheManager;
+
 	public CacheServiceImpl() {
 		log.debug("Just created instance of CacheServiceImpl");
 	}
-	
+
+	@PostConstruct
+	public void init() {
+		CacheManagerBuilder<CacheManager> builder = CacheManagerBuilder.newCacheManagerBuilder().using(statisticsService);
+
+		Map<String, CacheSpec> declared = cacheProperties.getCaches();
+		if (declared.values().stream().anyMatch(spec -> spec.getDiskMb() > 0)) {
+			cacheManager = builder.with(CacheManagerBuilder.persistence(new File(cacheProperties.getDiskDirectory()))).build(true);
+		} else {
+			cacheManager = builder.build(true);
+		}
+
+		declared.forEach((cacheName, spec) -> cachesByName.computeIfAbsent(cacheName, name -> createCache(name, spec)));
+
+		long offHeapMb = declared.values().stream().mapToLong(CacheSpec::getOffHeapMb).sum();
+		log.info("CacheService started with caches " + cachesByName.keySet() + " using " + offHeapMb + "MB off-heap.");
+	}
+
+	@PreDestroy
+	public void close() {
+		if (cacheManager != null) {
+			cacheManager.close();
+		}
+	}
+
 	public void put(String cacheName, String key, String value) {
 		getCache(cacheName).put(key, value);
 	}
-	
+
 	public String get(String cacheName, String key) {
 		return getCache(cacheName).get(key);
 	}
-	
+
 	public boolean contains(String cacheName, String key) {
 		return getCache(cacheName).containsKey(key);
 	}
-	
+
 	public void remove(String cacheName, String key) {
 		getCache(cacheName).remove(key);
 	}
-	
+
+	public Set<String> getCacheNames() {
+		return Collections.unmodifiableSet(new TreeSet<>(cachesByName.keySet()));
+	}
+
+	public Optional<CacheStatisticsDTO> getStatistics(String cacheName) {
+		if (!cachesByName.containsKey(cacheName)) {
+			return Optional.empty();
+		}
+
+		CacheStatistics statistics = statisticsService.getCacheStatistics(cacheName);
+		return Optional.of(CacheStatisticsDTO.builder()
+				.cacheName(cacheName)
+				.hits(statistics.getCacheHits())
+				.misses(statistics.getCacheMisses())
+				.evictions(statistics.getCacheEvictions())
+				.expirations(statistics.getCacheExpirations())
+				.hitPercentage(statistics.getCacheHitPercentage())
+				.build());
+	}
+
 	private Cache<String, String> getCache(String cacheName) {
-		if (mapCacheNameToCacheOfStringKtoStringV.containsKey(cacheName)) {
-			return mapCacheNameToCacheOfStringKtoStringV.get(cacheName);
+		Cache<String, String> cache = cachesByName.get(cacheName);
+		if (cache != null) {
+			return cache;
+		}
+
+		return cachesByName.computeIfAbsent(cacheName, name -> {
+			log.warn("Cache " + name + " is not declared in app.cache.caches. Creating it with default settings.");
+			return createCache(name, new CacheSpec());
+		});
+	}
+
+	private Cache<String, String> createCache(String cacheName, CacheSpec spec) {
+		ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder().heap(spec.getHeapEntries(), EntryUnit.ENTRIES);
+		if (spec.getOffHeapMb() > 0) {
+			resourcePools = resourcePools.offheap(spec.getOffHeapMb(), MemoryUnit.MB);
+		}
+		if (spec.getDiskMb() > 0) {
+			resourcePools = resourcePools.disk(spec.getDiskMb(), MemoryUnit.MB);
 		}
-		
-		log.debug("Cache " + cacheName + " was not found in the CacheService. Creating a new instance.");
-		
-		CacheManager cm = CacheManagerBuilder.newCacheManagerBuilder()
-				.withCache(cacheName,  CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, String.class, ResourcePoolsBuilder.heap(10))
-										.withExpiry(Expirations.timeToIdleExpiration(new Duration(5L, TimeUnit.MINUTES))))
-				.build();
-		
-		cm.init();
-		
-		Cache<String, String> cache = cm.getCache(cacheName, String.class, String.class);
-		
-		mapCacheNameToCacheOfStringKtoStringV.put(cacheName, cache);
-		
-		return cache;
+
+		CacheConfigurationBuilder<String, String> configuration = CacheConfigurationBuilder.newCacheConfigurationBuilder(String.class, String.class, resourcePools);
+		if (spec.getTimeToLive() != null) {
+			configuration = configuration.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(spec.getTimeToLive()));
+		} else if (spec.getTimeToIdle() != null) {
+			configuration = configuration.withExpiry(ExpiryPolicyBuilder.timeToIdleExpiration(spec.getTimeToIdle()));
+		}
+
+		log.debug("Creating cache " + cacheName + ": " + spec.getHeapEntries() + " heap entries, " + spec.getOffHeapMb()
+				+ "MB off-heap, " + spec.getDiskMb() + "MB disk.");
+
+		return cacheManager.createCache(cacheName, configuration);
 	}
 }
@@ -3,15 +3,27 @@ package com.savvato.tribeapp.services;
 import com.savvato.tribeapp.controllers.dto.ConnectRequest;
 import com.savvato.tribeapp.controllers.dto.ConnectionRemovalRequest;
 import com.savvato.tribeapp.dto.ConnectOutgoingMessageDTO;
+import com.savvato.tribeapp.dto.ConnectionPageDTO;
+import com.savvato.tribeapp.dto.ConnectionPathDTO;
 import com.savvato.tribeapp.dto.GenericResponseDTO;
+import com.savvato.tribeapp.dto.UsernameDTO;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ConnectService {
 
     List<ConnectOutgoingMessageDTO> getAllConnectionsForAUser(Long userId);
 
+    ConnectionPageDTO getConnectionsPageForAUser(Long userId, String cursor, int size);
+
+    void streamAllConnectionsForAUser(Long userId, Consumer<ConnectOutgoingMessageDTO> consumer);
+
+    List<UsernameDTO> getMutualConnections(Long userId, Long otherUserId);
+
+    Optional<ConnectionPathDTO> getConnectionPath(Long userId, Long otherUserId);
+
     Optional<String> getQRCodeString(long userId);
 
     Optional<String> storeQRCodeString(long userId);
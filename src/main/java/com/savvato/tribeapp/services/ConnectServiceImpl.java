@@ -4,18 +4,26 @@ import com.savvato.tribeapp.constants.Constants;
 import com.savvato.tribeapp.controllers.dto.ConnectRequest;
 import com.savvato.tribeapp.controllers.dto.ConnectionRemovalRequest;
 import com.savvato.tribeapp.dto.ConnectOutgoingMessageDTO;
+import com.savvato.tribeapp.dto.ConnectionPageDTO;
+import com.savvato.tribeapp.dto.ConnectionPathDTO;
 import com.savvato.tribeapp.dto.GenericResponseDTO;
 import com.savvato.tribeapp.dto.UsernameConnectionStatusDTO;
 import com.savvato.tribeapp.dto.UsernameDTO;
+import com.savvato.tribeapp.dto.projections.ConnectionWithUsername;
 import com.savvato.tribeapp.entities.Connection;
 import com.savvato.tribeapp.repositories.ConnectionsRepository;
 import com.savvato.tribeapp.repositories.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -33,8 +41,17 @@ public class ConnectServiceImpl implements ConnectService {
     @Autowired
     UserService userService;
 
+    @Autowired
+    ConnectionGraphService connectionGraphService;
+
+    @Value("${app.connect.path.max-depth:6}")
+    int maxConnectionPathDepth;
+
     private final int QRCODE_STRING_LENGTH = 12;
 
+    private static final int MAX_CONNECTIONS_PAGE_SIZE = 500;
+    private static final int CONNECTIONS_STREAM_BATCH_SIZE = 1000;
+
     public Optional<String> getQRCodeString(long userId) {
         String userIdToCacheKey = String.valueOf(userId);
         String getCode = cache.get("ConnectQRCodeString", userIdToCacheKey);
@@ -64,6 +81,7 @@ public class ConnectServiceImpl implements ConnectService {
 
         try {
             connectionsRepository.save(new Connection(requestingUserId, toBeConnectedWithUserId));
+            connectionGraphService.addConnection(requestingUserId, toBeConnectedWithUserId);
             return true;
         } catch (Exception e) {
             return false;
@@ -108,39 +126,167 @@ public class ConnectServiceImpl implements ConnectService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ConnectOutgoingMessageDTO> getAllConnectionsForAUser(Long userId) {
         List<ConnectOutgoingMessageDTO> outgoingMessages = new ArrayList<>();
 
-        List<Connection> connectionsWhenUserIsToBeConnectedWith = connectionsRepository.findAllByToBeConnectedWithUserId(userId);
-        for (Connection connection : connectionsWhenUserIsToBeConnectedWith) {
-            ConnectOutgoingMessageDTO outgoingMessage = ConnectOutgoingMessageDTO.builder()
-                    .connectionSuccess(true)
-                    .to(UsernameConnectionStatusDTO.builder()
-                            .userId(connection.getRequestingUserId())
-                            .username(userRepository.findById(connection.getRequestingUserId()).get().getName())
-                            .userConnectionStatus(Constants.REQUESTING_USER)
-                            .build())
-                    .message("")
-                    .build();
-            outgoingMessages.add(outgoingMessage);
-        }
-
-        List<Connection> connectionsWhenUserIsRequestingConnection = connectionsRepository.findAllByRequestingUserId(userId);
-        for (Connection connection : connectionsWhenUserIsRequestingConnection) {
-            ConnectOutgoingMessageDTO outgoingMessageDTO = ConnectOutgoingMessageDTO.builder()
-                    .connectionSuccess(true)
-                    .to(UsernameConnectionStatusDTO.builder()
-                            .userId(connection.getToBeConnectedWithUserId())
-                            .username(userRepository.findById(connection.getToBeConnectedWithUserId()).get().getName())
-                            .userConnectionStatus(Constants.TO_BE_CONNECTED_WITH_USER)
-                            .build())
-                    .message("")
-                    .build();
-            outgoingMessages.add(outgoingMessageDTO);
+        long[] requestingUserIds = connectionGraphService.getRequestingUserIds(userId);
+        long[] requestedUserIds = connectionGraphService.getRequestedUserIds(userId);
+
+        if (requestingUserIds.length == 0 && requestedUserIds.length == 0) {
+            return outgoingMessages;
+        }
+
+        Map<Long, String> usernames = findUsernames(requestingUserIds, requestedUserIds);
+
+        for (long requestingUserId : requestingUserIds) {
+            outgoingMessages.add(buildConnectionMessage(requestingUserId, usernames.get(requestingUserId), Constants.REQUESTING_USER));
+        }
+
+        for (long requestedUserId : requestedUserIds) {
+            outgoingMessages.add(buildConnectionMessage(requestedUserId, usernames.get(requestedUserId), Constants.TO_BE_CONNECTED_WITH_USER));
         }
 
         return outgoingMessages;
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ConnectionPageDTO getConnectionsPageForAUser(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CONNECTIONS_PAGE_SIZE));
+        ConnectionCursor after = ConnectionCursor.decode(cursor);
+
+        // ask for one extra row to find out whether there is another page
+        List<ConnectionWithUsername> rows = connectionsRepository.findConnectionsWithUsernamesAfter(userId, after.created(), after.userId(), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<ConnectionWithUsername> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<ConnectOutgoingMessageDTO> connections = new ArrayList<>();
+        for (ConnectionWithUsername row : page) {
+            connections.add(buildConnectionMessage(userId, row));
+        }
+
+        return ConnectionPageDTO.builder()
+                .connections(connections)
+                .nextCursor(hasMore ? ConnectionCursor.of(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
+
+    @Override
+    public void streamAllConnectionsForAUser(Long userId, Consumer<ConnectOutgoingMessageDTO> consumer) {
+        ConnectionCursor after = ConnectionCursor.FIRST;
+        List<ConnectionWithUsername> rows;
+
+        do {
+            rows = connectionsRepository.findConnectionsWithUsernamesAfter(userId, after.created(), after.userId(), CONNECTIONS_STREAM_BATCH_SIZE);
+            for (ConnectionWithUsername row : rows) {
+                consumer.accept(buildConnectionMessage(userId, row));
+            }
+            if (!rows.isEmpty()) {
+                after = ConnectionCursor.of(rows.get(rows.size() - 1));
+            }
+        } while (rows.size() == CONNECTIONS_STREAM_BATCH_SIZE);
+    }
+
+    private ConnectOutgoingMessageDTO buildConnectionMessage(Long userId, ConnectionWithUsername row) {
+        String userConnectionStatus = userId.equals(row.getRequestingUserId()) ? Constants.TO_BE_CONNECTED_WITH_USER : Constants.REQUESTING_USER;
+        return buildConnectionMessage(row.getUserId(), row.getUsername(), userConnectionStatus);
+    }
+
+    /**
+     * Where a page of connections starts: after the connection created at {@code created} with the
+     * user {@code userId}. Sent to clients as an opaque base64 string.
+     */
+    record ConnectionCursor(Timestamp created, Long userId) {
+
+        static final ConnectionCursor FIRST = new ConnectionCursor(new Timestamp(0), 0L);
+
+        static ConnectionCursor of(ConnectionWithUsername row) {
+            return new ConnectionCursor(row.getCreated(), row.getUserId());
+        }
+
+        static ConnectionCursor decode(String cursor) {
+            if (StringUtils.isBlank(cursor)) {
+                return FIRST;
+            }
+
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                return new ConnectionCursor(new Timestamp(Long.parseLong(parts[0])), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid connections cursor: " + cursor);
+            }
+        }
+
+        String encode() {
+            String value = created.getTime() + ":" + userId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Override
+    public List<UsernameDTO> getMutualConnections(Long userId, Long otherUserId) {
+        return toUsernameDTOs(connectionGraphService.getMutualConnectionIds(userId, otherUserId));
+    }
+
+    @Override
+    public Optional<ConnectionPathDTO> getConnectionPath(Long userId, Long otherUserId) {
+        long[] path = connectionGraphService.findShortestPath(userId, otherUserId, maxConnectionPathDepth);
+
+        if (path.length == 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(ConnectionPathDTO.builder()
+                .degreesOfSeparation(path.length - 1)
+                .path(toUsernameDTOs(path))
+                .build());
+    }
+
+    private List<UsernameDTO> toUsernameDTOs(long[] userIds) {
+        List<UsernameDTO> rtn = new ArrayList<>();
+
+        if (userIds.length == 0) {
+            return rtn;
+        }
+
+        Map<Long, String> usernames = findUsernames(userIds);
+        for (long id : userIds) {
+            rtn.add(UsernameDTO.builder()
+                    .userId(id)
+                    .username(usernames.get(id))
+                    .build());
+        }
+
+        return rtn;
+    }
+
+    // resolves every username with one query rather than one per user
+    private Map<Long, String> findUsernames(long[]... userIdArrays) {
+        Set<Long> userIds = new HashSet<>();
+        for (long[] ids : userIdArrays) {
+            for (long id : ids) {
+                userIds.add(id);
+            }
+        }
+
+        Map<Long, String> usernames = new HashMap<>();
+        userRepository.findAllById(userIds).forEach(user -> usernames.put(user.getId(), user.getName()));
+        return usernames;
+    }
+
+    private ConnectOutgoingMessageDTO buildConnectionMessage(Long otherUserId, String username, String userConnectionStatus) {
+        return ConnectOutgoingMessageDTO.builder()
+                .connectionSuccess(true)
+                .to(UsernameConnectionStatusDTO.builder()
+                        .userId(otherUserId)
+                        .username(username)
+                        .userConnectionStatus(userConnectionStatus)
+                        .build())
+                .message("")
+                .build();
+    }
+
     @Override
     public GenericResponseDTO removeConnection(Long requestingUserId, Long connectedWithUserId) {
 
@@ -155,6 +301,7 @@ public class ConnectServiceImpl implements ConnectService {
         try {
             Connection connection = new Connection(requestingUserId, connectedWithUserId);
             connectionsRepository.delete(connection);
+            connectionGraphService.removeConnection(requestingUserId, connectedWithUserId);
             genericResponseDTO.booleanMessage = true;
         } catch (Exception e) {
             genericResponseDTO.booleanMessage = false;
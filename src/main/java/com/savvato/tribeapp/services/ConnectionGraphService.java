@@ -0,0 +1,26 @@
+package com.savvato.tribeapp.services;
+
+public interface ConnectionGraphService {
+
+    void loadGraph();
+
+    void addConnection(Long requestingUserId, Long toBeConnectedWithUserId);
+
+    void removeConnection(Long requestingUserId, Long toBeConnectedWithUserId);
+
+    long[] getRequestedUserIds(Long userId);
+
+    long[] getRequestingUserIds(Long userId);
+
+    long[] getConnectedUserIds(Long userId);
+
+    long[] getMutualConnectionIds(Long userId, Long otherUserId);
+
+    int getDegree(Long userId);
+
+    boolean isConnected(Long userId, Long otherUserId);
+
+    long[] findShortestPath(Long fromUserId, Long toUserId, int maxDepth);
+
+    long getEdgeCount();
+}
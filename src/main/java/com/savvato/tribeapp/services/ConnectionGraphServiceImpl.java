@@ -0,0 +1,143 @@
+package com.savvato.tribeapp.services;
+
+import com.savvato.tribeapp.entities.Connection;
+import com.savvato.tribeapp.repositories.ConnectionsRepository;
+import com.savvato.tribeapp.utils.ConnectionGraph;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Answers questions about who is connected with whom from an in-memory {@link ConnectionGraph}
+ * instead of the connections table. The graph is loaded from the table when the application
+ * starts, or on first use if that happens earlier, and is kept current by ConnectService telling it
+ * about every connection it saves or removes.
+ *
+ * Each app node holds its own graph and only hears about the connections saved or removed through
+ * it, so the graph is also reloaded from the table every app.connect.graph-reload-interval.
+ * Changes made through another node show up here within that interval.
+ */
+@Service
+@Slf4j
+public class ConnectionGraphServiceImpl implements ConnectionGraphService {
+
+    @Autowired
+    ConnectionsRepository connectionsRepository;
+
+    private volatile ConnectionGraph graph;
+
+    // held while loading and while writing, so a write can't land in a graph that is about to be replaced.
+    // A lock rather than synchronized, so a virtual thread waiting on the load doesn't pin its carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.connect.graph-reload-interval:PT1M}",
+            initialDelayString = "${app.connect.graph-reload-interval:PT1M}")
+    @Override
+    public void loadGraph() {
+        writeLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            ConnectionGraph loaded = new ConnectionGraph();
+
+            Iterable<Connection> connections = connectionsRepository.findAll();
+            if (connections != null) {
+                for (Connection connection : connections) {
+                    loaded.addConnection(connection.getRequestingUserId(), connection.getToBeConnectedWithUserId());
+                }
+            }
+
+            graph = loaded;
+            log.info("Connection graph loaded: " + loaded.getEdgeCount() + " connections between "
+                    + loaded.getUserCount() + " users in " + (System.currentTimeMillis() - start) + "ms.");
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void addConnection(Long requestingUserId, Long toBeConnectedWithUserId) {
+        writeLock.lock();
+        try {
+            // if the graph isn't loaded yet, the load will pick this connection up from the table
+            if (graph != null) {
+                graph.addConnection(requestingUserId, toBeConnectedWithUserId);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeConnection(Long requestingUserId, Long toBeConnectedWithUserId) {
+        writeLock.lock();
+        try {
+            if (graph != null) {
+                graph.removeConnection(requestingUserId, toBeConnectedWithUserId);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long[] getRequestedUserIds(Long userId) {
+        return getGraph().getRequestedUserIds(userId);
+    }
+
+    @Override
+    public long[] getRequestingUserIds(Long userId) {
+        return getGraph().getRequestingUserIds(userId);
+    }
+
+    @Override
+    public long[] getConnectedUserIds(Long userId) {
+        return getGraph().getConnectedUserIds(userId);
+    }
+
+    @Override
+    public long[] getMutualConnectionIds(Long userId, Long otherUserId) {
+        return getGraph().getMutualConnectionIds(userId, otherUserId);
+    }
+
+    @Override
+    public int getDegree(Long userId) {
+        return getGraph().getDegree(userId);
+    }
+
+    @Override
+    public boolean isConnected(Long userId, Long otherUserId) {
+        return getGraph().isConnected(userId, otherUserId);
+    }
+
+    @Override
+    public long[] findShortestPath(Long fromUserId, Long toUserId, int maxDepth) {
+        return getGraph().findShortestPath(fromUserId, toUserId, maxDepth);
+    }
+
+    @Override
+    public long getEdgeCount() {
+        return getGraph().getEdgeCount();
+    }
+
+    private ConnectionGraph getGraph() {
+        ConnectionGraph current = graph;
+        if (current == null) {
+            writeLock.lock();
+            try {
+                if (graph == null) {
+                    loadGraph();
+                }
+                current = graph;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        return current;
+    }
+}
@@ -10,6 +10,7 @@ import com.savvato.tribeapp.repositories.CosignRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
 
@@ -101,6 +102,7 @@ public class CosignServiceImpl implements CosignService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CosignsForUserDTO> getAllCosignsForUser(Long userIdReceiving) {
 
         List<CosignsForUserDTO> cosignsForUserDTOs = new ArrayList<>();
@@ -0,0 +1,26 @@
+package com.savvato.tribeapp.services;
+
+import org.springframework.core.io.Resource;
+
+import java.util.Optional;
+
+public interface ImageCacheService {
+
+    Optional<Resource> getImage(String resourceType, String filename);
+
+    void invalidate(String resourceType, String filename);
+
+    long getHitCount();
+
+    long getMissCount();
+
+    long getEvictionCount();
+
+    double getHitRatio();
+
+    long getUsedBytes();
+
+    long getMaxBytes();
+
+    int getEntryCount();
+}
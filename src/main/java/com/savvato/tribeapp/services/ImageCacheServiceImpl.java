@@ -0,0 +1,310 @@
+package com.savvato.tribeapp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the most recently served pictures in direct (off-heap) buffers, up to
+ * app.pictures.cache.max-bytes in all, and drops the least recently used ones to stay under that.
+ *
+ * Every lookup checks the file's modification time and length, so a picture rewritten behind the
+ * cache's back (a thumbnail written by PictureService, say) is read again rather than served stale.
+ * StorageService also invalidates a picture and its variants when it stores or deletes one.
+ * Pictures bigger than app.pictures.cache.max-entry-bytes are streamed from the file, not cached.
+ *
+ * The budget is of the pictures the cache holds, not of the direct memory in use. An evicted or
+ * invalidated buffer is only freed when the garbage collector finds it unreachable (and not before
+ * the last request streaming from it finishes), so the process can briefly hold more than max-bytes
+ * off-heap. -XX:MaxDirectMemorySize is what bounds that, and the JVM collects to make room when it
+ * is reached, so leave it some headroom above max-bytes.
+ */
+@Service
+@Slf4j
+public class ImageCacheServiceImpl implements ImageCacheService {
+
+    @Autowired
+    ResourceTypeService resourceTypeService;
+
+    @Value("${app.pictures.cache.max-bytes:67108864}")
+    long maxBytes;
+
+    @Value("${app.pictures.cache.max-entry-bytes:2097152}")
+    long maxEntryBytes;
+
+    private record Key(String resourceType, String filename) { }
+
+    private record Entry(ByteBuffer bytes, long lastModified) { }
+
+    // least recently used first. A lock rather than synchronized, so virtual threads don't pin their carriers
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    // bytes of the cached pictures; buffers dropped from the cache aren't counted, though they're freed only at GC
+    private volatile long usedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Override
+    public Optional<Resource> getImage(String resourceType, String filename) {
+        Key key = new Key(resourceType, filename);
+        Path path = Path.of(resourceTypeService.findDirectoryOfResource(resourceType, filename), filename);
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            remove(key);
+            return Optional.empty();
+        } catch (IOException e) {
+            log.error("Could not read the attributes of " + path, e);
+            remove(key);
+            return Optional.empty();
+        }
+
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        long length = attributes.size();
+
+        Entry entry = lookup(key);
+        if (entry != null && entry.lastModified() == lastModified && entry.bytes().capacity() == length) {
+            hits.incrementAndGet();
+            return Optional.of(new CachedImageResource(path, entry));
+        }
+
+        misses.incrementAndGet();
+        if (length > maxEntryBytes || length > maxBytes) {
+            remove(key);
+            return Optional.of(new FileSystemResource(path));
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocateDirect((int) length);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // keep reading
+            }
+        } catch (IOException e) {
+            log.error("Could not read " + path + " into the image cache", e);
+            remove(key);
+            return Optional.of(new FileSystemResource(path));
+        }
+
+        if (bytes.hasRemaining()) {
+            // the file got shorter while it was read; it is being rewritten, so serve it from the file this time
+            remove(key);
+            return Optional.of(new FileSystemResource(path));
+        }
+
+        bytes.flip();
+        entry = new Entry(bytes.asReadOnlyBuffer(), lastModified);
+        store(key, entry);
+
+        return Optional.of(new CachedImageResource(path, entry));
+    }
+
+    /**
+     * Drops the given file, and every variant of it (its name followed by an underscore), from the cache.
+     */
+    @Override
+    public void invalidate(String resourceType, String filename) {
+        String variantPrefix = filename + "_";
+
+        lock.lock();
+        try {
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Key, Entry> cached = iterator.next();
+                Key key = cached.getKey();
+                if (key.resourceType().equals(resourceType)
+                        && (key.filename().equals(filename) || key.filename().startsWith(variantPrefix))) {
+                    usedBytes -= cached.getValue().bytes().capacity();
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public int getEntryCount() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry lookup(Key key) {
+        lock.lock();
+        try {
+            // get() moves the entry to the most recently used end
+            return entries.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void store(Key key, Entry entry) {
+        lock.lock();
+        try {
+            Entry replaced = entries.put(key, entry);
+            usedBytes += entry.bytes().capacity() - (replaced == null ? 0 : replaced.bytes().capacity());
+
+            Iterator<Map.Entry<Key, Entry>> leastRecentlyUsed = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+                Map.Entry<Key, Entry> eldest = leastRecentlyUsed.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                usedBytes -= eldest.getValue().bytes().capacity();
+                leastRecentlyUsed.remove();
+                evictions.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Key key) {
+        lock.lock();
+        try {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                usedBytes -= removed.bytes().capacity();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A cached picture, read from its buffer. Each stream gets its own view of the buffer, so any
+     * number of requests can read the same picture at once.
+     */
+    private static final class CachedImageResource extends AbstractResource {
+
+        private final Path path;
+        private final Entry entry;
+
+        private CachedImageResource(Path path, Entry entry) {
+            this.path = path;
+            this.entry = entry;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            ByteBuffer bytes = entry.bytes().duplicate();
+
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return bytes.hasRemaining() ? bytes.get() & 0xff : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (!bytes.hasRemaining()) {
+                        return -1;
+                    }
+                    int count = Math.min(len, bytes.remaining());
+                    bytes.get(b, off, count);
+                    return count;
+                }
+
+                @Override
+                public long skip(long n) {
+                    int count = (int) Math.max(0, Math.min(n, bytes.remaining()));
+                    bytes.position(bytes.position() + count);
+                    return count;
+                }
+
+                @Override
+                public int available() {
+                    return bytes.remaining();
+                }
+            };
+        }
+
+        @Override
+        public long contentLength() {
+            return entry.bytes().capacity();
+        }
+
+        @Override
+        public long lastModified() {
+            return entry.lastModified();
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public String getFilename() {
+            return path.getFileName().toString();
+        }
+
+        @Override
+        public String getDescription() {
+            return "cached image [" + path + "]";
+        }
+    }
+}
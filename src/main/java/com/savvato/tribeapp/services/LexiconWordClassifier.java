@@ -0,0 +1,73 @@
+package com.savvato.tribeapp.services;
+
+import com.savvato.tribeapp.utils.Lexicon;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Classifies words from the lexicon file at app.lexicon.location, memory-mapped, so a lookup costs a
+ * binary search and no network call. The lexicon is built from a word list with the lexicon profile
+ * in the pom. A lexicon packed into the jar can't be mapped where it is, so it's copied out to a
+ * temporary file first.
+ *
+ * Without a lexicon this knows no words, and every word is left to the Words API.
+ */
+@Service
+@Slf4j
+public class LexiconWordClassifier implements WordClassifier {
+
+    @Value("${app.lexicon.location:classpath:lexicon.bin}")
+    Resource location;
+
+    private Lexicon lexicon;
+
+    @PostConstruct
+    public void init() {
+        if (!location.exists()) {
+            log.info("There is no lexicon at " + location + ", so every word is left to the Words API.");
+            return;
+        }
+
+        try {
+            Path file;
+            if (location.isFile()) {
+                file = location.getFile().toPath();
+            } else {
+                file = Files.createTempFile("lexicon", ".bin");
+                file.toFile().deleteOnExit();
+                try (InputStream is = location.getInputStream()) {
+                    Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+
+            lexicon = Lexicon.open(file);
+            log.info("Loaded " + lexicon.size() + " words from the lexicon at " + location);
+        } catch (IOException e) {
+            log.error("Could not load the lexicon at " + location + ", so every word is left to the Words API.", e);
+        }
+    }
+
+    @Override
+    public Optional<Set<String>> getPartsOfSpeech(String word) {
+        if (lexicon == null) {
+            return Optional.empty();
+        }
+
+        int bits = lexicon.lookup(word);
+        if (bits == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(Lexicon.toPartsOfSpeech(bits));
+    }
+}
@@ -0,0 +1,14 @@
+package com.savvato.tribeapp.services;
+
+import com.savvato.tribeapp.dto.NotificationDTO;
+
+import java.util.List;
+
+public interface NotificationPushService {
+
+    boolean hasSession(Long userId);
+
+    void pushNotification(Long userId, NotificationDTO notification);
+
+    void pushNotificationsToSession(Long userId, String sessionId, List<NotificationDTO> notifications);
+}
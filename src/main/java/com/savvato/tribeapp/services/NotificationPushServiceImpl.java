@@ -0,0 +1,97 @@
+package com.savvato.tribeapp.services;
+
+import com.savvato.tribeapp.dto.NotificationDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Pushes notifications to their users over STOMP, so clients don't have to poll for them. A client
+ * subscribes to /connect/user/queue/notifications, and gets every notification created for its user
+ * while it's connected, on every session the user has open.
+ *
+ * To catch up on what it missed while disconnected, the client puts the id of the last notification
+ * it saw in a last-seen-id header of the SUBSCRIBE frame. Once the subscription is in place, the
+ * newer notifications are sent to that session alone, oldest first; see NotificationCatchUpInterceptor.
+ * A notification can arrive both ways, so clients should ignore ids they've already seen.
+ */
+@Service
+@Slf4j
+public class NotificationPushServiceImpl implements NotificationPushService {
+
+    // the destination users subscribe to, without the user destination prefix
+    public static final String NOTIFICATIONS_DESTINATION = "/queue/notifications";
+
+    @Autowired
+    SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    SimpUserRegistry simpUserRegistry;
+
+    /**
+     * Whether the user has a session open. Most users don't, so callers check this before making a
+     * notification to push.
+     */
+    @Override
+    public boolean hasSession(Long userId) {
+        return simpUserRegistry.getUser(String.valueOf(userId)) != null;
+    }
+
+    /**
+     * Sends the notification to every session of the user. Within a transaction it is sent once the
+     * transaction commits, so a client that reads its notifications on receiving it finds it there,
+     * and nothing is sent for one that's rolled back.
+     */
+    @Override
+    public void pushNotification(Long userId, NotificationDTO notification) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(userId, notification);
+                }
+            });
+        } else {
+            send(userId, notification);
+        }
+    }
+
+    @Override
+    public void pushNotificationsToSession(Long userId, String sessionId, List<NotificationDTO> notifications) {
+        for (NotificationDTO notification : notifications) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(sessionId);
+            headers.setLeaveMutable(true);
+
+            try {
+                messagingTemplate.convertAndSendToUser(String.valueOf(userId), NOTIFICATIONS_DESTINATION, notification, headers.getMessageHeaders());
+            } catch (MessagingException e) {
+                log.warn("Could not catch session " + sessionId + " of user " + userId + " up on notifications: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void send(Long userId, NotificationDTO notification) {
+        // the user may have disconnected by the time the transaction committed
+        if (!hasSession(userId)) {
+            return;
+        }
+
+        try {
+            messagingTemplate.convertAndSendToUser(String.valueOf(userId), NOTIFICATIONS_DESTINATION, notification);
+        } catch (MessagingException e) {
+            // the notification is saved; the client gets it when it next catches up
+            log.warn("Could not push notification " + notification.id + " to user " + userId + ": " + e.getMessage());
+        }
+    }
+}
@@ -7,7 +7,9 @@ import java.util.List;
 
 public interface NotificationService {
 
-    public List<NotificationDTO> getUserNotifications(Long userId);
+    public List<NotificationDTO> getUserNotifications(Long userId, Long before, Integer limit);
+
+    List<NotificationDTO> getUserNotificationsAfter(Long userId, Long after);
 
     public NotificationDTO createNotificationDTO(Notification notification, String formattedLastUpdatedDate , String iconUrl);
 
@@ -24,6 +26,10 @@ public interface NotificationService {
 
     List<Notification> getNotificationsByUserId(Long userid);
 
+    List<Notification> getNotificationsByUserId(Long userId, Long before, int limit);
+
+    long getUnreadNotificationCount(Long userId);
+
     String getIconUrlFromNotification(Notification notification);
 
     String getFormattedLastUpdatedDate(Notification notification);
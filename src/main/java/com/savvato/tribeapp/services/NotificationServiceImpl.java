@@ -2,9 +2,13 @@ package com.savvato.tribeapp.services;
 
 import com.savvato.tribeapp.entities.NotificationType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
@@ -29,9 +33,28 @@ public class NotificationServiceImpl implements NotificationService {
     @Autowired
     private NotificationTypeRepository notificationTypeRepository;
 
+    @Autowired
+    private UnreadNotificationCountService unreadNotificationCountService;
 
-    public List<NotificationDTO> getUserNotifications(Long userId){
-        List<Notification> notifications = getNotificationsByUserId(userId);
+    @Autowired
+    private NotificationPushService notificationPushService;
+
+    @Value("${app.notifications.page-size:20}")
+    private int pageSize;
+
+    @Value("${app.notifications.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * A page of the user's notifications, newest first. The next page is the one before the id of
+     * the last notification on this one; with no before, the newest page. A limit outside 1 to
+     * app.notifications.max-page-size is brought within it, and no limit means
+     * app.notifications.page-size.
+     */
+    @Transactional(readOnly = true)
+    public List<NotificationDTO> getUserNotifications(Long userId, Long before, Integer limit){
+        int size = limit == null ? pageSize : Math.max(1, Math.min(limit, maxPageSize));
+        List<Notification> notifications = getNotificationsByUserId(userId, before == null ? Long.MAX_VALUE : before, size);
         List<NotificationDTO> rtn = new ArrayList<>();
 
         Iterator<Notification> iterator  = notifications.iterator();
@@ -45,6 +68,25 @@ public class NotificationServiceImpl implements NotificationService {
         return rtn;
     };
 
+    /**
+     * The user's notifications newer than the given id, oldest first, for a client catching up on
+     * what it missed. At most app.notifications.max-page-size of the newest ones; if that many come
+     * back, the client pages back through the rest with getUserNotifications.
+     *
+     * Read from the primary rather than a replica, like the unread count, since a client catches up
+     * right after reconnecting, and a replica lagging behind would leave out what it just missed.
+     */
+    public List<NotificationDTO> getUserNotificationsAfter(Long userId, Long after) {
+        List<Notification> notifications = notificationRepository.findByUserIdAfter(userId, after, Limit.of(maxPageSize));
+        List<NotificationDTO> rtn = new ArrayList<>();
+
+        for (Notification notification : notifications) {
+            rtn.add(createNotificationDTO(notification, getFormattedLastUpdatedDate(notification), getIconUrlFromNotification(notification)));
+        }
+        Collections.reverse(rtn);
+        return rtn;
+    }
+
     public NotificationDTO createNotificationDTO(Notification notification, String formattedLastUpdatedDate , String iconUrl ) {
 
         return NotificationDTO.builder()
@@ -72,16 +114,22 @@ public class NotificationServiceImpl implements NotificationService {
         Optional<Notification> optionalNotification = notificationRepository.findById(id);
         return optionalNotification.map(Notification::isRead).orElse(false);
     }
+    /**
+     * Marks the notification read. The update only changes an unread notification, so when several
+     * requests mark the same one read at once, only the one that changed it counts it down.
+     */
+    @Transactional
     public boolean updateNotificationReadStatus(Long id) {
         Optional<Notification> optionalNotification = notificationRepository.findById(id);
         if (optionalNotification.isPresent()) {
-            Notification notification = optionalNotification.get();
-            notification.setRead(true);
-            notificationRepository.save(notification);
+            if (notificationRepository.markRead(id) == 1) {
+                unreadNotificationCountService.decrementUnreadCount(optionalNotification.get().getUserId());
+            }
             return true;
         }
         return false;
     }
+    @Transactional
     public Notification createNotification(NotificationType type, Long userId, String description, String body) {
         Optional<NotificationType> optionalType = notificationTypeRepository.findById(type.getId());
 
@@ -97,16 +145,32 @@ public class NotificationServiceImpl implements NotificationService {
             notification.setCreatedDate(LocalDateTime.now());
             notification.setLastUpdatedDate(LocalDateTime.now());
 
-            return notificationRepository.save(notification);
+            Notification saved = notificationRepository.save(notification);
+            unreadNotificationCountService.incrementUnreadCount(userId);
+
+            // goes out once the notification is committed, to the user's open sessions if any
+            if (notificationPushService.hasSession(userId)) {
+                notificationPushService.pushNotification(userId,
+                        createNotificationDTO(saved, getFormattedLastUpdatedDate(saved), getIconUrlFromNotification(saved)));
+            }
+            return saved;
         }
 
         return null;
     }
+    /**
+     * Deletes the notification, counting it down only if it was still unread when this request
+     * deleted it, rather than when it was read, so a concurrent mark-as-read isn't counted twice.
+     */
+    @Transactional
     public void deleteNotification(Long id) {
         Optional<Notification> optionalNotification = notificationRepository.findById(id);
         if (optionalNotification.isPresent()) {
-            Notification notification = optionalNotification.get();
-            notificationRepository.delete(notification);
+            if (notificationRepository.deleteUnread(id) == 1) {
+                unreadNotificationCountService.decrementUnreadCount(optionalNotification.get().getUserId());
+            } else {
+                notificationRepository.deleteRead(id);
+            }
         }
     }
     public boolean checkNotificationExists(Long id) {
@@ -115,4 +179,10 @@ public class NotificationServiceImpl implements NotificationService {
     public List<Notification> getNotificationsByUserId(Long userId) {
         return notificationRepository.findByUserId(userId);
     }
+    public List<Notification> getNotificationsByUserId(Long userId, Long before, int limit) {
+        return notificationRepository.findByUserIdBefore(userId, before, Limit.of(limit));
+    }
+    public long getUnreadNotificationCount(Long userId) {
+        return unreadNotificationCountService.getUnreadCount(userId);
+    }
 }
@@ -0,0 +1,11 @@
+package com.savvato.tribeapp.services;
+
+import java.util.Optional;
+import java.util.Set;
+
+public interface PartOfSpeechCacheService {
+
+    Optional<Set<String>> getPartsOfSpeech(String word);
+
+    void putPartsOfSpeech(String word, Set<String> partsOfSpeech);
+}
@@ -0,0 +1,117 @@
+package com.savvato.tribeapp.services;
+
+import com.savvato.tribeapp.entities.WordPartsOfSpeech;
+import com.savvato.tribeapp.repositories.WordPartsOfSpeechRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers what the Words API said about each word, in two levels: the WordPartsOfSpeech cache in
+ * memory, and the word_parts_of_speech table below it, so a word is looked up once rather than once
+ * for every phrase it's in, and the answers outlive a restart.
+ *
+ * A word the Words API doesn't know is remembered too, as an empty set, but for
+ * app.words-api.cache.negative-ttl-days rather than app.words-api.cache.ttl-days, so a word that was
+ * only missing for a while gets asked about again sooner. An answer older than its time to live is
+ * treated as missing.
+ */
+@Service
+@Slf4j
+public class PartOfSpeechCacheServiceImpl implements PartOfSpeechCacheService {
+
+    private static final String CACHE_NAME = "WordPartsOfSpeech";
+
+    // the width of word_parts_of_speech.word; longer words are only remembered in memory
+    private static final int MAX_WORD_LENGTH = 64;
+
+    @Autowired
+    CacheService cache;
+
+    @Autowired
+    WordPartsOfSpeechRepository wordPartsOfSpeechRepository;
+
+    @Value("${app.words-api.cache.ttl-days:90}")
+    long ttlDays;
+
+    @Value("${app.words-api.cache.negative-ttl-days:7}")
+    long negativeTtlDays;
+
+    @Override
+    public Optional<Set<String>> getPartsOfSpeech(String word) {
+        String key = toKey(word);
+
+        String cached = cache.get(CACHE_NAME, key);
+        if (cached != null) {
+            return Optional.of(fromColumn(cached));
+        }
+
+        if (key.length() > MAX_WORD_LENGTH) {
+            return Optional.empty();
+        }
+
+        Optional<WordPartsOfSpeech> stored;
+        try {
+            stored = wordPartsOfSpeechRepository.findById(key);
+        } catch (DataAccessException e) {
+            log.warn("Could not read the parts of speech of " + key + " - " + e.getMessage());
+            return Optional.empty();
+        }
+
+        if (stored.isEmpty() || isStale(stored.get())) {
+            return Optional.empty();
+        }
+
+        cache.put(CACHE_NAME, key, stored.get().getPartsOfSpeech());
+        return Optional.of(fromColumn(stored.get().getPartsOfSpeech()));
+    }
+
+    @Override
+    public void putPartsOfSpeech(String word, Set<String> partsOfSpeech) {
+        String key = toKey(word);
+        String column = toColumn(partsOfSpeech);
+
+        cache.put(CACHE_NAME, key, column);
+
+        if (key.length() > MAX_WORD_LENGTH) {
+            return;
+        }
+
+        try {
+            wordPartsOfSpeechRepository.save(new WordPartsOfSpeech(key, column, LocalDateTime.now()));
+        } catch (DataAccessException e) {
+            // another grooming thread may have saved the same word first; either answer will do
+            log.warn("Could not save the parts of speech of " + key + " - " + e.getMessage());
+        }
+    }
+
+    private boolean isStale(WordPartsOfSpeech stored) {
+        long days = stored.getPartsOfSpeech().isEmpty() ? negativeTtlDays : ttlDays;
+        return stored.getFetchedAt().isBefore(LocalDateTime.now().minusDays(days));
+    }
+
+    private static String toKey(String word) {
+        return word.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String toColumn(Set<String> partsOfSpeech) {
+        return String.join(",", new TreeSet<>(partsOfSpeech));
+    }
+
+    private static Set<String> fromColumn(String column) {
+        if (column.isEmpty()) {
+            return Set.of();
+        }
+        return Arrays.stream(column.split(",")).collect(Collectors.toSet());
+    }
+}
@@ -1,7 +1,9 @@
 package com.savvato.tribeapp.services;
 
 import com.savvato.tribeapp.dto.PhraseDTO;
+import com.savvato.tribeapp.entities.ToBeReviewed;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 
@@ -13,5 +15,7 @@ public interface PhraseService {
 
     Optional<Long> findPreviouslyApprovedPhraseId(String adverb, String verb, String preposition, String noun);
 
+    Map<Long, Long> findOrCreatePhraseIds(Collection<ToBeReviewed> phrases);
+
     Optional<Map<PhraseDTO, Integer>> getPhraseInformationByUserId(Long userId);
 }
@@ -7,9 +7,12 @@ import com.savvato.tribeapp.entities.*;
 import com.savvato.tribeapp.repositories.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.function.Function;
 
 
 @Service
@@ -20,34 +23,40 @@ public class PhraseServiceImpl implements PhraseService {
     PhraseRepository phraseRepository;
 
     @Autowired
-    AdverbRepository adverbRepository;
+    VocabularyService vocabularyService;
 
     @Autowired
-    VerbRepository verbRepository;
+    RejectedPhraseRepository rejectedPhraseRepository;
 
     @Autowired
-    PrepositionRepository prepositionRepository;
+    RejectedNonEnglishWordRepository rejectedNonEnglishWordRepository;
 
     @Autowired
-    NounRepository nounRepository;
+    RejectionFilterService rejectionFilterService;
 
     @Autowired
-    RejectedPhraseRepository rejectedPhraseRepository;
+    UserPhraseRepository userPhraseRepository;
 
     @Autowired
-    RejectedNonEnglishWordRepository rejectedNonEnglishWordRepository;
+    PhraseUserCountService phraseUserCountService;
 
     @Autowired
-    UserPhraseService userPhraseService;
+    ToBeReviewedRepository toBeReviewedRepository;
 
     @Autowired
-    UserPhraseRepository userPhraseRepository;
+    ReviewSubmittingUserRepository reviewSubmittingUserRepository;
 
     @Autowired
-    ToBeReviewedRepository toBeReviewedRepository;
+    AdverbRepository adverbRepository;
 
     @Autowired
-    ReviewSubmittingUserRepository reviewSubmittingUserRepository;
+    VerbRepository verbRepository;
+
+    @Autowired
+    PrepositionRepository prepositionRepository;
+
+    @Autowired
+    NounRepository nounRepository;
 
 
     @Override
@@ -100,7 +109,15 @@ public class PhraseServiceImpl implements PhraseService {
     }
 
     public boolean isWordPreviouslyRejected(String word) {
-        return this.rejectedNonEnglishWordRepository.findByWord(word).isPresent();
+        if (!rejectionFilterService.mightBeRejectedWord(word)) {
+            return false;
+        }
+
+        boolean rtn = this.rejectedNonEnglishWordRepository.findByWord(word).isPresent();
+        if (!rtn) {
+            rejectionFilterService.recordFalsePositive();
+        }
+        return rtn;
     }
 
     public boolean isPhrasePreviouslyRejected(String adverb, String verb, String preposition, String noun) {
@@ -117,6 +134,10 @@ public class PhraseServiceImpl implements PhraseService {
 
         String rejectedPhraseString = rejectedPhraseSB.toString().trim();
 
+        if (!rejectionFilterService.mightBeRejectedPhrase(rejectedPhraseString)) {
+            return false;
+        }
+
         Optional<RejectedPhrase> rejectedPhrase = rejectedPhraseRepository.findByRejectedPhrase(rejectedPhraseString);
 
         if (rejectedPhrase.isPresent()) {
@@ -124,10 +145,13 @@ public class PhraseServiceImpl implements PhraseService {
             return true;
         }
 
+        rejectionFilterService.recordFalsePositive();
+
         return false;
     }
 
     @Override
+    @Transactional
     public boolean applyPhraseToUser(Long userId, String adverb, String verb, String preposition, String noun) {
 
         String adverbLowerCase = adverb.isBlank() ? Constants.NULL_VALUE_WORD : changeToLowerCase(adverb);
@@ -138,10 +162,18 @@ public class PhraseServiceImpl implements PhraseService {
         Optional<Long> previouslyReviewedPhraseId = findPreviouslyApprovedPhraseId(adverbLowerCase, verbLowerCase, prepositionLowerCase, nounLowerCase);
 
         if (previouslyReviewedPhraseId.isPresent()) {
+            UserPhraseId userPhraseId = new UserPhraseId();
+            userPhraseId.setUserId(userId);
+            userPhraseId.setPhraseId(previouslyReviewedPhraseId.get());
+            boolean alreadyApplied = userPhraseRepository.existsById(userPhraseId);
+
             UserPhrase userPhrase = new UserPhrase();
             userPhrase.setUserId(userId);
             userPhrase.setPhraseId(previouslyReviewedPhraseId.get());
             userPhraseRepository.save(userPhrase);
+            if (!alreadyApplied) {
+                phraseUserCountService.incrementUserCount(previouslyReviewedPhraseId.get());
+            }
             log.info("Phrase added to user " + userId);
 
             return true;
@@ -178,32 +210,40 @@ public class PhraseServiceImpl implements PhraseService {
         Long prepositionId;
         Long nounId;
 
-        if (findVerbIfExists(verb).isPresent()) {
-            verbId = verbRepository.findByWord(verb).get().getId();
+        Optional<Long> optVerbId = vocabularyService.findVerbId(verb);
+        if (optVerbId.isPresent()) {
+            verbId = optVerbId.get();
         } else {
             return Optional.empty();
         }
 
-        if (findNounIfExists(noun).isPresent()) {
-            nounId = nounRepository.findByWord(noun).get().getId();
+        Optional<Long> optNounId = vocabularyService.findNounId(noun);
+        if (optNounId.isPresent()) {
+            nounId = optNounId.get();
         } else {
             return Optional.empty();
         }
 
         if (adverb.equals(Constants.NULL_VALUE_WORD)) {
             adverbId = Constants.NULL_VALUE_ID;
-        } else if (findAdverbIfExists(adverb).isPresent()) {
-            adverbId = adverbRepository.findByWord(adverb).get().getId();
         } else {
-            return Optional.empty();
+            Optional<Long> optAdverbId = vocabularyService.findAdverbId(adverb);
+            if (optAdverbId.isPresent()) {
+                adverbId = optAdverbId.get();
+            } else {
+                return Optional.empty();
+            }
         }
 
         if (preposition.equals(Constants.NULL_VALUE_WORD)) {
             prepositionId = Constants.NULL_VALUE_ID;
-        } else if (findPrepositionIfExists(preposition).isPresent()) {
-            prepositionId = prepositionRepository.findByWord(preposition).get().getId();
         } else {
-            return Optional.empty();
+            Optional<Long> optPrepositionId = vocabularyService.findPrepositionId(preposition);
+            if (optPrepositionId.isPresent()) {
+                prepositionId = optPrepositionId.get();
+            } else {
+                return Optional.empty();
+            }
         }
 
         Optional<Phrase> reviewedPhrase = phraseRepository.findByAdverbIdAndVerbIdAndPrepositionIdAndNounId(adverbId, verbId, prepositionId, nounId);
@@ -214,20 +254,91 @@ public class PhraseServiceImpl implements PhraseService {
         return Optional.empty();
     }
 
-    public Optional<Adverb> findAdverbIfExists(String adverb) {
-        return this.adverbRepository.findByWord(adverb);
-    }
+    /**
+     * The ids of the phrases made of the words of the given phrases to be reviewed, by their
+     * to_be_reviewed id, adding the words and phrases that aren't known yet, as when a reviewer
+     * approves phrases nobody has had before. Words are expected as they are kept in to_be_reviewed,
+     * lowercase, with NULL_VALUE_WORD for a missing adverb or preposition. The phrases already known
+     * are found with one query, however many there are.
+     *
+     * Words added here are not put into the vocabulary; it looks them up from the database the
+     * first time they're asked for, which is after this transaction has committed them.
+     */
+    @Override
+    @Transactional
+    public Map<Long, Long> findOrCreatePhraseIds(Collection<ToBeReviewed> phrases) {
+        Map<String, Long> adverbIds = findOrCreateWordIds(phrases, ToBeReviewed::getAdverb, vocabularyService::findAdverbId,
+                Adverb::new, adverbRepository, Adverb::getWord, Adverb::getId);
+        Map<String, Long> verbIds = findOrCreateWordIds(phrases, ToBeReviewed::getVerb, vocabularyService::findVerbId,
+                Verb::new, verbRepository, Verb::getWord, Verb::getId);
+        Map<String, Long> prepositionIds = findOrCreateWordIds(phrases, ToBeReviewed::getPreposition, vocabularyService::findPrepositionId,
+                Preposition::new, prepositionRepository, Preposition::getWord, Preposition::getId);
+        Map<String, Long> nounIds = findOrCreateWordIds(phrases, ToBeReviewed::getNoun, vocabularyService::findNounId,
+                Noun::new, nounRepository, Noun::getWord, Noun::getId);
+
+        Map<Long, PhraseWordIds> wordIdsByReviewId = new HashMap<>();
+        for (ToBeReviewed tbr : phrases) {
+            wordIdsByReviewId.put(tbr.getId(), new PhraseWordIds(adverbIds.get(tbr.getAdverb()), verbIds.get(tbr.getVerb()),
+                    prepositionIds.get(tbr.getPreposition()), nounIds.get(tbr.getNoun())));
+        }
+
+        // every phrase with one of the verbs and one of the nouns, of which the ones asked for are picked out here
+        Map<PhraseWordIds, Long> phraseIds = new HashMap<>();
+        for (Phrase phrase : phraseRepository.findAllByVerbIdInAndNounIdIn(new HashSet<>(verbIds.values()), new HashSet<>(nounIds.values()))) {
+            phraseIds.put(PhraseWordIds.of(phrase), phrase.getId());
+        }
+
+        List<Phrase> newPhrases = new ArrayList<>();
+        for (PhraseWordIds wordIds : new HashSet<>(wordIdsByReviewId.values())) {
+            if (!phraseIds.containsKey(wordIds)) {
+                Phrase newPhrase = new Phrase();
+                newPhrase.setAdverbId(wordIds.adverbId());
+                newPhrase.setVerbId(wordIds.verbId());
+                newPhrase.setPrepositionId(wordIds.prepositionId());
+                newPhrase.setNounId(wordIds.nounId());
+                newPhrases.add(newPhrase);
+            }
+        }
+        if (!newPhrases.isEmpty()) {
+            for (Phrase phrase : phraseRepository.saveAll(newPhrases)) {
+                phraseIds.put(PhraseWordIds.of(phrase), phrase.getId());
+                log.info("Added phrase " + phrase.getId() + " to the phrase table.");
+            }
+        }
 
-    public Optional<Verb> findVerbIfExists(String verb) {
-        return this.verbRepository.findByWord(verb);
+        Map<Long, Long> rtn = new HashMap<>();
+        wordIdsByReviewId.forEach((reviewId, wordIds) -> rtn.put(reviewId, phraseIds.get(wordIds)));
+        return rtn;
     }
 
-    public Optional<Preposition> findPrepositionIfExists(String preposition) {
-        return this.prepositionRepository.findByWord(preposition);
+    private record PhraseWordIds(Long adverbId, Long verbId, Long prepositionId, Long nounId) {
+        static PhraseWordIds of(Phrase phrase) {
+            return new PhraseWordIds(phrase.getAdverbId(), phrase.getVerbId(), phrase.getPrepositionId(), phrase.getNounId());
+        }
     }
 
-    public Optional<Noun> findNounIfExists(String noun) {
-        return this.nounRepository.findByWord(noun);
+    // the ids of one part of speech of the phrases, saving the words that aren't known yet together
+    private <W> Map<String, Long> findOrCreateWordIds(Collection<ToBeReviewed> phrases, Function<ToBeReviewed, String> wordOf,
+                                                      Function<String, Optional<Long>> findId, Function<String, W> newWord,
+                                                      CrudRepository<W, Long> repository, Function<W, String> getWord, Function<W, Long> getId) {
+        Map<String, Long> rtn = new HashMap<>();
+        rtn.put(Constants.NULL_VALUE_WORD, Constants.NULL_VALUE_ID);
+
+        Set<String> newWords = new HashSet<>();
+        for (ToBeReviewed tbr : phrases) {
+            String word = wordOf.apply(tbr);
+            if (!rtn.containsKey(word) && !newWords.contains(word)) {
+                findId.apply(word).ifPresentOrElse(id -> rtn.put(word, id), () -> newWords.add(word));
+            }
+        }
+
+        if (!newWords.isEmpty()) {
+            for (W saved : repository.saveAll(newWords.stream().map(newWord).toList())) {
+                rtn.put(getWord.apply(saved), getId.apply(saved));
+            }
+        }
+
+        return rtn;
     }
 
     public void addUserAndPhraseToReviewSubmittingUserRepository(Long userId, Long toBeReviewedId) {
@@ -239,33 +350,26 @@ public class PhraseServiceImpl implements PhraseService {
 
     @Override
     public Optional<Map<PhraseDTO, Integer>> getPhraseInformationByUserId(Long userId) {
-        // Create list of phrase ids
-        Optional<List<Long>> optPhraseIds = userPhraseService.findPhraseIdsByUserId(userId);
-
-        // Create list of all phrases from those phrase ids
-        if (optPhraseIds.isPresent()) {
-            List<Long> phraseIds = optPhraseIds.get();
-            Map<PhraseDTO, Integer> phraseDTOsWithUserCount = new HashMap<>();
-            for (Long phraseId : phraseIds) {
-                Optional<PhraseWithUserCountDTO> optPhraseInformation = phraseRepository.findPhraseByPhraseId(phraseId);
-                if (optPhraseInformation.isPresent()) {
-                    PhraseWithUserCountDTO phraseInformation = optPhraseInformation.get();
-                    PhraseDTO phraseDTO = constructPhraseDTOFromPhraseInformation(phraseInformation.id(), phraseInformation.adverbId(), phraseInformation.verbId(), phraseInformation.prepositionId(), phraseInformation.nounId());
-                    phraseDTOsWithUserCount.put(phraseDTO, phraseInformation.userCount().intValue());
-                } else {
-                    throw new IllegalStateException("message not found");
-                }
-            }
-            return Optional.of(phraseDTOsWithUserCount);
+        // One query for all of the user's phrases and their user counts. The words come from the vocabulary.
+        List<PhraseWithUserCountDTO> phraseInformationList = phraseRepository.findPhrasesWithUserCountByUserId(userId);
+
+        if (phraseInformationList.isEmpty()) {
+            return Optional.empty();
         }
-        return Optional.empty();
+
+        Map<PhraseDTO, Integer> phraseDTOsWithUserCount = new HashMap<>();
+        for (PhraseWithUserCountDTO phraseInformation : phraseInformationList) {
+            PhraseDTO phraseDTO = constructPhraseDTOFromPhraseInformation(phraseInformation.id(), phraseInformation.adverbId(), phraseInformation.verbId(), phraseInformation.prepositionId(), phraseInformation.nounId());
+            phraseDTOsWithUserCount.put(phraseDTO, phraseInformation.userCount().intValue());
+        }
+        return Optional.of(phraseDTOsWithUserCount);
     }
 
     public PhraseDTO constructPhraseDTOFromPhraseInformation(Long phraseId, Long adverbId, Long verbId, Long prepositionId, Long nounId) {
-        Optional<String> optAdverb = adverbRepository.findAdverbById(adverbId);
-        Optional<String> optVerb = verbRepository.findVerbById(verbId);
-        Optional<String> optPreposition = prepositionRepository.findPrepositionById(prepositionId);
-        Optional<String> optNoun = nounRepository.findNounById(nounId);
+        Optional<String> optAdverb = vocabularyService.findAdverbById(adverbId);
+        Optional<String> optVerb = vocabularyService.findVerbById(verbId);
+        Optional<String> optPreposition = vocabularyService.findPrepositionById(prepositionId);
+        Optional<String> optNoun = vocabularyService.findNounById(nounId);
 
         return PhraseDTO
                 .builder()
@@ -0,0 +1,14 @@
+package com.savvato.tribeapp.services;
+
+import java.util.Collection;
+
+public interface PhraseUserCountService {
+
+    void incrementUserCount(Long phraseId);
+
+    void decrementUserCount(Long phraseId);
+
+    void recomputeUserCounts(Collection<Long> phraseIds);
+
+    long reconcileUserCounts();
+}
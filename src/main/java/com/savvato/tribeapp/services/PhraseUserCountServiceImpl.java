@@ -0,0 +1,64 @@
+package com.savvato.tribeapp.services;
+
+import com.savvato.tribeapp.repositories.PhraseUserCountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Maintains phrase_user_count, the number of users holding each phrase, so that reading a phrase's
+ * user count is a primary key lookup instead of a COUNT over user_phrase. The counts are updated in
+ * the same transaction as the user_phrase row they describe. A scheduled reconciliation recomputes
+ * every count from user_phrase, in case rows were changed outside the app.
+ */
+@Service
+@Slf4j
+public class PhraseUserCountServiceImpl implements PhraseUserCountService {
+
+    @Autowired
+    PhraseUserCountRepository phraseUserCountRepository;
+
+    @Override
+    @Transactional
+    public void incrementUserCount(Long phraseId) {
+        phraseUserCountRepository.incrementUserCount(phraseId);
+    }
+
+    @Override
+    @Transactional
+    public void decrementUserCount(Long phraseId) {
+        phraseUserCountRepository.decrementUserCount(phraseId);
+    }
+
+    /**
+     * Sets the counts of the given phrases from user_phrase, for when many rows were added at once
+     * and counting them one by one would take a statement each.
+     */
+    @Override
+    @Transactional
+    public void recomputeUserCounts(Collection<Long> phraseIds) {
+        if (!phraseIds.isEmpty()) {
+            phraseUserCountRepository.recomputeUserCounts(phraseIds);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "PT6H", initialDelayString = "PT6H")
+    @Transactional
+    @Override
+    public long reconcileUserCounts() {
+        long drifted = phraseUserCountRepository.countDriftedPhrases();
+
+        if (drifted > 0) {
+            log.warn("Repairing user counts for " + drifted + " phrase(s) that drifted from user_phrase.");
+            phraseUserCountRepository.recomputeAllUserCounts();
+        } else {
+            log.info("Phrase user counts are in sync with user_phrase.");
+        }
+
+        return drifted;
+    }
+}
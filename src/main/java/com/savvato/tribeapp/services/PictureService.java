@@ -15,9 +15,14 @@ public interface PictureService {
 
     BufferedImage readImage(InputStream inputStream) throws IOException;
 
+    BufferedImage readImage(InputStream inputStream, int minimumSize) throws IOException;
+
     File createFile(String path);
 
     String transformFilenameUsingSizeInfo(String photoSize, String filename);
+
+    String getVariantFilename(String filename, int size);
+
     void writeThumbnailFromOriginal(String resourceType, String filename) throws IOException;
 
     BufferedImage resizeImage(BufferedImage originalImage, int targetWidth, int targetHeight) throws IOException;
@@ -3,69 +3,98 @@ package com.savvato.tribeapp.services;
 import com.savvato.tribeapp.constants.Constants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.TimeUnit;
-
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Writes a set of square variants of every uploaded picture, at the sizes in app.pictures.variant-sizes.
+ * The variant at app.pictures.thumbnail-size is the one served as the "thumbnail".
+ *
+ * The original is decoded once, skipping pixels up front when it is far bigger than the largest
+ * variant needs, then halved step by step with bilinear filtering. Each variant is taken from the
+ * smallest step that is still at least twice its size, with a final bicubic pass. Scaling in
+ * steps is faster than one big scale, and doesn't drop detail the way a single step does.
+ */
 @Service
 @Slf4j
 public class PictureServiceImpl implements PictureService {
 
+    private static final Pattern PHOTO_SIZE = Pattern.compile("(\\d{1,5})(?:[xX](\\d{1,5}))?");
+
     @Autowired
     ResourceTypeService resourceTypeService;
 
-    @Override
-    public void writeThumbnailFromOriginal(String resourceType, String filename) throws IOException {
-        String dir = resourceTypeService.getDirectoryForResourceType(resourceType);
+    @Value("${app.pictures.variant-sizes:64,128,250,512}")
+    int[] variantSizes;
 
-        boolean done = false;
-        int retryCount = 0;
-        long delay = 2;
-
-        while (!done && retryCount++ < 3) {
-            log.debug("Sleeping.... " + delay);
-            try {
-                TimeUnit.SECONDS.sleep(delay);
-            } catch (InterruptedException ie) {
+    @Value("${app.pictures.thumbnail-size:250}")
+    int thumbnailSize;
 
+    @Override
+    public void writeThumbnailFromOriginal(String resourceType, String filename) throws IOException {
+        // Called by ThumbnailService once the original is stored, which retries if this fails
+        String dir = resourceTypeService.findDirectoryOfResource(resourceType, filename);
+        int[] sizes = getVariantSizesLargestFirst();
+
+        BufferedImage originalImage;
+        try {
+            log.debug("Just about to get the file " + dir + File.separator + filename);
+            FileSystemResource fileSystemResource = getFileSystemResource(dir + File.separator + filename);
+            try (InputStream is = getInputStreamFromFileSystemResource(fileSystemResource)) {
+                originalImage = readImage(is, sizes[0]);
             }
-            log.debug("Woke up!");
-
-            delay *= 2;
-
-            try {
-                log.debug("Just about to get the file " + dir + File.separator + filename);
-                FileSystemResource fileSystemResource = getFileSystemResource(dir + File.separator + filename);
-                InputStream is = getInputStreamFromFileSystemResource(fileSystemResource);
-
-                BufferedImage originalImage = readImage(is);
+        } catch (IOException ioe) {
+            throw new IOException("Expected the file " + dir + File.separator + filename + " to be in place, but we got this exception instead!.", ioe);
+        }
 
-                if (originalImage != null) {
+        if (originalImage == null) {
+            throw new IOException("The file " + dir + File.separator + filename + " is not an image we can thumbnail-ize.");
+        }
 
-                    log.debug("YES! Found the file.. doing the resize... " + dir + File.separator + filename);
-                    BufferedImage resizedImage = resizeImage(originalImage, 250, 250);
+        log.debug("Found the file.. writing " + sizes.length + " variants of " + dir + File.separator + filename);
+        BufferedImage current = originalImage;
+        for (int size : sizes) {
+            current = halveToward(current, size, size);
 
-                    File out = createFile(dir + File.separator + filename + "_thumbnail");
-                    ImageIO.write(resizedImage, "jpg", out);
+            BufferedImage variant = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            draw(current, variant, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
 
-                    done = true;
-                } else {
-                    log.debug("nooo... the file wasn't there yet."+ dir + File.separator + filename);
-                }
-            } catch (IOException ioe) {
-                throw new IOException("Expected the file " + dir + File.separator + filename + " to be in place, but we got this exception instead!.", ioe);
-            }
+            String variantFilename = getVariantFilename(filename, size);
+            writeAtomically(variant, createFile(resourceTypeService.getDirectoryForResource(resourceType, variantFilename) + File.separator + variantFilename));
         }
+    }
 
-        if (!done) {
-            throw new IOException("Tried waiting for the file to appear, but there was nothing there to thumbnail-ize.");
+    // written next to the file and renamed over it, so the file is never seen half written
+    private static void writeAtomically(BufferedImage image, File file) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+
+        Path tmp = Files.createTempFile(target.getParent(), "." + target.getFileName(), ".tmp");
+        try {
+            ImageIO.write(image, "jpg", tmp.toFile());
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
         }
     }
 
@@ -84,24 +113,128 @@ public class PictureServiceImpl implements PictureService {
         return ImageIO.read(inputStream);
     }
 
+    @Override
+    public BufferedImage readImage(InputStream inputStream, int minimumSize) throws IOException {
+        ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream);
+        if (imageInputStream == null) {
+            return readImage(inputStream);
+        }
+
+        try (imageInputStream) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+
+                // only decode every nth pixel of a huge picture, keeping each side at least twice minimumSize
+                int xSubsampling = Math.max(1, reader.getWidth(0) / (minimumSize * 2));
+                int ySubsampling = Math.max(1, reader.getHeight(0) / (minimumSize * 2));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (xSubsampling > 1 || ySubsampling > 1) {
+                    param.setSourceSubsampling(xSubsampling, ySubsampling, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
     @Override
     public File createFile(String path) {
         return new File(path);
     }
 
+    /**
+     * Maps a photoSize of "original", "thumbnail", or a size like "120" or "120x120" to the file of
+     * the variant nearest that size. A size bigger than the largest variant, or anything else, gets
+     * the original.
+     */
     @Override
     public String transformFilenameUsingSizeInfo(String photoSize, String filename) {
         if (photoSize.equals(Constants.PHOTO_SIZE_THUMBNAIL))
+            return getVariantFilename(filename, thumbnailSize);
+
+        Matcher matcher = PHOTO_SIZE.matcher(photoSize);
+        if (!matcher.matches())
+            return filename; // original
+
+        int requested = Integer.parseInt(matcher.group(1));
+        if (matcher.group(2) != null)
+            requested = Math.max(requested, Integer.parseInt(matcher.group(2)));
+
+        int[] sizes = getVariantSizesLargestFirst();
+        if (requested > sizes[0])
+            return filename; // original
+
+        int nearest = sizes[0];
+        for (int size : sizes) {
+            // on a tie, the larger one, which comes first
+            if (Math.abs(size - requested) < Math.abs(nearest - requested))
+                nearest = size;
+        }
+        return getVariantFilename(filename, nearest);
+    }
+
+    @Override
+    public String getVariantFilename(String filename, int size) {
+        if (size == thumbnailSize)
             return filename + "_thumbnail";
         else
-            return filename; // original
+            return filename + "_" + size;
     }
 
     @Override
     public BufferedImage resizeImage(BufferedImage originalImage, int targetWidth, int targetHeight) throws IOException {
-        Image resultingImage = originalImage.getScaledInstance(targetWidth, targetHeight, Image.SCALE_DEFAULT);
         BufferedImage outputImage = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
-        outputImage.getGraphics().drawImage(resultingImage, 0, 0, null);
+        draw(halveToward(originalImage, targetWidth, targetHeight), outputImage, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
         return outputImage;
     }
+
+    private int[] getVariantSizesLargestFirst() {
+        return IntStream.concat(Arrays.stream(variantSizes), IntStream.of(thumbnailSize))
+                .filter(size -> size > 0)
+                .distinct()
+                .boxed()
+                .sorted(Comparator.reverseOrder())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    // halves each side that is still at least twice its target, until none is
+    private static BufferedImage halveToward(BufferedImage image, int targetWidth, int targetHeight) {
+        BufferedImage current = image;
+        int width = current.getWidth();
+        int height = current.getHeight();
+
+        while (width >= targetWidth * 2 || height >= targetHeight * 2) {
+            width = width >= targetWidth * 2 ? width / 2 : width;
+            height = height >= targetHeight * 2 ? height / 2 : height;
+
+            BufferedImage halved = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            draw(current, halved, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            current = halved;
+        }
+        return current;
+    }
+
+    private static void draw(BufferedImage source, BufferedImage target, Object interpolation) {
+        Graphics2D g = target.createGraphics();
+        try {
+            // transparent parts of the source come out black, as they would on a fresh image
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, target.getWidth(), target.getHeight());
+
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, target.getWidth(), target.getHeight(), null);
+        } finally {
+            g.dispose();
+        }
+    }
 }
@@ -0,0 +1,24 @@
+package com.savvato.tribeapp.services;
+
+public interface RejectionFilterService {
+
+    void rebuild();
+
+    void catchUp();
+
+    boolean mightBeRejectedWord(String word);
+
+    boolean mightBeRejectedPhrase(String phrase);
+
+    void addRejectedPhrase(String phrase);
+
+    void recordFalsePositive();
+
+    double getExpectedFalsePositiveRate();
+
+    double getObservedFalsePositiveRate();
+
+    long getSizeInBits();
+
+    long getEntryCount();
+}
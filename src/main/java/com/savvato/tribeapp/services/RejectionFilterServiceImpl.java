@@ -0,0 +1,197 @@
+package com.savvato.tribeapp.services;
+
+import com.savvato.tribeapp.entities.RejectedNonEnglishWord;
+import com.savvato.tribeapp.entities.RejectedPhrase;
+import com.savvato.tribeapp.repositories.RejectedNonEnglishWordRepository;
+import com.savvato.tribeapp.repositories.RejectedPhraseRepository;
+import com.savvato.tribeapp.utils.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Bloom filter in front of the rejected_non_english_word and rejected_phrase tables. Nearly every
+ * word and phrase checked by PhraseService has never been rejected, and the filter answers those
+ * without a query. Only a "maybe" from the filter needs to be confirmed against the database.
+ *
+ * Until the first build finishes, every lookup answers "maybe", so nothing is missed at startup.
+ * The filter is rebuilt hourly, which resizes it. In between, every
+ * app.rejection.filter.catch-up-interval it adds the rows written since the last rebuild, so a
+ * rejection saved through another app node, or outside the app, is missed for at most that long.
+ */
+@Service
+@Slf4j
+public class RejectionFilterServiceImpl implements RejectionFilterService {
+
+    private static final String WORD_PREFIX = "w:";
+    private static final String PHRASE_PREFIX = "p:";
+    private static final long MINIMUM_EXPECTED_INSERTIONS = 10_000;
+
+    @Autowired
+    RejectedNonEnglishWordRepository rejectedNonEnglishWordRepository;
+
+    @Autowired
+    RejectedPhraseRepository rejectedPhraseRepository;
+
+    @Value("${app.rejection.filter.false-positive-probability:0.01}")
+    private double falsePositiveProbability = 0.01;
+
+    private volatile BloomFilter filter;
+
+    // rejections written while a rebuild is reading the tables, replayed into the new filter
+    private final Object lock = new Object();
+    private List<String> addedDuringRebuild;
+
+    // the highest ids the last rebuild read. A catch-up reads every row above them, not just the rows
+    // since the previous catch-up, so a row whose id was taken before a later one but committed after it
+    // is still picked up
+    private volatile long rebuiltThroughWordId;
+    private volatile long rebuiltThroughPhraseId;
+
+    private final AtomicLong negatives = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT1H")
+    @Override
+    public void rebuild() {
+        synchronized (lock) {
+            addedDuringRebuild = new ArrayList<>();
+        }
+
+        List<String> entries = new ArrayList<>();
+        long lastWordId = 0;
+        for (RejectedNonEnglishWord word : rejectedNonEnglishWordRepository.findAll()) {
+            entries.add(WORD_PREFIX + word.getWord());
+            lastWordId = Math.max(lastWordId, word.getId());
+        }
+        long lastPhraseId = 0;
+        for (RejectedPhrase phrase : rejectedPhraseRepository.findAll()) {
+            entries.add(PHRASE_PREFIX + phrase.getRejectedPhrase());
+            lastPhraseId = Math.max(lastPhraseId, phrase.getId());
+        }
+
+        // leave room to grow until the next rebuild
+        BloomFilter rebuilt = new BloomFilter(Math.max(entries.size() * 2L, MINIMUM_EXPECTED_INSERTIONS), falsePositiveProbability);
+        for (String entry : entries) {
+            rebuilt.put(entry);
+        }
+
+        synchronized (lock) {
+            for (String entry : addedDuringRebuild) {
+                rebuilt.put(entry);
+            }
+            addedDuringRebuild = null;
+            filter = rebuilt;
+            rebuiltThroughWordId = lastWordId;
+            rebuiltThroughPhraseId = lastPhraseId;
+        }
+        negatives.set(0);
+        falsePositives.set(0);
+
+        log.info("Rejection filter rebuilt with " + entries.size() + " entries in " + rebuilt.getBitSize() + " bits.");
+    }
+
+    @Scheduled(fixedDelayString = "${app.rejection.filter.catch-up-interval:PT10S}",
+            initialDelayString = "${app.rejection.filter.catch-up-interval:PT10S}")
+    @Override
+    public void catchUp() {
+        // nothing to add to until the first rebuild, and lookups answer "maybe" until then anyway
+        if (filter == null) {
+            return;
+        }
+
+        for (RejectedNonEnglishWord word : rejectedNonEnglishWordRepository.findByIdGreaterThan(rebuiltThroughWordId)) {
+            put(WORD_PREFIX, word.getWord());
+        }
+        for (RejectedPhrase phrase : rejectedPhraseRepository.findByIdGreaterThan(rebuiltThroughPhraseId)) {
+            put(PHRASE_PREFIX, phrase.getRejectedPhrase());
+        }
+    }
+
+    @Override
+    public boolean mightBeRejectedWord(String word) {
+        return mightContain(WORD_PREFIX, word);
+    }
+
+    @Override
+    public boolean mightBeRejectedPhrase(String phrase) {
+        return mightContain(PHRASE_PREFIX, phrase);
+    }
+
+    @Override
+    public void addRejectedPhrase(String phrase) {
+        put(PHRASE_PREFIX, phrase);
+    }
+
+    @Override
+    public void recordFalsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    @Override
+    public double getExpectedFalsePositiveRate() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.expectedFalsePositiveProbability();
+    }
+
+    @Override
+    public double getObservedFalsePositiveRate() {
+        long fp = falsePositives.get();
+        long total = fp + negatives.get();
+        return total == 0 ? 0 : (double) fp / total;
+    }
+
+    @Override
+    public long getSizeInBits() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.getBitSize();
+    }
+
+    @Override
+    public long getEntryCount() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.getInsertions();
+    }
+
+    private boolean mightContain(String prefix, String value) {
+        // a null or blank word is never stored in the rejection tables
+        if (value == null || value.isBlank()) {
+            return false;
+        }
+
+        BloomFilter current = filter;
+        if (current == null) {
+            return true;
+        }
+
+        boolean rtn = current.mightContain(prefix + value);
+        if (!rtn) {
+            negatives.incrementAndGet();
+        }
+        return rtn;
+    }
+
+    private void put(String prefix, String value) {
+        if (value == null) {
+            return;
+        }
+
+        synchronized (lock) {
+            if (filter != null) {
+                filter.put(prefix + value);
+            }
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(prefix + value);
+            }
+        }
+    }
+}
@@ -2,4 +2,12 @@ package com.savvato.tribeapp.services;
 
 public interface ResourceTypeService {
     String getDirectoryForResourceType(String resourceType);
+
+    String getDirectoryForResource(String resourceType, String filename);
+
+    String findDirectoryOfResource(String resourceType, String filename);
+
+    String getDirectoryForContent(String resourceType, String contentHash);
+
+    String getTemporaryDirectoryForResourceType(String resourceType);
 }
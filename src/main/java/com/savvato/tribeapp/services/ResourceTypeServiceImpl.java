@@ -5,7 +5,27 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
+/**
+ * Knows where every uploaded resource lives. Under each resource type's directory:
+ *
+ * <pre>
+ *   ab/cd/profilePicture_1.jpg      a resource, in a directory named for the start of the SHA-256 of its name
+ *   ab/cd/.profilePicture_1.jpg.sha256   the SHA-256 of the content that resource is linked to
+ *   content/ef/01/ef01...           each distinct upload once, named for the SHA-256 of its bytes
+ *   tmp/                            uploads being written
+ * </pre>
+ *
+ * Two levels of 256 directories keep each directory small at millions of resources. A resource is
+ * a hard link to its content, so identical uploads share one copy on disk.
+ *
+ * Resources from before this layout sit directly in the resource type's directory until
+ * StorageService migrates them; findDirectoryOfResource finds them there in the meantime.
+ */
 @Service
 public class ResourceTypeServiceImpl implements ResourceTypeService {
 
@@ -24,4 +44,49 @@ public class ResourceTypeServiceImpl implements ResourceTypeService {
         return rtn;
     }
 
+    /**
+     * Where the resource is written, and where it is read from once the flat layout is migrated.
+     */
+    public String getDirectoryForResource(String resourceType, String filename) {
+        return shard(getDirectoryForResourceType(resourceType), sha256(filename));
+    }
+
+    /**
+     * Where the resource can be read from: its own directory, unless it hasn't been migrated there
+     * from the flat layout yet.
+     */
+    public String findDirectoryOfResource(String resourceType, String filename) {
+        String rtn = getDirectoryForResource(resourceType, filename);
+
+        if (!new File(rtn, filename).exists()) {
+            String flat = getDirectoryForResourceType(resourceType);
+            if (new File(flat, filename).exists()) {
+                rtn = flat;
+            }
+        }
+
+        return rtn;
+    }
+
+    public String getDirectoryForContent(String resourceType, String contentHash) {
+        return shard(getDirectoryForResourceType(resourceType) + File.separator + "content", contentHash);
+    }
+
+    public String getTemporaryDirectoryForResourceType(String resourceType) {
+        return getDirectoryForResourceType(resourceType) + File.separator + "tmp";
+    }
+
+    private static String shard(String dir, String hash) {
+        return dir + File.separator + hash.substring(0, 2) + File.separator + hash.substring(2, 4);
+    }
+
+    private static String sha256(String filename) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(filename.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -8,4 +8,6 @@ import java.util.List;
 public interface ReviewDecisionReasonService {
 
     List<ReviewDecisionReasonDTO> getReviewDecisionReasons();
+
+    boolean isReviewDecisionReason(Long reasonId);
 }
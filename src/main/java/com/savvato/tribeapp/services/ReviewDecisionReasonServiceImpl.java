@@ -8,6 +8,8 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class ReviewDecisionReasonServiceImpl implements ReviewDecisionReasonService {
@@ -15,6 +17,10 @@ public class ReviewDecisionReasonServiceImpl implements ReviewDecisionReasonServ
     @Autowired
     ReviewDecisionReasonRepository reviewDecisionReasonRepository;
 
+    // the ids of the reasons, loaded when first asked for. Reasons are only ever added, so they are
+    // loaded again when asked about one that isn't here, rather than on a schedule
+    private volatile Set<Long> reasonIds = Set.of();
+
     @Override
     public List<ReviewDecisionReasonDTO> getReviewDecisionReasons() {
 
@@ -35,4 +41,19 @@ public class ReviewDecisionReasonServiceImpl implements ReviewDecisionReasonServ
         return rdrDtoList;
     }
 
+    @Override
+    public boolean isReviewDecisionReason(Long reasonId) {
+        if (reasonId == null) {
+            return false;
+        }
+        if (reasonIds.contains(reasonId)) {
+            return true;
+        }
+
+        reasonIds = reviewDecisionReasonRepository.findAllReviewDecisionReasons().stream()
+                .map(ReviewDecisionReason::getId)
+                .collect(Collectors.toUnmodifiableSet());
+
+        return reasonIds.contains(reasonId);
+    }
 }
@@ -1,8 +1,13 @@
 package com.savvato.tribeapp.services;
+import com.savvato.tribeapp.controllers.dto.ReviewDecisionRequest;
 import com.savvato.tribeapp.entities.ReviewDecision;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public interface ReviewDecisionService {
     ReviewDecision saveReviewDecision(Long reviewId, Long userId, Long reasonId);
+
+    List<ReviewDecision> saveReviewDecisions(Long reviewerId, List<ReviewDecisionRequest> requests);
 }
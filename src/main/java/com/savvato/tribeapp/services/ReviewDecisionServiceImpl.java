@@ -1,21 +1,73 @@
 package com.savvato.tribeapp.services;
 
+import com.savvato.tribeapp.constants.Constants;
+import com.savvato.tribeapp.controllers.dto.ReviewDecisionRequest;
+import com.savvato.tribeapp.entities.RejectedPhrase;
 import com.savvato.tribeapp.entities.ReviewDecision;
-import com.savvato.tribeapp.entities.ReviewDecisionReason;
+import com.savvato.tribeapp.entities.ReviewSubmittingUser;
+import com.savvato.tribeapp.entities.ToBeReviewed;
+import com.savvato.tribeapp.entities.UserPhrase;
+import com.savvato.tribeapp.repositories.RejectedPhraseRepository;
 import com.savvato.tribeapp.repositories.ReviewDecisionReasonRepository;
 import com.savvato.tribeapp.repositories.ReviewDecisionRepository;
+import com.savvato.tribeapp.repositories.ReviewSubmittingUserRepository;
+import com.savvato.tribeapp.repositories.ToBeReviewedRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
+@Slf4j
 public class ReviewDecisionServiceImpl implements ReviewDecisionService {
+
+    // review_decision is written with explicit columns here; the entity's default column names don't match the table's.
+    // A reviewer deciding on a phrase again replaces their earlier decision
+    private static final String INSERT_REVIEW_DECISION =
+            "insert into review_decision (to_be_reviewed_id, user_id, review_decision_reason_id, created) values (?, ?, ?, ?) "
+                    + "on duplicate key update review_decision_reason_id = values(review_decision_reason_id), created = values(created)";
+    private static final String INSERT_USER_PHRASE =
+            "insert ignore into user_phrase (user_id, phrase_id) values (?, ?)";
+    private static final int JDBC_BATCH_SIZE = 100;
+
     @Autowired
     ReviewDecisionRepository reviewDecisionRepository;
 
     @Autowired
     ReviewDecisionReasonRepository reviewDecisionReasonRepository;
+
+    @Autowired
+    ReviewDecisionReasonService reviewDecisionReasonService;
+
+    @Autowired
+    ToBeReviewedRepository toBeReviewedRepository;
+
+    @Autowired
+    ReviewSubmittingUserRepository reviewSubmittingUserRepository;
+
+    @Autowired
+    RejectedPhraseRepository rejectedPhraseRepository;
+
+    @Autowired
+    RejectionFilterService rejectionFilterService;
+
+    @Autowired
+    PhraseService phraseService;
+
+    @Autowired
+    PhraseUserCountService phraseUserCountService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Value("${app.review.max-batch-size:500}")
+    int maxBatchSize;
+
     @Override
     public ReviewDecision saveReviewDecision(Long reviewId, Long userId, Long reasonId) {
         ReviewDecision decision = new ReviewDecision(reviewId, userId, reasonId);
@@ -23,4 +75,139 @@ public class ReviewDecisionServiceImpl implements ReviewDecisionService {
         return newReviewDecisionRecord;
     }
 
+    /**
+     * Saves a batch of the reviewer's decisions, all or none, and applies them: an approved phrase is
+     * added to the phrase table and to each user who submitted it, and a rejected one is added to the
+     * rejected phrases. Either way the phrase's submitters are cleared, so it is only applied once.
+     * The decisions are written as JDBC batches, and the effects with one statement per kind rather
+     * than per decision. Every phrase must be leased to the reviewer, as ToBeReviewedService hands
+     * it out.
+     *
+     * A phrase that already had a decision gets the new one recorded, replacing the reviewer's own
+     * earlier one if there is one, but isn't applied again.
+     */
+    @Override
+    @Transactional
+    public List<ReviewDecision> saveReviewDecisions(Long reviewerId, List<ReviewDecisionRequest> requests) {
+        validate(requests);
+
+        List<ReviewDecision> decisions = requests.stream()
+                .map(request -> new ReviewDecision(request.reviewId, reviewerId, request.reasonId))
+                .toList();
+        List<Long> reviewIds = decisions.stream().map(ReviewDecision::getReviewId).toList();
+
+        Map<Long, ToBeReviewed> phrases = new HashMap<>();
+        toBeReviewedRepository.findAllById(reviewIds).forEach(tbr -> phrases.put(tbr.getId(), tbr));
+
+        List<Long> unknownReviewIds = reviewIds.stream().filter(id -> !phrases.containsKey(id)).toList();
+        if (!unknownReviewIds.isEmpty()) {
+            throw new IllegalArgumentException("No phrases to review with ids " + unknownReviewIds + ".");
+        }
+
+        Set<Long> leased = new HashSet<>(toBeReviewedRepository.findIdsLeasedTo(reviewIds, reviewerId));
+        List<Long> notLeasedReviewIds = reviewIds.stream().filter(id -> !leased.contains(id)).toList();
+        if (!notLeasedReviewIds.isEmpty()) {
+            throw new IllegalArgumentException("The phrases with ids " + notLeasedReviewIds + " aren't leased to reviewer " + reviewerId + ".");
+        }
+
+        Set<Long> previouslyDecided = new HashSet<>(reviewDecisionRepository.findDecidedReviewIds(reviewIds));
+
+        jdbcTemplate.batchUpdate(INSERT_REVIEW_DECISION, decisions, JDBC_BATCH_SIZE, (ps, decision) -> {
+            ps.setLong(1, decision.getReviewId());
+            ps.setLong(2, decision.getUserId());
+            ps.setLong(3, decision.getReasonId());
+            ps.setTimestamp(4, decision.getCreated());
+        });
+
+        List<ReviewDecision> undecided = decisions.stream()
+                .filter(decision -> !previouslyDecided.contains(decision.getReviewId()))
+                .toList();
+        applyDecisions(undecided, phrases);
+
+        log.info("Saved " + decisions.size() + " review decision(s), " + undecided.size() + " of them applied.");
+
+        return decisions;
+    }
+
+    private void validate(List<ReviewDecisionRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("No review decisions to save.");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " review decisions can be saved at once.");
+        }
+
+        Set<Long> reviewIds = new HashSet<>();
+        Set<Long> reasonIds = new HashSet<>();
+        for (ReviewDecisionRequest request : requests) {
+            if (request == null || request.reviewId == null || request.reasonId == null) {
+                throw new IllegalArgumentException("Every review decision needs a reviewId and reasonId.");
+            }
+            if (!reviewIds.add(request.reviewId)) {
+                throw new IllegalArgumentException("Phrase " + request.reviewId + " is decided more than once.");
+            }
+            reasonIds.add(request.reasonId);
+        }
+
+        for (Long reasonId : reasonIds) {
+            if (!reviewDecisionReasonService.isReviewDecisionReason(reasonId)) {
+                throw new IllegalArgumentException(reasonId + " is not a review decision reason.");
+            }
+        }
+    }
+
+    private void applyDecisions(List<ReviewDecision> decisions, Map<Long, ToBeReviewed> phrases) {
+        if (decisions.isEmpty()) {
+            return;
+        }
+
+        List<Long> reviewIds = decisions.stream().map(ReviewDecision::getReviewId).toList();
+        Map<Long, List<Long>> submittersByReviewId = reviewSubmittingUserRepository.findAllByToBeReviewedIds(reviewIds).stream()
+                .collect(Collectors.groupingBy(ReviewSubmittingUser::getToBeReviewedId,
+                        Collectors.mapping(ReviewSubmittingUser::getUserId, Collectors.toList())));
+
+        List<ToBeReviewed> approved = new ArrayList<>();
+        List<ToBeReviewed> rejected = new ArrayList<>();
+        for (ReviewDecision decision : decisions) {
+            ToBeReviewed tbr = phrases.get(decision.getReviewId());
+            if (Constants.REVIEW_DECISION_REASON_APPROVED_ID.equals(decision.getReasonId())) {
+                approved.add(tbr);
+            } else {
+                rejected.add(tbr);
+            }
+        }
+
+        Map<Long, Long> phraseIdsByReviewId = approved.isEmpty() ? Map.of() : phraseService.findOrCreatePhraseIds(approved);
+
+        List<UserPhrase> userPhrases = new ArrayList<>();
+        Set<Long> approvedPhraseIds = new HashSet<>();
+        for (ToBeReviewed tbr : approved) {
+            Long phraseId = phraseIdsByReviewId.get(tbr.getId());
+            approvedPhraseIds.add(phraseId);
+
+            for (Long userId : submittersByReviewId.getOrDefault(tbr.getId(), List.of())) {
+                UserPhrase userPhrase = new UserPhrase();
+                userPhrase.setUserId(userId);
+                userPhrase.setPhraseId(phraseId);
+                userPhrases.add(userPhrase);
+            }
+        }
+
+        if (!userPhrases.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_USER_PHRASE, userPhrases, JDBC_BATCH_SIZE, (ps, userPhrase) -> {
+                ps.setLong(1, userPhrase.getUserId());
+                ps.setLong(2, userPhrase.getPhraseId());
+            });
+        }
+        phraseUserCountService.recomputeUserCounts(approvedPhraseIds);
+
+        if (!rejected.isEmpty()) {
+            rejectedPhraseRepository.saveAll(rejected.stream().map(tbr -> new RejectedPhrase(tbr.toString())).toList());
+            for (ToBeReviewed tbr : rejected) {
+                rejectionFilterService.addRejectedPhrase(tbr.toString());
+            }
+        }
+
+        reviewSubmittingUserRepository.deleteAllByToBeReviewedIds(reviewIds);
+    }
 }
@@ -1,13 +1,29 @@
 package com.savvato.tribeapp.services;
 
+import com.savvato.tribeapp.constants.ResourceTypeConstants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
 
 @Slf4j
 @Service
@@ -15,6 +31,12 @@ public class StorageService {
 
 	@Autowired
 	private ResourceTypeService resourceTypeService;
+
+	@Autowired
+	private ImageCacheService imageCacheService;
+
+	@Value("${app.storage.migrate-flat-layout:true}")
+	private boolean migrateFlatLayout;
     
 //    public static final String[] arr = {"static/images/color-block-1.jpg", "static/images/color-block-2.jpg", "static/images/color-block-3.jpg",
 //    		"static/images/color-block-4.jpg", "static/images/color-block-5.jpg", "static/images/color-block-6.jpg", "static/images/color-block-7.jpg"};
@@ -23,30 +45,124 @@ public class StorageService {
     	return resourceType + "Picture_" + resourceId + ".jpg";
     }
 
+	/**
+	 * Writes the upload to a temporary file, then moves it into place with a rename, so a reader sees
+	 * the old file or the new one and never half of one. The bytes are kept once under their SHA-256,
+	 * and the resource is a hard link to them, so identical uploads share a copy. The hash is recorded
+	 * next to the resource, so replacing or deleting it releases the content it was linked to.
+	 */
 	public void store(String resourceType, MultipartFile file, String filename) {
-    	String dir = resourceTypeService.getDirectoryForResourceType(resourceType);
+		Path target = Path.of(resourceTypeService.getDirectoryForResource(resourceType, filename), filename);
 
-		log.debug("******* ****  **** about to do StorageService::store() " + dir + File.separator + filename);
+		log.debug("******* ****  **** about to do StorageService::store() " + target);
 
-    	try {
-    		File fdir = new File(dir);
-    		fdir.mkdirs();
-    	} catch (Exception e) {
-    		throw e;
-    	}
+		try {
+			Path tmpDir = Path.of(resourceTypeService.getTemporaryDirectoryForResourceType(resourceType));
+			Files.createDirectories(tmpDir);
 
-    	try {
-			file.transferTo(new File(dir + File.separator + filename));
-		} catch (IllegalStateException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			Path upload = Files.createTempFile(tmpDir, "upload-", ".tmp");
+			try {
+				MessageDigest digest = newContentDigest();
+				try (InputStream is = new DigestInputStream(file.getInputStream(), digest)) {
+					Files.copy(is, upload, StandardCopyOption.REPLACE_EXISTING);
+				}
+
+				String contentHash = HexFormat.of().formatHex(digest.digest());
+				Path content = Path.of(resourceTypeService.getDirectoryForContent(resourceType, contentHash), contentHash);
+				Files.createDirectories(content.getParent());
+
+				Files.createDirectories(target.getParent());
+				String replacedHash = readContentHash(target);
+
+				Path link = target.resolveSibling("." + filename + "." + UUID.randomUUID() + ".tmp");
+				try {
+					// the upload stays linked to the content until the resource is, so a delete can't release it in between
+					publishContent(upload, content);
+					try {
+						linkOrCopy(content, link);
+					} catch (NoSuchFileException e) {
+						// identical content was stored already, but its last resource was deleted since; store it again
+						publishContent(upload, content);
+						linkOrCopy(content, link);
+					}
+					Files.move(link, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				} finally {
+					Files.deleteIfExists(link);
+				}
+
+				Files.writeString(contentHashFile(target), contentHash);
+
+				if (replacedHash != null && !replacedHash.equals(contentHash)) {
+					deleteContentIfUnused(resourceType, replacedHash);
+				}
+			} finally {
+				Files.deleteIfExists(upload);
+			}
 		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			log.error("Could not store " + target, e);
 		}
 
-    	log.debug("*********     *** successfully exiting the store method .. " + dir + File.separator + filename);
-    }
+		// the variants of the old picture are stale too, until they are written again
+		imageCacheService.invalidate(resourceType, filename);
+
+		log.debug("*********     *** successfully exiting the store method .. " + target);
+	}
+
+	/**
+	 * Moves the resources that are still in the flat layout, directly in the resource type's
+	 * directory, into their own directories. Runs when the application starts, unless
+	 * app.storage.migrate-flat-layout is false, and does nothing once there is nothing left to move.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void migrateFlatLayout() {
+		if (migrateFlatLayout) {
+			migrateFlatLayout(ResourceTypeConstants.RESOURCE_TYPE_PROFILE_IMAGE);
+		}
+	}
+
+	/**
+	 * A resource that is already in its own directory was stored after the flat one, so the flat one
+	 * is deleted rather than moved over it.
+	 *
+	 * @return how many resources were moved
+	 */
+	public int migrateFlatLayout(String resourceType) {
+		Path flat = Path.of(resourceTypeService.getDirectoryForResourceType(resourceType));
+		if (!Files.isDirectory(flat)) {
+			return 0;
+		}
+
+		long start = System.currentTimeMillis();
+		int moved = 0;
+		int outOfDate = 0;
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(flat, path -> Files.isRegularFile(path) && !path.getFileName().toString().startsWith("."))) {
+			for (Path file : files) {
+				String filename = file.getFileName().toString();
+				Path target = Path.of(resourceTypeService.getDirectoryForResource(resourceType, filename), filename);
+
+				try {
+					Files.createDirectories(target.getParent());
+					Files.move(file, target);
+					moved++;
+				} catch (FileAlreadyExistsException e) {
+					Files.deleteIfExists(file);
+					outOfDate++;
+				} catch (IOException e) {
+					log.error("Could not move " + file + " to " + target, e);
+				}
+			}
+		} catch (IOException e) {
+			log.error("Could not list " + flat + " to migrate it", e);
+		}
+
+		if (moved + outOfDate > 0) {
+			log.info("Migrated " + resourceType + " resources from the flat layout: " + moved + " moved, "
+					+ outOfDate + " out of date ones deleted, in " + (System.currentTimeMillis() - start) + "ms.");
+		}
+
+		return moved;
+	}
 
 //    public Resource loadAsResource(String resourceType, String filename) {
 //		String dir = resourceTypeService.getDirectoryForResourceType(resourceType);
@@ -76,7 +192,7 @@ public class StorageService {
      */
     public long isFileExisting(String resourceType, String filename) {
 		long rtn = 0;
-		String dir = resourceTypeService.getDirectoryForResourceType(resourceType);
+		String dir = resourceTypeService.findDirectoryOfResource(resourceType, filename);
 
     	try {
     		File f = new File(dir + File.separator + filename);
@@ -95,23 +211,41 @@ public class StorageService {
     
     public boolean delete(String resourceType, String filename) {
     	boolean rtn = false;
-		String dir = resourceTypeService.getDirectoryForResourceType(resourceType);
+		String dir = resourceTypeService.findDirectoryOfResource(resourceType, filename);
 
 		log.debug("***************}}  Deleting: " + dir + File.separator + filename);
 
 		try {
-    		File f = new File(dir + File.separator + filename);
-    		rtn = f.delete();
-    	} catch (Exception e) {
-    		throw e;
+    		Path f = Path.of(dir, filename);
+    		String contentHash = readContentHash(f);
+
+    		rtn = Files.deleteIfExists(f);
+    		Files.deleteIfExists(contentHashFile(f));
+
+    		if (rtn && contentHash != null) {
+    			deleteContentIfUnused(resourceType, contentHash);
+    		}
+    	} catch (IOException e) {
+    		log.error("Could not delete " + dir + File.separator + filename, e);
     	}
 
+    	imageCacheService.invalidate(resourceType, filename);
+
     	return rtn;
     }
     
+    /**
+     * Returns the file as a Resource that can be streamed straight to the response, or null if
+     * there is no such file. Recently served files come from the image cache.
+     */
+    public Resource loadAsResource(String resourceType, String filename) {
+    	log.debug("*******         Returning a file resource for: " + resourceType + " " + filename);
+
+    	return imageCacheService.getImage(resourceType, filename).orElse(null);
+    }
 
     public byte[] loadAsByteArray(String resourceType, String filename) {
-		String dir = resourceTypeService.getDirectoryForResourceType(resourceType);
+		String dir = resourceTypeService.findDirectoryOfResource(resourceType, filename);
     	log.debug("*******         Returning byte array of file at: " + dir + File.separator + filename);
 
     	byte[] rtn = null;
@@ -153,6 +287,63 @@ public class StorageService {
 //    	return total % 7;
 //    }
     
+	// where the SHA-256 of a resource's content is kept, beside the resource
+	private static Path contentHashFile(Path resource) {
+		return resource.resolveSibling("." + resource.getFileName() + ".sha256");
+	}
+
+	// null for a resource that isn't linked to stored content, such as one from the flat layout
+	private static String readContentHash(Path resource) throws IOException {
+		try {
+			String contentHash = Files.readString(contentHashFile(resource)).trim();
+			return contentHash.isEmpty() ? null : contentHash;
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	// the stored content goes once the last resource linked to it is gone
+	private void deleteContentIfUnused(String resourceType, String contentHash) {
+		Path content = Path.of(resourceTypeService.getDirectoryForContent(resourceType, contentHash), contentHash);
+
+		try {
+			if (Files.exists(content) && ((Number) Files.getAttribute(content, "unix:nlink")).intValue() <= 1) {
+				Files.delete(content);
+			}
+		} catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+			log.debug("*******  leaving " + content + " in place: " + e.getMessage());
+		}
+	}
+
+	// makes the upload the stored content, unless identical content is stored already
+	private static void publishContent(Path upload, Path content) throws IOException {
+		try {
+			linkOrCopy(upload, content);
+		} catch (FileAlreadyExistsException e) {
+			log.debug("*******  identical content is already stored as " + content);
+		}
+	}
+
+	private static void linkOrCopy(Path existing, Path link) throws IOException {
+		try {
+			Files.createLink(link, existing);
+		} catch (FileAlreadyExistsException | NoSuchFileException e) {
+			throw e;
+		} catch (UnsupportedOperationException | FileSystemException e) {
+			// a file system without hard links gets a copy
+			Files.copy(existing, link);
+		}
+	}
+
+	private static MessageDigest newContentDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// every JVM has SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
 	private byte[] readFile(Resource resource) throws IOException {
 		byte[] rtn;
 
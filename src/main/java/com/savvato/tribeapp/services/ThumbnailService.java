@@ -0,0 +1,30 @@
+package com.savvato.tribeapp.services;
+
+public interface ThumbnailService {
+
+    enum ThumbnailStatus {
+        NONE,
+        PENDING,
+        PROCESSING,
+        READY,
+        FAILED
+    }
+
+    ThumbnailStatus submit(String resourceType, String filename);
+
+    ThumbnailStatus getStatus(String resourceType, String filename);
+
+    int getQueueDepth();
+
+    int getActiveWorkerCount();
+
+    long getCompletedCount();
+
+    long getTotalLatencyNanos();
+
+    long getRetryCount();
+
+    long getFailedCount();
+
+    long getRanOnCallerCount();
+}
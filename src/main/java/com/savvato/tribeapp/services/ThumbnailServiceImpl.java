@@ -0,0 +1,218 @@
+package com.savvato.tribeapp.services;
+
+import com.savvato.tribeapp.constants.Constants;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates thumbnails of uploaded pictures on a small pool of worker threads, so the upload request
+ * can return as soon as the original is stored.
+ *
+ * Work waits in a bounded queue. When the queue is full, the thread submitting the work generates the
+ * thumbnail itself, which slows uploads down to the rate the workers can keep up with instead of
+ * piling up work or dropping it. A thumbnail that fails is retried a few times with a growing delay,
+ * without holding a worker while it waits. Once it has failed for good, its FAILED status is kept
+ * for app.thumbnails.failed-retention-millis and then forgotten.
+ */
+@Service
+@Slf4j
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    @Autowired
+    PictureService pictureService;
+
+    @Autowired
+    StorageService storageService;
+
+    @Value("${app.thumbnails.workers:2}")
+    int workers;
+
+    @Value("${app.thumbnails.queue-capacity:100}")
+    int queueCapacity;
+
+    @Value("${app.thumbnails.max-attempts:3}")
+    int maxAttempts;
+
+    @Value("${app.thumbnails.retry-delay-millis:1000}")
+    long retryDelayMillis;
+
+    @Value("${app.thumbnails.failed-retention-millis:600000}")
+    long failedRetentionMillis;
+
+    private ThreadPoolExecutor workerPool;
+    private ScheduledExecutorService retryScheduler;
+
+    // thumbnails that are not finished yet, or that failed recently. A finished thumbnail is known by its file
+    private final ConcurrentHashMap<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong ranOnCaller = new AtomicLong();
+
+    private static final class Job {
+        private final String resourceType;
+        private final String filename;
+        private final long submittedAtNanos = System.nanoTime();
+        private volatile ThumbnailStatus status = ThumbnailStatus.PENDING;
+        private int attempts;
+
+        private Job(String resourceType, String filename) {
+            this.resourceType = resourceType;
+            this.filename = filename;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        workerPool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory("thumbnail-worker-"),
+                (work, executor) -> {
+                    if (!executor.isShutdown()) {
+                        ranOnCaller.incrementAndGet();
+                        work.run();
+                    }
+                });
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("thumbnail-retry-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        workerPool.shutdown();
+    }
+
+    @Override
+    public ThumbnailStatus submit(String resourceType, String filename) {
+        Job job = new Job(resourceType, filename);
+        jobs.put(key(resourceType, filename), job);
+        execute(job);
+        return job.status;
+    }
+
+    @Override
+    public ThumbnailStatus getStatus(String resourceType, String filename) {
+        Job job = jobs.get(key(resourceType, filename));
+        if (job != null) {
+            return job.status;
+        }
+
+        String thumbnailFilename = pictureService.transformFilenameUsingSizeInfo(Constants.PHOTO_SIZE_THUMBNAIL, filename);
+        return storageService.isFileExisting(resourceType, thumbnailFilename) != 0 ? ThumbnailStatus.READY : ThumbnailStatus.NONE;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return workerPool.getQueue().size();
+    }
+
+    @Override
+    public int getActiveWorkerCount() {
+        return workerPool.getActiveCount();
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    @Override
+    public long getTotalLatencyNanos() {
+        return totalLatencyNanos.get();
+    }
+
+    @Override
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failures.get();
+    }
+
+    @Override
+    public long getRanOnCallerCount() {
+        return ranOnCaller.get();
+    }
+
+    private void execute(Job job) {
+        try {
+            workerPool.execute(() -> process(job));
+        } catch (RejectedExecutionException e) {
+            fail(job);
+        }
+    }
+
+    private void process(Job job) {
+        job.status = ThumbnailStatus.PROCESSING;
+        job.attempts++;
+
+        try {
+            pictureService.writeThumbnailFromOriginal(job.resourceType, job.filename);
+
+            totalLatencyNanos.addAndGet(System.nanoTime() - job.submittedAtNanos);
+            completed.incrementAndGet();
+            job.status = ThumbnailStatus.READY;
+            jobs.remove(key(job.resourceType, job.filename), job);
+        } catch (IOException | RuntimeException e) {
+            if (job.attempts < maxAttempts) {
+                long delay = retryDelayMillis << (job.attempts - 1);
+                log.warn("Could not write the thumbnail for " + job.filename + ", trying again in " + delay + "ms - " + e.getMessage());
+
+                job.status = ThumbnailStatus.PENDING;
+                retries.incrementAndGet();
+                try {
+                    retryScheduler.schedule(() -> execute(job), delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException ree) {
+                    fail(job);
+                }
+            } else {
+                log.error("Giving up on the thumbnail for " + job.filename + " after " + job.attempts + " attempts.", e);
+
+                failures.incrementAndGet();
+                fail(job);
+            }
+        }
+    }
+
+    // marks the job failed, and forgets it once the failure has been reported for long enough
+    private void fail(Job job) {
+        job.status = ThumbnailStatus.FAILED;
+        try {
+            retryScheduler.schedule(() -> jobs.remove(key(job.resourceType, job.filename), job), failedRetentionMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shutting down, the map goes with the service
+        }
+    }
+
+    private static String key(String resourceType, String filename) {
+        return resourceType + "/" + filename;
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return work -> {
+            Thread thread = new Thread(work, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -9,6 +9,8 @@ public interface ToBeReviewedCheckerService {
     void updateUngroomedPhrases();
     boolean checkPartOfSpeech(String word, String expectedPartOfSpeech);
 
+    boolean isValidPhrase(ToBeReviewed tbr);
+
     void validatePhrase(ToBeReviewed tbr);
 
     void updateTables(ToBeReviewed tbr);
@@ -5,11 +5,13 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.savvato.tribeapp.constants.Constants;
 import com.savvato.tribeapp.entities.RejectedPhrase;
-import com.savvato.tribeapp.entities.ReviewSubmittingUser;
 import com.savvato.tribeapp.entities.ToBeReviewed;
 import com.savvato.tribeapp.repositories.RejectedPhraseRepository;
 import com.savvato.tribeapp.repositories.ReviewSubmittingUserRepository;
 import com.savvato.tribeapp.repositories.ToBeReviewedRepository;
+import com.savvato.tribeapp.utils.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.Generated;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,24 +24,42 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @Slf4j
 public class ToBeReviewedCheckerServiceImpl implements ToBeReviewedCheckerService {
 
+    // stands in for the parts of speech of a word the Words API knows but gave none for
+    private static final String UNKNOWN_PART_OF_SPEECH = "?";
+
     @Autowired
     ToBeReviewedRepository toBeReviewedRepository;
     @Autowired
     RejectedPhraseRepository rejectedPhraseRepository;
     @Autowired
     ReviewSubmittingUserRepository reviewSubmittingUserRepository;
+    @Autowired
+    RejectionFilterService rejectionFilterService;
+    @Autowired
+    PartOfSpeechCacheService partOfSpeechCacheService;
+    @Autowired
+    WordClassifier wordClassifier;
 
     @Autowired
     RestTemplate restTemplate;
@@ -47,14 +67,101 @@ public class ToBeReviewedCheckerServiceImpl implements ToBeReviewedCheckerServic
     @Value("${WORDS_API_KEY}")
     private String apiKey;
 
+    @Value("${app.words-api.base-url:https://wordsapiv1.p.rapidapi.com}")
+    String wordsApiBaseUrl;
+
+    @Value("${app.words-api.enabled:true}")
+    boolean wordsApiEnabled;
+
+    @Value("${app.grooming.parallelism:8}")
+    int parallelism;
+
+    @Value("${app.grooming.page-size:100}")
+    int pageSize;
+
+    @Value("${app.words-api.requests-per-second:5}")
+    double wordsApiRequestsPerSecond;
+
+    @Value("${app.words-api.burst:5}")
+    long wordsApiBurst;
+
+    private TokenBucket wordsApiRateLimit;
+    private ExecutorService groomingPool;
+
+    @PostConstruct
+    public void init() {
+        wordsApiRateLimit = new TokenBucket(wordsApiRequestsPerSecond, wordsApiBurst);
+
+        AtomicInteger count = new AtomicInteger();
+        groomingPool = Executors.newFixedThreadPool(parallelism, work -> {
+            Thread thread = new Thread(work, "grooming-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        groomingPool.shutdownNow();
+    }
+
+    /**
+     * Grooms the ungroomed phrases a page at a time, checking the phrases of a page in parallel and
+     * saving the page's results together. How fast this goes is mostly up to the Words API rate limit.
+     * A phrase that couldn't be checked, because the API was over its limit or down, stays ungroomed
+     * for the next run.
+     */
     @Scheduled(fixedDelayString = "PT10M")
     @Override
     public void updateUngroomedPhrases() {
         log.info("from service: Beginning updateUngroomedPhrases process...");
-        List<ToBeReviewed> ungroomedPhrases = toBeReviewedRepository.getAllUngroomed();
-        for (ToBeReviewed tbr : ungroomedPhrases) {
-            validatePhrase(tbr);
-        }
+        long start = System.currentTimeMillis();
+        int groomedCount = 0;
+        int rejectedCount = 0;
+        int deferredCount = 0;
+
+        long lastId = 0;
+        List<ToBeReviewed> page;
+        do {
+            page = toBeReviewedRepository.findUngroomedAfter(lastId, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).getId();
+
+            List<Future<Boolean>> checks = new ArrayList<>(page.size());
+            for (ToBeReviewed tbr : page) {
+                checks.add(groomingPool.submit(() -> isValidPhrase(tbr)));
+            }
+
+            List<ToBeReviewed> groomed = new ArrayList<>();
+            List<ToBeReviewed> rejected = new ArrayList<>();
+            for (int i = 0; i < page.size(); i++) {
+                ToBeReviewed tbr = page.get(i);
+                try {
+                    if (checks.get(i).get()) {
+                        groomed.add(tbr);
+                    } else {
+                        rejected.add(tbr);
+                    }
+                } catch (ExecutionException e) {
+                    log.warn("Could not check " + tbr + ", leaving it for the next run - " + e.getCause().getMessage());
+                    deferredCount++;
+                } catch (InterruptedException e) {
+                    checks.forEach(check -> check.cancel(true));
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+
+            saveGroomedPhrases(groomed);
+            rejectPhrases(rejected);
+            groomedCount += groomed.size();
+            rejectedCount += rejected.size();
+        } while (page.size() == pageSize);
+
+        log.info("from service: updateUngroomedPhrases groomed " + groomedCount + ", rejected " + rejectedCount
+                + " and left " + deferredCount + " for the next run, in " + (System.currentTimeMillis() - start) + "ms.");
     }
 
     @Override
@@ -62,12 +169,23 @@ public class ToBeReviewedCheckerServiceImpl implements ToBeReviewedCheckerServic
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.set("X-RapidAPI-Key", apiKey);
         httpHeaders.set("X-RapidAPI-Host", "wordsapiv1.p.rapidapi.com");
-        String url = "https://wordsapiv1.p.rapidapi.com/words/" + word;
+        String url = wordsApiBaseUrl + "/words/" + word;
         HttpEntity<Void> entity = new HttpEntity<>(httpHeaders);
         ResponseEntity<String> response = null;
         Optional responseJson = Optional.empty();
+
+        try {
+            wordsApiRateLimit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to call the Words API about " + word, e);
+        }
+
         try {
             response = restTemplate.exchange(url, HttpMethod.GET, entity, String.class);
+        } catch (HttpClientErrorException.TooManyRequests | HttpServerErrorException | ResourceAccessException e) {
+            // says nothing about the word, so it mustn't get the phrase rejected, nor be remembered as the answer
+            throw e;
         } catch (RestClientException e) {
             log.warn(word + " isn't an English word!");
             return responseJson;
@@ -77,51 +195,100 @@ public class ToBeReviewedCheckerServiceImpl implements ToBeReviewedCheckerServic
         return responseJson;
     }
 
+    /**
+     * Checks the word's parts of speech in the local lexicon first. The lexicon is an open word list
+     * that may have some senses of a word and not others, so it can only confirm a part of speech.
+     * Any other word goes on to the Words API, through PartOfSpeechCacheService, so it's asked about
+     * once rather than every time. With the Words API turned off, such a word is left for manual review.
+     */
     @Override
     public boolean checkPartOfSpeech(String word, String expectedPartOfSpeech) {
-        Optional<JsonObject> wordDetails = getWordDetails(word);
-        if (wordDetails.isEmpty()) {
-            return false;
+        Optional<Set<String>> fromLexicon = wordClassifier.getPartsOfSpeech(word);
+        if (fromLexicon.isPresent() && fromLexicon.get().contains(expectedPartOfSpeech)) {
+            return true;
+        }
+
+        Optional<Set<String>> known = partOfSpeechCacheService.getPartsOfSpeech(word);
+
+        Set<String> partsOfSpeech;
+        if (known.isPresent()) {
+            partsOfSpeech = known.get();
+        } else if (wordsApiEnabled) {
+            partsOfSpeech = lookUpPartsOfSpeech(word);
+            partOfSpeechCacheService.putPartsOfSpeech(word, partsOfSpeech);
         } else {
-            JsonArray definitions;
-            Set<String> partsOfSpeech = new HashSet<>();
-
-            try {
-                definitions = wordDetails.get().getAsJsonArray("results");
-
-                for (int i = 0; i < definitions.size(); i++) {
-                    JsonObject definition = definitions.get(i).getAsJsonObject();
-                    try {
-                        partsOfSpeech.add(definition.get("partOfSpeech").getAsString());
-                    } catch (UnsupportedOperationException e) {
-                        // Words API may occasionally have a null parts of speech. This is an error on their part.
-                        log.warn(word + " is missing a parts of speech definition from the Words API. Set for manual review.");
-                        return true;
-                    }
-                }
+            log.warn(word + " isn't in the lexicon as a(n) " + expectedPartOfSpeech + ", and the Words API is turned off. Set for manual review.");
+            return true;
+        }
 
-            } catch (NullPointerException e) {
-                // Words API may occasionally have a null results set. This is an error on their part.
-                log.warn(word + " is missing a results set from the Words API. Set for manual review.");
+        if (partsOfSpeech.isEmpty()) {
+            if (fromLexicon.isPresent()) {
+                // a word the lexicon has isn't rejected on the Words API not knowing it
+                log.warn(word + " is in the lexicon, but not the Words API. Set for manual review.");
                 return true;
             }
+            log.warn(word + " isn't an English word!");
+            return false;
+        }
 
-            if (partsOfSpeech.contains(expectedPartOfSpeech)) {
-                return true;
-            } else {
-                log.warn(word + " isn't a(n) " + expectedPartOfSpeech + "!");
-                return false;
+        if (partsOfSpeech.contains(UNKNOWN_PART_OF_SPEECH)) {
+            log.warn(word + " has no parts of speech from the Words API. Set for manual review.");
+            return true;
+        }
+
+        if (partsOfSpeech.contains(expectedPartOfSpeech)) {
+            return true;
+        } else {
+            log.warn(word + " isn't a(n) " + expectedPartOfSpeech + "!");
+            return false;
+        }
+    }
+
+    // the word's parts of speech according to the Words API; none if it isn't a word
+    private Set<String> lookUpPartsOfSpeech(String word) {
+        Optional<JsonObject> wordDetails = getWordDetails(word);
+        if (wordDetails.isEmpty()) {
+            return Set.of();
+        }
+
+        JsonArray definitions;
+        Set<String> partsOfSpeech = new HashSet<>();
+
+        try {
+            definitions = wordDetails.get().getAsJsonArray("results");
+
+            for (int i = 0; i < definitions.size(); i++) {
+                JsonObject definition = definitions.get(i).getAsJsonObject();
+                try {
+                    partsOfSpeech.add(definition.get("partOfSpeech").getAsString());
+                } catch (UnsupportedOperationException e) {
+                    // Words API may occasionally have a null parts of speech. This is an error on their part.
+                    log.warn(word + " is missing a parts of speech definition from the Words API.");
+                    return Set.of(UNKNOWN_PART_OF_SPEECH);
+                }
             }
+
+        } catch (NullPointerException e) {
+            // Words API may occasionally have a null results set. This is an error on their part.
+            log.warn(word + " is missing a results set from the Words API.");
+            return Set.of(UNKNOWN_PART_OF_SPEECH);
         }
+
+        return partsOfSpeech;
     }
 
     @Override
-    public void validatePhrase(ToBeReviewed tbr) {
-
-        boolean validPhrase = checkPartOfSpeech(tbr.getNoun(), "noun")
+    public boolean isValidPhrase(ToBeReviewed tbr) {
+        return checkPartOfSpeech(tbr.getNoun(), "noun")
                 && checkPartOfSpeech(tbr.getVerb(), "verb")
                 && (tbr.getAdverb().equals(Constants.NULL_VALUE_WORD) || checkPartOfSpeech(tbr.getAdverb(), "adverb"))
                 && (tbr.getPreposition().equals(Constants.NULL_VALUE_WORD) || checkPartOfSpeech(tbr.getPreposition(), "preposition"));
+    }
+
+    @Override
+    public void validatePhrase(ToBeReviewed tbr) {
+
+        boolean validPhrase = isValidPhrase(tbr);
 
         if (validPhrase) {
             tbr.setHasBeenGroomed(true);
@@ -134,11 +301,37 @@ public class ToBeReviewedCheckerServiceImpl implements ToBeReviewedCheckerServic
 
     @Override
     public void updateTables(ToBeReviewed tbr) {
-        rejectedPhraseRepository.save(new RejectedPhrase(tbr.toString()));
+        rejectPhrases(List.of(tbr));
+    }
+
+    private void saveGroomedPhrases(List<ToBeReviewed> groomed) {
+        if (groomed.isEmpty()) {
+            return;
+        }
+
+        groomed.forEach(tbr -> tbr.setHasBeenGroomed(true));
+        toBeReviewedRepository.saveAll(groomed);
+    }
+
+    // remembers the phrases as rejected, and removes them from review along with who submitted them
+    private void rejectPhrases(List<ToBeReviewed> rejected) {
+        if (rejected.isEmpty()) {
+            return;
+        }
+
+        List<RejectedPhrase> rejectedPhrases = new ArrayList<>(rejected.size());
+        List<Long> ids = new ArrayList<>(rejected.size());
+        for (ToBeReviewed tbr : rejected) {
+            log.warn("Phrase is invalid.");
+            rejectedPhrases.add(new RejectedPhrase(tbr.toString()));
+            ids.add(tbr.getId());
+        }
+        rejectedPhraseRepository.saveAll(rejectedPhrases);
+        rejectedPhrases.forEach(rejectedPhrase -> rejectionFilterService.addRejectedPhrase(rejectedPhrase.getRejectedPhrase()));
+
         // TODO: Create notification for users when their submitted phrase has been rejected after review. Jira TRIB-153
-        ReviewSubmittingUser rsu = new ReviewSubmittingUser(reviewSubmittingUserRepository.findUserIdByToBeReviewedId(tbr.getId()), tbr.getId());
-        reviewSubmittingUserRepository.delete(rsu);
-        toBeReviewedRepository.deleteById(tbr.getId());
+        reviewSubmittingUserRepository.deleteAllByToBeReviewedIds(ids);
+        toBeReviewedRepository.deleteAllByIds(ids);
     }
 
 }
@@ -5,41 +5,47 @@ import com.savvato.tribeapp.dto.ToBeReviewedDTO;
 import com.savvato.tribeapp.entities.ToBeReviewed;
 import com.savvato.tribeapp.repositories.ToBeReviewedRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
+/**
+ * Hands groomed phrases out to reviewers. Each phrase handed out is leased to its reviewer for
+ * app.review.lease-duration-seconds, and nobody else is handed it while the lease lasts. The lease is taken
+ * in the same transaction that finds the phrase, with the row locked and rows locked by other
+ * transactions skipped, so reviewers on any number of app nodes never get the same phrase at once.
+ *
+ * A phrase leaves the pool once a reviewer has decided on it. One a reviewer skipped, or never got
+ * back to, goes back into the pool when its lease runs out.
+ */
 @Service
 public class ToBeReviewedServiceImpl implements ToBeReviewedService {
     @Autowired
     ToBeReviewedRepository toBeReviewedRepository;
 
+    @Value("${app.review.lease-duration-seconds:600}")
+    long leaseDurationSeconds;
+
     @Override
-    public Long getLastAssignedForReview() {
-        return lastAssignedForReviewId;
-    }
-    public void setLastAssignedForReview(Long id) {
-        this.lastAssignedForReviewId = id;
-    }
-    Long lastAssignedForReviewId = 0L;
-    public Optional<ToBeReviewedDTO> getReviewPhrase() {
-        Optional<ToBeReviewed> opt = toBeReviewedRepository.findNextReviewEligible(lastAssignedForReviewId);
+    @Transactional
+    public Optional<ToBeReviewedDTO> getReviewPhrase(Long reviewerId) {
+        Optional<ToBeReviewed> opt = toBeReviewedRepository.findNextReviewEligibleForUpdate();
         if (opt.isPresent()) {
             ToBeReviewed tbr = opt.get();
-            if(tbr.getAdverb().equals(Constants.NULL_VALUE_WORD)){
-                tbr.setAdverb("");
-            }
-            if(tbr.getPreposition().equals(Constants.NULL_VALUE_WORD)){
-                tbr.setPreposition("");
-            }
-            setLastAssignedForReview(tbr.getId());
+            toBeReviewedRepository.lease(tbr.getId(), reviewerId, leaseDurationSeconds);
+
+            // tbr is managed here, so it's left as it is and the placeholders are replaced in the DTO only
+            String adverb = tbr.getAdverb().equals(Constants.NULL_VALUE_WORD) ? "" : tbr.getAdverb();
+            String preposition = tbr.getPreposition().equals(Constants.NULL_VALUE_WORD) ? "" : tbr.getPreposition();
 
             ToBeReviewedDTO rtn = ToBeReviewedDTO.builder()
                     .id(tbr.getId())
                     .hasBeenGroomed(tbr.isHasBeenGroomed())
-                    .adverb(tbr.getAdverb())
+                    .adverb(adverb)
                     .verb(tbr.getVerb())
-                    .preposition(tbr.getPreposition())
+                    .preposition(preposition)
                     .noun(tbr.getNoun())
                     .build();
 
@@ -48,6 +54,4 @@ public class ToBeReviewedServiceImpl implements ToBeReviewedService {
         return Optional.empty();
     }
 
-
-
 }
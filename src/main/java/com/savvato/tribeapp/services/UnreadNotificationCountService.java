@@ -0,0 +1,12 @@
+package com.savvato.tribeapp.services;
+
+public interface UnreadNotificationCountService {
+
+    void incrementUnreadCount(Long userId);
+
+    void decrementUnreadCount(Long userId);
+
+    long getUnreadCount(Long userId);
+
+    long reconcileUnreadCounts();
+}
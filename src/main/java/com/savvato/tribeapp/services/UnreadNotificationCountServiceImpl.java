@@ -0,0 +1,61 @@
+package com.savvato.tribeapp.services;
+
+import com.savvato.tribeapp.entities.UnreadNotificationCount;
+import com.savvato.tribeapp.repositories.UnreadNotificationCountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains unread_notification_count, the number of unread notifications each user has, so that
+ * reading it is a primary key lookup instead of a COUNT over notifications. NotificationService
+ * updates a user's count in the same transaction as the notification it describes. A scheduled
+ * reconciliation recomputes every count from notifications, in case rows were changed outside the
+ * app.
+ */
+@Service
+@Slf4j
+public class UnreadNotificationCountServiceImpl implements UnreadNotificationCountService {
+
+    @Autowired
+    UnreadNotificationCountRepository unreadNotificationCountRepository;
+
+    @Override
+    @Transactional
+    public void incrementUnreadCount(Long userId) {
+        unreadNotificationCountRepository.incrementUnreadCount(userId);
+    }
+
+    @Override
+    @Transactional
+    public void decrementUnreadCount(Long userId) {
+        unreadNotificationCountRepository.decrementUnreadCount(userId);
+    }
+
+    // read from the primary rather than a replica, so a badge refetched right after marking a
+    // notification read doesn't show the old count
+    @Override
+    public long getUnreadCount(Long userId) {
+        return unreadNotificationCountRepository.findById(userId)
+                .map(UnreadNotificationCount::getUnreadCount)
+                .orElse(0L);
+    }
+
+    @Scheduled(fixedDelayString = "PT6H", initialDelayString = "PT6H")
+    @Transactional
+    @Override
+    public long reconcileUnreadCounts() {
+        long drifted = unreadNotificationCountRepository.countDriftedUsers();
+
+        if (drifted > 0) {
+            log.warn("Repairing unread notification counts for " + drifted + " user(s) that drifted from notifications.");
+            unreadNotificationCountRepository.recomputeAllUnreadCounts();
+        } else {
+            log.info("Unread notification counts are in sync with notifications.");
+        }
+
+        return drifted;
+    }
+}
@@ -1,9 +1,9 @@
 package com.savvato.tribeapp.services;
 
-import com.savvato.tribeapp.entities.UserPhraseId;
 import com.savvato.tribeapp.repositories.UserPhraseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +14,9 @@ public class UserPhraseServiceImpl implements UserPhraseService{
     @Autowired
     UserPhraseRepository userPhraseRepository;
 
+    @Autowired
+    PhraseUserCountService phraseUserCountService;
+
     @Override
     public Optional<List<Long>> findPhraseIdsByUserId(Long userId) {
 
@@ -25,12 +28,14 @@ public class UserPhraseServiceImpl implements UserPhraseService{
     }
 
     @Override
+    @Transactional
     public void deletePhraseFromUser(Long phraseId, Long userId) {
-        UserPhraseId userPhraseId = new UserPhraseId();
-        userPhraseId.setPhraseId(phraseId);
-        userPhraseId.setUserId(userId);
+        int deleted = userPhraseRepository.deleteByUserIdAndPhraseId(userId, phraseId);
 
-        userPhraseRepository.deleteById(userPhraseId);
+        // only count users who actually held the phrase
+        if (deleted > 0) {
+            phraseUserCountService.decrementUserCount(phraseId);
+        }
     }
 
 }
@@ -3,6 +3,7 @@ package com.savvato.tribeapp.services;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.savvato.tribeapp.config.principal.JwtPrincipalCache;
 import com.savvato.tribeapp.entities.UserRoleMap;
 import com.savvato.tribeapp.repositories.UserRoleMapRepository;
 
@@ -16,6 +17,9 @@ public class UserRoleMapServiceImpl implements UserRoleMapService {
     @Autowired
     UserRoleMapRepository userRoleMapRepo;
 
+    @Autowired
+    JwtPrincipalCache jwtPrincipalCache;
+
     public List<String> getRoles() {
         // collect each ROLES value's name to list
         return Arrays.stream(UserRoleMapService.ROLES.values()).map(Enum::name).collect(Collectors.toList());
@@ -23,10 +27,12 @@ public class UserRoleMapServiceImpl implements UserRoleMapService {
 
     public void addRoleToUser(Long userId, ROLES role) {
         userRoleMapRepo.save(new UserRoleMap(userId, Long.valueOf(String.valueOf(role.ordinal() + 1))));
+        jwtPrincipalCache.invalidateUser(userId);
     }
 
     public void removeRoleFromUser(Long userId, ROLES role) {
         userRoleMapRepo.delete(new UserRoleMap(userId, Long.valueOf(String.valueOf(role.ordinal() + 1))));
+        jwtPrincipalCache.invalidateUser(userId);
     }
 
     public boolean addRolesToUser(Long userId, ArrayList<String> rolesToAdd) {
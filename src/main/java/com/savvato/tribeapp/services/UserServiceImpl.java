@@ -2,6 +2,7 @@ package com.savvato.tribeapp.services;
 
 import java.util.*;
 
+import com.savvato.tribeapp.config.principal.JwtPrincipalCache;
 import com.savvato.tribeapp.config.principal.UserPrincipal;
 import com.savvato.tribeapp.controllers.dto.UserRequest;
 import com.savvato.tribeapp.dto.UserDTO;
@@ -29,6 +30,9 @@ public class UserServiceImpl implements UserService {
 	@Autowired
 	SMSChallengeCodeService smsccs;
 
+	@Autowired
+	JwtPrincipalCache jwtPrincipalCache;
+
 	// TODO: Implement the preferredContactMethod behavior
 	public Optional<User> createNewUser(UserRequest request, String preferredContactMethod) {
 		if (request.name == null || request.name.length() < 3)
@@ -88,6 +92,7 @@ public class UserServiceImpl implements UserService {
 			user.setLastUpdated();
 
 			User rtn = userRepo.save(user);
+			jwtPrincipalCache.invalidateUser(user.getId());
 
 			return Optional.of(rtn);
 		} else {
@@ -139,6 +144,7 @@ public class UserServiceImpl implements UserService {
 				User user = opt.get().get(0);
 				user.setPassword(passwordEncoder.encode(pw));
 				this.userRepo.save(user);
+				jwtPrincipalCache.invalidateUser(user.getId());
 
 				rtn = getUserDTO(user);
 			}
@@ -0,0 +1,24 @@
+package com.savvato.tribeapp.services;
+
+import java.util.Optional;
+
+public interface VocabularyService {
+
+    void loadVocabulary();
+
+    Optional<Long> findAdverbId(String word);
+
+    Optional<Long> findVerbId(String word);
+
+    Optional<Long> findPrepositionId(String word);
+
+    Optional<Long> findNounId(String word);
+
+    Optional<String> findAdverbById(Long id);
+
+    Optional<String> findVerbById(Long id);
+
+    Optional<String> findPrepositionById(Long id);
+
+    Optional<String> findNounById(Long id);
+}
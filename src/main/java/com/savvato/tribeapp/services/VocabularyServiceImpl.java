@@ -0,0 +1,177 @@
+package com.savvato.tribeapp.services;
+
+import com.savvato.tribeapp.entities.Adverb;
+import com.savvato.tribeapp.entities.Noun;
+import com.savvato.tribeapp.entities.Preposition;
+import com.savvato.tribeapp.entities.Verb;
+import com.savvato.tribeapp.repositories.AdverbRepository;
+import com.savvato.tribeapp.repositories.NounRepository;
+import com.savvato.tribeapp.repositories.PrepositionRepository;
+import com.savvato.tribeapp.repositories.VerbRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Keeps the adverb, verb, preposition and noun tables in memory as word-to-id and id-to-word maps,
+ * so that phrases can be resolved without going to the database. The maps are filled when the
+ * application starts. A word or id that is not in memory yet is looked up in its table once, and
+ * remembered if it is found.
+ */
+@Service
+@Slf4j
+public class VocabularyServiceImpl implements VocabularyService {
+
+    @Autowired
+    AdverbRepository adverbRepository;
+
+    @Autowired
+    VerbRepository verbRepository;
+
+    @Autowired
+    PrepositionRepository prepositionRepository;
+
+    @Autowired
+    NounRepository nounRepository;
+
+    private volatile WordDictionary adverbs = new WordDictionary();
+    private volatile WordDictionary verbs = new WordDictionary();
+    private volatile WordDictionary prepositions = new WordDictionary();
+    private volatile WordDictionary nouns = new WordDictionary();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public void loadVocabulary() {
+        WordDictionary loadedAdverbs = new WordDictionary();
+        WordDictionary loadedVerbs = new WordDictionary();
+        WordDictionary loadedPrepositions = new WordDictionary();
+        WordDictionary loadedNouns = new WordDictionary();
+
+        load(adverbRepository.findAll(), loadedAdverbs, Adverb::getId, Adverb::getWord);
+        load(verbRepository.findAll(), loadedVerbs, Verb::getId, Verb::getWord);
+        load(prepositionRepository.findAll(), loadedPrepositions, Preposition::getId, Preposition::getWord);
+        load(nounRepository.findAll(), loadedNouns, Noun::getId, Noun::getWord);
+
+        adverbs = loadedAdverbs;
+        verbs = loadedVerbs;
+        prepositions = loadedPrepositions;
+        nouns = loadedNouns;
+
+        log.info("Vocabulary loaded: " + adverbs.size() + " adverbs, " + verbs.size() + " verbs, "
+                + prepositions.size() + " prepositions, " + nouns.size() + " nouns.");
+    }
+
+    private <T> void load(Iterable<T> rows, WordDictionary dictionary, Function<T, Long> getId, Function<T, String> getWord) {
+        if (rows == null) {
+            return;
+        }
+        for (T row : rows) {
+            dictionary.put(getId.apply(row), getWord.apply(row));
+        }
+    }
+
+    @Override
+    public Optional<Long> findAdverbId(String word) {
+        return findId(adverbs, word, w -> adverbRepository.findByWord(w).map(a -> remember(adverbs, a.getId(), a.getWord())));
+    }
+
+    @Override
+    public Optional<Long> findVerbId(String word) {
+        return findId(verbs, word, w -> verbRepository.findByWord(w).map(v -> remember(verbs, v.getId(), v.getWord())));
+    }
+
+    @Override
+    public Optional<Long> findPrepositionId(String word) {
+        return findId(prepositions, word, w -> prepositionRepository.findByWord(w).map(p -> remember(prepositions, p.getId(), p.getWord())));
+    }
+
+    @Override
+    public Optional<Long> findNounId(String word) {
+        return findId(nouns, word, w -> nounRepository.findByWord(w).map(n -> remember(nouns, n.getId(), n.getWord())));
+    }
+
+    @Override
+    public Optional<String> findAdverbById(Long id) {
+        return findWord(adverbs, id, i -> adverbRepository.findAdverbById(i));
+    }
+
+    @Override
+    public Optional<String> findVerbById(Long id) {
+        return findWord(verbs, id, i -> verbRepository.findVerbById(i));
+    }
+
+    @Override
+    public Optional<String> findPrepositionById(Long id) {
+        return findWord(prepositions, id, i -> prepositionRepository.findPrepositionById(i));
+    }
+
+    @Override
+    public Optional<String> findNounById(Long id) {
+        return findWord(nouns, id, i -> nounRepository.findNounById(i));
+    }
+
+    private Optional<Long> findId(WordDictionary dictionary, String word, Function<String, Optional<Long>> fromDatabase) {
+        if (word == null) {
+            return Optional.empty();
+        }
+
+        Long id = dictionary.getId(word);
+        if (id != null) {
+            return Optional.of(id);
+        }
+
+        return fromDatabase.apply(word);
+    }
+
+    private Optional<String> findWord(WordDictionary dictionary, Long id, Function<Long, Optional<String>> fromDatabase) {
+        if (id == null) {
+            return Optional.empty();
+        }
+
+        String word = dictionary.getWord(id);
+        if (word != null) {
+            return Optional.of(word);
+        }
+
+        Optional<String> opt = fromDatabase.apply(id);
+        opt.ifPresent(w -> dictionary.put(id, w));
+        return opt;
+    }
+
+    private Long remember(WordDictionary dictionary, Long id, String word) {
+        dictionary.put(id, word);
+        return id;
+    }
+
+    static class WordDictionary {
+        private final Map<String, Long> idsByWord = new ConcurrentHashMap<>();
+        private final Map<Long, String> wordsById = new ConcurrentHashMap<>();
+
+        Long getId(String word) {
+            return idsByWord.get(word);
+        }
+
+        String getWord(Long id) {
+            return wordsById.get(id);
+        }
+
+        void put(Long id, String word) {
+            if (id == null || word == null) {
+                return;
+            }
+            idsByWord.put(word, id);
+            wordsById.put(id, word);
+        }
+
+        int size() {
+            return wordsById.size();
+        }
+    }
+}
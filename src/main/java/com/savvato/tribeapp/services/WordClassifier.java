@@ -0,0 +1,13 @@
+package com.savvato.tribeapp.services;
+
+import java.util.Optional;
+import java.util.Set;
+
+public interface WordClassifier {
+
+    /**
+     * The word's parts of speech, named as the Words API names them, or empty if the classifier
+     * doesn't know the word.
+     */
+    Optional<Set<String>> getPartsOfSpeech(String word);
+}
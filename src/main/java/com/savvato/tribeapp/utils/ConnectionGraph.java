@@ -0,0 +1,241 @@
+package com.savvato.tribeapp.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory index of the connections between users. For every user it keeps a sorted long[] of
+ * the users they requested a connection with, and another of the users who requested one with them.
+ * Lookups are a hash lookup followed by a binary search or a merge of two sorted arrays.
+ *
+ * Reads are safe to call concurrently with writes and never block. A write replaces the affected
+ * arrays with updated copies, which is cheap because connections change far less often than they
+ * are read.
+ */
+public final class ConnectionGraph {
+
+    private static final long[] NONE = new long[0];
+    private static final long NOT_FOUND = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<Long, long[]> requested = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, long[]> requestedBy = new ConcurrentHashMap<>();
+    private final AtomicLong edgeCount = new AtomicLong();
+
+    public boolean addConnection(long requestingUserId, long toBeConnectedWithUserId) {
+        boolean added = add(requested, requestingUserId, toBeConnectedWithUserId);
+        if (added) {
+            add(requestedBy, toBeConnectedWithUserId, requestingUserId);
+            edgeCount.incrementAndGet();
+        }
+        return added;
+    }
+
+    public boolean removeConnection(long requestingUserId, long toBeConnectedWithUserId) {
+        boolean removed = remove(requested, requestingUserId, toBeConnectedWithUserId);
+        if (removed) {
+            remove(requestedBy, toBeConnectedWithUserId, requestingUserId);
+            edgeCount.decrementAndGet();
+        }
+        return removed;
+    }
+
+    /**
+     * The users this user requested a connection with, in ascending id order.
+     */
+    public long[] getRequestedUserIds(long userId) {
+        return requested.getOrDefault(userId, NONE).clone();
+    }
+
+    /**
+     * The users who requested a connection with this user, in ascending id order.
+     */
+    public long[] getRequestingUserIds(long userId) {
+        return requestedBy.getOrDefault(userId, NONE).clone();
+    }
+
+    /**
+     * Everyone this user is connected with, whichever side asked, in ascending id order.
+     */
+    public long[] getConnectedUserIds(long userId) {
+        return union(requested.getOrDefault(userId, NONE), requestedBy.getOrDefault(userId, NONE));
+    }
+
+    public long[] getMutualConnectionIds(long userId, long otherUserId) {
+        return intersection(getConnectedUserIds(userId), getConnectedUserIds(otherUserId));
+    }
+
+    public int getDegree(long userId) {
+        return getConnectedUserIds(userId).length;
+    }
+
+    public boolean isConnected(long userId, long otherUserId) {
+        return Arrays.binarySearch(requested.getOrDefault(userId, NONE), otherUserId) >= 0
+                || Arrays.binarySearch(requested.getOrDefault(otherUserId, NONE), userId) >= 0;
+    }
+
+    /**
+     * The shortest chain of connections from one user to another, both users included, or an empty
+     * array if they are more than maxDepth connections apart.
+     *
+     * Searches outward from both users at once, always expanding whichever side has the smaller
+     * frontier, so the number of users visited grows with half the path length rather than all of it.
+     */
+    public long[] findShortestPath(long fromUserId, long toUserId, int maxDepth) {
+        if (fromUserId == toUserId) {
+            return new long[] {fromUserId};
+        }
+
+        Map<Long, Long> forwardParents = new HashMap<>();
+        Map<Long, Long> backwardParents = new HashMap<>();
+        forwardParents.put(fromUserId, null);
+        backwardParents.put(toUserId, null);
+
+        List<Long> forwardFrontier = List.of(fromUserId);
+        List<Long> backwardFrontier = List.of(toUserId);
+
+        for (int depth = 0; depth < maxDepth && !forwardFrontier.isEmpty() && !backwardFrontier.isEmpty(); depth++) {
+            List<Long> next = new ArrayList<>();
+            long meeting;
+
+            if (forwardFrontier.size() <= backwardFrontier.size()) {
+                meeting = expand(forwardFrontier, next, forwardParents, backwardParents);
+                forwardFrontier = next;
+            } else {
+                meeting = expand(backwardFrontier, next, backwardParents, forwardParents);
+                backwardFrontier = next;
+            }
+
+            if (meeting != NOT_FOUND) {
+                return buildPath(meeting, forwardParents, backwardParents);
+            }
+        }
+
+        return NONE;
+    }
+
+    public long getEdgeCount() {
+        return edgeCount.get();
+    }
+
+    public int getUserCount() {
+        int count = requested.size();
+        for (Long userId : requestedBy.keySet()) {
+            if (!requested.containsKey(userId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long expand(List<Long> frontier, List<Long> next, Map<Long, Long> parents, Map<Long, Long> otherParents) {
+        for (Long userId : frontier) {
+            for (long neighborId : union(requested.getOrDefault(userId, NONE), requestedBy.getOrDefault(userId, NONE))) {
+                if (parents.containsKey(neighborId)) {
+                    continue;
+                }
+
+                parents.put(neighborId, userId);
+                if (otherParents.containsKey(neighborId)) {
+                    return neighborId;
+                }
+                next.add(neighborId);
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private static long[] buildPath(long meeting, Map<Long, Long> forwardParents, Map<Long, Long> backwardParents) {
+        List<Long> path = new ArrayList<>();
+        for (Long userId = meeting; userId != null; userId = forwardParents.get(userId)) {
+            path.add(0, userId);
+        }
+        for (Long userId = backwardParents.get(meeting); userId != null; userId = backwardParents.get(userId)) {
+            path.add(userId);
+        }
+        return path.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static boolean add(ConcurrentHashMap<Long, long[]> index, long userId, long otherUserId) {
+        boolean[] added = new boolean[1];
+        index.compute(userId, (k, current) -> {
+            long[] ids = current == null ? NONE : current;
+            int position = Arrays.binarySearch(ids, otherUserId);
+            if (position >= 0) {
+                return current;
+            }
+
+            int insertAt = -position - 1;
+            long[] updated = new long[ids.length + 1];
+            System.arraycopy(ids, 0, updated, 0, insertAt);
+            updated[insertAt] = otherUserId;
+            System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+            added[0] = true;
+            return updated;
+        });
+        return added[0];
+    }
+
+    private static boolean remove(ConcurrentHashMap<Long, long[]> index, long userId, long otherUserId) {
+        boolean[] removed = new boolean[1];
+        index.computeIfPresent(userId, (k, ids) -> {
+            int position = Arrays.binarySearch(ids, otherUserId);
+            if (position < 0) {
+                return ids;
+            }
+
+            removed[0] = true;
+            if (ids.length == 1) {
+                return null;
+            }
+
+            long[] updated = new long[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+            return updated;
+        });
+        return removed[0];
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        long[] result = new long[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[n++] = b[j++];
+            } else {
+                result[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            result[n++] = a[i++];
+        }
+        while (j < b.length) {
+            result[n++] = b[j++];
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    private static long[] intersection(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+}
@@ -0,0 +1,228 @@
+package com.savvato.tribeapp.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A read-only word list that maps each word to a bitset of its parts of speech, kept in a file that
+ * is memory-mapped rather than read onto the heap. The file is laid out as
+ *
+ *   int     magic ("TRLX") and int version
+ *   int     word count n
+ *   int[n+1] offset of each word in the word bytes, and the end of the last one
+ *   byte[n] parts of speech of each word, one bit per entry of PARTS_OF_SPEECH
+ *   byte[]  the words, lowercase UTF-8, sorted bytewise
+ *
+ * so a lookup is a binary search over the mapped bytes, with nothing to parse or allocate up front.
+ * Lookups are safe to call concurrently.
+ *
+ * The main method builds the file from tab separated word lists, one word per line followed by its
+ * comma separated parts of speech, e.g. "chess\tnoun"; see the lexicon profile in the pom.
+ */
+public final class Lexicon {
+
+    /** The parts of speech a lexicon can tell apart, in bit order, named as the Words API names them. */
+    public static final List<String> PARTS_OF_SPEECH = List.of(
+            "noun", "verb", "adjective", "adverb", "preposition", "pronoun", "conjunction", "determiner");
+
+    private static final int MAGIC = 0x54524C58;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+
+    private final ByteBuffer buffer;
+    private final int wordCount;
+    private final int partsOfSpeechStart;
+    private final int wordsStart;
+
+    private Lexicon(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " lexicon file.");
+        }
+
+        this.buffer = buffer;
+        this.wordCount = buffer.getInt(8);
+        this.partsOfSpeechStart = HEADER_BYTES + (wordCount + 1) * Integer.BYTES;
+        this.wordsStart = partsOfSpeechStart + wordCount;
+
+        if (wordCount < 0 || wordsStart > buffer.capacity() || wordsStart + offset(wordCount) > buffer.capacity()) {
+            throw new IOException("The lexicon file is truncated.");
+        }
+    }
+
+    /**
+     * Maps the lexicon file into memory. The mapping stays valid after this returns, and lasts until
+     * the Lexicon is garbage collected.
+     */
+    public static Lexicon open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Lexicon(mapped);
+        }
+    }
+
+    public int size() {
+        return wordCount;
+    }
+
+    /**
+     * The parts of speech of the word, as a bitset over PARTS_OF_SPEECH, or 0 if the word isn't in
+     * the lexicon.
+     */
+    public int lookup(String word) {
+        byte[] key = normalize(word).getBytes(StandardCharsets.UTF_8);
+
+        int low = 0;
+        int high = wordCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareWordTo(middle, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return buffer.get(partsOfSpeechStart + middle) & 0xff;
+            }
+        }
+        return 0;
+    }
+
+    public static Set<String> toPartsOfSpeech(int bits) {
+        Set<String> partsOfSpeech = new LinkedHashSet<>();
+        for (int i = 0; i < PARTS_OF_SPEECH.size(); i++) {
+            if ((bits & (1 << i)) != 0) {
+                partsOfSpeech.add(PARTS_OF_SPEECH.get(i));
+            }
+        }
+        return partsOfSpeech;
+    }
+
+    /**
+     * The bitset of the given parts of speech; ones the lexicon can't tell apart are left out.
+     */
+    public static int toBits(Iterable<String> partsOfSpeech) {
+        int bits = 0;
+        for (String partOfSpeech : partsOfSpeech) {
+            int index = PARTS_OF_SPEECH.indexOf(partOfSpeech.trim().toLowerCase(Locale.ROOT));
+            if (index >= 0) {
+                bits |= 1 << index;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Writes a lexicon of the given words and their parts of speech bitsets. Words are normalized as
+     * lookups are, and the bits of a word that appears more than once are combined. Words without any
+     * bits are left out. The file is written to a temporary file and moved into place, so a running
+     * app never maps a half written one.
+     */
+    public static void write(Map<String, Integer> partsOfSpeechByWord, Path file) throws IOException {
+        TreeMap<byte[], Integer> sorted = new TreeMap<>(Arrays::compareUnsigned);
+        partsOfSpeechByWord.forEach((word, bits) -> {
+            if (bits != 0 && !normalize(word).isEmpty()) {
+                sorted.merge(normalize(word).getBytes(StandardCharsets.UTF_8), bits, (a, b) -> a | b);
+            }
+        });
+
+        Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(temporary);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sorted.size());
+
+                int offset = 0;
+                for (byte[] word : sorted.keySet()) {
+                    out.writeInt(offset);
+                    offset += word.length;
+                }
+                out.writeInt(offset);
+
+                for (int bits : sorted.values()) {
+                    out.writeByte(bits);
+                }
+                for (byte[] word : sorted.keySet()) {
+                    out.write(word);
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Builds a lexicon file: the first argument is the file to write, the rest are the word lists to
+     * build it from. Lines starting with # are comments.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: Lexicon <lexicon file> <word list>...");
+            System.exit(1);
+        }
+
+        Map<String, Integer> partsOfSpeechByWord = new TreeMap<>();
+        for (int i = 1; i < args.length; i++) {
+            for (String line : Files.readAllLines(Path.of(args[i]), StandardCharsets.UTF_8)) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\t");
+                if (columns.length != 2) {
+                    continue;
+                }
+                int bits = toBits(List.of(columns[1].split(",")));
+                partsOfSpeechByWord.merge(normalize(columns[0]), bits, (a, b) -> a | b);
+            }
+        }
+
+        Path file = Path.of(args[0]);
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        write(partsOfSpeechByWord, file);
+
+        System.out.println("Wrote " + open(file).size() + " words to " + file);
+    }
+
+    private static String normalize(String word) {
+        return word.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private int offset(int index) {
+        return buffer.getInt(HEADER_BYTES + index * Integer.BYTES);
+    }
+
+    // compares the index'th word with the key, bytewise and unsigned, as the words were sorted
+    private int compareWordTo(int index, byte[] key) {
+        int start = wordsStart + offset(index);
+        int length = offset(index + 1) - offset(index);
+
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int comparison = Integer.compare(buffer.get(start + i) & 0xff, key[i] & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+}
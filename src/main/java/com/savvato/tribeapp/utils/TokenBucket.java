@@ -0,0 +1,55 @@
+package com.savvato.tribeapp.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A token bucket rate limiter. Tokens are added at a steady rate up to a fixed capacity, and each
+ * permit takes one, so callers get at most the rate on average with bursts of up to the capacity.
+ * Safe to call concurrently; waiting callers are served in turn.
+ */
+public final class TokenBucket {
+
+    private final long capacity;
+    private final double nanosPerToken;
+
+    // held while waiting for a token, so waiting callers queue up instead of racing each other
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double permitsPerSecond, long capacity) {
+        if (permitsPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Rate and capacity must be positive.");
+        }
+
+        this.capacity = capacity;
+        this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, waiting for one if the bucket is empty.
+     */
+    public void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            refill();
+            while (tokens < 1) {
+                long waitNanos = (long) Math.ceil((1 - tokens) * nanosPerToken);
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+                refill();
+            }
+            tokens -= 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / nanosPerToken);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,95 @@
+package com.savvato.tribeapp.benchmarks;
+
+import com.savvato.tribeapp.config.CacheProperties;
+import com.savvato.tribeapp.services.CacheService;
+import com.savvato.tribeapp.services.CacheServiceImpl;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Fills QR code and SMS challenge caches configured like production, with a small heap tier and an
+ * off-heap tier, and reports how the heap grows as the number of live codes does. Heap figures are
+ * taken after asking for a GC, so they are indicative rather than exact. Not part of the unit test
+ * run; start it from the IDE, or with
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.savvato.tribeapp.benchmarks.CacheOffHeapBenchmark
+ *
+ * Settings: cache.heapEntries (1000), cache.offHeapMb (64), cache.codesPerStep (50000) and
+ * cache.steps (4). The same codes kept on the heap would take roughly 200 bytes each.
+ */
+public class CacheOffHeapBenchmark {
+
+    private static final String QR_CODES = "ConnectQRCodeString";
+    private static final String SMS_CODES = "SMSChallengeCodesByPhoneNumber";
+
+    private static final int HEAP_ENTRIES = Integer.getInteger("cache.heapEntries", 1000);
+    private static final int OFF_HEAP_MB = Integer.getInteger("cache.offHeapMb", 64);
+
+    @Configuration
+    static class CacheConfiguration {
+        @Bean
+        public CacheProperties cacheProperties() {
+            CacheProperties rtn = new CacheProperties();
+            rtn.getCaches().put(QR_CODES, offHeapSpec());
+            rtn.getCaches().put(SMS_CODES, offHeapSpec());
+            return rtn;
+        }
+
+        private static CacheProperties.CacheSpec offHeapSpec() {
+            CacheProperties.CacheSpec spec = new CacheProperties.CacheSpec();
+            spec.setHeapEntries(HEAP_ENTRIES);
+            spec.setOffHeapMb(OFF_HEAP_MB);
+            return spec;
+        }
+
+        @Bean
+        public CacheService cacheService() {
+            return new CacheServiceImpl();
+        }
+    }
+
+    public static void main(String[] args) {
+        int codesPerStep = Integer.getInteger("cache.codesPerStep", 50_000);
+        int steps = Integer.getInteger("cache.steps", 4);
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(CacheConfiguration.class)) {
+            CacheService cacheService = context.getBean(CacheService.class);
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+            // warm up the caches so their fixed structures are counted in the baseline
+            putCodes(cacheService, 0, HEAP_ENTRIES * 2);
+            long baseline = usedHeapAfterGc(memory);
+
+            System.out.printf("%14s %16s %12s %12s%n", "codes/cache", "heap growth KB", "evictions", "hit%");
+            for (int step = 1; step <= steps; step++) {
+                putCodes(cacheService, step * codesPerStep, codesPerStep);
+                for (int i = step * codesPerStep; i < (step + 1) * codesPerStep; i++) {
+                    cacheService.get(QR_CODES, String.valueOf(i));
+                }
+
+                long growth = usedHeapAfterGc(memory) - baseline;
+                System.out.printf("%14d %16d %12d %12.1f%n", step * codesPerStep, growth / 1024,
+                        cacheService.getStatistics(QR_CODES).get().evictions + cacheService.getStatistics(SMS_CODES).get().evictions,
+                        cacheService.getStatistics(QR_CODES).get().hitPercentage);
+            }
+        }
+    }
+
+    private static void putCodes(CacheService cacheService, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            cacheService.put(QR_CODES, String.valueOf(i), "QR" + i);
+            cacheService.put(SMS_CODES, "+1555" + i, "SMS" + i);
+        }
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
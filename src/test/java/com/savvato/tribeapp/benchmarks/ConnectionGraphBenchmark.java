@@ -0,0 +1,93 @@
+package com.savvato.tribeapp.benchmarks;
+
+import com.savvato.tribeapp.utils.ConnectionGraph;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ConnectionGraph lookups on synthetic random graphs. Not part of the unit test run; start
+ * it from the IDE, or with
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.savvato.tribeapp.benchmarks.ConnectionGraphBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ConnectionGraphBenchmark {
+
+    @Param({"100000", "1000000"})
+    int users;
+
+    @Param({"1000000", "3000000"})
+    int connections;
+
+    ConnectionGraph graph;
+    long[] fromUserIds;
+    long[] toUserIds;
+    int next;
+
+    @Setup(Level.Trial)
+    public void buildGraph() {
+        SplittableRandom random = new SplittableRandom(42);
+        graph = new ConnectionGraph();
+
+        while (graph.getEdgeCount() < connections) {
+            long from = 1 + random.nextInt(users);
+            long to = 1 + random.nextInt(users);
+            if (from != to && !graph.isConnected(from, to)) {
+                graph.addConnection(from, to);
+            }
+        }
+
+        fromUserIds = new long[1024];
+        toUserIds = new long[1024];
+        for (int i = 0; i < fromUserIds.length; i++) {
+            fromUserIds[i] = 1 + random.nextInt(users);
+            toUserIds[i] = 1 + random.nextInt(users);
+        }
+    }
+
+    private int nextPair() {
+        next = (next + 1) & (fromUserIds.length - 1);
+        return next;
+    }
+
+    @Benchmark
+    public boolean isConnected() {
+        int i = nextPair();
+        return graph.isConnected(fromUserIds[i], toUserIds[i]);
+    }
+
+    @Benchmark
+    public long[] connectedUserIds() {
+        return graph.getConnectedUserIds(fromUserIds[nextPair()]);
+    }
+
+    @Benchmark
+    public long[] mutualConnections() {
+        int i = nextPair();
+        return graph.getMutualConnectionIds(fromUserIds[i], toUserIds[i]);
+    }
+
+    @Benchmark
+    public long[] shortestPath() {
+        int i = nextPair();
+        return graph.findShortestPath(fromUserIds[i], toUserIds[i], 6);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ConnectionGraphBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,294 @@
+package com.savvato.tribeapp.benchmarks;
+
+import com.savvato.tribeapp.config.ConnectWebSocketConfig;
+import com.savvato.tribeapp.config.filters.NotificationCatchUpInterceptor;
+import com.savvato.tribeapp.config.filters.StompAuthenticationInterceptor;
+import com.savvato.tribeapp.config.principal.JwtAuthenticator;
+import com.savvato.tribeapp.config.principal.JwtPrincipalCache;
+import com.savvato.tribeapp.config.principal.UserPrincipal;
+import com.savvato.tribeapp.dto.NotificationDTO;
+import com.savvato.tribeapp.entities.User;
+import com.savvato.tribeapp.services.AuthServiceImpl;
+import com.savvato.tribeapp.services.NotificationPushService;
+import com.savvato.tribeapp.services.NotificationPushServiceImpl;
+import com.savvato.tribeapp.services.NotificationService;
+import com.savvato.tribeapp.services.UserPrincipalService;
+import org.mockito.Mockito;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Opens thousands of STOMP sessions, each as its own user and subscribed to its notifications, then
+ * pushes rounds of notifications to every one of them and reports the fan-out latency (from a
+ * notification being pushed to its session receiving it) and the heap each session costs.
+ *
+ * It starts the WebSocket side of the app in-process, on a random port, with the real broker
+ * config, interceptors, token check and push service, but without a database: users are looked up
+ * by a stub, and nothing is missed, so subscriptions catch up on nothing. Run it with
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.savvato.tribeapp.benchmarks.NotificationPushSoakBenchmark \
+ *       -Dsoak.subscribers=5000 -Dsoak.rounds=20
+ *
+ * Other settings: soak.connectConcurrency (200) and soak.timeoutSeconds (60). Clients and server
+ * share the JVM, so the heap per session is both ends of a connection together; raise -Xmx for
+ * large runs, and the open file limit, as each session is two sockets.
+ */
+public class NotificationPushSoakBenchmark {
+
+    private static final String SUBSCRIPTION = NotificationCatchUpInterceptor.NOTIFICATIONS_SUBSCRIPTION;
+    private static final Pattern NOTIFICATION_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(excludeName = {
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration",
+            "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.rest.RepositoryRestMvcAutoConfiguration",
+            "org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration",
+            "org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration",
+            "org.springframework.boot.actuate.autoconfigure.security.servlet.ManagementWebSecurityAutoConfiguration"
+    })
+    @Import({ConnectWebSocketConfig.class, StompAuthenticationInterceptor.class, NotificationCatchUpInterceptor.class,
+            NotificationPushServiceImpl.class})
+    static class SoakConfiguration {
+
+        @Bean
+        JwtPrincipalCache jwtPrincipalCache() {
+            return new JwtPrincipalCache(100_000, 600);
+        }
+
+        @Bean
+        JwtAuthenticator jwtAuthenticator(UserPrincipalService userPrincipalService, JwtPrincipalCache jwtPrincipalCache) {
+            return new JwtAuthenticator(userPrincipalService, jwtPrincipalCache);
+        }
+
+        @Bean
+        UserPrincipalService userPrincipalService() {
+            // tokens are issued to "soak<id>@example.com", so the user's id is in their email
+            UserPrincipalService userPrincipalService = Mockito.mock(UserPrincipalService.class);
+            when(userPrincipalService.getUserPrincipalByEmail(anyString())).thenAnswer(invocation -> {
+                String email = invocation.getArgument(0);
+                return new UserPrincipal(user(Long.parseLong(email.substring(4, email.indexOf('@')))));
+            });
+            return userPrincipalService;
+        }
+
+        @Bean
+        NotificationService notificationService() {
+            NotificationService notificationService = Mockito.mock(NotificationService.class);
+            when(notificationService.getUserNotificationsAfter(anyLong(), anyLong())).thenReturn(List.of());
+            return notificationService;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int subscribers = Integer.getInteger("soak.subscribers", 2000);
+        int rounds = Integer.getInteger("soak.rounds", 10);
+        int connectConcurrency = Integer.getInteger("soak.connectConcurrency", 200);
+        long timeoutSeconds = Long.getLong("soak.timeoutSeconds", 60);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SoakConfiguration.class)
+                .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run(args);
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        NotificationPushService pushService = context.getBean(NotificationPushService.class);
+        SimpUserRegistry simpUserRegistry = context.getBean(SimpUserRegistry.class);
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setInboundMessageSizeLimit(64 * 1024);
+        String url = "ws://localhost:" + port + "/connect/room/websocket";
+
+        // the send time of each notification by id, and each receipt's latency in nanoseconds
+        ConcurrentHashMap<Long, Long> sentNanos = new ConcurrentHashMap<>();
+        long[] latencies = new long[subscribers * rounds];
+        AtomicInteger received = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch[] roundLatch = new CountDownLatch[1];
+
+        StompFrameHandler notificationHandler = new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                long now = System.nanoTime();
+                Matcher matcher = NOTIFICATION_ID.matcher(new String((byte[]) payload, StandardCharsets.UTF_8));
+                Long sent = matcher.find() ? sentNanos.get(Long.parseLong(matcher.group(1))) : null;
+                if (sent == null) {
+                    failures.incrementAndGet();
+                    return;
+                }
+                int index = received.getAndIncrement();
+                if (index < latencies.length) {
+                    latencies[index] = now - sent;
+                }
+                roundLatch[0].countDown();
+            }
+        };
+
+        long heapBefore = usedHeap();
+
+        List<StompSession> sessions = connect(stompClient, url, subscribers, connectConcurrency, notificationHandler, timeoutSeconds);
+
+        // the registry hears of a subscription just before the broker does, so give the broker a moment after it
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        while (simpUserRegistry.findSubscriptions(s -> SUBSCRIPTION.equals(s.getDestination())).size() < subscribers
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(500);
+
+        long heapAfter = usedHeap();
+
+        // one untimed round, so the measured ones run warm
+        AtomicLong nextId = new AtomicLong(1);
+        roundLatch[0] = new CountDownLatch(subscribers);
+        pushRound(pushService, subscribers, nextId, sentNanos);
+        roundLatch[0].await(timeoutSeconds, TimeUnit.SECONDS);
+        received.set(0);
+
+        int timedOutRounds = 0;
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            roundLatch[0] = new CountDownLatch(subscribers);
+            pushRound(pushService, subscribers, nextId, sentNanos);
+            if (!roundLatch[0].await(timeoutSeconds, TimeUnit.SECONDS)) {
+                timedOutRounds++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int count = Math.min(received.get(), latencies.length);
+        long[] measured = Arrays.copyOf(latencies, count);
+        Arrays.sort(measured);
+
+        System.out.printf("%9s %7s %10s %9s %9s %9s %9s %10s %14s%n",
+                "sessions", "rounds", "msgs/s", "p50 ms", "p99 ms", "max ms", "missing", "failures", "KB/session");
+        System.out.printf("%9d %7d %10.0f %9.1f %9.1f %9.1f %9d %10d %14.1f%n",
+                sessions.size(), rounds, count / seconds,
+                percentile(measured, 0.50), percentile(measured, 0.99), count == 0 ? Double.NaN : measured[count - 1] / 1e6,
+                (long) subscribers * rounds - count, failures.get() + timedOutRounds,
+                (heapAfter - heapBefore) / 1024.0 / Math.max(1, sessions.size()));
+
+        sessions.forEach(StompSession::disconnect);
+        stompClient.stop();
+        context.close();
+    }
+
+    /**
+     * Connects each user in turn, at most connectConcurrency at a time, and subscribes it to its
+     * notifications. Users whose session fails are left out.
+     */
+    private static List<StompSession> connect(WebSocketStompClient stompClient, String url, int subscribers,
+                                              int connectConcurrency, StompFrameHandler handler, long timeoutSeconds) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(connectConcurrency);
+        List<CompletableFuture<StompSession>> connecting = new ArrayList<>(subscribers);
+
+        for (int i = 1; i <= subscribers; i++) {
+            StompHeaders connectHeaders = new StompHeaders();
+            connectHeaders.add("Authorization", "Bearer " + AuthServiceImpl.generateAccessToken(user(i)));
+
+            inFlight.acquire();
+            CompletableFuture<StompSession> session = stompClient
+                    .connectAsync(url, new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() { })
+                    .thenApply(connected -> {
+                        StompHeaders subscribeHeaders = new StompHeaders();
+                        subscribeHeaders.setDestination(SUBSCRIPTION);
+                        subscribeHeaders.add(NotificationCatchUpInterceptor.LAST_SEEN_ID_HEADER, "0");
+                        connected.subscribe(subscribeHeaders, handler);
+                        return connected;
+                    })
+                    .whenComplete((connected, failure) -> inFlight.release());
+            connecting.add(session);
+        }
+
+        List<StompSession> sessions = new ArrayList<>(subscribers);
+        for (CompletableFuture<StompSession> session : connecting) {
+            try {
+                sessions.add(session.get(timeoutSeconds, TimeUnit.SECONDS));
+            } catch (Exception e) {
+                // counted as a missing session below
+            }
+        }
+        if (sessions.size() < subscribers) {
+            System.out.println((subscribers - sessions.size()) + " of " + subscribers + " sessions failed to connect");
+        }
+        return sessions;
+    }
+
+    private static void pushRound(NotificationPushService pushService, int subscribers, AtomicLong nextId, ConcurrentHashMap<Long, Long> sentNanos) {
+        for (long userId = 1; userId <= subscribers; userId++) {
+            long id = nextId.getAndIncrement();
+            NotificationDTO notification = NotificationDTO.builder()
+                    .id(id)
+                    .description("Soak test")
+                    .body("Notification " + id)
+                    .lastUpdatedDate("0")
+                    .isRead(false)
+                    .build();
+            sentNanos.put(id, System.nanoTime());
+            pushService.pushNotification(userId, notification);
+        }
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("soak" + id + "@example.com");
+        user.setName("soak" + id);
+        return user;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.round(percentile * sortedNanos.length))] / 1e6;
+    }
+}
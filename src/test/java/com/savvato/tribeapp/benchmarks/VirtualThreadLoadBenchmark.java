@@ -0,0 +1,148 @@
+package com.savvato.tribeapp.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fires waves of concurrent, mixed API calls at a running instance and reports throughput, latency
+ * and the server's platform thread count, to compare the two spring.threads.virtual.enabled modes.
+ * Run the app once in each mode, e.g.
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.arguments=--spring.threads.virtual.enabled=true
+ *
+ * and in each case run this against it with the same settings:
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.savvato.tribeapp.benchmarks.VirtualThreadLoadBenchmark \
+ *       -Dbenchmark.label=virtual -Dbenchmark.email=admin@app.com -Dbenchmark.password=admin -Dbenchmark.userId=1
+ *
+ * Other settings: benchmark.baseUrl (http://localhost:8080), benchmark.concurrency (5000) and
+ * benchmark.waves (5). Thread counts come from the actuator's jvm.threads.* metrics, which only
+ * count platform threads, so in virtual thread mode they show the carriers plus the fixed overhead.
+ */
+public class VirtualThreadLoadBenchmark {
+
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("benchmark.baseUrl", "http://localhost:8080");
+        String label = System.getProperty("benchmark.label", "unlabelled");
+        String email = System.getProperty("benchmark.email", "admin@app.com");
+        String password = System.getProperty("benchmark.password", "admin");
+        long userId = Long.getLong("benchmark.userId", 1L);
+        int concurrency = Integer.getInteger("benchmark.concurrency", 5000);
+        int waves = Integer.getInteger("benchmark.waves", 5);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        String token = login(client, baseUrl, email, password);
+
+        // a mix of the hot read paths, plus one public endpoint that doesn't go through authentication
+        List<String> paths = List.of(
+                "/api/attributes/" + userId,
+                "/api/notifications/user/" + userId,
+                "/api/connect/cosign/" + userId + "/all",
+                "/api/connect/" + userId + "/all",
+                "/api/public/user/isUsernameAvailable?q=benchmark-user");
+
+        // one untimed wave so both modes are measured warm
+        runWave(client, baseUrl, token, paths, concurrency);
+
+        long[] latencies = new long[concurrency * waves];
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+
+        for (int wave = 0; wave < waves; wave++) {
+            long[] waveLatencies = runWave(client, baseUrl, token, paths, concurrency);
+            for (int i = 0; i < waveLatencies.length; i++) {
+                if (waveLatencies[i] < 0) {
+                    errors.incrementAndGet();
+                }
+                latencies[wave * concurrency + i] = Math.abs(waveLatencies[i]);
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latencies);
+
+        System.out.printf("%-12s %8s %10s %9s %9s %9s %8s %12s %12s%n",
+                "mode", "calls", "calls/s", "p50 ms", "p99 ms", "max ms", "errors", "threads.live", "threads.peak");
+        System.out.printf("%-12s %8d %10.0f %9.1f %9.1f %9.1f %8d %12.0f %12.0f%n",
+                label, latencies.length, latencies.length / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6,
+                errors.get(),
+                metric(client, baseUrl, token, "jvm.threads.live"),
+                metric(client, baseUrl, token, "jvm.threads.peak"));
+    }
+
+    /**
+     * Starts all the calls of a wave at once and waits for them. Returns each call's latency in
+     * nanoseconds, negated if the call failed.
+     */
+    private static long[] runWave(HttpClient client, String baseUrl, String token, List<String> paths, int concurrency) {
+        long[] latencies = new long[concurrency];
+        List<CompletableFuture<Void>> calls = new ArrayList<>(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            int call = i;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths.get(i % paths.size())))
+                    .header("Authorization", token)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+
+            long sent = System.nanoTime();
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> {
+                        long latency = System.nanoTime() - sent;
+                        latencies[call] = (failure == null && response.statusCode() < 400) ? latency : -latency;
+                        return null;
+                    }));
+        }
+
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+        return latencies;
+    }
+
+    private static String login(HttpClient client, String baseUrl, String email, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/public/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        String token = response.headers().firstValue("Authorization").orElse(null);
+        if (response.statusCode() != 200 || token == null) {
+            throw new IllegalStateException("Login as " + email + " failed with status " + response.statusCode());
+        }
+        return token.startsWith("Bearer ") ? token : "Bearer " + token;
+    }
+
+    private static double metric(HttpClient client, String baseUrl, String token, String name) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+                .header("Authorization", token)
+                .build();
+
+        Matcher matcher = METRIC_VALUE.matcher(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        return matcher.find() ? Double.parseDouble(matcher.group(1)) : Double.NaN;
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.round(percentile * sortedNanos.length))] / 1e6;
+    }
+}
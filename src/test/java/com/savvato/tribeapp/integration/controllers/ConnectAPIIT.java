@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import com.savvato.tribeapp.config.SecurityConfig;
 import com.savvato.tribeapp.config.principal.UserPrincipal;
+import com.savvato.tribeapp.constants.Constants;
 import com.savvato.tribeapp.constants.PhraseTestConstants;
 import com.savvato.tribeapp.constants.UserTestConstants;
 import com.savvato.tribeapp.controllers.ConnectAPIController;
@@ -31,13 +32,17 @@ import org.springframework.web.context.WebApplicationContext;
 
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.restdocs.mockmvc.RestDocumentationRequestBuilders.post;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -402,6 +407,179 @@ public class ConnectAPIIT implements UserTestConstants, PhraseTestConstants {
 
     }
 
+    @Test
+    public void getConnectionsPageHappyPath() throws Exception {
+        when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
+                .thenReturn(new UserPrincipal(user));
+        String auth = AuthServiceImpl.generateAccessToken(user);
+
+        ConnectionPageDTO expected = ConnectionPageDTO.builder()
+                .connections(List.of(ConnectOutgoingMessageDTO.builder()
+                        .connectionSuccess(true)
+                        .to(UsernameConnectionStatusDTO.builder()
+                                .userId(USER2_ID)
+                                .username(USER2_NAME)
+                                .userConnectionStatus(Constants.TO_BE_CONNECTED_WITH_USER)
+                                .build())
+                        .message("")
+                        .build()))
+                .nextCursor("next")
+                .build();
+        when(connectService.getConnectionsPageForAUser(anyLong(), any(), anyInt())).thenReturn(expected);
+
+        this.mockMvc
+                .perform(
+                        get("/api/connect/{userId}/connections", USER1_ID)
+                                .param("cursor", "current")
+                                .param("size", "1")
+                                .header("Authorization", "Bearer " + auth)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.connections[0].to.userId").value(USER2_ID))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(connectService, times(1)).getConnectionsPageForAUser(USER1_ID, "current", 1);
+    }
+
+    @Test
+    public void getConnectionsLastPageHasNoNextCursor() throws Exception {
+        when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
+                .thenReturn(new UserPrincipal(user));
+        String auth = AuthServiceImpl.generateAccessToken(user);
+
+        ConnectionPageDTO expected = ConnectionPageDTO.builder()
+                .connections(List.of())
+                .build();
+        when(connectService.getConnectionsPageForAUser(anyLong(), any(), anyInt())).thenReturn(expected);
+
+        this.mockMvc
+                .perform(
+                        get("/api/connect/{userId}/connections", USER1_ID)
+                                .param("cursor", "current")
+                                .header("Authorization", "Bearer " + auth)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.connections").isEmpty())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void getConnectionsPageWhenCursorIsInvalid() throws Exception {
+        when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
+                .thenReturn(new UserPrincipal(user));
+        String auth = AuthServiceImpl.generateAccessToken(user);
+
+        when(connectService.getConnectionsPageForAUser(anyLong(), any(), anyInt())).thenThrow(new IllegalArgumentException("bad cursor"));
+
+        this.mockMvc
+                .perform(
+                        get("/api/connect/{userId}/connections", USER1_ID)
+                                .param("cursor", "bad")
+                                .header("Authorization", "Bearer " + auth)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void streamConnectionsWritesJsonArray() throws Exception {
+        when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
+                .thenReturn(new UserPrincipal(user));
+        String auth = AuthServiceImpl.generateAccessToken(user);
+
+        doAnswer(invocation -> {
+            Consumer<ConnectOutgoingMessageDTO> consumer = invocation.getArgument(1);
+            consumer.accept(ConnectOutgoingMessageDTO.builder()
+                    .connectionSuccess(true)
+                    .to(UsernameConnectionStatusDTO.builder().userId(USER2_ID).username(USER2_NAME).userConnectionStatus(Constants.REQUESTING_USER).build())
+                    .message("")
+                    .build());
+            consumer.accept(ConnectOutgoingMessageDTO.builder()
+                    .connectionSuccess(true)
+                    .to(UsernameConnectionStatusDTO.builder().userId(USER3_ID).username(USER3_NAME).userConnectionStatus(Constants.REQUESTING_USER).build())
+                    .message("")
+                    .build());
+            return null;
+        }).when(connectService).streamAllConnectionsForAUser(anyLong(), any());
+
+        MvcResult asyncResult = this.mockMvc
+                .perform(
+                        get("/api/connect/{userId}/connections/stream", USER1_ID)
+                                .header("Authorization", "Bearer " + auth)
+                                .characterEncoding("utf-8"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc
+                .perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].to.username").value(USER3_NAME));
+    }
+
+    @Test
+    public void getMutualConnectionsHappyPath() throws Exception {
+        when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
+                .thenReturn(new UserPrincipal(user));
+        String auth = AuthServiceImpl.generateAccessToken(user);
+
+        List<UsernameDTO> expected = List.of(UsernameDTO.builder().userId(USER2_ID).username(USER2_NAME).build());
+        when(connectService.getMutualConnections(anyLong(), anyLong())).thenReturn(expected);
+
+        this.mockMvc
+                .perform(
+                        get("/api/connect/{userId}/mutual/{otherUserId}", USER1_ID, USER3_ID)
+                                .header("Authorization", "Bearer " + auth)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].userId").value(USER2_ID))
+                .andExpect(jsonPath("$[0].username").value(USER2_NAME));
+
+        verify(connectService, times(1)).getMutualConnections(USER1_ID, USER3_ID);
+    }
+
+    @Test
+    public void getConnectionPathHappyPath() throws Exception {
+        when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
+                .thenReturn(new UserPrincipal(user));
+        String auth = AuthServiceImpl.generateAccessToken(user);
+
+        ConnectionPathDTO expected = ConnectionPathDTO.builder()
+                .degreesOfSeparation(2)
+                .path(List.of(
+                        UsernameDTO.builder().userId(USER1_ID).username(USER1_NAME).build(),
+                        UsernameDTO.builder().userId(USER2_ID).username(USER2_NAME).build(),
+                        UsernameDTO.builder().userId(USER3_ID).username(USER3_NAME).build()))
+                .build();
+        when(connectService.getConnectionPath(anyLong(), anyLong())).thenReturn(Optional.of(expected));
+
+        this.mockMvc
+                .perform(
+                        get("/api/connect/{userId}/path/{otherUserId}", USER1_ID, USER3_ID)
+                                .header("Authorization", "Bearer " + auth)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.degreesOfSeparation").value(2))
+                .andExpect(jsonPath("$.path[1].userId").value(USER2_ID));
+
+        verify(connectService, times(1)).getConnectionPath(USER1_ID, USER3_ID);
+    }
+
+    @Test
+    public void getConnectionPathWhenUsersAreNotConnected() throws Exception {
+        when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
+                .thenReturn(new UserPrincipal(user));
+        String auth = AuthServiceImpl.generateAccessToken(user);
+
+        when(connectService.getConnectionPath(anyLong(), anyLong())).thenReturn(Optional.empty());
+
+        this.mockMvc
+                .perform(
+                        get("/api/connect/{userId}/path/{otherUserId}", USER1_ID, USER3_ID)
+                                .header("Authorization", "Bearer " + auth)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     public void removeConnectionHappyPath() throws Exception {
         when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
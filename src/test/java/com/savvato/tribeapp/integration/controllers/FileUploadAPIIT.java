@@ -0,0 +1,186 @@
+package com.savvato.tribeapp.integration.controllers;
+
+import com.savvato.tribeapp.config.SecurityConfig;
+import com.savvato.tribeapp.config.principal.UserPrincipal;
+import com.savvato.tribeapp.constants.UserTestConstants;
+import com.savvato.tribeapp.controllers.FileUploadController;
+import com.savvato.tribeapp.entities.User;
+import com.savvato.tribeapp.services.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(FileUploadController.class)
+@Import(SecurityConfig.class)
+public class FileUploadAPIIT implements UserTestConstants {
+
+    private static final String RESOURCE_TYPE = "profile";
+    private static final String FILENAME = "profilePicture_1.jpg";
+    private static final String CONTENT = "0123456789";
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+
+    private User user;
+    private String auth;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @MockBean
+    private AuthService authService;
+
+    @MockBean
+    private UserDetailsServiceTRIBEAPP userDetailsServiceTRIBEAPP;
+
+    @MockBean
+    private UserPrincipalService userPrincipalService;
+
+    @MockBean
+    private StorageService storageService;
+
+    @MockBean
+    private PictureService pictureService;
+
+    @MockBean
+    private ThumbnailService thumbnailService;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        mockMvc =
+                MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                        .apply(springSecurity())
+                        .build();
+
+        user = UserTestConstants.getUser1();
+        when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
+                .thenReturn(new UserPrincipal(user));
+        auth = AuthServiceImpl.generateAccessToken(user);
+
+        Path file = dir.resolve(FILENAME);
+        Files.writeString(file, CONTENT);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(LAST_MODIFIED));
+
+        when(storageService.getDefaultFilename(RESOURCE_TYPE, "1")).thenReturn(FILENAME);
+        when(pictureService.transformFilenameUsingSizeInfo("original", FILENAME)).thenReturn(FILENAME);
+        when(storageService.loadAsResource(RESOURCE_TYPE, FILENAME)).thenReturn(new FileSystemResource(file));
+    }
+
+    @Test
+    public void serveFileWithValidators() throws Exception {
+        this.mockMvc
+                .perform(
+                        get("/api/resource/{resourceType}/{resourceId}", RESOURCE_TYPE, "1")
+                                .param("photoSize", "original")
+                                .header("Authorization", "Bearer " + auth))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(header().string(HttpHeaders.ETAG, expectedETag()))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, private"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+    }
+
+    @Test
+    public void serveFileWithAMatchingETagIsNotModified() throws Exception {
+        this.mockMvc
+                .perform(
+                        get("/api/resource/{resourceType}/{resourceId}", RESOURCE_TYPE, "1")
+                                .param("photoSize", "original")
+                                .header("Authorization", "Bearer " + auth)
+                                .header(HttpHeaders.IF_NONE_MATCH, expectedETag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void serveFileWithARangeIsPartial() throws Exception {
+        this.mockMvc
+                .perform(
+                        get("/api/resource/{resourceType}/{resourceId}", RESOURCE_TYPE, "1")
+                                .param("photoSize", "original")
+                                .header("Authorization", "Bearer " + auth)
+                                .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + CONTENT.length()))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    public void serveFileWithARangePastTheEndIsNotSatisfiable() throws Exception {
+        this.mockMvc
+                .perform(
+                        get("/api/resource/{resourceType}/{resourceId}", RESOURCE_TYPE, "1")
+                                .param("photoSize", "original")
+                                .header("Authorization", "Bearer " + auth)
+                                .header(HttpHeaders.RANGE, "bytes=100-200"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CONTENT.length()));
+    }
+
+    @Test
+    public void serveFileWithAMalformedRangeIsNotSatisfiable() throws Exception {
+        this.mockMvc
+                .perform(
+                        get("/api/resource/{resourceType}/{resourceId}", RESOURCE_TYPE, "1")
+                                .param("photoSize", "original")
+                                .header("Authorization", "Bearer " + auth)
+                                .header(HttpHeaders.RANGE, "bytes=five-six"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    public void serveFileFallsBackToTheOriginalWhenTheVariantIsMissing() throws Exception {
+        when(pictureService.transformFilenameUsingSizeInfo("64", FILENAME)).thenReturn(FILENAME + "_64");
+        when(storageService.loadAsResource(RESOURCE_TYPE, FILENAME + "_64")).thenReturn(null);
+
+        this.mockMvc
+                .perform(
+                        get("/api/resource/{resourceType}/{resourceId}", RESOURCE_TYPE, "1")
+                                .param("photoSize", "64")
+                                .header("Authorization", "Bearer " + auth))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    public void serveFileThatDoesNotExistIsNotFound() throws Exception {
+        when(storageService.loadAsResource(anyString(), anyString())).thenReturn(null);
+
+        this.mockMvc
+                .perform(
+                        get("/api/resource/{resourceType}/{resourceId}", RESOURCE_TYPE, "1")
+                                .param("photoSize", "original")
+                                .header("Authorization", "Bearer " + auth))
+                .andExpect(status().isNotFound());
+    }
+
+    private static String expectedETag() {
+        return "\"" + Long.toHexString(LAST_MODIFIED) + "-" + Long.toHexString(CONTENT.length()) + "\"";
+    }
+}
@@ -214,7 +214,7 @@ public class NotificationAPIIT implements UserTestConstants {
 
         List<NotificationDTO> expectedNotificationDTOList = List.of(notificationDTO);
 
-        when(notificationService.getUserNotifications(anyLong()))
+        when(notificationService.getUserNotifications(anyLong(), any(), any()))
                 .thenReturn(expectedNotificationDTOList);
         MvcResult result =
                 this.mockMvc
@@ -225,7 +225,7 @@ public class NotificationAPIIT implements UserTestConstants {
                         .andExpect(status().isOk())
                         .andReturn();
 
-        verify(notificationService, times(1)).getUserNotifications(notificationIdCaptor.capture());
+        verify(notificationService, times(1)).getUserNotifications(notificationIdCaptor.capture(), isNull(), isNull());
         assertEquals(notificationIdCaptor.getValue(), userId);
         Type notificationDTOListType = new TypeToken<List<NotificationDTO>>() {
         }.getType();
@@ -235,4 +235,45 @@ public class NotificationAPIIT implements UserTestConstants {
                 .usingRecursiveComparison()
                 .isEqualTo(expectedNotificationDTOList);
     }
+
+    @Test
+    public void getUserNotificationsPage() throws Exception {
+        when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
+                .thenReturn(new UserPrincipal(user));
+        String auth = AuthServiceImpl.generateAccessToken(user);
+        Long userId = USER1_ID;
+
+        when(notificationService.getUserNotifications(anyLong(), any(), any()))
+                .thenReturn(List.of());
+
+        this.mockMvc
+                .perform(
+                        get("/api/notifications/user/{user_id}", userId)
+                                .param("before", "42")
+                                .param("limit", "10")
+                                .header("Authorization", "Bearer " + auth)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isOk());
+
+        verify(notificationService, times(1)).getUserNotifications(userId, 42L, 10);
+    }
+
+    @Test
+    public void getUnreadNotificationCount() throws Exception {
+        when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString()))
+                .thenReturn(new UserPrincipal(user));
+        String auth = AuthServiceImpl.generateAccessToken(user);
+        Long userId = USER1_ID;
+
+        when(notificationService.getUnreadNotificationCount(userId)).thenReturn(3L);
+
+        this.mockMvc
+                .perform(
+                        get("/api/notifications/user/{user_id}/unread-count", userId)
+                                .header("Authorization", "Bearer " + auth)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(userId))
+                .andExpect(jsonPath("$.unreadCount").value(3));
+    }
 }
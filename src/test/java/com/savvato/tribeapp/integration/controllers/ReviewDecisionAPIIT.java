@@ -4,6 +4,7 @@ import com.savvato.tribeapp.config.SecurityConfig;
 import com.savvato.tribeapp.config.principal.UserPrincipal;
 import com.savvato.tribeapp.constants.UserTestConstants;
 import com.savvato.tribeapp.controllers.ReviewDecisionAPIController;
+import com.savvato.tribeapp.controllers.dto.ReviewDecisionBatchRequest;
 import com.savvato.tribeapp.controllers.dto.ReviewDecisionRequest;
 import com.savvato.tribeapp.entities.ReviewDecision;
 import com.savvato.tribeapp.entities.User;
@@ -20,6 +21,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.util.List;
+
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -85,4 +88,67 @@ public class ReviewDecisionAPIIT implements UserTestConstants {
                 .andExpect(status().isOk())
                 .andReturn();
     }
+
+    @Test
+    public void testReviewDecisionBatchHappyPath() throws Exception {
+        User user = UserTestConstants.getUser3();
+        Mockito.when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString())).thenReturn(
+                new UserPrincipal(user)
+        );
+        String auth = AuthServiceImpl.generateAccessToken(user);
+
+        ReviewDecisionBatchRequest batchRequest = new ReviewDecisionBatchRequest();
+        batchRequest.decisions = List.of(reviewDecisionRequest(1L, 1L), reviewDecisionRequest(2L, 3L));
+
+        Mockito.when(reviewDecisionService.saveReviewDecisions(Mockito.eq(user.getId()), Mockito.anyList())).thenReturn(List.of(
+                new ReviewDecision(1L, user.getId(), 1L),
+                new ReviewDecision(2L, user.getId(), 3L)));
+
+        this.mockMvc.
+                perform(
+                        post("/api/reviewer-decision/batch")
+                                .header("Authorization", "Bearer " + auth)
+                                .content(objectMapper.writeValueAsString(batchRequest))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].reviewId").value(2))
+                .andExpect(jsonPath("$[1].reasonId").value(3));
+
+        // the decisions are the signed in reviewer's, not whoever the request names
+        Mockito.verify(reviewDecisionService).saveReviewDecisions(Mockito.eq(user.getId()), Mockito.anyList());
+    }
+
+    @Test
+    public void testReviewDecisionBatchWithInvalidDecision() throws Exception {
+        User user = UserTestConstants.getUser3();
+        Mockito.when(userPrincipalService.getUserPrincipalByEmail(Mockito.anyString())).thenReturn(
+                new UserPrincipal(user)
+        );
+        String auth = AuthServiceImpl.generateAccessToken(user);
+
+        ReviewDecisionBatchRequest batchRequest = new ReviewDecisionBatchRequest();
+        batchRequest.decisions = List.of(reviewDecisionRequest(1L, 99L));
+
+        Mockito.when(reviewDecisionService.saveReviewDecisions(Mockito.anyLong(), Mockito.anyList()))
+                .thenThrow(new IllegalArgumentException("99 is not a review decision reason."));
+
+        this.mockMvc.
+                perform(
+                        post("/api/reviewer-decision/batch")
+                                .header("Authorization", "Bearer " + auth)
+                                .content(objectMapper.writeValueAsString(batchRequest))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding("utf-8"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ReviewDecisionRequest reviewDecisionRequest(Long reviewId, Long reasonId) {
+        ReviewDecisionRequest reviewDecisionRequest = new ReviewDecisionRequest();
+        reviewDecisionRequest.reviewId = reviewId;
+        reviewDecisionRequest.reviewerId = USER1_ID;
+        reviewDecisionRequest.reasonId = reasonId;
+        return reviewDecisionRequest;
+    }
 }
@@ -81,7 +81,7 @@ public class ToBeReviewedAPIIT implements UserTestConstants, PhraseTestConstants
             .noun(NOUN1_WORD)
             .preposition(PREPOSITION1_WORD)
             .build();
-    when(toBeReviewedService.getReviewPhrase()).thenReturn(Optional.of(expectedTbr));
+    when(toBeReviewedService.getReviewPhrase(USER3_ID)).thenReturn(Optional.of(expectedTbr));
 
     MvcResult result =
         this.mockMvc
@@ -96,7 +96,7 @@ public class ToBeReviewedAPIIT implements UserTestConstants, PhraseTestConstants
     ToBeReviewedDTO actualTbr =
         gson.fromJson(result.getResponse().getContentAsString(), toBeReviewedDTOType);
     assertThat(actualTbr).usingRecursiveComparison().isEqualTo(expectedTbr);
-    verify(toBeReviewedService, times(1)).getReviewPhrase();
+    verify(toBeReviewedService, times(1)).getReviewPhrase(USER3_ID);
   }
 
   @Test
@@ -105,7 +105,7 @@ public class ToBeReviewedAPIIT implements UserTestConstants, PhraseTestConstants
         .thenReturn(new UserPrincipal(user));
     String auth = AuthServiceImpl.generateAccessToken(user);
 
-    when(toBeReviewedService.getReviewPhrase()).thenReturn(Optional.empty());
+    when(toBeReviewedService.getReviewPhrase(USER3_ID)).thenReturn(Optional.empty());
 
     this.mockMvc
         .perform(
@@ -114,6 +114,6 @@ public class ToBeReviewedAPIIT implements UserTestConstants, PhraseTestConstants
         .andExpect(jsonPath("$").doesNotExist())
         .andReturn();
 
-    verify(toBeReviewedService, times(1)).getReviewPhrase();
+    verify(toBeReviewedService, times(1)).getReviewPhrase(USER3_ID);
   }
 }
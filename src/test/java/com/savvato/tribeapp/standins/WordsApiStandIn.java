@@ -0,0 +1,114 @@
+package com.savvato.tribeapp.standins;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A stand-in for the Words API, for running the grooming job locally without a RapidAPI key or its
+ * quota. It answers GET /words/{word} the way the Words API does, with a results array of
+ * definitions that each have a partOfSpeech, and a 404 for a word it doesn't know. Start it with
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.savvato.tribeapp.standins.WordsApiStandIn -Dstandin.port=8089
+ *
+ * and run the app against it:
+ *
+ *   mvn spring-boot:run -Dspring-boot.run.arguments=--app.words-api.base-url=http://localhost:8089
+ *
+ * It knows a handful of words out of the box. standin.dictionary names a file to load more from, one
+ * word per line followed by a tab and its comma separated parts of speech, e.g. "chess\tnoun".
+ * standin.latencyMillis (0) delays every answer, to see how grooming copes with a slow API.
+ */
+public class WordsApiStandIn {
+
+    private static final Map<String, List<String>> BUILT_IN = Map.of(
+            "chess", List.of("noun"),
+            "plays", List.of("noun", "verb"),
+            "walk", List.of("noun", "verb"),
+            "competitively", List.of("adverb"),
+            "enthusiastically", List.of("adverb"),
+            "volunteers", List.of("noun", "verb"),
+            "for", List.of("preposition"),
+            "unicef", List.of("noun"));
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.getInteger("standin.port", 8089);
+        long latencyMillis = Long.getLong("standin.latencyMillis", 0L);
+        String dictionaryFile = System.getProperty("standin.dictionary");
+
+        Map<String, List<String>> dictionary = new HashMap<>(BUILT_IN);
+        if (dictionaryFile != null) {
+            for (String line : Files.readAllLines(Path.of(dictionaryFile))) {
+                String[] columns = line.split("\t");
+                if (columns.length == 2) {
+                    dictionary.put(columns[0].trim().toLowerCase(Locale.ROOT), List.of(columns[1].trim().split("\\s*,\\s*")));
+                }
+            }
+        }
+
+        AtomicLong requests = new AtomicLong();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/words/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+
+                String word = URLDecoder.decode(exchange.getRequestURI().getRawPath().substring("/words/".length()), StandardCharsets.UTF_8);
+                List<String> partsOfSpeech = dictionary.get(word.toLowerCase(Locale.ROOT));
+                if (partsOfSpeech == null) {
+                    respond(exchange, 404, "{\"success\":false,\"message\":\"word not found\"}");
+                } else {
+                    respond(exchange, 200, toJson(word, partsOfSpeech));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 503, "{\"message\":\"shutting down\"}");
+            }
+        });
+        server.start();
+
+        System.out.printf("Words API stand-in knows %d words and is listening on port %d%n", dictionary.size(), port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(0);
+            System.out.printf("Words API stand-in answered %d requests%n", requests.get());
+        }));
+    }
+
+    private static String toJson(String word, List<String> partsOfSpeech) {
+        StringBuilder json = new StringBuilder("{\"word\":\"").append(word).append("\",\"results\":[");
+        for (int i = 0; i < partsOfSpeech.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"definition\":\"a stand-in definition\",\"partOfSpeech\":\"").append(partsOfSpeech.get(i)).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
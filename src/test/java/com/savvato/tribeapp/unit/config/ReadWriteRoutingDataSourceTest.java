@@ -0,0 +1,115 @@
+package com.savvato.tribeapp.unit.config;
+
+import com.savvato.tribeapp.config.datasource.ReadWriteRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stands in for a MySQL primary and replica with two in-memory H2 databases, each of which can say
+ * which one it is. The replica's lag is whatever its replica_status table says.
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        DataSource primary = h2DataSource("primary");
+        DataSource replica = h2DataSource("replica");
+
+        primaryJdbc = new JdbcTemplate(primary);
+        primaryJdbc.execute("create table whoami (name varchar(20))");
+        primaryJdbc.update("insert into whoami values ('primary')");
+
+        replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("create table whoami (name varchar(20))");
+        replicaJdbc.update("insert into whoami values ('replica')");
+        replicaJdbc.execute("create table replica_status (Seconds_Behind_Source bigint)");
+        replicaJdbc.update("insert into replica_status values (0)");
+
+        routingDataSource = new ReadWriteRoutingDataSource(primary, Map.of("replica", replica), Duration.ofSeconds(10),
+                "select Seconds_Behind_Source from replica_status", "Seconds_Behind_Source");
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        primaryJdbc.execute("shutdown");
+        replicaJdbc.execute("shutdown");
+    }
+
+    @Test
+    public void writesAndReadWriteTransactionsGoToThePrimary() {
+        routingDataSource.checkReplicaLag();
+
+        assertEquals("primary", jdbc.queryForObject("select name from whoami", String.class));
+        assertEquals("primary", whoAnswers(false));
+    }
+
+    @Test
+    public void readOnlyTransactionsGoToTheReplicaOnceItHasBeenChecked() {
+        assertEquals("primary", whoAnswers(true));
+
+        routingDataSource.checkReplicaLag();
+
+        assertEquals("replica", whoAnswers(true));
+        assertEquals(1, routingDataSource.getAvailableReplicaCount());
+    }
+
+    @Test
+    public void laggingReplicaGetsNoReadsUntilItCatchesUp() {
+        replicaJdbc.update("update replica_status set Seconds_Behind_Source = 60");
+        routingDataSource.checkReplicaLag();
+
+        assertEquals("primary", whoAnswers(true));
+        assertEquals(0, routingDataSource.getAvailableReplicaCount());
+
+        replicaJdbc.update("update replica_status set Seconds_Behind_Source = 2");
+        routingDataSource.checkReplicaLag();
+
+        assertEquals("replica", whoAnswers(true));
+        assertEquals(2, routingDataSource.getMaxAvailableReplicaLagSeconds());
+    }
+
+    @Test
+    public void replicaWithReplicationStoppedGetsNoReads() {
+        routingDataSource.checkReplicaLag();
+        assertEquals("replica", whoAnswers(true));
+
+        replicaJdbc.update("update replica_status set Seconds_Behind_Source = null");
+        routingDataSource.checkReplicaLag();
+
+        assertEquals("primary", whoAnswers(true));
+    }
+
+    private String whoAnswers(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbc.queryForObject("select name from whoami", String.class));
+    }
+
+    private static DataSource h2DataSource(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,97 @@
+package com.savvato.tribeapp.unit.config.filters;
+
+import com.savvato.tribeapp.config.filters.StompAuthenticationInterceptor;
+import com.savvato.tribeapp.config.principal.JwtAuthenticator;
+import com.savvato.tribeapp.config.principal.StompUserPrincipal;
+import com.savvato.tribeapp.config.principal.UserPrincipal;
+import com.savvato.tribeapp.constants.AbstractTestConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Principal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+public class StompAuthenticationInterceptorTest extends AbstractTestConstants {
+
+    private StompAuthenticationInterceptor interceptor;
+    private JwtAuthenticator jwtAuthenticator;
+
+    @BeforeEach
+    public void setUp() {
+        jwtAuthenticator = Mockito.mock(JwtAuthenticator.class);
+        interceptor = new StompAuthenticationInterceptor();
+        ReflectionTestUtils.setField(interceptor, "jwtAuthenticator", jwtAuthenticator);
+    }
+
+    @Test
+    public void connectWithAValidTokenIsTheTokensUser() {
+        UserPrincipal principal = new UserPrincipal(getUser1());
+        when(jwtAuthenticator.authenticate("valid-token")).thenReturn(Optional.of(principal));
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setNativeHeader("Authorization", "Bearer valid-token");
+
+        interceptor.preSend(message(accessor), null);
+
+        assertEquals(new StompUserPrincipal(USER1_ID), accessor.getUser());
+        assertEquals(String.valueOf(USER1_ID), accessor.getUser().getName());
+    }
+
+    @Test
+    public void connectWithoutATokenKeepsTheHandshakesUser() {
+        UserPrincipal principal = new UserPrincipal(getUser1());
+        Principal handshakeUser = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setUser(handshakeUser);
+
+        interceptor.preSend(message(accessor), null);
+
+        assertEquals(new StompUserPrincipal(USER1_ID), accessor.getUser());
+    }
+
+    @Test
+    public void connectWithAnInvalidTokenIsRefused() {
+        when(jwtAuthenticator.authenticate(anyString())).thenReturn(Optional.empty());
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setNativeHeader("Authorization", "Bearer expired-token");
+
+        assertThrows(MessagingException.class, () -> interceptor.preSend(message(accessor), null));
+    }
+
+    @Test
+    public void subscribingToAnotherSessionsQueueIsRefused() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setUser(new StompUserPrincipal(USER1_ID));
+        accessor.setDestination("/queue/notifications-usersomeoneelse");
+
+        assertThrows(MessagingException.class, () -> interceptor.preSend(message(accessor), null));
+    }
+
+    @Test
+    public void subscribingToTheUsersOwnNotificationsIsAllowed() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setUser(new StompUserPrincipal(USER1_ID));
+        accessor.setDestination("/connect/user/queue/notifications");
+
+        assertNotNull(interceptor.preSend(message(accessor), null));
+    }
+
+    private static Message<byte[]> message(StompHeaderAccessor accessor) {
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,101 @@
+package com.savvato.tribeapp.unit.config.principal;
+
+import com.savvato.tribeapp.config.principal.JwtPrincipalCache;
+import com.savvato.tribeapp.config.principal.UserPrincipal;
+import com.savvato.tribeapp.constants.AbstractTestConstants;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtPrincipalCacheTest extends AbstractTestConstants {
+
+    private static final String TOKEN1 = "header.payload1.signature";
+    private static final String TOKEN2 = "header.payload2.signature";
+
+    @Test
+    public void cachedTokenReturnsItsPrincipal() {
+        JwtPrincipalCache cache = new JwtPrincipalCache(100, 600);
+        UserPrincipal principal = new UserPrincipal(getUser1());
+
+        assertTrue(cache.get(TOKEN1).isEmpty());
+
+        cache.put(TOKEN1, claimsExpiringIn(60_000), principal, cache.getGeneration());
+
+        assertSame(principal, cache.get(TOKEN1).get().principal());
+        assertTrue(cache.get(TOKEN2).isEmpty());
+    }
+
+    @Test
+    public void entryExpiresWithTheToken() {
+        JwtPrincipalCache cache = new JwtPrincipalCache(100, 600);
+
+        cache.put(TOKEN1, claimsExpiringIn(-1_000), new UserPrincipal(getUser1()), cache.getGeneration());
+
+        assertTrue(cache.get(TOKEN1).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void entryExpiresAfterMaxAgeEvenIfTheTokenIsStillValid() {
+        JwtPrincipalCache cache = new JwtPrincipalCache(100, 600);
+
+        cache.put(TOKEN1, claimsExpiringIn(3_600_000), new UserPrincipal(getUser1()), cache.getGeneration());
+
+        long expiresAt = cache.get(TOKEN1).get().expiresAtMillis();
+        assertTrue(expiresAt <= System.currentTimeMillis() + 600_000);
+    }
+
+    @Test
+    public void nullPrincipalIsNotCached() {
+        JwtPrincipalCache cache = new JwtPrincipalCache(100, 600);
+
+        cache.put(TOKEN1, claimsExpiringIn(60_000), null, cache.getGeneration());
+
+        assertTrue(cache.get(TOKEN1).isEmpty());
+    }
+
+    @Test
+    public void invalidateUserDropsOnlyThatUsersTokens() {
+        JwtPrincipalCache cache = new JwtPrincipalCache(100, 600);
+        cache.put(TOKEN1, claimsExpiringIn(60_000), new UserPrincipal(getUser1()), cache.getGeneration());
+        cache.put(TOKEN2, claimsExpiringIn(60_000), new UserPrincipal(getUser2()), cache.getGeneration());
+
+        cache.invalidateUser(USER1_ID);
+
+        assertTrue(cache.get(TOKEN1).isEmpty());
+        assertTrue(cache.get(TOKEN2).isPresent());
+    }
+
+    @Test
+    public void principalLookedUpBeforeAnInvalidationIsNotKept() {
+        JwtPrincipalCache cache = new JwtPrincipalCache(100, 600);
+        long generation = cache.getGeneration();
+
+        // the user's roles change while their principal is being read from the database
+        cache.invalidateUser(USER1_ID);
+        cache.put(TOKEN1, claimsExpiringIn(60_000), new UserPrincipal(getUser1()), generation);
+
+        assertTrue(cache.get(TOKEN1).isEmpty());
+    }
+
+    @Test
+    public void sizeStaysWithinMaxEntries() {
+        JwtPrincipalCache cache = new JwtPrincipalCache(50, 600);
+        UserPrincipal principal = new UserPrincipal(getUser1());
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put("token" + i, claimsExpiringIn(60_000), principal, cache.getGeneration());
+        }
+
+        assertTrue(cache.size() <= 50);
+        assertTrue(cache.get("token999").isPresent());
+    }
+
+    private static Claims claimsExpiringIn(long millis) {
+        return Jwts.claims().setExpiration(new Date(System.currentTimeMillis() + millis));
+    }
+}
@@ -0,0 +1,144 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.config.CacheProperties;
+import com.savvato.tribeapp.dto.CacheStatisticsDTO;
+import com.savvato.tribeapp.services.CacheService;
+import com.savvato.tribeapp.services.CacheServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class CacheServiceImplTest {
+
+    private static final String CODES = "Codes";
+    private static final String TINY = "Tiny";
+    private static final String SPILLED = "Spilled";
+
+    @TestConfiguration
+    static class CacheServiceTestContextConfiguration {
+        @Bean
+        public CacheProperties cacheProperties() {
+            CacheProperties.CacheSpec codes = new CacheProperties.CacheSpec();
+            codes.setHeapEntries(100);
+            codes.setTimeToIdle(Duration.ofMinutes(5));
+
+            CacheProperties.CacheSpec tiny = new CacheProperties.CacheSpec();
+            tiny.setHeapEntries(2);
+
+            CacheProperties.CacheSpec spilled = new CacheProperties.CacheSpec();
+            spilled.setHeapEntries(10);
+            spilled.setOffHeapMb(1);
+
+            CacheProperties rtn = new CacheProperties();
+            rtn.getCaches().put(CODES, codes);
+            rtn.getCaches().put(TINY, tiny);
+            rtn.getCaches().put(SPILLED, spilled);
+            return rtn;
+        }
+
+        @Bean
+        public CacheService cacheService() {
+            return new CacheServiceImpl();
+        }
+    }
+
+    @Autowired
+    CacheService cacheService;
+
+    @Test
+    public void declaredCachesAreCreatedAtStartup() {
+        assertEquals(List.of(CODES, SPILLED, TINY), new ArrayList<>(cacheService.getCacheNames()));
+    }
+
+    @Test
+    public void putGetContainsAndRemove() {
+        cacheService.put(CODES, "1", "123456");
+
+        assertEquals("123456", cacheService.get(CODES, "1"));
+        assertTrue(cacheService.contains(CODES, "1"));
+        assertNull(cacheService.get(TINY, "1"));
+
+        cacheService.remove(CODES, "1");
+
+        assertFalse(cacheService.contains(CODES, "1"));
+    }
+
+    @Test
+    public void statisticsCountHitsMissesAndEvictions() {
+        cacheService.put(CODES, "1", "123456");
+        cacheService.get(CODES, "1");
+        cacheService.get(CODES, "2");
+
+        for (int i = 0; i < 10; i++) {
+            cacheService.put(TINY, String.valueOf(i), "value");
+        }
+
+        CacheStatisticsDTO codes = cacheService.getStatistics(CODES).get();
+        assertEquals(1, codes.hits);
+        assertEquals(1, codes.misses);
+
+        CacheStatisticsDTO tiny = cacheService.getStatistics(TINY).get();
+        assertTrue(tiny.evictions >= 8);
+
+        assertTrue(cacheService.getStatistics("NotACache").isEmpty());
+    }
+
+    @Test
+    public void entriesBeyondTheHeapTierAreKeptOffHeap() {
+        for (int i = 0; i < 1000; i++) {
+            cacheService.put(SPILLED, String.valueOf(i), "code" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("code" + i, cacheService.get(SPILLED, String.valueOf(i)));
+        }
+        assertEquals(0, cacheService.getStatistics(SPILLED).get().evictions);
+    }
+
+    @Test
+    public void undeclaredCacheIsCreatedOnceUnderConcurrentUse() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 100; i++) {
+                    String key = thread + "-" + i;
+                    cacheService.put("Undeclared", key, key);
+                    assertEquals(key, cacheService.get("Undeclared", key));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertTrue(cacheService.getCacheNames().contains("Undeclared"));
+        assertEquals(800, cacheService.getStatistics("Undeclared").get().hits);
+    }
+
+    @Test
+    public void cachesExpireAfterFiveIdleMinutesUnlessDeclaredOtherwise() {
+        CacheProperties.CacheSpec defaults = new CacheProperties.CacheSpec();
+
+        assertEquals(Duration.ofMinutes(5), defaults.getTimeToIdle());
+        assertNull(defaults.getTimeToLive());
+    }
+}
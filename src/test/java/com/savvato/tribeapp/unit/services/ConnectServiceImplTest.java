@@ -3,8 +3,12 @@ package com.savvato.tribeapp.unit.services;
 import com.savvato.tribeapp.constants.Constants;
 import com.savvato.tribeapp.constants.UserTestConstants;
 import com.savvato.tribeapp.dto.ConnectOutgoingMessageDTO;
+import com.savvato.tribeapp.dto.ConnectionPageDTO;
+import com.savvato.tribeapp.dto.ConnectionPathDTO;
 import com.savvato.tribeapp.dto.GenericResponseDTO;
 import com.savvato.tribeapp.dto.UsernameConnectionStatusDTO;
+import com.savvato.tribeapp.dto.UsernameDTO;
+import com.savvato.tribeapp.dto.projections.ConnectionWithUsername;
 import com.savvato.tribeapp.entities.Connection;
 import com.savvato.tribeapp.repositories.ConnectionsRepository;
 import com.savvato.tribeapp.repositories.UserRepository;
@@ -20,6 +24,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -27,6 +32,9 @@ import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith({SpringExtension.class})
@@ -62,6 +70,9 @@ public class ConnectServiceImplTest implements UserTestConstants {
     @MockBean
     GenericResponseService genericResponseService;
 
+    @MockBean
+    ConnectionGraphService connectionGraphService;
+
     @Test
     public void getQRCodeString() {
         Long userId = USER1_ID;
@@ -93,6 +104,7 @@ public class ConnectServiceImplTest implements UserTestConstants {
 
         Boolean connectionStatus = connectService.saveConnectionDetails(requestingUserId, toBeConnectedWithUserId);
         assertEquals(connectionStatus, true);
+        verify(connectionGraphService, times(1)).addConnection(requestingUserId, toBeConnectedWithUserId);
     }
 
     @Test
@@ -102,6 +114,7 @@ public class ConnectServiceImplTest implements UserTestConstants {
         doThrow(new IndexOutOfBoundsException()).when(connectionsRepository).save(Mockito.any());
         Boolean connectionStatus = connectService.saveConnectionDetails(requestingUserId, toBeConnectedWithUserId);
         assertEquals(connectionStatus, false);
+        verify(connectionGraphService, never()).addConnection(Mockito.any(), Mockito.any());
     }
 
     @Test
@@ -188,6 +201,7 @@ public class ConnectServiceImplTest implements UserTestConstants {
         verify(connectionsRepository, times(1)).delete(connectionCaptor.capture());
         assertEquals(connectionCaptor.getValue().getRequestingUserId(), requestingUserId);
         assertEquals(connectionCaptor.getValue().getToBeConnectedWithUserId(), connectedWithUserId);
+        verify(connectionGraphService, times(1)).removeConnection(requestingUserId, connectedWithUserId);
     }
 
     @Test
@@ -277,14 +291,17 @@ public class ConnectServiceImplTest implements UserTestConstants {
         expectedOutgoingMessageDTOS.add(outGoingMessageWhenUser1IsRequesting);
 
         // mock returns
-        when(connectionsRepository.findAllByToBeConnectedWithUserId(anyLong())).thenReturn(List.of(whenUser1AsToBeConnectedWith));
-        when(connectionsRepository.findAllByRequestingUserId(anyLong())).thenReturn(List.of(whenUser1AsRequesting));
-        Mockito.when(userRepository.findById(Mockito.any())).thenReturn(Optional.of(UserTestConstants.getUser2())).thenReturn(Optional.of(UserTestConstants.getUser2()));
+        when(connectionGraphService.getRequestingUserIds(anyLong())).thenReturn(new long[] {whenUser1AsToBeConnectedWith.getRequestingUserId()});
+        when(connectionGraphService.getRequestedUserIds(anyLong())).thenReturn(new long[] {whenUser1AsRequesting.getToBeConnectedWithUserId()});
+        Mockito.when(userRepository.findAllById(Mockito.any())).thenReturn(List.of(UserTestConstants.getUser2()));
 
         // test
         List<ConnectOutgoingMessageDTO> actualMessageDTOs = connectService.getAllConnectionsForAUser(user1);
 
         assertThat(actualMessageDTOs).usingRecursiveComparison().isEqualTo(expectedOutgoingMessageDTOS);
+        verify(userRepository, times(1)).findAllById(Mockito.any());
+        verify(userRepository, never()).findById(anyLong());
+        verifyNoInteractions(connectionsRepository);
 
     }
 
@@ -292,15 +309,16 @@ public class ConnectServiceImplTest implements UserTestConstants {
     public void testGetAllConnectionsForAUserWhenConnectionsDoNotExist() {
         Long User1 = USER1_ID;
 
-        when(connectionsRepository.findAllByToBeConnectedWithUserId(anyLong())).thenReturn(Collections.emptyList());
-        when(connectionsRepository.findAllByRequestingUserId(anyLong())).thenReturn(Collections.emptyList());
+        when(connectionGraphService.getRequestingUserIds(anyLong())).thenReturn(new long[0]);
+        when(connectionGraphService.getRequestedUserIds(anyLong())).thenReturn(new long[0]);
 
         List<ConnectOutgoingMessageDTO> actualMessageDTOs = connectService.getAllConnectionsForAUser(User1);
 
         assertThat(actualMessageDTOs).usingRecursiveComparison().isEqualTo(Collections.emptyList());
-        verify(connectionsRepository, times(1)).findAllByToBeConnectedWithUserId(anyLong());
-        verify(connectionsRepository, times(1)).findAllByRequestingUserId(anyLong());
+        verify(connectionGraphService, times(1)).getRequestingUserIds(anyLong());
+        verify(connectionGraphService, times(1)).getRequestedUserIds(anyLong());
         verify(userRepository, times(0)).findById(anyLong());
+        verify(userRepository, times(0)).findAllById(Mockito.any());
     }
 
     @Test
@@ -423,4 +441,107 @@ public class ConnectServiceImplTest implements UserTestConstants {
         assertThat(genericResponseDTO).usingRecursiveComparison().isEqualTo(result);
 
     }
+
+    @Test
+    public void getMutualConnectionsResolvesUsernamesInOneQuery() {
+        when(connectionGraphService.getMutualConnectionIds(USER1_ID, USER3_ID)).thenReturn(new long[] {USER2_ID});
+        when(userRepository.findAllById(Mockito.any())).thenReturn(List.of(UserTestConstants.getUser2()));
+
+        List<UsernameDTO> rtn = connectService.getMutualConnections(USER1_ID, USER3_ID);
+
+        assertEquals(1, rtn.size());
+        assertEquals(USER2_ID, rtn.get(0).userId);
+        assertEquals(USER2_NAME, rtn.get(0).username);
+        verify(userRepository, times(1)).findAllById(Mockito.any());
+        verifyNoInteractions(connectionsRepository);
+    }
+
+    @Test
+    public void getConnectionPathWhenUsersAreConnectedThroughAnotherUser() {
+        when(connectionGraphService.findShortestPath(eq(USER1_ID), eq(USER3_ID), anyInt())).thenReturn(new long[] {USER1_ID, USER2_ID, USER3_ID});
+        when(userRepository.findAllById(Mockito.any())).thenReturn(List.of(UserTestConstants.getUser1(), UserTestConstants.getUser2(), UserTestConstants.getUser3()));
+
+        Optional<ConnectionPathDTO> rtn = connectService.getConnectionPath(USER1_ID, USER3_ID);
+
+        assertTrue(rtn.isPresent());
+        assertEquals(2, rtn.get().degreesOfSeparation);
+        assertEquals(List.of(USER1_ID, USER2_ID, USER3_ID), rtn.get().path.stream().map(u -> u.userId).toList());
+        assertEquals(USER2_NAME, rtn.get().path.get(1).username);
+        verifyNoInteractions(connectionsRepository);
+    }
+
+    @Test
+    public void getConnectionPathWhenUsersAreNotConnected() {
+        when(connectionGraphService.findShortestPath(anyLong(), anyLong(), anyInt())).thenReturn(new long[0]);
+
+        Optional<ConnectionPathDTO> rtn = connectService.getConnectionPath(USER1_ID, USER3_ID);
+
+        assertTrue(rtn.isEmpty());
+        verify(userRepository, never()).findAllById(Mockito.any());
+    }
+
+    @Test
+    public void getConnectionsPageReturnsCursorWhenThereIsAnotherPage() {
+        Timestamp created = new Timestamp(1700000000000L);
+        when(connectionsRepository.findConnectionsWithUsernamesAfter(anyLong(), any(), anyLong(), anyInt())).thenReturn(List.of(
+                connectionRow(USER2_ID, USER2_NAME, USER1_ID, created),
+                connectionRow(USER3_ID, USER3_NAME, USER3_ID, created)));
+
+        ConnectionPageDTO page = connectService.getConnectionsPageForAUser(USER1_ID, null, 1);
+
+        assertEquals(1, page.connections.size());
+        assertEquals(USER2_ID, page.connections.get(0).to.userId);
+        assertEquals(USER2_NAME, page.connections.get(0).to.username);
+        assertEquals(Constants.TO_BE_CONNECTED_WITH_USER, ((UsernameConnectionStatusDTO) page.connections.get(0).to).userConnectionStatus);
+        assertNotNull(page.nextCursor);
+
+        // the first page asks for everything after the start, plus one row to detect the next page
+        verify(connectionsRepository, times(1)).findConnectionsWithUsernamesAfter(USER1_ID, new Timestamp(0), 0L, 2);
+
+        connectService.getConnectionsPageForAUser(USER1_ID, page.nextCursor, 1);
+
+        verify(connectionsRepository, times(1)).findConnectionsWithUsernamesAfter(USER1_ID, created, USER2_ID, 2);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    public void getConnectionsPageOmitsCursorOnLastPage() {
+        when(connectionsRepository.findConnectionsWithUsernamesAfter(anyLong(), any(), anyLong(), anyInt())).thenReturn(List.of(
+                connectionRow(USER3_ID, USER3_NAME, USER3_ID, new Timestamp(1700000000000L))));
+
+        ConnectionPageDTO page = connectService.getConnectionsPageForAUser(USER1_ID, null, 50);
+
+        assertEquals(1, page.connections.size());
+        assertEquals(Constants.REQUESTING_USER, ((UsernameConnectionStatusDTO) page.connections.get(0).to).userConnectionStatus);
+        assertNull(page.nextCursor);
+    }
+
+    @Test
+    public void getConnectionsPageRejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> connectService.getConnectionsPageForAUser(USER1_ID, "not-a-cursor", 50));
+        verifyNoInteractions(connectionsRepository);
+    }
+
+    @Test
+    public void streamAllConnectionsForAUserStopsAfterPartialBatch() {
+        when(connectionsRepository.findConnectionsWithUsernamesAfter(anyLong(), any(), anyLong(), anyInt())).thenReturn(List.of(
+                connectionRow(USER2_ID, USER2_NAME, USER1_ID, new Timestamp(1700000000000L)),
+                connectionRow(USER3_ID, USER3_NAME, USER3_ID, new Timestamp(1700000001000L))));
+
+        List<ConnectOutgoingMessageDTO> streamed = new ArrayList<>();
+        connectService.streamAllConnectionsForAUser(USER1_ID, streamed::add);
+
+        assertEquals(2, streamed.size());
+        assertEquals(USER3_ID, streamed.get(1).to.userId);
+        verify(connectionsRepository, times(1)).findConnectionsWithUsernamesAfter(anyLong(), any(), anyLong(), anyInt());
+    }
+
+    private static ConnectionWithUsername connectionRow(Long userId, String username, Long requestingUserId, Timestamp created) {
+        return new ConnectionWithUsername() {
+            public Long getUserId() { return userId; }
+            public String getUsername() { return username; }
+            public Long getRequestingUserId() { return requestingUserId; }
+            public Timestamp getCreated() { return created; }
+        };
+    }
 }
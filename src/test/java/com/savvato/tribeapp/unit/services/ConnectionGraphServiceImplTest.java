@@ -0,0 +1,120 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.constants.UserTestConstants;
+import com.savvato.tribeapp.entities.Connection;
+import com.savvato.tribeapp.repositories.ConnectionsRepository;
+import com.savvato.tribeapp.services.ConnectionGraphService;
+import com.savvato.tribeapp.services.ConnectionGraphServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ConnectionGraphServiceImplTest implements UserTestConstants {
+
+    @TestConfiguration
+    static class ConnectionGraphServiceTestContextConfiguration {
+        @Bean
+        public ConnectionGraphService connectionGraphService() {
+            return new ConnectionGraphServiceImpl();
+        }
+    }
+
+    @Autowired
+    ConnectionGraphService connectionGraphService;
+
+    @MockBean
+    ConnectionsRepository connectionsRepository;
+
+    @Test
+    public void loadGraphIndexesBothSidesOfEachConnection() {
+        when(connectionsRepository.findAll()).thenReturn(List.of(
+                new Connection(USER1_ID, USER2_ID),
+                new Connection(USER3_ID, USER1_ID),
+                new Connection(USER2_ID, USER3_ID)));
+
+        connectionGraphService.loadGraph();
+
+        assertArrayEquals(new long[] {USER2_ID}, connectionGraphService.getRequestedUserIds(USER1_ID));
+        assertArrayEquals(new long[] {USER3_ID}, connectionGraphService.getRequestingUserIds(USER1_ID));
+        assertArrayEquals(new long[] {USER3_ID, USER2_ID}, connectionGraphService.getConnectedUserIds(USER1_ID));
+        assertArrayEquals(new long[] {USER3_ID}, connectionGraphService.getMutualConnectionIds(USER1_ID, USER2_ID));
+        assertEquals(2, connectionGraphService.getDegree(USER1_ID));
+        assertEquals(3, connectionGraphService.getEdgeCount());
+        assertTrue(connectionGraphService.isConnected(USER1_ID, USER2_ID));
+        assertTrue(connectionGraphService.isConnected(USER2_ID, USER1_ID));
+
+        verify(connectionsRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void readsLoadTheGraphOnFirstUse() {
+        when(connectionsRepository.findAll()).thenReturn(List.of(new Connection(USER1_ID, USER2_ID)));
+
+        assertTrue(connectionGraphService.isConnected(USER1_ID, USER2_ID));
+        assertFalse(connectionGraphService.isConnected(USER1_ID, USER3_ID));
+
+        verify(connectionsRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void addAndRemoveConnectionUpdateTheLoadedGraph() {
+        when(connectionsRepository.findAll()).thenReturn(List.of());
+        connectionGraphService.loadGraph();
+
+        connectionGraphService.addConnection(USER1_ID, USER2_ID);
+        connectionGraphService.addConnection(USER1_ID, USER2_ID);
+
+        assertTrue(connectionGraphService.isConnected(USER2_ID, USER1_ID));
+        assertEquals(1, connectionGraphService.getEdgeCount());
+
+        connectionGraphService.removeConnection(USER1_ID, USER2_ID);
+
+        assertFalse(connectionGraphService.isConnected(USER1_ID, USER2_ID));
+        assertEquals(0, connectionGraphService.getDegree(USER2_ID));
+        assertEquals(0, connectionGraphService.getEdgeCount());
+    }
+
+    @Test
+    public void findShortestPathFollowsConnectionsInEitherDirection() {
+        // 1 -> 10 <- 11 -> 12 <- 3, plus a longer way round through 20..23
+        when(connectionsRepository.findAll()).thenReturn(List.of(
+                new Connection(USER1_ID, 10L),
+                new Connection(11L, 10L),
+                new Connection(11L, 12L),
+                new Connection(USER3_ID, 12L),
+                new Connection(USER1_ID, 20L),
+                new Connection(20L, 21L),
+                new Connection(21L, 22L),
+                new Connection(22L, 23L),
+                new Connection(23L, USER3_ID)));
+
+        assertArrayEquals(new long[] {USER1_ID, 10L, 11L, 12L, USER3_ID}, connectionGraphService.findShortestPath(USER1_ID, USER3_ID, 6));
+        assertArrayEquals(new long[] {USER3_ID, 12L, 11L, 10L, USER1_ID}, connectionGraphService.findShortestPath(USER3_ID, USER1_ID, 6));
+        assertArrayEquals(new long[] {USER1_ID}, connectionGraphService.findShortestPath(USER1_ID, USER1_ID, 6));
+    }
+
+    @Test
+    public void findShortestPathGivesUpBeyondMaxDepth() {
+        when(connectionsRepository.findAll()).thenReturn(List.of(
+                new Connection(USER1_ID, 10L),
+                new Connection(10L, 11L),
+                new Connection(11L, USER3_ID),
+                new Connection(USER2_ID, 30L)));
+
+        assertEquals(4, connectionGraphService.findShortestPath(USER1_ID, USER3_ID, 3).length);
+        assertEquals(0, connectionGraphService.findShortestPath(USER1_ID, USER3_ID, 2).length);
+        assertEquals(0, connectionGraphService.findShortestPath(USER1_ID, USER2_ID, 6).length);
+    }
+}
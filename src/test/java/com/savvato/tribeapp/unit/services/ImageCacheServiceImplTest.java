@@ -0,0 +1,157 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.services.ImageCacheService;
+import com.savvato.tribeapp.services.ImageCacheServiceImpl;
+import com.savvato.tribeapp.services.ResourceTypeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+        "app.pictures.cache.max-bytes=25",
+        "app.pictures.cache.max-entry-bytes=20"
+})
+public class ImageCacheServiceImplTest {
+
+    private static final String RESOURCE_TYPE = "profile";
+
+    @TestConfiguration
+    static class ImageCacheServiceTestContextConfiguration {
+        @Bean
+        public ImageCacheService imageCacheService() {
+            return new ImageCacheServiceImpl();
+        }
+    }
+
+    @Autowired
+    ImageCacheService imageCacheService;
+
+    @MockBean
+    ResourceTypeService resourceTypeService;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    public void setUp() {
+        when(resourceTypeService.findDirectoryOfResource(eq(RESOURCE_TYPE), anyString())).thenReturn(dir.toString());
+    }
+
+    @Test
+    public void secondLookupIsServedFromTheCache() throws IOException {
+        write("profilePicture_1.jpg", "0123456789", 1000L);
+
+        Resource first = imageCacheService.getImage(RESOURCE_TYPE, "profilePicture_1.jpg").get();
+        Resource second = imageCacheService.getImage(RESOURCE_TYPE, "profilePicture_1.jpg").get();
+
+        assertEquals("0123456789", read(first));
+        assertEquals("0123456789", read(second));
+        assertEquals(10, second.contentLength());
+        assertEquals(1000L, second.lastModified());
+        assertEquals(1, imageCacheService.getMissCount());
+        assertEquals(1, imageCacheService.getHitCount());
+        assertEquals(0.5, imageCacheService.getHitRatio());
+        assertEquals(10, imageCacheService.getUsedBytes());
+    }
+
+    @Test
+    public void fileChangedOnDiskIsReadAgain() throws IOException {
+        write("profilePicture_1.jpg_thumbnail", "old", 1000L);
+        imageCacheService.getImage(RESOURCE_TYPE, "profilePicture_1.jpg_thumbnail");
+
+        write("profilePicture_1.jpg_thumbnail", "new", 2000L);
+        Resource image = imageCacheService.getImage(RESOURCE_TYPE, "profilePicture_1.jpg_thumbnail").get();
+
+        assertEquals("new", read(image));
+        assertEquals(2000L, image.lastModified());
+        assertEquals(2, imageCacheService.getMissCount());
+        assertEquals(1, imageCacheService.getEntryCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvictedToStayWithinTheBudget() throws IOException {
+        write("a.jpg", "0123456789", 1000L);
+        write("b.jpg", "0123456789", 1000L);
+        write("c.jpg", "0123456789", 1000L);
+
+        imageCacheService.getImage(RESOURCE_TYPE, "a.jpg");
+        imageCacheService.getImage(RESOURCE_TYPE, "b.jpg");
+        imageCacheService.getImage(RESOURCE_TYPE, "a.jpg");
+        imageCacheService.getImage(RESOURCE_TYPE, "c.jpg");
+
+        assertEquals(1, imageCacheService.getEvictionCount());
+        assertEquals(20, imageCacheService.getUsedBytes());
+
+        // b was used least recently, so it was the one to go
+        imageCacheService.getImage(RESOURCE_TYPE, "a.jpg");
+        assertEquals(2, imageCacheService.getHitCount());
+        imageCacheService.getImage(RESOURCE_TYPE, "b.jpg");
+        assertEquals(2, imageCacheService.getHitCount());
+    }
+
+    @Test
+    public void invalidateDropsTheFileAndItsVariants() throws IOException {
+        write("profilePicture_1.jpg", "original", 1000L);
+        write("profilePicture_1.jpg_thumbnail", "thumb", 1000L);
+        write("profilePicture_12.jpg", "other", 1000L);
+
+        imageCacheService.getImage(RESOURCE_TYPE, "profilePicture_1.jpg");
+        imageCacheService.getImage(RESOURCE_TYPE, "profilePicture_1.jpg_thumbnail");
+        imageCacheService.getImage(RESOURCE_TYPE, "profilePicture_12.jpg");
+
+        imageCacheService.invalidate(RESOURCE_TYPE, "profilePicture_1.jpg");
+
+        assertEquals(1, imageCacheService.getEntryCount());
+        assertEquals(5, imageCacheService.getUsedBytes());
+    }
+
+    @Test
+    public void missingFileIsEmpty() {
+        assertEquals(Optional.empty(), imageCacheService.getImage(RESOURCE_TYPE, "profilePicture_404.jpg"));
+    }
+
+    @Test
+    public void fileBiggerThanAnEntryMayBeIsServedFromTheFile() throws IOException {
+        write("big.jpg", "0123456789012345678901234", 1000L);
+
+        Resource image = imageCacheService.getImage(RESOURCE_TYPE, "big.jpg").get();
+
+        assertInstanceOf(FileSystemResource.class, image);
+        assertEquals(0, imageCacheService.getEntryCount());
+    }
+
+    private void write(String filename, String content, long lastModified) throws IOException {
+        Path file = dir.resolve(filename);
+        Files.writeString(file, content);
+        assertTrue(file.toFile().setLastModified(lastModified));
+    }
+
+    private static String read(Resource resource) throws IOException {
+        try (InputStream is = resource.getInputStream()) {
+            return new String(is.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.services.LexiconWordClassifier;
+import com.savvato.tribeapp.services.WordClassifier;
+import com.savvato.tribeapp.utils.Lexicon;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(SpringExtension.class)
+public class LexiconWordClassifierTest {
+
+    @TestConfiguration
+    static class LexiconWordClassifierTestContextConfiguration {
+        @Bean
+        public WordClassifier wordClassifier() {
+            return new LexiconWordClassifier();
+        }
+    }
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void lexiconLocation(DynamicPropertyRegistry registry) {
+        registry.add("app.lexicon.location", () -> dir.resolve("lexicon.bin").toUri().toString());
+    }
+
+    @BeforeAll
+    static void writeLexicon() throws IOException {
+        Lexicon.write(Map.of(
+                "chess", Lexicon.toBits(List.of("noun")),
+                "plays", Lexicon.toBits(List.of("noun", "verb")),
+                "competitively", Lexicon.toBits(List.of("adverb")),
+                "for", Lexicon.toBits(List.of("preposition")),
+                "café", Lexicon.toBits(List.of("noun"))
+        ), dir.resolve("lexicon.bin"));
+    }
+
+    @Autowired
+    WordClassifier wordClassifier;
+
+    @Test
+    public void wordInTheLexiconHasItsPartsOfSpeech() {
+        assertEquals(Optional.of(Set.of("noun", "verb")), wordClassifier.getPartsOfSpeech("plays"));
+        assertEquals(Optional.of(Set.of("adverb")), wordClassifier.getPartsOfSpeech("competitively"));
+        assertEquals(Optional.of(Set.of("preposition")), wordClassifier.getPartsOfSpeech("for"));
+    }
+
+    @Test
+    public void lookupIgnoresCaseAndSurroundingSpace() {
+        assertEquals(Optional.of(Set.of("noun")), wordClassifier.getPartsOfSpeech(" Chess "));
+        assertEquals(Optional.of(Set.of("noun")), wordClassifier.getPartsOfSpeech("CAFÉ"));
+    }
+
+    @Test
+    public void wordNotInTheLexiconIsUnknown() {
+        assertEquals(Optional.empty(), wordClassifier.getPartsOfSpeech("zzzz"));
+        assertEquals(Optional.empty(), wordClassifier.getPartsOfSpeech("chesss"));
+        assertEquals(Optional.empty(), wordClassifier.getPartsOfSpeech("a"));
+        assertEquals(Optional.empty(), wordClassifier.getPartsOfSpeech(""));
+    }
+}
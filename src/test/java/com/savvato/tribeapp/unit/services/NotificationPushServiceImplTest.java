@@ -0,0 +1,126 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.constants.UserTestConstants;
+import com.savvato.tribeapp.dto.NotificationDTO;
+import com.savvato.tribeapp.services.NotificationPushService;
+import com.savvato.tribeapp.services.NotificationPushServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class NotificationPushServiceImplTest implements UserTestConstants {
+
+    @TestConfiguration
+    static class NotificationPushServiceTestContextConfiguration {
+        @Bean
+        public NotificationPushService notificationPushService() {
+            return new NotificationPushServiceImpl();
+        }
+    }
+
+    @Autowired
+    NotificationPushService notificationPushService;
+
+    @MockBean
+    SimpMessagingTemplate messagingTemplate;
+
+    @MockBean
+    SimpUserRegistry simpUserRegistry;
+
+    private static NotificationDTO notification(long id) {
+        return NotificationDTO.builder().id(id).description("Test description").body("Test body").build();
+    }
+
+    @Test
+    public void hasSessionWhenTheUserHasOneOpen() {
+        when(simpUserRegistry.getUser(String.valueOf(USER1_ID))).thenReturn(Mockito.mock(SimpUser.class));
+        when(simpUserRegistry.getUser(String.valueOf(USER2_ID))).thenReturn(null);
+
+        assertTrue(notificationPushService.hasSession(USER1_ID));
+        assertFalse(notificationPushService.hasSession(USER2_ID));
+    }
+
+    @Test
+    public void pushNotificationSendsToAConnectedUser() {
+        NotificationDTO notification = notification(1L);
+        when(simpUserRegistry.getUser(String.valueOf(USER1_ID))).thenReturn(Mockito.mock(SimpUser.class));
+
+        notificationPushService.pushNotification(USER1_ID, notification);
+
+        verify(messagingTemplate, times(1)).convertAndSendToUser(String.valueOf(USER1_ID), NotificationPushServiceImpl.NOTIFICATIONS_DESTINATION, notification);
+    }
+
+    @Test
+    public void pushNotificationSkipsAUserWithoutSessions() {
+        when(simpUserRegistry.getUser(anyString())).thenReturn(null);
+
+        notificationPushService.pushNotification(USER1_ID, notification(1L));
+
+        verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+    }
+
+    @Test
+    public void pushNotificationWaitsForTheTransactionToCommit() {
+        when(simpUserRegistry.getUser(String.valueOf(USER1_ID))).thenReturn(Mockito.mock(SimpUser.class));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            notificationPushService.pushNotification(USER1_ID, notification(1L));
+            verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(messagingTemplate, times(1)).convertAndSendToUser(anyString(), anyString(), any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void pushNotificationSwallowsASendFailure() {
+        when(simpUserRegistry.getUser(String.valueOf(USER1_ID))).thenReturn(Mockito.mock(SimpUser.class));
+        doThrow(new MessagingException("broker is gone")).when(messagingTemplate).convertAndSendToUser(anyString(), anyString(), any());
+
+        notificationPushService.pushNotification(USER1_ID, notification(1L));
+
+        verify(messagingTemplate, times(1)).convertAndSendToUser(anyString(), anyString(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void pushNotificationsToSessionAddressesTheSession() {
+        notificationPushService.pushNotificationsToSession(USER1_ID, "session-1", List.of(notification(43L), notification(44L)));
+
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        ArgumentCaptor<Map<String, Object>> headers = ArgumentCaptor.forClass(Map.class);
+        verify(messagingTemplate, times(2)).convertAndSendToUser(eq(String.valueOf(USER1_ID)), eq(NotificationPushServiceImpl.NOTIFICATIONS_DESTINATION), payloads.capture(), headers.capture());
+
+        assertEquals(43L, ((NotificationDTO) payloads.getAllValues().get(0)).id);
+        assertEquals(44L, ((NotificationDTO) payloads.getAllValues().get(1)).id);
+        assertEquals("session-1", headers.getValue().get(SimpMessageHeaderAccessor.SESSION_ID_HEADER));
+    }
+}
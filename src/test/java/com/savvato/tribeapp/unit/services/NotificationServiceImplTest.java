@@ -6,9 +6,12 @@ import com.savvato.tribeapp.entities.Notification;
 import com.savvato.tribeapp.entities.NotificationType;
 import com.savvato.tribeapp.repositories.NotificationRepository;
 import com.savvato.tribeapp.repositories.NotificationTypeRepository;
+import com.savvato.tribeapp.services.NotificationPushService;
 import com.savvato.tribeapp.services.NotificationService;
 import com.savvato.tribeapp.services.NotificationServiceImpl;
 import com.savvato.tribeapp.services.SystemTimeProvider;
+import com.savvato.tribeapp.services.UnreadNotificationCountService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -17,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.time.Duration;
@@ -61,6 +65,18 @@ public class NotificationServiceImplTest implements UserTestConstants {
     @MockBean
     NotificationRepository notificationRepository;
 
+    @MockBean
+    UnreadNotificationCountService unreadNotificationCountService;
+
+    @MockBean
+    NotificationPushService notificationPushService;
+
+    @BeforeEach
+    public void clearTimeProvider() {
+        // the time provider is a plain mock shared by every test in the class
+        clearInvocations(mockTimeProvider);
+    }
+
     @Test
     public void getUserNotifications() {
         Long userId = USER1_ID;
@@ -78,12 +94,12 @@ public class NotificationServiceImplTest implements UserTestConstants {
         List<Notification> notifications = List.of(new Notification(userId, "Test description", "Test Body", true, 1L));
         List<NotificationDTO> expected = List.of(notificationDTO);
         NotificationService notificationServiceSpy = spy(notificationService);
-        doReturn(notifications).when(notificationServiceSpy).getNotificationsByUserId(anyLong());
+        doReturn(notifications).when(notificationServiceSpy).getNotificationsByUserId(anyLong(), anyLong(), anyInt());
         doReturn(iconUrl).when(notificationServiceSpy).getIconUrlFromNotification(any(Notification.class));
         doReturn(formattedLastUpdatedDate).when(notificationServiceSpy).getFormattedLastUpdatedDate(any(Notification.class));
         doReturn(notificationDTO).when(notificationServiceSpy).createNotificationDTO(any(Notification.class), anyString(), anyString());
 
-        List<NotificationDTO> actual = notificationServiceSpy.getUserNotifications(userId);
+        List<NotificationDTO> actual = notificationServiceSpy.getUserNotifications(userId, null, null);
 
         assertThat(actual).usingRecursiveComparison().isEqualTo(expected);
     }
@@ -131,6 +147,8 @@ public class NotificationServiceImplTest implements UserTestConstants {
         // Mock repository behavior
         when(notificationTypeRepository.findById(1L)).thenReturn(Optional.of(mockType));
         when(notificationRepository.save(any(Notification.class))).thenReturn(mockNotification);
+        when(mockTimeProvider.getCurrentInstant()).thenReturn(Instant.now());
+        when(notificationPushService.hasSession(USER1_ID)).thenReturn(true);
 
         // Test data
         NotificationType type = new NotificationType();
@@ -146,6 +164,11 @@ public class NotificationServiceImplTest implements UserTestConstants {
         // Verify the repository calls
         verify(notificationTypeRepository, times(1)).findById(1L);
         verify(notificationRepository, times(1)).save(any(Notification.class));
+        verify(unreadNotificationCountService, times(1)).incrementUnreadCount(USER1_ID);
+        ArgumentCaptor<NotificationDTO> pushed = ArgumentCaptor.forClass(NotificationDTO.class);
+        verify(notificationPushService, times(1)).pushNotification(eq(USER1_ID), pushed.capture());
+        assertEquals(1L, pushed.getValue().id);
+        assertFalse(pushed.getValue().isRead);
 
         // Verify the result
         assertNotNull(result);
@@ -159,6 +182,25 @@ public class NotificationServiceImplTest implements UserTestConstants {
         assertEquals(mockNotification.getLastUpdatedDate(LocalDateTime.now()), result.getLastUpdatedDate(LocalDateTime.now()));
     }
 
+    @Test
+    public void createNotificationForADisconnectedUserPushesNothing() {
+        NotificationType type = new NotificationType();
+        type.setId(1L);
+        Notification saved = new Notification();
+        saved.setId(1L);
+        saved.setType(type);
+        saved.setUserId(USER1_ID);
+        when(notificationTypeRepository.findById(1L)).thenReturn(Optional.of(type));
+        when(notificationRepository.save(any(Notification.class))).thenReturn(saved);
+        when(notificationPushService.hasSession(USER1_ID)).thenReturn(false);
+
+        assertNotNull(notificationService.createNotification(type, USER1_ID, "Test Description", "Test Body"));
+
+        // nothing to push, so the message isn't made either
+        verify(notificationPushService, never()).pushNotification(any(), any());
+        verify(mockTimeProvider, never()).getCurrentInstant();
+    }
+
     @Test
     public void testCreateNotificationWhenNotificationDoesntExist() {
 
@@ -179,6 +221,8 @@ public class NotificationServiceImplTest implements UserTestConstants {
         // Verify the repository calls
         verify(notificationTypeRepository, times(1)).findById(1L);
         verify(notificationRepository, never()).save(any(Notification.class));
+        verify(unreadNotificationCountService, never()).incrementUnreadCount(any());
+        verify(notificationPushService, never()).pushNotification(any(), any());
 
         // Verify the result
         assertNull(result);
@@ -190,17 +234,20 @@ public class NotificationServiceImplTest implements UserTestConstants {
         Long notificationId = 1L;
         Notification mockNotification = new Notification();
         mockNotification.setId(notificationId);
+        mockNotification.setRead(true);
 
         // Mock repository behavior
         when(notificationRepository.findById(notificationId)).thenReturn(Optional.of(mockNotification));
-        doNothing().when(notificationRepository).delete(mockNotification);
+        when(notificationRepository.deleteUnread(notificationId)).thenReturn(0);
+        when(notificationRepository.deleteRead(notificationId)).thenReturn(1);
 
         // Perform the method call
         notificationService.deleteNotification(notificationId);
 
         // Verify the repository calls
         verify(notificationRepository, times(1)).findById(notificationId);
-        verify(notificationRepository, times(1)).delete(mockNotification);
+        verify(notificationRepository, times(1)).deleteRead(notificationId);
+        verify(unreadNotificationCountService, never()).decrementUnreadCount(any());
     }
 
     @Test
@@ -212,14 +259,14 @@ public class NotificationServiceImplTest implements UserTestConstants {
 
         // Mock repository behavior
         when(notificationRepository.findById(notificationId)).thenReturn(Optional.empty());
-        doNothing().when(notificationRepository).delete(mockNotification);
 
         // Perform the method call
         notificationService.deleteNotification(notificationId);
 
         // Verify the repository calls
         verify(notificationRepository, times(1)).findById(notificationId);
-        verify(notificationRepository, never()).delete(mockNotification);
+        verify(notificationRepository, never()).deleteUnread(any());
+        verify(notificationRepository, never()).deleteRead(any());
     }
 
     @Test
@@ -382,14 +429,10 @@ public class NotificationServiceImplTest implements UserTestConstants {
     public void updateNotificationReadStatusWhenNotificationExists() {
         Long id = 1L;
         Notification notification = new Notification(1L, "Test description", "Test Body", true, 1L);
-        Notification notificationSpy = spy(notification);
-        when(notificationRepository.findById(id)).thenReturn(Optional.of(notificationSpy));
-        ArgumentCaptor<Boolean> readStatusCaptor = ArgumentCaptor.forClass(Boolean.class);
-        ArgumentCaptor<Notification> notificationCaptor = ArgumentCaptor.forClass(Notification.class);
+        when(notificationRepository.findById(id)).thenReturn(Optional.of(notification));
 
         boolean updateStatus = notificationService.updateNotificationReadStatus(1L);
-        verify(notificationSpy, times(1)).setRead(readStatusCaptor.capture());
-        verify(notificationRepository, times(1)).save(notificationCaptor.capture());
+        verify(notificationRepository, times(1)).markRead(id);
         assertTrue(updateStatus);
     }
 
@@ -400,7 +443,123 @@ public class NotificationServiceImplTest implements UserTestConstants {
         when(notificationRepository.findById(id)).thenReturn(Optional.empty());
 
         boolean updateStatus = notificationService.updateNotificationReadStatus(1L);
-        verify(notificationRepository, never()).save(any());
+        verify(notificationRepository, never()).markRead(any());
         assertFalse(updateStatus);
     }
+
+    @Test
+    public void updateNotificationReadStatusCountsAnUnreadNotificationAsRead() {
+        Notification notification = new Notification();
+        notification.setId(1L);
+        notification.setUserId(USER1_ID);
+        notification.setRead(false);
+        when(notificationRepository.findById(1L)).thenReturn(Optional.of(notification));
+        when(notificationRepository.markRead(1L)).thenReturn(1);
+
+        assertTrue(notificationService.updateNotificationReadStatus(1L));
+        verify(unreadNotificationCountService, times(1)).decrementUnreadCount(USER1_ID);
+    }
+
+    @Test
+    public void updateNotificationReadStatusLeavesTheCountAloneWhenAlreadyRead() {
+        Notification notification = new Notification();
+        notification.setId(1L);
+        notification.setUserId(USER1_ID);
+        notification.setRead(true);
+        when(notificationRepository.findById(1L)).thenReturn(Optional.of(notification));
+        when(notificationRepository.markRead(1L)).thenReturn(0);
+
+        assertTrue(notificationService.updateNotificationReadStatus(1L));
+        verify(unreadNotificationCountService, never()).decrementUnreadCount(any());
+    }
+
+    @Test
+    public void updateNotificationReadStatusLeavesTheCountAloneWhenMarkedReadConcurrently() {
+        // it was unread when loaded, but another request marked it read before this one's update
+        Notification notification = new Notification();
+        notification.setId(1L);
+        notification.setUserId(USER1_ID);
+        notification.setRead(false);
+        when(notificationRepository.findById(1L)).thenReturn(Optional.of(notification));
+        when(notificationRepository.markRead(1L)).thenReturn(0);
+
+        assertTrue(notificationService.updateNotificationReadStatus(1L));
+        verify(unreadNotificationCountService, never()).decrementUnreadCount(any());
+    }
+
+    @Test
+    public void deleteNotificationCountsDownAnUnreadNotification() {
+        Notification notification = new Notification();
+        notification.setId(1L);
+        notification.setUserId(USER1_ID);
+        notification.setRead(false);
+        when(notificationRepository.findById(1L)).thenReturn(Optional.of(notification));
+        when(notificationRepository.deleteUnread(1L)).thenReturn(1);
+
+        notificationService.deleteNotification(1L);
+
+        verify(notificationRepository, times(1)).deleteUnread(1L);
+        verify(notificationRepository, never()).deleteRead(any());
+        verify(unreadNotificationCountService, times(1)).decrementUnreadCount(USER1_ID);
+    }
+
+    @Test
+    public void getNotificationsByUserIdReadsOnePage() {
+        Notification notification = new Notification();
+        notification.setId(41L);
+        notification.setUserId(USER1_ID);
+        when(notificationRepository.findByUserIdBefore(USER1_ID, 42L, Limit.of(20))).thenReturn(List.of(notification));
+
+        List<Notification> notifications = notificationService.getNotificationsByUserId(USER1_ID, 42L, 20);
+
+        assertEquals(1, notifications.size());
+        assertEquals(41L, notifications.get(0).getId());
+    }
+
+    @Test
+    public void getUserNotificationsStartsFromTheNewestPage() {
+        NotificationService notificationServiceSpy = spy(notificationService);
+        doReturn(List.of()).when(notificationServiceSpy).getNotificationsByUserId(anyLong(), anyLong(), anyInt());
+
+        notificationServiceSpy.getUserNotifications(USER1_ID, null, null);
+
+        verify(notificationServiceSpy, times(1)).getNotificationsByUserId(USER1_ID, Long.MAX_VALUE, 20);
+    }
+
+    @Test
+    public void getUserNotificationsKeepsTheLimitWithinTheMaximum() {
+        NotificationService notificationServiceSpy = spy(notificationService);
+        doReturn(List.of()).when(notificationServiceSpy).getNotificationsByUserId(anyLong(), anyLong(), anyInt());
+
+        notificationServiceSpy.getUserNotifications(USER1_ID, 42L, 1000);
+        notificationServiceSpy.getUserNotifications(USER1_ID, 42L, 0);
+
+        verify(notificationServiceSpy, times(1)).getNotificationsByUserId(USER1_ID, 42L, 100);
+        verify(notificationServiceSpy, times(1)).getNotificationsByUserId(USER1_ID, 42L, 1);
+    }
+
+    @Test
+    public void getUnreadNotificationCount() {
+        when(unreadNotificationCountService.getUnreadCount(USER1_ID)).thenReturn(3L);
+
+        assertEquals(3L, notificationService.getUnreadNotificationCount(USER1_ID));
+    }
+
+    @Test
+    public void getUserNotificationsAfterReturnsTheMissedOnesOldestFirst() {
+        Notification newer = new Notification(USER1_ID, "Newer", "Body", false, 1L);
+        newer.setId(44L);
+        newer.setLastUpdatedDate(LocalDateTime.now());
+        Notification older = new Notification(USER1_ID, "Older", "Body", false, 1L);
+        older.setId(43L);
+        older.setLastUpdatedDate(LocalDateTime.now());
+        when(notificationRepository.findByUserIdAfter(USER1_ID, 42L, Limit.of(100))).thenReturn(List.of(newer, older));
+        when(mockTimeProvider.getCurrentInstant()).thenReturn(Instant.now());
+
+        List<NotificationDTO> missed = notificationService.getUserNotificationsAfter(USER1_ID, 42L);
+
+        assertEquals(2, missed.size());
+        assertEquals(43L, missed.get(0).id);
+        assertEquals(44L, missed.get(1).id);
+    }
 }
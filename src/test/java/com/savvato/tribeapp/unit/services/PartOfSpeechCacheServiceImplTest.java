@@ -0,0 +1,110 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.entities.WordPartsOfSpeech;
+import com.savvato.tribeapp.repositories.WordPartsOfSpeechRepository;
+import com.savvato.tribeapp.services.CacheService;
+import com.savvato.tribeapp.services.PartOfSpeechCacheService;
+import com.savvato.tribeapp.services.PartOfSpeechCacheServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+@TestPropertySource(properties = {
+        "app.words-api.cache.ttl-days=90",
+        "app.words-api.cache.negative-ttl-days=7"
+})
+public class PartOfSpeechCacheServiceImplTest {
+
+    private static final String CACHE_NAME = "WordPartsOfSpeech";
+
+    @TestConfiguration
+    static class PartOfSpeechCacheServiceTestContextConfiguration {
+        @Bean
+        public PartOfSpeechCacheService partOfSpeechCacheService() {
+            return new PartOfSpeechCacheServiceImpl();
+        }
+    }
+
+    @Autowired
+    PartOfSpeechCacheService partOfSpeechCacheService;
+
+    @MockBean
+    CacheService cacheService;
+
+    @MockBean
+    WordPartsOfSpeechRepository wordPartsOfSpeechRepository;
+
+    @Test
+    public void wordInMemoryIsNotLookedUpInTheDatabase() {
+        when(cacheService.get(CACHE_NAME, "walk")).thenReturn("noun,verb");
+
+        assertEquals(Optional.of(Set.of("noun", "verb")), partOfSpeechCacheService.getPartsOfSpeech("Walk"));
+
+        verify(wordPartsOfSpeechRepository, never()).findById(anyString());
+    }
+
+    @Test
+    public void wordInTheDatabaseIsBroughtIntoMemory() {
+        when(wordPartsOfSpeechRepository.findById("walk"))
+                .thenReturn(Optional.of(new WordPartsOfSpeech("walk", "noun,verb", LocalDateTime.now().minusDays(30))));
+
+        assertEquals(Optional.of(Set.of("noun", "verb")), partOfSpeechCacheService.getPartsOfSpeech("walk"));
+
+        verify(cacheService, times(1)).put(CACHE_NAME, "walk", "noun,verb");
+    }
+
+    @Test
+    public void wordFetchedLongerAgoThanTheTtlIsMissing() {
+        when(wordPartsOfSpeechRepository.findById("walk"))
+                .thenReturn(Optional.of(new WordPartsOfSpeech("walk", "noun,verb", LocalDateTime.now().minusDays(91))));
+
+        assertEquals(Optional.empty(), partOfSpeechCacheService.getPartsOfSpeech("walk"));
+    }
+
+    @Test
+    public void nonWordIsRememberedForTheNegativeTtl() {
+        when(wordPartsOfSpeechRepository.findById("zzzz"))
+                .thenReturn(Optional.of(new WordPartsOfSpeech("zzzz", "", LocalDateTime.now().minusDays(3))));
+        when(wordPartsOfSpeechRepository.findById("qqqq"))
+                .thenReturn(Optional.of(new WordPartsOfSpeech("qqqq", "", LocalDateTime.now().minusDays(8))));
+
+        assertEquals(Optional.of(Set.of()), partOfSpeechCacheService.getPartsOfSpeech("zzzz"));
+        assertEquals(Optional.empty(), partOfSpeechCacheService.getPartsOfSpeech("qqqq"));
+    }
+
+    @Test
+    public void putRemembersTheWordInMemoryAndInTheDatabase() {
+        partOfSpeechCacheService.putPartsOfSpeech("Walk", Set.of("verb", "noun"));
+
+        verify(cacheService, times(1)).put(CACHE_NAME, "walk", "noun,verb");
+        ArgumentCaptor<WordPartsOfSpeech> captor = ArgumentCaptor.forClass(WordPartsOfSpeech.class);
+        verify(wordPartsOfSpeechRepository, times(1)).save(captor.capture());
+        assertEquals("walk", captor.getValue().getWord());
+        assertEquals("noun,verb", captor.getValue().getPartsOfSpeech());
+        assertNotNull(captor.getValue().getFetchedAt());
+    }
+
+    @Test
+    public void putOfAWordAnotherThreadJustSavedIsFine() {
+        when(wordPartsOfSpeechRepository.save(any())).thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        assertDoesNotThrow(() -> partOfSpeechCacheService.putPartsOfSpeech("walk", Set.of("noun")));
+
+        verify(cacheService, times(1)).put(CACHE_NAME, "walk", "noun");
+    }
+}
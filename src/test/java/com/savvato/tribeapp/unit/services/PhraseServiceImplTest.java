@@ -9,7 +9,9 @@ import com.savvato.tribeapp.entities.*;
 import com.savvato.tribeapp.repositories.*;
 import com.savvato.tribeapp.services.PhraseService;
 import com.savvato.tribeapp.services.PhraseServiceImpl;
-import com.savvato.tribeapp.services.UserPhraseService;
+import com.savvato.tribeapp.services.PhraseUserCountService;
+import com.savvato.tribeapp.services.RejectionFilterService;
+import com.savvato.tribeapp.services.VocabularyService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -55,38 +57,46 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
     PhraseRepository phraseRepository;
 
     @MockBean
-    AdverbRepository adverbRepository;
+    VocabularyService vocabularyService;
 
     @MockBean
-    VerbRepository verbRepository;
+    RejectedPhraseRepository rejectedPhraseRepository;
 
     @MockBean
-    PrepositionRepository prepositionRepository;
+    RejectedNonEnglishWordRepository rejectedNonEnglishWordRepository;
 
     @MockBean
-    NounRepository nounRepository;
+    RejectionFilterService rejectionFilterService;
 
     @MockBean
-    RejectedPhraseRepository rejectedPhraseRepository;
+    UserPhraseRepository userPhraseRepository;
 
     @MockBean
-    RejectedNonEnglishWordRepository rejectedNonEnglishWordRepository;
+    PhraseUserCountService phraseUserCountService;
 
     @MockBean
-    UserPhraseService userPhraseService;
+    ToBeReviewedRepository toBeReviewedRepository;
 
     @MockBean
-    UserPhraseRepository userPhraseRepository;
+    ReviewSubmittingUserRepository reviewSubmittingUserRepository;
 
     @MockBean
-    ToBeReviewedRepository toBeReviewedRepository;
+    AdverbRepository adverbRepository;
 
     @MockBean
-    ReviewSubmittingUserRepository reviewSubmittingUserRepository;
+    VerbRepository verbRepository;
+
+    @MockBean
+    PrepositionRepository prepositionRepository;
+
+    @MockBean
+    NounRepository nounRepository;
 
 
     @Test
     public void isPhraseValidHappyPath() {
+        when(rejectionFilterService.mightBeRejectedWord(any())).thenReturn(true);
+        when(rejectionFilterService.mightBeRejectedPhrase(any())).thenReturn(true);
         when(rejectedPhraseRepository.findByRejectedPhrase(anyString())).thenReturn(Optional.empty());
         when(rejectedNonEnglishWordRepository.findByWord(anyString())).thenReturn(Optional.empty());
         boolean rtn = phraseService.isPhraseValid(ADVERB1_WORD, VERB1_WORD, PREPOSITION1_WORD, NOUN1_WORD);
@@ -108,6 +118,8 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
         String verb = VERB1_WORD;
         String noun = NOUN1_WORD;
         String preposition = value;
+        when(rejectionFilterService.mightBeRejectedWord(any())).thenReturn(true);
+        when(rejectionFilterService.mightBeRejectedPhrase(any())).thenReturn(true);
         when(rejectedPhraseRepository.findByRejectedPhrase(anyString())).thenReturn(Optional.empty());
         when(rejectedNonEnglishWordRepository.findByWord(anyString())).thenReturn(Optional.empty());
         boolean rtn = phraseService.isPhraseValid(adverb, verb, preposition, noun);
@@ -156,6 +168,8 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
         rejectedNonEnglishWord.setId(1L);
         rejectedNonEnglishWord.setWord(rejectedWord);
 
+        when(rejectionFilterService.mightBeRejectedWord(any())).thenReturn(true);
+        when(rejectionFilterService.mightBeRejectedPhrase(any())).thenReturn(true);
         Mockito.when(rejectedNonEnglishWordRepository.findByWord(anyString())).thenReturn(Optional.of(rejectedNonEnglishWord));
 
         assertFalse(phraseService.isPhraseValid(rejectedWord, rejectedWord, rejectedWord, rejectedWord));
@@ -170,11 +184,38 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
         rejectedPhrase.setId(1L);
         rejectedPhrase.setRejectedPhrase(rejectedString);
 
+        when(rejectionFilterService.mightBeRejectedWord(any())).thenReturn(true);
+        when(rejectionFilterService.mightBeRejectedPhrase(any())).thenReturn(true);
         Mockito.when(rejectedPhraseRepository.findByRejectedPhrase(anyString())).thenReturn(Optional.of(rejectedPhrase));
 
         assertFalse(phraseService.isPhraseValid("test", "test", "test", "test"));
     }
 
+    // test that the rejection tables are not queried when the rejection filter rules the words and phrase out
+    @Test
+    public void isPhraseValidWhenRejectionFilterMisses() {
+        when(rejectionFilterService.mightBeRejectedWord(any())).thenReturn(false);
+        when(rejectionFilterService.mightBeRejectedPhrase(any())).thenReturn(false);
+
+        assertTrue(phraseService.isPhraseValid(ADVERB1_WORD, VERB1_WORD, PREPOSITION1_WORD, NOUN1_WORD));
+
+        verify(rejectedNonEnglishWordRepository, never()).findByWord(any());
+        verify(rejectedPhraseRepository, never()).findByRejectedPhrase(any());
+        verify(rejectionFilterService, never()).recordFalsePositive();
+    }
+
+    // test that a filter hit which the database does not confirm is counted as a false positive
+    @Test
+    public void isPhraseValidWhenRejectionFilterGivesFalsePositive() {
+        when(rejectionFilterService.mightBeRejectedWord(VERB1_WORD.toLowerCase())).thenReturn(true);
+        when(rejectedNonEnglishWordRepository.findByWord(anyString())).thenReturn(Optional.empty());
+
+        assertTrue(phraseService.isPhraseValid(ADVERB1_WORD, VERB1_WORD, PREPOSITION1_WORD, NOUN1_WORD));
+
+        verify(rejectedNonEnglishWordRepository, times(1)).findByWord(VERB1_WORD.toLowerCase());
+        verify(rejectionFilterService, times(1)).recordFalsePositive();
+    }
+
     // Test that UserPhraseRepository is called once when calling ApplyPhraseToUser and phrase has been approved
     @Test
     public void testApplyPhraseToUserWhenPhraseHasBeenPreviouslyApproved() {
@@ -192,10 +233,10 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
         userPhrase.setUserId(user1.getId());
         userPhrase.setPhraseId(testPhrase.getId());
 
-        Mockito.when(adverbRepository.findByWord(anyString())).thenReturn(Optional.of(testAdverb));
-        Mockito.when(verbRepository.findByWord(anyString())).thenReturn(Optional.of(testVerb));
-        Mockito.when(prepositionRepository.findByWord(anyString())).thenReturn(Optional.of(testPreposition));
-        Mockito.when(nounRepository.findByWord(anyString())).thenReturn(Optional.of(testNoun));
+        Mockito.when(vocabularyService.findAdverbId(anyString())).thenReturn(Optional.of(testAdverb.getId()));
+        Mockito.when(vocabularyService.findVerbId(anyString())).thenReturn(Optional.of(testVerb.getId()));
+        Mockito.when(vocabularyService.findPrepositionId(anyString())).thenReturn(Optional.of(testPreposition.getId()));
+        Mockito.when(vocabularyService.findNounId(anyString())).thenReturn(Optional.of(testNoun.getId()));
 
         Mockito.when(phraseRepository.findByAdverbIdAndVerbIdAndPrepositionIdAndNounId(any(Long.class), any(Long.class), any(Long.class), any(Long.class))).thenReturn(Optional.of(testPhrase));
 
@@ -204,10 +245,33 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
         boolean rtn = phraseService.applyPhraseToUser(user1.getId(), "testAdverb", "testVerb", "testPreposition", "testNoun");
 
         verify(userPhraseRepository, times(1)).save(Mockito.any());
+        verify(phraseUserCountService, times(1)).incrementUserCount(testPhrase.getId());
         assertTrue(rtn);
 
     }
 
+    // Test that applying a phrase the user already has does not count the user twice
+    @Test
+    public void testApplyPhraseToUserWhenUserAlreadyHasPhrase() {
+
+        User user1 = UserTestConstants.getUser1();
+        Phrase testPhrase = PhraseTestConstants.getTestPhrase1();
+
+        Mockito.when(vocabularyService.findAdverbId(anyString())).thenReturn(Optional.of(ADVERB1_ID));
+        Mockito.when(vocabularyService.findVerbId(anyString())).thenReturn(Optional.of(VERB1_ID));
+        Mockito.when(vocabularyService.findPrepositionId(anyString())).thenReturn(Optional.of(PREPOSITION1_ID));
+        Mockito.when(vocabularyService.findNounId(anyString())).thenReturn(Optional.of(NOUN1_ID));
+
+        Mockito.when(phraseRepository.findByAdverbIdAndVerbIdAndPrepositionIdAndNounId(any(Long.class), any(Long.class), any(Long.class), any(Long.class))).thenReturn(Optional.of(testPhrase));
+        Mockito.when(userPhraseRepository.existsById(any())).thenReturn(true);
+
+        boolean rtn = phraseService.applyPhraseToUser(user1.getId(), "testAdverb", "testVerb", "testPreposition", "testNoun");
+
+        verify(userPhraseRepository, times(1)).save(Mockito.any());
+        verify(phraseUserCountService, never()).incrementUserCount(any());
+        assertTrue(rtn);
+    }
+
     // Test that reviewSubmittingUserRepository is called once when calling ApplyPhraseToUser and conditions:
     // phrase has not been approved
     // phrase exists in to_be_reviewed
@@ -224,10 +288,10 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
         toBeReviewed.setPreposition(testWord);
         toBeReviewed.setNoun(testWord);
 
-        Mockito.when(adverbRepository.findByWord(anyString())).thenReturn(Optional.empty());
-        Mockito.when(verbRepository.findByWord(anyString())).thenReturn(Optional.empty());
-        Mockito.when(prepositionRepository.findByWord(anyString())).thenReturn(Optional.empty());
-        Mockito.when(nounRepository.findByWord(anyString())).thenReturn(Optional.empty());
+        Mockito.when(vocabularyService.findAdverbId(anyString())).thenReturn(Optional.empty());
+        Mockito.when(vocabularyService.findVerbId(anyString())).thenReturn(Optional.empty());
+        Mockito.when(vocabularyService.findPrepositionId(anyString())).thenReturn(Optional.empty());
+        Mockito.when(vocabularyService.findNounId(anyString())).thenReturn(Optional.empty());
 
         Mockito.when(phraseRepository.findByAdverbIdAndVerbIdAndPrepositionIdAndNounId(any(Long.class), any(Long.class), any(Long.class), any(Long.class))).thenReturn(Optional.empty());
 
@@ -255,10 +319,10 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
         toBeReviewed.setPreposition(testWord);
         toBeReviewed.setNoun(testWord);
 
-        Mockito.when(adverbRepository.findByWord(anyString())).thenReturn(Optional.empty());
-        Mockito.when(verbRepository.findByWord(anyString())).thenReturn(Optional.empty());
-        Mockito.when(prepositionRepository.findByWord(anyString())).thenReturn(Optional.empty());
-        Mockito.when(nounRepository.findByWord(anyString())).thenReturn(Optional.empty());
+        Mockito.when(vocabularyService.findAdverbId(anyString())).thenReturn(Optional.empty());
+        Mockito.when(vocabularyService.findVerbId(anyString())).thenReturn(Optional.empty());
+        Mockito.when(vocabularyService.findPrepositionId(anyString())).thenReturn(Optional.empty());
+        Mockito.when(vocabularyService.findNounId(anyString())).thenReturn(Optional.empty());
 
         Mockito.when(phraseRepository.findByAdverbIdAndVerbIdAndPrepositionIdAndNounId(any(Long.class), any(Long.class), any(Long.class), any(Long.class))).thenReturn(Optional.empty());
 
@@ -275,17 +339,15 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
         User user1 = UserTestConstants.getUser1();
         String testWord = "test";
         String testEmptyString = "";
-        List<Long> userIds = new ArrayList<>(List.of(1L));
         Integer userCount = 1;
         PhraseWithUserCountDTO phraseWithUserCountDTO = new PhraseWithUserCountDTO(1L, 1L, 1L, 1L, 1L, userCount.longValue());
 
 
-        Mockito.when(userPhraseService.findPhraseIdsByUserId(anyLong())).thenReturn(Optional.of(userIds));
-        Mockito.when(phraseRepository.findPhraseByPhraseId(anyLong())).thenReturn(Optional.of(phraseWithUserCountDTO));
-        Mockito.when(adverbRepository.findAdverbById(anyLong())).thenReturn(Optional.of(Constants.NULL_VALUE_WORD));
-        Mockito.when(verbRepository.findVerbById(anyLong())).thenReturn(Optional.of(testWord));
-        Mockito.when(prepositionRepository.findPrepositionById(anyLong())).thenReturn(Optional.of(Constants.NULL_VALUE_WORD));
-        Mockito.when(nounRepository.findNounById(anyLong())).thenReturn(Optional.of(testWord));
+        Mockito.when(phraseRepository.findPhrasesWithUserCountByUserId(anyLong())).thenReturn(List.of(phraseWithUserCountDTO));
+        Mockito.when(vocabularyService.findAdverbById(anyLong())).thenReturn(Optional.of(Constants.NULL_VALUE_WORD));
+        Mockito.when(vocabularyService.findVerbById(anyLong())).thenReturn(Optional.of(testWord));
+        Mockito.when(vocabularyService.findPrepositionById(anyLong())).thenReturn(Optional.of(Constants.NULL_VALUE_WORD));
+        Mockito.when(vocabularyService.findNounById(anyLong())).thenReturn(Optional.of(testWord));
 
         Optional<Map<PhraseDTO, Integer>> optPhraseInformationMap = phraseService.getPhraseInformationByUserId(user1.getId());
         Map<PhraseDTO, Integer> phraseInformationMap = optPhraseInformationMap.get();
@@ -298,29 +360,40 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
         assertEquals(phraseInformationMap.size(), 1);
     }
 
-    @Test
-    public void getPhraseInformationByUserIdWhenNoMatchingPhraseFound() {
+    // The number of queries must not grow with the number of phrases a user has
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    public void getPhraseInformationByUserIdUsesOneQueryRegardlessOfPhraseCount(int phraseCount) {
         Long userId = USER1_ID;
-        Optional<List<Long>> phraseIds = Optional.of(List.of(1L, 2L));
-        when(userPhraseService.findPhraseIdsByUserId(userId)).thenReturn(phraseIds);
-        when(phraseRepository.findPhraseByPhraseId(anyLong())).thenReturn(Optional.empty());
-        assertThrows(IllegalStateException.class, () -> {
-            phraseService.getPhraseInformationByUserId(userId);
-        }, "phrase not found");
+        List<PhraseWithUserCountDTO> phraseInformationList = new ArrayList<>();
+        for (long i = 1; i <= phraseCount; i++) {
+            phraseInformationList.add(new PhraseWithUserCountDTO(i, ADVERB1_ID, VERB1_ID, PREPOSITION1_ID, NOUN1_ID, i));
+        }
+        when(phraseRepository.findPhrasesWithUserCountByUserId(userId)).thenReturn(phraseInformationList);
+        when(vocabularyService.findAdverbById(ADVERB1_ID)).thenReturn(Optional.of(ADVERB1_WORD));
+        when(vocabularyService.findVerbById(VERB1_ID)).thenReturn(Optional.of(VERB1_WORD));
+        when(vocabularyService.findPrepositionById(PREPOSITION1_ID)).thenReturn(Optional.of(PREPOSITION1_WORD));
+        when(vocabularyService.findNounById(NOUN1_ID)).thenReturn(Optional.of(NOUN1_WORD));
+
+        Map<PhraseDTO, Integer> phraseInformationMap = phraseService.getPhraseInformationByUserId(userId).get();
+
+        assertEquals(phraseCount, phraseInformationMap.size());
+        verify(phraseRepository, times(1)).findPhrasesWithUserCountByUserId(userId);
+        verify(phraseRepository, never()).findPhraseByPhraseId(anyLong());
+        verifyNoInteractions(userPhraseRepository);
     }
 
     @Test
-    public void getPhraseInformationByUserIdWhenNoPhraseIdsFound() {
+    public void getPhraseInformationByUserIdWhenNoPhrasesFound() {
         Long userId = USER1_ID;
-        when(userPhraseService.findPhraseIdsByUserId(userId)).thenReturn(Optional.empty());
+        when(phraseRepository.findPhrasesWithUserCountByUserId(userId)).thenReturn(List.of());
         Optional<Map<PhraseDTO, Integer>> expected = Optional.empty();
 
         Optional<Map<PhraseDTO, Integer>> actual = phraseService.getPhraseInformationByUserId(userId);
-        verify(phraseRepository, never()).findPhraseByPhraseId(anyLong());
-        verify(adverbRepository, never()).findAdverbById(anyLong());
-        verify(verbRepository, never()).findVerbById(anyLong());
-        verify(nounRepository, never()).findNounById(anyLong());
-        verify(prepositionRepository, never()).findPrepositionById(anyLong());
+        verify(vocabularyService, never()).findAdverbById(anyLong());
+        verify(vocabularyService, never()).findVerbById(anyLong());
+        verify(vocabularyService, never()).findNounById(anyLong());
+        verify(vocabularyService, never()).findPrepositionById(anyLong());
         assertEquals(actual, expected);
     }
 
@@ -374,8 +447,8 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
 
         // Should return false if the phrase has not been seen before
         Mockito.when(toBeReviewedRepository.save(any())).thenReturn(tbrSaved);
-        when(nounRepository.findByWord(anyString())).thenReturn(Optional.of(new Noun(testNoun)));
-        when(verbRepository.findByWord(anyString())).thenReturn(Optional.of(new Verb(testVerb)));
+        when(vocabularyService.findNounId(anyString())).thenReturn(Optional.of(NOUN1_ID));
+        when(vocabularyService.findVerbId(anyString())).thenReturn(Optional.of(VERB1_ID));
         boolean applyPhraseToUser = phraseService.applyPhraseToUser(user1.getId(), testAdverb, testVerb, testPrepositionBlank, testNoun);
         assertFalse(applyPhraseToUser);
 
@@ -388,4 +461,60 @@ public class PhraseServiceImplTest implements UserTestConstants, PhraseTestConst
         assertEquals(argPreposition.getValue(), testPrepositionConverted);
     }
 
+    @Test
+    public void findOrCreatePhraseIdsWhenPhrasesExist() {
+        ToBeReviewed tbr1 = new ToBeReviewed(1L, true, ADVERB1_WORD, VERB1_WORD, PREPOSITION1_WORD, NOUN1_WORD);
+        ToBeReviewed tbr2 = new ToBeReviewed(2L, true, ADVERB1_WORD, VERB1_WORD, PREPOSITION1_WORD, NOUN1_WORD);
+
+        when(vocabularyService.findAdverbId(ADVERB1_WORD)).thenReturn(Optional.of(ADVERB1_ID));
+        when(vocabularyService.findVerbId(VERB1_WORD)).thenReturn(Optional.of(VERB1_ID));
+        when(vocabularyService.findPrepositionId(PREPOSITION1_WORD)).thenReturn(Optional.of(PREPOSITION1_ID));
+        when(vocabularyService.findNounId(NOUN1_WORD)).thenReturn(Optional.of(NOUN1_ID));
+        when(phraseRepository.findAllByVerbIdInAndNounIdIn(any(), any())).thenReturn(List.of(PhraseTestConstants.getTestPhrase1()));
+
+        Map<Long, Long> phraseIds = phraseService.findOrCreatePhraseIds(List.of(tbr1, tbr2));
+
+        assertEquals(Map.of(1L, PHRASE1_ID, 2L, PHRASE1_ID), phraseIds);
+        verify(phraseRepository, times(1)).findAllByVerbIdInAndNounIdIn(any(), any());
+        verify(phraseRepository, never()).saveAll(any());
+        verify(verbRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void findOrCreatePhraseIdsAddsNewWordsAndPhrases() {
+        ToBeReviewed tbr1 = new ToBeReviewed(1L, true, Constants.NULL_VALUE_WORD, VERB2_WORD, Constants.NULL_VALUE_WORD, NOUN1_WORD);
+        ToBeReviewed tbr2 = new ToBeReviewed(2L, true, Constants.NULL_VALUE_WORD, VERB2_WORD, Constants.NULL_VALUE_WORD, NOUN1_WORD);
+        Phrase savedPhrase = new Phrase();
+        savedPhrase.setId(PHRASE2_ID);
+        savedPhrase.setAdverbId(Constants.NULL_VALUE_ID);
+        savedPhrase.setVerbId(VERB2_ID);
+        savedPhrase.setPrepositionId(Constants.NULL_VALUE_ID);
+        savedPhrase.setNounId(NOUN1_ID);
+
+        when(vocabularyService.findVerbId(VERB2_WORD)).thenReturn(Optional.empty());
+        when(vocabularyService.findNounId(NOUN1_WORD)).thenReturn(Optional.of(NOUN1_ID));
+        when(verbRepository.saveAll(any())).thenReturn(List.of(new Verb(VERB2_ID, VERB2_WORD)));
+        when(phraseRepository.findAllByVerbIdInAndNounIdIn(any(), any())).thenReturn(List.of());
+        when(phraseRepository.saveAll(any())).thenReturn(List.of(savedPhrase));
+
+        Map<Long, Long> phraseIds = phraseService.findOrCreatePhraseIds(List.of(tbr1, tbr2));
+
+        assertEquals(Map.of(1L, PHRASE2_ID, 2L, PHRASE2_ID), phraseIds);
+
+        // the two phrases are the same, so one verb and one phrase are added
+        ArgumentCaptor<Iterable<Verb>> verbCaptor = ArgumentCaptor.forClass(Iterable.class);
+        verify(verbRepository, times(1)).saveAll(verbCaptor.capture());
+        assertThat(verbCaptor.getValue()).extracting(Verb::getWord).containsExactly(VERB2_WORD);
+
+        ArgumentCaptor<Iterable<Phrase>> phraseCaptor = ArgumentCaptor.forClass(Iterable.class);
+        verify(phraseRepository, times(1)).saveAll(phraseCaptor.capture());
+        assertThat(phraseCaptor.getValue()).hasSize(1);
+        Phrase newPhrase = phraseCaptor.getValue().iterator().next();
+        assertEquals(Constants.NULL_VALUE_ID, newPhrase.getAdverbId());
+        assertEquals(VERB2_ID, newPhrase.getVerbId());
+        assertEquals(Constants.NULL_VALUE_ID, newPhrase.getPrepositionId());
+        assertEquals(NOUN1_ID, newPhrase.getNounId());
+        verify(vocabularyService, never()).findAdverbId(anyString());
+        verify(nounRepository, never()).saveAll(any());
+    }
 }
@@ -0,0 +1,61 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.constants.PhraseTestConstants;
+import com.savvato.tribeapp.repositories.PhraseUserCountRepository;
+import com.savvato.tribeapp.services.PhraseUserCountService;
+import com.savvato.tribeapp.services.PhraseUserCountServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class PhraseUserCountServiceImplTest implements PhraseTestConstants {
+
+    @TestConfiguration
+    static class PhraseUserCountServiceTestContextConfiguration {
+        @Bean
+        public PhraseUserCountService phraseUserCountService() {
+            return new PhraseUserCountServiceImpl();
+        }
+    }
+
+    @Autowired
+    PhraseUserCountService phraseUserCountService;
+
+    @MockBean
+    PhraseUserCountRepository phraseUserCountRepository;
+
+    @Test
+    public void incrementAndDecrementUpdateTheCounterRow() {
+        phraseUserCountService.incrementUserCount(PHRASE1_ID);
+        phraseUserCountService.decrementUserCount(PHRASE1_ID);
+
+        verify(phraseUserCountRepository, times(1)).incrementUserCount(PHRASE1_ID);
+        verify(phraseUserCountRepository, times(1)).decrementUserCount(PHRASE1_ID);
+    }
+
+    @Test
+    public void reconcileRecomputesCountsWhenTheyHaveDrifted() {
+        when(phraseUserCountRepository.countDriftedPhrases()).thenReturn(2L);
+
+        assertEquals(2L, phraseUserCountService.reconcileUserCounts());
+
+        verify(phraseUserCountRepository, times(1)).recomputeAllUserCounts();
+    }
+
+    @Test
+    public void reconcileLeavesCountsAloneWhenTheyAreInSync() {
+        when(phraseUserCountRepository.countDriftedPhrases()).thenReturn(0L);
+
+        assertEquals(0L, phraseUserCountService.reconcileUserCounts());
+
+        verify(phraseUserCountRepository, never()).recomputeAllUserCounts();
+    }
+}
@@ -16,10 +16,12 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
@@ -48,7 +50,8 @@ public class PictureServiceImplTest {
         String filename = "test.jpg";
         String directory = "testDir";
 
-        when(resourceTypeService.getDirectoryForResourceType(resourceType)).thenReturn(directory);
+        when(resourceTypeService.findDirectoryOfResource(resourceType, filename)).thenReturn(directory);
+        when(resourceTypeService.getDirectoryForResource(eq(resourceType), anyString())).thenReturn(directory);
 
         PictureService pictureServiceSpy = spy(pictureService);
 
@@ -58,25 +61,41 @@ public class PictureServiceImplTest {
         InputStream mockIs = new ByteArrayInputStream(new byte[0]);
         doReturn(mockIs).when(pictureServiceSpy).getInputStreamFromFileSystemResource(any(FileSystemResource.class));
 
-        BufferedImage mockOriginalImage = new BufferedImage(500, 500, BufferedImage.TYPE_INT_RGB);
-        BufferedImage mockThumbnailImage = new BufferedImage(250, 250, BufferedImage.TYPE_INT_RGB);
+        BufferedImage mockOriginalImage = new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB);
+        doReturn(mockOriginalImage).when(pictureServiceSpy).readImage(any(InputStream.class), anyInt());
 
-        try (var mockedStatic = mockStatic(ImageIO.class)) {
-            mockedStatic.when(() -> ImageIO.read(any(InputStream.class))).thenReturn(mockOriginalImage);
-
-            doReturn(mockThumbnailImage).when(pictureServiceSpy).resizeImage(any(BufferedImage.class), anyInt(), anyInt());
+        doAnswer(invocation -> {
+            File file = File.createTempFile("test", ".jpg");
+            file.deleteOnExit();
+            return file;
+        }).when(pictureServiceSpy).createFile(anyString());
 
-            doReturn(File.createTempFile("test", ".jpg")).when(pictureServiceSpy).createFile(anyString());
-
-            pictureServiceSpy.writeThumbnailFromOriginal(resourceType, filename);
-        }
+        pictureServiceSpy.writeThumbnailFromOriginal(resourceType, filename);
 
-        verify(resourceTypeService, times(1)).getDirectoryForResourceType(resourceType);
+        verify(resourceTypeService, times(1)).findDirectoryOfResource(resourceType, filename);
+        verify(resourceTypeService, times(4)).getDirectoryForResource(eq(resourceType), anyString());
         verify(pictureServiceSpy, times(1)).getFileSystemResource(anyString());
         verify(pictureServiceSpy, times(1)).getInputStreamFromFileSystemResource(any(FileSystemResource.class));
-        verify(pictureServiceSpy, times(1)).readImage(any(InputStream.class));
-        verify(pictureServiceSpy, times(1)).resizeImage(any(BufferedImage.class), anyInt(), anyInt());
-        verify(pictureServiceSpy, times(1)).createFile(anyString());
+        verify(pictureServiceSpy, times(1)).readImage(any(InputStream.class), eq(512));
+        verify(pictureServiceSpy, times(1)).createFile(directory + File.separator + "test.jpg_512");
+        verify(pictureServiceSpy, times(1)).createFile(directory + File.separator + "test.jpg_thumbnail");
+        verify(pictureServiceSpy, times(1)).createFile(directory + File.separator + "test.jpg_128");
+        verify(pictureServiceSpy, times(1)).createFile(directory + File.separator + "test.jpg_64");
+        verify(pictureServiceSpy, times(4)).createFile(anyString());
+    }
+
+    @Test
+    public void testWriteThumbnailFromOriginal_NotAnImage() throws IOException {
+        when(resourceTypeService.findDirectoryOfResource("testType", "test.jpg")).thenReturn("testDir");
+
+        PictureService pictureServiceSpy = spy(pictureService);
+        doReturn(mock(FileSystemResource.class)).when(pictureServiceSpy).getFileSystemResource(anyString());
+        doReturn(new ByteArrayInputStream(new byte[0])).when(pictureServiceSpy).getInputStreamFromFileSystemResource(any(FileSystemResource.class));
+        doReturn(null).when(pictureServiceSpy).readImage(any(InputStream.class), anyInt());
+
+        assertThrows(IOException.class, () -> pictureServiceSpy.writeThumbnailFromOriginal("testType", "test.jpg"));
+
+        verify(pictureServiceSpy, never()).createFile(anyString());
     }
 
     @Test
@@ -85,7 +104,7 @@ public class PictureServiceImplTest {
         String filename = "test.jpg";
         String directory = "testDir";
 
-        when(resourceTypeService.getDirectoryForResourceType(resourceType)).thenReturn(directory);
+        when(resourceTypeService.findDirectoryOfResource(resourceType, filename)).thenReturn(directory);
 
         PictureService pictureServiceSpy = spy(pictureService);
 
@@ -100,7 +119,7 @@ public class PictureServiceImplTest {
             pictureServiceSpy.writeThumbnailFromOriginal(resourceType, filename);
         });
 
-        verify(resourceTypeService, times(1)).getDirectoryForResourceType(resourceType);
+        verify(resourceTypeService, times(1)).findDirectoryOfResource(resourceType, filename);
     }
 
     @Test
@@ -109,7 +128,7 @@ public class PictureServiceImplTest {
         String filename = "test.jpg";
         String directory = "testDir";
 
-        when(resourceTypeService.getDirectoryForResourceType(resourceType)).thenReturn(directory);
+        when(resourceTypeService.findDirectoryOfResource(resourceType, filename)).thenReturn(directory);
 
         PictureService pictureServiceSpy = spy(pictureService);
 
@@ -124,7 +143,7 @@ public class PictureServiceImplTest {
             pictureServiceSpy.writeThumbnailFromOriginal(resourceType, filename);
         });
 
-        verify(resourceTypeService, times(1)).getDirectoryForResourceType(resourceType);
+        verify(resourceTypeService, times(1)).findDirectoryOfResource(resourceType, filename);
     }
 
     @Test
@@ -147,6 +166,52 @@ public class PictureServiceImplTest {
         }
     }
 
+    @Test
+    public void testReadImageSubsamplesHugeImages() throws IOException {
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4000, 3000, BufferedImage.TYPE_INT_RGB), "jpg", jpeg);
+
+        BufferedImage bufferedImage = pictureService.readImage(new ByteArrayInputStream(jpeg.toByteArray()), 512);
+
+        // every 3rd pixel across, every 2nd down, leaving both sides at least twice 512
+        assertEquals(1334, bufferedImage.getWidth());
+        assertEquals(1500, bufferedImage.getHeight());
+    }
+
+    @Test
+    public void testReadImageLeavesSmallImagesAlone() throws IOException {
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB), "jpg", jpeg);
+
+        BufferedImage bufferedImage = pictureService.readImage(new ByteArrayInputStream(jpeg.toByteArray()), 512);
+
+        assertEquals(640, bufferedImage.getWidth());
+        assertEquals(480, bufferedImage.getHeight());
+    }
+
+    @Test
+    public void testResizeImage() throws IOException {
+        BufferedImage resized = pictureService.resizeImage(new BufferedImage(3000, 2000, BufferedImage.TYPE_INT_ARGB), 250, 250);
+
+        assertEquals(250, resized.getWidth());
+        assertEquals(250, resized.getHeight());
+        assertEquals(BufferedImage.TYPE_INT_RGB, resized.getType());
+    }
+
+    @Test
+    public void testTransformFilenameUsingSizeInfo() {
+        assertEquals("test.jpg", pictureService.transformFilenameUsingSizeInfo("original", "test.jpg"));
+        assertEquals("test.jpg_thumbnail", pictureService.transformFilenameUsingSizeInfo("thumbnail", "test.jpg"));
+        assertEquals("test.jpg_64", pictureService.transformFilenameUsingSizeInfo("64", "test.jpg"));
+        assertEquals("test.jpg_128", pictureService.transformFilenameUsingSizeInfo("120x120", "test.jpg"));
+        assertEquals("test.jpg_128", pictureService.transformFilenameUsingSizeInfo("100", "test.jpg"));
+        assertEquals("test.jpg_thumbnail", pictureService.transformFilenameUsingSizeInfo("300x200", "test.jpg"));
+        assertEquals("test.jpg_512", pictureService.transformFilenameUsingSizeInfo("512", "test.jpg"));
+        assertEquals("test.jpg", pictureService.transformFilenameUsingSizeInfo("1024", "test.jpg"));
+        assertEquals("test.jpg", pictureService.transformFilenameUsingSizeInfo("2000", "test.jpg"));
+        assertEquals("test.jpg", pictureService.transformFilenameUsingSizeInfo("garbage", "test.jpg"));
+    }
+
     @Test
     public void testCreateFile() throws IOException {
         File file = pictureService.createFile("testPath");
@@ -0,0 +1,131 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.entities.RejectedNonEnglishWord;
+import com.savvato.tribeapp.entities.RejectedPhrase;
+import com.savvato.tribeapp.repositories.RejectedNonEnglishWordRepository;
+import com.savvato.tribeapp.repositories.RejectedPhraseRepository;
+import com.savvato.tribeapp.services.RejectionFilterService;
+import com.savvato.tribeapp.services.RejectionFilterServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class RejectionFilterServiceImplTest {
+
+    @TestConfiguration
+    static class RejectionFilterServiceTestContextConfiguration {
+        @Bean
+        public RejectionFilterService rejectionFilterService() {
+            return new RejectionFilterServiceImpl();
+        }
+    }
+
+    @Autowired
+    RejectionFilterService rejectionFilterService;
+
+    @MockBean
+    RejectedNonEnglishWordRepository rejectedNonEnglishWordRepository;
+
+    @MockBean
+    RejectedPhraseRepository rejectedPhraseRepository;
+
+    @Test
+    public void everythingMightBeRejectedBeforeFirstRebuild() {
+        assertTrue(rejectionFilterService.mightBeRejectedWord("anything"));
+        assertTrue(rejectionFilterService.mightBeRejectedPhrase("plays chess"));
+        assertEquals(0, rejectionFilterService.getSizeInBits());
+    }
+
+    @Test
+    public void blankWordsAreNeverRejected() {
+        assertFalse(rejectionFilterService.mightBeRejectedWord(null));
+        assertFalse(rejectionFilterService.mightBeRejectedWord("   "));
+    }
+
+    @Test
+    public void rebuildLoadsRejectedWordsAndPhrases() {
+        when(rejectedNonEnglishWordRepository.findAll()).thenReturn(List.of(new RejectedNonEnglishWord(1L, "asdfgh")));
+        when(rejectedPhraseRepository.findAll()).thenReturn(List.of(new RejectedPhrase(1L, "eats the moon")));
+
+        rejectionFilterService.rebuild();
+
+        assertTrue(rejectionFilterService.mightBeRejectedWord("asdfgh"));
+        assertTrue(rejectionFilterService.mightBeRejectedPhrase("eats the moon"));
+        assertFalse(rejectionFilterService.mightBeRejectedPhrase("asdfgh"));
+        assertFalse(rejectionFilterService.mightBeRejectedWord("chess"));
+        assertEquals(2, rejectionFilterService.getEntryCount());
+        assertTrue(rejectionFilterService.getSizeInBits() > 0);
+    }
+
+    @Test
+    public void addedRejectionsAreSeenWithoutRebuild() {
+        rejectionFilterService.rebuild();
+        assertFalse(rejectionFilterService.mightBeRejectedPhrase("plays chess"));
+
+        rejectionFilterService.addRejectedPhrase("plays chess");
+
+        assertTrue(rejectionFilterService.mightBeRejectedPhrase("plays chess"));
+    }
+
+    @Test
+    public void catchUpAddsRowsSavedSinceTheRebuild() {
+        when(rejectedNonEnglishWordRepository.findAll()).thenReturn(List.of(new RejectedNonEnglishWord(4L, "asdfgh")));
+        when(rejectedPhraseRepository.findAll()).thenReturn(List.of(new RejectedPhrase(7L, "eats the moon")));
+        rejectionFilterService.rebuild();
+
+        // saved through another node after the rebuild
+        when(rejectedNonEnglishWordRepository.findByIdGreaterThan(4L)).thenReturn(List.of(new RejectedNonEnglishWord(5L, "qwerty")));
+        when(rejectedPhraseRepository.findByIdGreaterThan(7L)).thenReturn(List.of(new RejectedPhrase(8L, "plays chess")));
+        assertFalse(rejectionFilterService.mightBeRejectedWord("qwerty"));
+        assertFalse(rejectionFilterService.mightBeRejectedPhrase("plays chess"));
+
+        rejectionFilterService.catchUp();
+
+        assertTrue(rejectionFilterService.mightBeRejectedWord("qwerty"));
+        assertTrue(rejectionFilterService.mightBeRejectedPhrase("plays chess"));
+    }
+
+    @Test
+    public void catchUpBeforeTheFirstRebuildReadsNothing() {
+        rejectionFilterService.catchUp();
+
+        verify(rejectedNonEnglishWordRepository, never()).findByIdGreaterThan(anyLong());
+        verify(rejectedPhraseRepository, never()).findByIdGreaterThan(anyLong());
+    }
+
+    @Test
+    public void falsePositiveRatesStayNearConfiguredProbability() {
+        List<RejectedNonEnglishWord> rejected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rejected.add(new RejectedNonEnglishWord(i + 1, "rejected" + i));
+        }
+        when(rejectedNonEnglishWordRepository.findAll()).thenReturn(rejected);
+        rejectionFilterService.rebuild();
+
+        int hits = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (rejectionFilterService.mightBeRejectedWord("accepted" + i)) {
+                hits++;
+                rejectionFilterService.recordFalsePositive();
+            }
+        }
+
+        assertTrue(hits < 300, "too many false positives: " + hits);
+        assertEquals(hits / 10000.0, rejectionFilterService.getObservedFalsePositiveRate(), 0.0001);
+        assertTrue(rejectionFilterService.getExpectedFalsePositiveRate() < 0.03);
+    }
+}
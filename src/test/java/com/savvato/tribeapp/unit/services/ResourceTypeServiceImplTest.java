@@ -13,9 +13,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.io.File;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(SpringExtension.class)
 public class ResourceTypeServiceImplTest {
@@ -49,4 +51,25 @@ public class ResourceTypeServiceImplTest {
             resourceTypeService.getDirectoryForResourceType(resourceType);
         }, errorMessage);
     }
+
+    @Test
+    public void getDirectoryForResourceIsShardedByTheHashOfTheName() {
+        String typeDir = resourcesDirRoot + File.separator + "profile";
+        String separator = Pattern.quote(File.separator);
+
+        String actualResult = resourceTypeService.getDirectoryForResource(ResourceTypeConstants.RESOURCE_TYPE_PROFILE_IMAGE, "profilePicture_1.jpg");
+
+        assertTrue(actualResult.startsWith(typeDir + File.separator));
+        assertTrue(actualResult.substring(typeDir.length()).matches(separator + "[0-9a-f]{2}" + separator + "[0-9a-f]{2}"));
+        assertEquals(actualResult, resourceTypeService.getDirectoryForResource(ResourceTypeConstants.RESOURCE_TYPE_PROFILE_IMAGE, "profilePicture_1.jpg"));
+    }
+
+    @Test
+    public void getDirectoryForContentIsShardedByTheContentHash() {
+        String expectedResult = resourcesDirRoot + File.separator + "profile" + File.separator + "content"
+                + File.separator + "ab" + File.separator + "cd";
+
+        String actualResult = resourceTypeService.getDirectoryForContent(ResourceTypeConstants.RESOURCE_TYPE_PROFILE_IMAGE, "abcdef0123");
+        assertEquals(expectedResult, actualResult);
+    }
 }
@@ -12,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.ArrayList;
@@ -19,9 +20,14 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 
 public class ReviewDecisionReasonServiceImplTest {
     @TestConfiguration
@@ -67,4 +73,36 @@ public class ReviewDecisionReasonServiceImplTest {
         });
 
     }
+
+    @Test
+    public void isReviewDecisionReasonLoadsTheReasonsOnce() {
+        ReviewDecisionReason approved = new ReviewDecisionReason();
+        approved.setId(1L);
+        approved.setReason("approved");
+        Mockito.when(reviewDecisionReasonRepository.findAllReviewDecisionReasons()).thenReturn(List.of(approved));
+
+        assertTrue(reviewDecisionReasonService.isReviewDecisionReason(1L));
+        assertTrue(reviewDecisionReasonService.isReviewDecisionReason(1L));
+
+        verify(reviewDecisionReasonRepository, times(1)).findAllReviewDecisionReasons();
+    }
+
+    @Test
+    public void isReviewDecisionReasonLoadsTheReasonsAgainForAnUnknownOne() {
+        ReviewDecisionReason approved = new ReviewDecisionReason();
+        approved.setId(1L);
+        approved.setReason("approved");
+        ReviewDecisionReason vulgar = new ReviewDecisionReason();
+        vulgar.setId(3L);
+        vulgar.setReason("vulgar");
+        Mockito.when(reviewDecisionReasonRepository.findAllReviewDecisionReasons())
+                .thenReturn(List.of(approved))
+                .thenReturn(List.of(approved, vulgar));
+
+        assertTrue(reviewDecisionReasonService.isReviewDecisionReason(1L));
+        assertTrue(reviewDecisionReasonService.isReviewDecisionReason(3L));
+        assertFalse(reviewDecisionReasonService.isReviewDecisionReason(null));
+
+        verify(reviewDecisionReasonRepository, times(2)).findAllReviewDecisionReasons();
+    }
 }
@@ -1,11 +1,24 @@
 package com.savvato.tribeapp.unit.services;
 
+import com.savvato.tribeapp.constants.Constants;
+import com.savvato.tribeapp.constants.PhraseTestConstants;
 import com.savvato.tribeapp.constants.UserTestConstants;
 import com.savvato.tribeapp.controllers.dto.ReviewDecisionRequest;
+import com.savvato.tribeapp.entities.RejectedPhrase;
 import com.savvato.tribeapp.entities.ReviewDecision;
 import com.savvato.tribeapp.entities.ReviewDecisionReason;
+import com.savvato.tribeapp.entities.ReviewSubmittingUser;
+import com.savvato.tribeapp.entities.ToBeReviewed;
+import com.savvato.tribeapp.entities.UserPhrase;
+import com.savvato.tribeapp.repositories.RejectedPhraseRepository;
 import com.savvato.tribeapp.repositories.ReviewDecisionReasonRepository;
 import com.savvato.tribeapp.repositories.ReviewDecisionRepository;
+import com.savvato.tribeapp.repositories.ReviewSubmittingUserRepository;
+import com.savvato.tribeapp.repositories.ToBeReviewedRepository;
+import com.savvato.tribeapp.services.PhraseService;
+import com.savvato.tribeapp.services.PhraseUserCountService;
+import com.savvato.tribeapp.services.RejectionFilterService;
+import com.savvato.tribeapp.services.ReviewDecisionReasonService;
 import com.savvato.tribeapp.services.ReviewDecisionService;
 import com.savvato.tribeapp.services.ReviewDecisionServiceImpl;
 import org.junit.jupiter.api.Test;
@@ -17,19 +30,34 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.AdditionalMatchers.and;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
 
-public class ReviewDecisionServiceImplTest implements UserTestConstants {
+public class ReviewDecisionServiceImplTest implements UserTestConstants, PhraseTestConstants {
     @TestConfiguration
     static class ReviewDecisionServiceTestContextConfiguration {
         @Bean
@@ -45,6 +73,24 @@ public class ReviewDecisionServiceImplTest implements UserTestConstants {
     ReviewDecisionRepository reviewDecisionRepository;
     @MockBean
     ReviewDecisionReasonRepository reviewDecisionReasonRepository;
+    @MockBean
+    ReviewDecisionReasonService reviewDecisionReasonService;
+    @MockBean
+    ToBeReviewedRepository toBeReviewedRepository;
+    @MockBean
+    ReviewSubmittingUserRepository reviewSubmittingUserRepository;
+    @MockBean
+    RejectedPhraseRepository rejectedPhraseRepository;
+    @MockBean
+    RejectionFilterService rejectionFilterService;
+    @MockBean
+    PhraseService phraseService;
+    @MockBean
+    PhraseUserCountService phraseUserCountService;
+    @MockBean
+    JdbcTemplate jdbcTemplate;
+
+    private static final Long REASON_DOESNT_MAKE_SENSE_ID = 2L;
 
     @Test
     public void saveReviewDecision() {
@@ -65,4 +111,122 @@ public class ReviewDecisionServiceImplTest implements UserTestConstants {
         assertEquals(saveResult.getUserId(), decision.getUserId());
         assertEquals(saveResult.getReasonId(), decision.getReasonId());
     }
+
+    @Test
+    public void saveReviewDecisionsApprovesAndRejectsInBulk() {
+        ToBeReviewed approved = new ToBeReviewed(1L, true, ADVERB1_WORD, VERB1_WORD, PREPOSITION1_WORD, NOUN1_WORD);
+        ToBeReviewed rejected = new ToBeReviewed(2L, true, Constants.NULL_VALUE_WORD, VERB2_WORD, Constants.NULL_VALUE_WORD, NOUN2_WORD);
+
+        when(reviewDecisionReasonService.isReviewDecisionReason(anyLong())).thenReturn(true);
+        when(toBeReviewedRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(approved, rejected));
+        when(toBeReviewedRepository.findIdsLeasedTo(List.of(1L, 2L), USER1_ID)).thenReturn(List.of(1L, 2L));
+        when(reviewDecisionRepository.findDecidedReviewIds(List.of(1L, 2L))).thenReturn(List.of());
+        when(reviewSubmittingUserRepository.findAllByToBeReviewedIds(List.of(1L, 2L))).thenReturn(List.of(
+                new ReviewSubmittingUser(USER1_ID, 1L),
+                new ReviewSubmittingUser(USER3_ID, 1L),
+                new ReviewSubmittingUser(USER3_ID, 2L)));
+        when(phraseService.findOrCreatePhraseIds(List.of(approved))).thenReturn(Map.of(1L, PHRASE1_ID));
+
+        List<ReviewDecision> saved = reviewDecisionService.saveReviewDecisions(USER1_ID, List.of(
+                request(1L, Constants.REVIEW_DECISION_REASON_APPROVED_ID),
+                request(2L, REASON_DOESNT_MAKE_SENSE_ID)));
+
+        assertEquals(2, saved.size());
+        assertEquals(USER1_ID, saved.get(0).getUserId());
+
+        ArgumentCaptor<Collection> decisions = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(and(startsWith("insert into review_decision"), contains("on duplicate key update")), decisions.capture(), anyInt(), any());
+        assertEquals(2, decisions.getValue().size());
+        verify(phraseService, times(1)).findOrCreatePhraseIds(anyCollection());
+
+        // both submitters of the approved phrase get it, in one batch
+        ArgumentCaptor<Collection> userPhrases = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("insert ignore into user_phrase"), userPhrases.capture(), anyInt(), any());
+        assertThat(((Collection<UserPhrase>) userPhrases.getValue()).stream().map(UserPhrase::getUserId).toList())
+                .containsExactlyInAnyOrder(USER1_ID, USER3_ID);
+        verify(phraseUserCountService, times(1)).recomputeUserCounts(Set.of(PHRASE1_ID));
+
+        ArgumentCaptor<Iterable> rejectedPhrases = ArgumentCaptor.forClass(Iterable.class);
+        verify(rejectedPhraseRepository, times(1)).saveAll(rejectedPhrases.capture());
+        assertThat((Iterable<RejectedPhrase>) rejectedPhrases.getValue())
+                .extracting(RejectedPhrase::getRejectedPhrase)
+                .containsExactly(rejected.toString());
+        verify(rejectionFilterService, times(1)).addRejectedPhrase(rejected.toString());
+
+        verify(reviewSubmittingUserRepository, times(1)).deleteAllByToBeReviewedIds(List.of(1L, 2L));
+    }
+
+    @Test
+    public void saveReviewDecisionsDoesNotApplyAPhraseTwice() {
+        ToBeReviewed tbr = new ToBeReviewed(1L, true, ADVERB1_WORD, VERB1_WORD, PREPOSITION1_WORD, NOUN1_WORD);
+
+        when(reviewDecisionReasonService.isReviewDecisionReason(anyLong())).thenReturn(true);
+        when(toBeReviewedRepository.findAllById(List.of(1L))).thenReturn(List.of(tbr));
+        when(toBeReviewedRepository.findIdsLeasedTo(List.of(1L), USER1_ID)).thenReturn(List.of(1L));
+        when(reviewDecisionRepository.findDecidedReviewIds(List.of(1L))).thenReturn(List.of(1L));
+
+        reviewDecisionService.saveReviewDecisions(USER1_ID, List.of(request(1L, Constants.REVIEW_DECISION_REASON_APPROVED_ID)));
+
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("insert into review_decision"), anyCollection(), anyInt(), any());
+        verify(phraseService, never()).findOrCreatePhraseIds(anyCollection());
+        verify(reviewSubmittingUserRepository, never()).deleteAllByToBeReviewedIds(anyCollection());
+    }
+
+    @Test
+    public void saveReviewDecisionsOnAPhraseLeasedToSomeoneElse() {
+        ToBeReviewed tbr = new ToBeReviewed(1L, true, ADVERB1_WORD, VERB1_WORD, PREPOSITION1_WORD, NOUN1_WORD);
+
+        when(reviewDecisionReasonService.isReviewDecisionReason(anyLong())).thenReturn(true);
+        when(toBeReviewedRepository.findAllById(List.of(1L))).thenReturn(List.of(tbr));
+        when(toBeReviewedRepository.findIdsLeasedTo(List.of(1L), USER1_ID)).thenReturn(List.of());
+
+        assertThrows(IllegalArgumentException.class, () -> reviewDecisionService.saveReviewDecisions(USER1_ID, List.of(
+                request(1L, Constants.REVIEW_DECISION_REASON_APPROVED_ID))));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    @Test
+    public void saveReviewDecisionsWithUnknownReason() {
+        when(reviewDecisionReasonService.isReviewDecisionReason(Constants.REVIEW_DECISION_REASON_APPROVED_ID)).thenReturn(true);
+        when(reviewDecisionReasonService.isReviewDecisionReason(99L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> reviewDecisionService.saveReviewDecisions(USER1_ID, List.of(
+                request(1L, Constants.REVIEW_DECISION_REASON_APPROVED_ID),
+                request(2L, 99L))));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    @Test
+    public void saveReviewDecisionsWithUnknownPhrase() {
+        when(reviewDecisionReasonService.isReviewDecisionReason(anyLong())).thenReturn(true);
+        when(toBeReviewedRepository.findAllById(List.of(404L))).thenReturn(List.of());
+
+        assertThrows(IllegalArgumentException.class, () -> reviewDecisionService.saveReviewDecisions(USER1_ID, List.of(
+                request(404L, Constants.REVIEW_DECISION_REASON_APPROVED_ID))));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+    }
+
+    @Test
+    public void saveReviewDecisionsDecidingAPhraseTwice() {
+        when(reviewDecisionReasonService.isReviewDecisionReason(anyLong())).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> reviewDecisionService.saveReviewDecisions(USER1_ID, List.of(
+                request(1L, Constants.REVIEW_DECISION_REASON_APPROVED_ID),
+                request(1L, REASON_DOESNT_MAKE_SENSE_ID))));
+    }
+
+    @Test
+    public void saveReviewDecisionsWithNoDecisions() {
+        assertThrows(IllegalArgumentException.class, () -> reviewDecisionService.saveReviewDecisions(USER1_ID, List.of()));
+    }
+
+    private ReviewDecisionRequest request(Long reviewId, Long reasonId) {
+        ReviewDecisionRequest request = new ReviewDecisionRequest();
+        request.reviewId = reviewId;
+        request.reasonId = reasonId;
+        return request;
+    }
 }
@@ -1,9 +1,11 @@
 package com.savvato.tribeapp.unit.services;
 
+import com.savvato.tribeapp.services.ImageCacheService;
 import com.savvato.tribeapp.services.ResourceTypeService;
 import com.savvato.tribeapp.services.StorageService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -14,10 +16,14 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -36,6 +42,12 @@ public class StorageServiceImplTest {
     @MockBean
     ResourceTypeService resourceTypeService;
 
+    @MockBean
+    ImageCacheService imageCacheService;
+
+    @TempDir
+    Path dir;
+
     @Test
     public void getDefaultFilename() {
         String resourceType = "Profile";
@@ -46,15 +58,104 @@ public class StorageServiceImplTest {
     }
 
     @Test
-    public void storeHappyPath() {
-        String resourceType = "profile";
-        byte[] content = new byte[1];
-        MultipartFile file = new MockMultipartFile("test file", content);
-        String directoryPathTemp = System.getProperty("java.io.tmpdir") + File.separator + "testFiles";
-        String filename = "";
-        when(resourceTypeService.getDirectoryForResourceType(anyString())).thenReturn(directoryPathTemp);
-        storageService.store(resourceType, file, filename);
+    public void storeHappyPath() throws IOException {
+        useLayoutIn(dir);
+        MultipartFile file = new MockMultipartFile("test file", "picture".getBytes());
+
+        storageService.store("profile", file, "profilePicture_1.jpg");
+
+        assertEquals("picture", Files.readString(dir.resolve("names").resolve("profilePicture_1.jpg")));
+        assertEquals(1, countFiles(dir.resolve("content")));
+        assertEquals(0, countFiles(dir.resolve("tmp")));
+        verify(imageCacheService).invalidate("profile", "profilePicture_1.jpg");
+    }
+
+    @Test
+    public void storeKeepsIdenticalUploadsOnce() throws IOException {
+        useLayoutIn(dir);
+
+        storageService.store("profile", new MockMultipartFile("a", "picture".getBytes()), "profilePicture_1.jpg");
+        storageService.store("profile", new MockMultipartFile("b", "picture".getBytes()), "profilePicture_2.jpg");
+
+        assertEquals(1, countFiles(dir.resolve("content")));
+        assertTrue(Files.isSameFile(dir.resolve("names").resolve("profilePicture_1.jpg"), dir.resolve("names").resolve("profilePicture_2.jpg")));
+    }
+
+    @Test
+    public void storeReplacesThePreviousUpload() throws IOException {
+        useLayoutIn(dir);
+
+        storageService.store("profile", new MockMultipartFile("a", "old".getBytes()), "profilePicture_1.jpg");
+        storageService.store("profile", new MockMultipartFile("a", "new".getBytes()), "profilePicture_1.jpg");
+
+        assertEquals("new", Files.readString(dir.resolve("names").resolve("profilePicture_1.jpg")));
+    }
+
+    @Test
+    public void storeReleasesTheContentItReplaced() throws IOException {
+        useLayoutIn(dir);
+
+        storageService.store("profile", new MockMultipartFile("a", "old".getBytes()), "profilePicture_1.jpg");
+        storageService.store("profile", new MockMultipartFile("a", "new".getBytes()), "profilePicture_1.jpg");
+
+        assertEquals(1, countFiles(dir.resolve("content")));
+        try (Stream<Path> content = Files.list(dir.resolve("content"))) {
+            assertEquals("new", Files.readString(content.findFirst().orElseThrow()));
+        }
+    }
+
+    @Test
+    public void storeKeepsContentAnotherResourceStillLinksTo() throws IOException {
+        useLayoutIn(dir);
+
+        storageService.store("profile", new MockMultipartFile("a", "shared".getBytes()), "profilePicture_1.jpg");
+        storageService.store("profile", new MockMultipartFile("b", "shared".getBytes()), "profilePicture_2.jpg");
+        storageService.store("profile", new MockMultipartFile("a", "new".getBytes()), "profilePicture_1.jpg");
+
+        assertEquals(2, countFiles(dir.resolve("content")));
+        assertEquals("shared", Files.readString(dir.resolve("names").resolve("profilePicture_2.jpg")));
+    }
+
+    @Test
+    public void deleteRemovesContentOnceNothingLinksToIt() throws IOException {
+        useLayoutIn(dir);
+        storageService.store("profile", new MockMultipartFile("a", "picture".getBytes()), "profilePicture_1.jpg");
+        storageService.store("profile", new MockMultipartFile("b", "picture".getBytes()), "profilePicture_2.jpg");
+
+        assertTrue(storageService.delete("profile", "profilePicture_1.jpg"));
+        assertEquals(1, countFiles(dir.resolve("content")));
+
+        assertTrue(storageService.delete("profile", "profilePicture_2.jpg"));
+        assertEquals(0, countFiles(dir.resolve("content")));
+    }
+
+    @Test
+    public void deleteRemovesTheRecordedContentHash() throws IOException {
+        useLayoutIn(dir);
+        storageService.store("profile", new MockMultipartFile("a", "picture".getBytes()), "profilePicture_1.jpg");
+
+        assertTrue(storageService.delete("profile", "profilePicture_1.jpg"));
+
+        assertEquals(0, countFiles(dir.resolve("names")));
+        assertEquals(0, countFiles(dir.resolve("content")));
+    }
 
+    @Test
+    public void migrateFlatLayoutMovesFilesIntoTheirDirectories() throws IOException {
+        useLayoutIn(dir);
+        Files.writeString(dir.resolve("profilePicture_1.jpg"), "one");
+        Files.writeString(dir.resolve("profilePicture_1.jpg_thumbnail"), "thumb");
+        Files.writeString(dir.resolve("profilePicture_2.jpg"), "stale");
+        Files.createDirectories(dir.resolve("names"));
+        Files.writeString(dir.resolve("names").resolve("profilePicture_2.jpg"), "uploaded since");
+
+        assertEquals(2, storageService.migrateFlatLayout("profile"));
+
+        assertEquals("one", Files.readString(dir.resolve("names").resolve("profilePicture_1.jpg")));
+        assertEquals("thumb", Files.readString(dir.resolve("names").resolve("profilePicture_1.jpg_thumbnail")));
+        assertEquals("uploaded since", Files.readString(dir.resolve("names").resolve("profilePicture_2.jpg")));
+        assertFalse(Files.exists(dir.resolve("profilePicture_1.jpg")));
+        assertFalse(Files.exists(dir.resolve("profilePicture_2.jpg")));
     }
 
     @Test
@@ -71,7 +172,7 @@ public class StorageServiceImplTest {
         File tempFile = new File(directory, filename);
         tempFile.createNewFile();
 
-        when(resourceTypeService.getDirectoryForResourceType(anyString())).thenReturn(directoryPath);
+        when(resourceTypeService.findDirectoryOfResource(anyString(), anyString())).thenReturn(directoryPath);
 
         try {
             long result = storageService.isFileExisting(resourceType, filename);
@@ -91,7 +192,7 @@ public class StorageServiceImplTest {
         String filename = "testFile.txt";
         String directoryPath = "/";
 
-        when(resourceTypeService.getDirectoryForResourceType(anyString())).thenReturn(directoryPath);
+        when(resourceTypeService.findDirectoryOfResource(anyString(), anyString())).thenReturn(directoryPath);
 
         long result = storageService.isFileExisting(resourceType, filename);
         assertTrue(result == 0);
@@ -112,7 +213,8 @@ public class StorageServiceImplTest {
         File tempFile = new File(directory, filename);
         tempFile.createNewFile();
 
-        when(resourceTypeService.getDirectoryForResourceType(anyString())).thenReturn(directoryPath);
+        when(resourceTypeService.findDirectoryOfResource(anyString(), anyString())).thenReturn(directoryPath);
+        when(resourceTypeService.getDirectoryForContent(anyString(), anyString())).thenReturn(directoryPath);
 
         try {
             // confirm new temporary file exists
@@ -131,4 +233,22 @@ public class StorageServiceImplTest {
             directory.delete();
         }
     }
+
+    // every resource in names, rather than in its own directory, to keep the tests simple
+    private void useLayoutIn(Path root) {
+        when(resourceTypeService.getDirectoryForResourceType(anyString())).thenReturn(root.toString());
+        when(resourceTypeService.getDirectoryForResource(anyString(), anyString())).thenReturn(root.resolve("names").toString());
+        when(resourceTypeService.findDirectoryOfResource(anyString(), anyString())).thenReturn(root.resolve("names").toString());
+        when(resourceTypeService.getDirectoryForContent(anyString(), anyString())).thenReturn(root.resolve("content").toString());
+        when(resourceTypeService.getTemporaryDirectoryForResourceType(anyString())).thenReturn(root.resolve("tmp").toString());
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
 }
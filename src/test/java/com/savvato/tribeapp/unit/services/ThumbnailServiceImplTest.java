@@ -0,0 +1,161 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.services.PictureService;
+import com.savvato.tribeapp.services.StorageService;
+import com.savvato.tribeapp.services.ThumbnailService;
+import com.savvato.tribeapp.services.ThumbnailService.ThumbnailStatus;
+import com.savvato.tribeapp.services.ThumbnailServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+        "app.thumbnails.workers=1",
+        "app.thumbnails.queue-capacity=1",
+        "app.thumbnails.retry-delay-millis=10"
+})
+public class ThumbnailServiceImplTest {
+
+    private static final String RESOURCE_TYPE = "profile";
+    private static final String FILENAME = "profilePicture_1.jpg";
+
+    @TestConfiguration
+    static class ThumbnailServiceTestContextConfiguration {
+        @Bean
+        public ThumbnailService thumbnailService() {
+            return new ThumbnailServiceImpl();
+        }
+    }
+
+    @Autowired
+    ThumbnailService thumbnailService;
+
+    @MockBean
+    PictureService pictureService;
+
+    @MockBean
+    StorageService storageService;
+
+    @BeforeEach
+    public void setUp() {
+        when(pictureService.transformFilenameUsingSizeInfo(anyString(), anyString())).thenAnswer(invocation -> invocation.getArgument(1) + "_thumbnail");
+    }
+
+    @Test
+    public void submitReturnsBeforeTheThumbnailIsWritten() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(pictureService).writeThumbnailFromOriginal(RESOURCE_TYPE, FILENAME);
+
+        ThumbnailStatus submitted = thumbnailService.submit(RESOURCE_TYPE, FILENAME);
+
+        assertNotEquals(ThumbnailStatus.READY, submitted);
+        assertNotEquals(ThumbnailStatus.READY, thumbnailService.getStatus(RESOURCE_TYPE, FILENAME));
+
+        when(storageService.isFileExisting(RESOURCE_TYPE, FILENAME + "_thumbnail")).thenReturn(1L);
+        release.countDown();
+
+        waitFor(() -> thumbnailService.getStatus(RESOURCE_TYPE, FILENAME) == ThumbnailStatus.READY);
+        assertEquals(1, thumbnailService.getCompletedCount());
+        assertTrue(thumbnailService.getTotalLatencyNanos() > 0);
+    }
+
+    @Test
+    public void statusOfAFileNeverSubmittedComesFromStorage() {
+        assertEquals(ThumbnailStatus.NONE, thumbnailService.getStatus(RESOURCE_TYPE, FILENAME));
+
+        when(storageService.isFileExisting(RESOURCE_TYPE, FILENAME + "_thumbnail")).thenReturn(1L);
+
+        assertEquals(ThumbnailStatus.READY, thumbnailService.getStatus(RESOURCE_TYPE, FILENAME));
+    }
+
+    @Test
+    public void failedAttemptIsTriedAgain() throws Exception {
+        doThrow(new IOException("not there yet")).doNothing().when(pictureService).writeThumbnailFromOriginal(RESOURCE_TYPE, FILENAME);
+        when(storageService.isFileExisting(RESOURCE_TYPE, FILENAME + "_thumbnail")).thenReturn(1L);
+
+        thumbnailService.submit(RESOURCE_TYPE, FILENAME);
+
+        waitFor(() -> thumbnailService.getCompletedCount() == 1);
+        verify(pictureService, times(2)).writeThumbnailFromOriginal(RESOURCE_TYPE, FILENAME);
+        assertEquals(1, thumbnailService.getRetryCount());
+        assertEquals(ThumbnailStatus.READY, thumbnailService.getStatus(RESOURCE_TYPE, FILENAME));
+    }
+
+    @Test
+    public void givesUpAfterTheLastAttempt() throws Exception {
+        doThrow(new IOException("not an image")).when(pictureService).writeThumbnailFromOriginal(RESOURCE_TYPE, FILENAME);
+
+        thumbnailService.submit(RESOURCE_TYPE, FILENAME);
+
+        waitFor(() -> thumbnailService.getStatus(RESOURCE_TYPE, FILENAME) == ThumbnailStatus.FAILED);
+        verify(pictureService, times(3)).writeThumbnailFromOriginal(RESOURCE_TYPE, FILENAME);
+        assertEquals(1, thumbnailService.getFailedCount());
+    }
+
+    @Test
+    public void failedStatusIsForgottenAfterItsRetention() throws Exception {
+        ReflectionTestUtils.setField(thumbnailService, "failedRetentionMillis", 50L);
+        doThrow(new IOException("not an image")).when(pictureService).writeThumbnailFromOriginal(RESOURCE_TYPE, FILENAME);
+
+        thumbnailService.submit(RESOURCE_TYPE, FILENAME);
+
+        waitFor(() -> thumbnailService.getStatus(RESOURCE_TYPE, FILENAME) == ThumbnailStatus.FAILED);
+        waitFor(() -> thumbnailService.getStatus(RESOURCE_TYPE, FILENAME) == ThumbnailStatus.NONE);
+        assertEquals(1, thumbnailService.getFailedCount());
+    }
+
+    @Test
+    public void fullQueueMakesTheSubmitterDoTheWork() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if ("busy.jpg".equals(invocation.getArgument(1))) {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(pictureService).writeThumbnailFromOriginal(eq(RESOURCE_TYPE), anyString());
+
+        // the only worker is busy, and the queue has room for one more
+        thumbnailService.submit(RESOURCE_TYPE, "busy.jpg");
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        thumbnailService.submit(RESOURCE_TYPE, "queued.jpg");
+
+        ThumbnailStatus status = thumbnailService.submit(RESOURCE_TYPE, FILENAME);
+
+        assertEquals(ThumbnailStatus.READY, status);
+        assertEquals(1, thumbnailService.getRanOnCallerCount());
+        assertEquals(1, thumbnailService.getQueueDepth());
+
+        release.countDown();
+        waitFor(() -> thumbnailService.getCompletedCount() == 3);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out waiting for the thumbnail pipeline");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -4,14 +4,16 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.savvato.tribeapp.constants.AbstractTestConstants;
 import com.savvato.tribeapp.entities.RejectedPhrase;
-import com.savvato.tribeapp.entities.ReviewSubmittingUser;
 import com.savvato.tribeapp.entities.ToBeReviewed;
 import com.savvato.tribeapp.repositories.RejectedPhraseRepository;
 import com.savvato.tribeapp.repositories.ReviewSubmittingUserRepository;
 import com.savvato.tribeapp.repositories.ToBeReviewedRepository;
+import com.savvato.tribeapp.services.PartOfSpeechCacheService;
 import com.savvato.tribeapp.services.PhraseServiceImpl;
+import com.savvato.tribeapp.services.RejectionFilterService;
 import com.savvato.tribeapp.services.ToBeReviewedCheckerService;
 import com.savvato.tribeapp.services.ToBeReviewedCheckerServiceImpl;
+import com.savvato.tribeapp.services.WordClassifier;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -25,11 +27,17 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -58,22 +66,123 @@ public class ToBeReviewedCheckerServiceImplTest extends AbstractTestConstants {
     @MockBean
     private ReviewSubmittingUserRepository reviewSubmittingUserRepository;
 
+    @MockBean
+    private RejectionFilterService rejectionFilterService;
+
     @MockBean
     private RestTemplate restTemplate;
 
+    @MockBean
+    private PartOfSpeechCacheService partOfSpeechCacheService;
+
+    @MockBean
+    private WordClassifier wordClassifier;
+
 
     @Test
     public void updateUngroomedPhrases() {
         ToBeReviewed tbr1 = new ToBeReviewed(1L, false, "competitively", "plays", "", "chess");
         ToBeReviewed tbr2 = new ToBeReviewed(2L, false, "enthusiastically", "volunteers", "for", "UNICEF");
-        List<ToBeReviewed> ungroomedPhrases = List.of(tbr1, tbr2);
-        ArgumentCaptor<ToBeReviewed> tbrArgumentCaptor = ArgumentCaptor.forClass(ToBeReviewed.class);
+        ToBeReviewed tbr3 = new ToBeReviewed(3L, false, "zzzz", "plays", "", "chess");
+        List<ToBeReviewed> ungroomedPhrases = List.of(tbr1, tbr2, tbr3);
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        when(toBeReviewedRepository.findUngroomedAfter(0L, 100)).thenReturn(ungroomedPhrases);
+        doReturn(true).when(toBeReviewedCheckerServiceSpy).isValidPhrase(tbr1);
+        doReturn(true).when(toBeReviewedCheckerServiceSpy).isValidPhrase(tbr2);
+        doReturn(false).when(toBeReviewedCheckerServiceSpy).isValidPhrase(tbr3);
+
+        toBeReviewedCheckerServiceSpy.updateUngroomedPhrases();
+
+        // all the phrases are checked, and each outcome is saved for the page as a whole
+        verify(toBeReviewedCheckerServiceSpy, times(ungroomedPhrases.size())).isValidPhrase(any(ToBeReviewed.class));
+        ArgumentCaptor<Iterable<ToBeReviewed>> groomedCaptor = ArgumentCaptor.forClass(Iterable.class);
+        verify(toBeReviewedRepository, times(1)).saveAll(groomedCaptor.capture());
+        assertThat(groomedCaptor.getValue()).containsExactly(tbr1, tbr2);
+        assertTrue(tbr1.isHasBeenGroomed());
+        assertTrue(tbr2.isHasBeenGroomed());
+
+        verify(rejectedPhraseRepository, times(1)).saveAll(any());
+        verify(rejectionFilterService, times(1)).addRejectedPhrase(tbr3.toString());
+        verify(reviewSubmittingUserRepository, times(1)).deleteAllByToBeReviewedIds(List.of(3L));
+        verify(toBeReviewedRepository, times(1)).deleteAllByIds(List.of(3L));
+        verify(toBeReviewedRepository, never()).save(any());
+
+        // the page wasn't full, so there are no more
+        verify(toBeReviewedRepository, times(1)).findUngroomedAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    public void updateUngroomedPhrasesFetchesTheNextPageAfterAFullOne() {
+        List<ToBeReviewed> firstPage = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            firstPage.add(new ToBeReviewed(id, false, "competitively", "plays", "", "chess"));
+        }
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        when(toBeReviewedRepository.findUngroomedAfter(0L, 100)).thenReturn(firstPage);
+        when(toBeReviewedRepository.findUngroomedAfter(100L, 100)).thenReturn(List.of());
+        doReturn(true).when(toBeReviewedCheckerServiceSpy).isValidPhrase(any(ToBeReviewed.class));
+
+        toBeReviewedCheckerServiceSpy.updateUngroomedPhrases();
+
+        verify(toBeReviewedRepository, times(1)).findUngroomedAfter(100L, 100);
+        verify(toBeReviewedRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    public void updateUngroomedPhrasesLeavesPhrasesItCouldNotCheck() {
+        ToBeReviewed tbr1 = new ToBeReviewed(1L, false, "competitively", "plays", "", "chess");
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        when(toBeReviewedRepository.findUngroomedAfter(0L, 100)).thenReturn(List.of(tbr1));
+        doThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null))
+                .when(toBeReviewedCheckerServiceSpy).isValidPhrase(tbr1);
+
+        toBeReviewedCheckerServiceSpy.updateUngroomedPhrases();
+
+        verify(toBeReviewedRepository, never()).saveAll(any());
+        verify(rejectedPhraseRepository, never()).saveAll(any());
+        verify(toBeReviewedRepository, never()).deleteAllByIds(any());
+    }
+
+    @Test
+    public void updateUngroomedPhrasesLeavesPhrasesWhileTheApiIsUnreachable() {
+        ToBeReviewed tbr1 = new ToBeReviewed(1L, false, "competitively", "plays", "", "chess");
+        ToBeReviewed tbr2 = new ToBeReviewed(2L, false, "enthusiastically", "volunteers", "for", "UNICEF");
         ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
-        when(toBeReviewedRepository.getAllUngroomed()).thenReturn(ungroomedPhrases);
-        doNothing().when(toBeReviewedCheckerServiceSpy).validatePhrase(any(ToBeReviewed.class));
+        when(toBeReviewedRepository.findUngroomedAfter(0L, 100)).thenReturn(List.of(tbr1, tbr2));
+        doThrow(HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null))
+                .when(toBeReviewedCheckerServiceSpy).isValidPhrase(tbr1);
+        doThrow(new ResourceAccessException("Connect timed out"))
+                .when(toBeReviewedCheckerServiceSpy).isValidPhrase(tbr2);
+
         toBeReviewedCheckerServiceSpy.updateUngroomedPhrases();
-        verify(toBeReviewedCheckerServiceSpy, times(ungroomedPhrases.size())).validatePhrase(tbrArgumentCaptor.capture());
-        assertThat(tbrArgumentCaptor.getAllValues()).usingRecursiveComparison().isEqualTo(ungroomedPhrases);
+
+        verify(rejectedPhraseRepository, never()).saveAll(any());
+        verify(rejectionFilterService, never()).addRejectedPhrase(anyString());
+        verify(toBeReviewedRepository, never()).deleteAllByIds(any());
+    }
+
+    @Test
+    public void getWordDetailsWhenTheApiIsOverItsLimit() {
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), any(Class.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null));
+
+        assertThrows(HttpClientErrorException.TooManyRequests.class, () -> toBeReviewedCheckerService.getWordDetails("competitively"));
+    }
+
+    @Test
+    public void getWordDetailsWhenTheApiIsDown() {
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), any(Class.class)))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null, null, null));
+
+        assertThrows(HttpServerErrorException.class, () -> toBeReviewedCheckerService.getWordDetails("competitively"));
+    }
+
+    @Test
+    public void getWordDetailsWhenTheApiCannotBeReached() {
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), any(Class.class)))
+                .thenThrow(new ResourceAccessException("Connect timed out"));
+
+        assertThrows(ResourceAccessException.class, () -> toBeReviewedCheckerService.getWordDetails("competitively"));
     }
 
     @Test
@@ -127,6 +236,106 @@ public class ToBeReviewedCheckerServiceImplTest extends AbstractTestConstants {
         assertFalse(rtn);
     }
 
+    @Test
+    public void checkPartOfSpeechUsesTheLexiconFirst() {
+        String word = "walk";
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        when(wordClassifier.getPartsOfSpeech(word)).thenReturn(Optional.of(Set.of("noun", "verb")));
+
+        assertTrue(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "verb"));
+
+        verify(partOfSpeechCacheService, never()).getPartsOfSpeech(anyString());
+        verify(toBeReviewedCheckerServiceSpy, never()).getWordDetails(anyString());
+    }
+
+    @Test
+    public void checkPartOfSpeechAsksTheApiAboutASenseTheLexiconLacks() {
+        String word = "chess";
+        JsonObject wordDetails =
+                new JsonParser()
+                        .parse("{\"word\":\"chess\",\"results\":[{\"definition\":\"to play chess\",\"partOfSpeech\":\"verb\"}]}")
+                        .getAsJsonObject();
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        when(wordClassifier.getPartsOfSpeech(word)).thenReturn(Optional.of(Set.of("noun")));
+        doReturn(Optional.of(wordDetails)).when(toBeReviewedCheckerServiceSpy).getWordDetails(word);
+
+        assertTrue(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "verb"));
+
+        verify(partOfSpeechCacheService, times(1)).putPartsOfSpeech(word, Set.of("verb"));
+    }
+
+    @Test
+    public void checkPartOfSpeechRejectsASenseNeitherTheLexiconNorTheApiHas() {
+        String word = "walk";
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        when(wordClassifier.getPartsOfSpeech(word)).thenReturn(Optional.of(Set.of("noun", "verb")));
+        when(partOfSpeechCacheService.getPartsOfSpeech(word)).thenReturn(Optional.of(Set.of("noun", "verb")));
+
+        assertFalse(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "adverb"));
+
+        verify(toBeReviewedCheckerServiceSpy, never()).getWordDetails(anyString());
+    }
+
+    @Test
+    public void checkPartOfSpeechLeavesALexiconWordTheApiDoesntKnowForManualReview() {
+        String word = "chess";
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        when(wordClassifier.getPartsOfSpeech(word)).thenReturn(Optional.of(Set.of("noun")));
+        doReturn(Optional.empty()).when(toBeReviewedCheckerServiceSpy).getWordDetails(word);
+
+        assertTrue(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "verb"));
+    }
+
+    @Test
+    public void checkPartOfSpeechUsesTheRememberedPartsOfSpeech() {
+        String word = "walk";
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        when(partOfSpeechCacheService.getPartsOfSpeech(word)).thenReturn(Optional.of(Set.of("noun", "verb")));
+
+        assertTrue(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "verb"));
+        assertFalse(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "adverb"));
+
+        verify(toBeReviewedCheckerServiceSpy, never()).getWordDetails(anyString());
+        verify(partOfSpeechCacheService, never()).putPartsOfSpeech(anyString(), any());
+    }
+
+    @Test
+    public void checkPartOfSpeechWhenTheWordIsRememberedAsNotAWord() {
+        String word = "zzzz";
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        when(partOfSpeechCacheService.getPartsOfSpeech(word)).thenReturn(Optional.of(Set.of()));
+
+        assertFalse(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "noun"));
+
+        verify(toBeReviewedCheckerServiceSpy, never()).getWordDetails(anyString());
+    }
+
+    @Test
+    public void checkPartOfSpeechRemembersWhatTheApiSaid() {
+        String word = "chess";
+        JsonObject wordDetails =
+                new JsonParser()
+                        .parse("{\"word\":\"chess\",\"results\":[{\"definition\":\"a board game for two players\",\"partOfSpeech\":\"noun\"}]}")
+                        .getAsJsonObject();
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        doReturn(Optional.of(wordDetails)).when(toBeReviewedCheckerServiceSpy).getWordDetails(word);
+
+        assertTrue(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "noun"));
+
+        verify(partOfSpeechCacheService, times(1)).putPartsOfSpeech(word, Set.of("noun"));
+    }
+
+    @Test
+    public void checkPartOfSpeechRemembersANonWord() {
+        String word = "zzzz";
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        doReturn(Optional.empty()).when(toBeReviewedCheckerServiceSpy).getWordDetails(word);
+
+        assertFalse(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "noun"));
+
+        verify(partOfSpeechCacheService, times(1)).putPartsOfSpeech(word, Set.of());
+    }
+
     @Test
     public void checkPartOfSpeechWhenExpectedPartOfSpeechDoesntMatchWord() {
         String word = "walk";
@@ -197,9 +406,9 @@ public class ToBeReviewedCheckerServiceImplTest extends AbstractTestConstants {
         // verify tbr was groomed
         assertEquals(true, tbr.isHasBeenGroomed());
 
-        verify(rejectedPhraseRepository, times(0)).save(Mockito.any());
-        verify(reviewSubmittingUserRepository, times(0)).delete(Mockito.any());
-        verify(toBeReviewedRepository, times(0)).deleteById(Mockito.any());
+        verify(rejectedPhraseRepository, times(0)).saveAll(Mockito.any());
+        verify(reviewSubmittingUserRepository, times(0)).deleteAllByToBeReviewedIds(Mockito.any());
+        verify(toBeReviewedRepository, times(0)).deleteAllByIds(Mockito.any());
         verify(toBeReviewedRepository, times(1)).save(tbrArgumentCaptor.capture());
         assertThat(tbrArgumentCaptor.getValue()).usingRecursiveComparison().isEqualTo(tbr);
     }
@@ -207,22 +416,16 @@ public class ToBeReviewedCheckerServiceImplTest extends AbstractTestConstants {
     @Test
     public void updateTablesWhenPhraseInvalidAndNoMatchingRejectedPhrase() {
         ToBeReviewed tbr = new ToBeReviewed(1L, false, "nonsense", "nonsense", "nonsense", "nonsense");
-        Mockito.when(reviewSubmittingUserRepository.findUserIdByToBeReviewedId(Mockito.any()))
-                .thenReturn(USER1_ID);
 
         toBeReviewedCheckerService.updateTables(tbr);
 
-        ArgumentCaptor<RejectedPhrase> arg1 = ArgumentCaptor.forClass(RejectedPhrase.class);
-        verify(rejectedPhraseRepository, times(1)).save(arg1.capture());
-        assertEquals(arg1.getValue().getRejectedPhrase(), tbr.toString());
-
-        ArgumentCaptor<ReviewSubmittingUser> arg2 = ArgumentCaptor.forClass(ReviewSubmittingUser.class);
-        verify(reviewSubmittingUserRepository, times(1)).delete(arg2.capture());
-        assertEquals(arg2.getValue().getUserId(), USER1_ID);
+        ArgumentCaptor<Iterable<RejectedPhrase>> arg1 = ArgumentCaptor.forClass(Iterable.class);
+        verify(rejectedPhraseRepository, times(1)).saveAll(arg1.capture());
+        assertThat(arg1.getValue()).extracting(RejectedPhrase::getRejectedPhrase).containsExactly(tbr.toString());
+        verify(rejectionFilterService, times(1)).addRejectedPhrase(tbr.toString());
 
-        ArgumentCaptor<Long> arg3 = ArgumentCaptor.forClass(Long.class);
-        verify(toBeReviewedRepository, times(1)).deleteById(arg3.capture());
-        assertEquals(arg3.getValue(), tbr.getId());
+        verify(reviewSubmittingUserRepository, times(1)).deleteAllByToBeReviewedIds(List.of(tbr.getId()));
+        verify(toBeReviewedRepository, times(1)).deleteAllByIds(List.of(tbr.getId()));
 
         // verify tbr was not groomed
         assertEquals(false, tbr.isHasBeenGroomed());
@@ -305,4 +508,28 @@ public class ToBeReviewedCheckerServiceImplTest extends AbstractTestConstants {
         assertEquals(toBeReviewedArgumentCaptor.getValue(), tbr);
     }
 
+    @Test
+    public void checkPartOfSpeechWithTheWordsApiTurnedOffLeavesAWordNotInTheLexiconForManualReview() {
+        String word = "walk";
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        ReflectionTestUtils.setField(toBeReviewedCheckerServiceSpy, "wordsApiEnabled", false);
+
+        assertTrue(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "verb"));
+
+        verify(toBeReviewedCheckerServiceSpy, never()).getWordDetails(anyString());
+        verify(partOfSpeechCacheService, never()).putPartsOfSpeech(anyString(), any());
+    }
+
+    @Test
+    public void checkPartOfSpeechWithTheWordsApiTurnedOffLeavesASenseTheLexiconLacksForManualReview() {
+        String word = "chess";
+        ToBeReviewedCheckerService toBeReviewedCheckerServiceSpy = spy(toBeReviewedCheckerService);
+        ReflectionTestUtils.setField(toBeReviewedCheckerServiceSpy, "wordsApiEnabled", false);
+        when(wordClassifier.getPartsOfSpeech(word)).thenReturn(Optional.of(Set.of("noun")));
+
+        assertTrue(toBeReviewedCheckerServiceSpy.checkPartOfSpeech(word, "verb"));
+
+        verify(toBeReviewedCheckerServiceSpy, never()).getWordDetails(anyString());
+    }
+
 }
@@ -2,6 +2,7 @@ package com.savvato.tribeapp.unit.services;
 
 import com.savvato.tribeapp.constants.Constants;
 import com.savvato.tribeapp.constants.PhraseTestConstants;
+import com.savvato.tribeapp.constants.UserTestConstants;
 import com.savvato.tribeapp.entities.ToBeReviewed;
 import com.savvato.tribeapp.dto.ToBeReviewedDTO;
 import com.savvato.tribeapp.repositories.ToBeReviewedRepository;
@@ -20,12 +21,12 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(SpringExtension.class)
-public class ToBeReviewedServiceImplTest implements PhraseTestConstants {
+public class ToBeReviewedServiceImplTest implements UserTestConstants, PhraseTestConstants {
 
     @TestConfiguration
     static class PhraseServiceTestContextConfiguration {
@@ -60,16 +61,17 @@ public class ToBeReviewedServiceImplTest implements PhraseTestConstants {
                 .noun(expectedToBeReviewed.getNoun())
                 .build();
 
-        Mockito.when(toBeReviewedRepository.findNextReviewEligible(any(Long.class))).thenReturn(Optional.of(expectedToBeReviewed));
+        Mockito.when(toBeReviewedRepository.findNextReviewEligibleForUpdate()).thenReturn(Optional.of(expectedToBeReviewed));
 
-        Optional<ToBeReviewedDTO> rtn = toBeReviewedService.getReviewPhrase();
+        Optional<ToBeReviewedDTO> rtn = toBeReviewedService.getReviewPhrase(USER1_ID);
 
         assertEquals(rtn.get().hasBeenGroomed, expectedToBeReviewedDTO.hasBeenGroomed);
         assertEquals(rtn.get().adverb, expectedToBeReviewedDTO.adverb);
         assertEquals(rtn.get().verb, expectedToBeReviewedDTO.verb);
         assertEquals(rtn.get().preposition, expectedToBeReviewedDTO.preposition);
         assertEquals(rtn.get().noun, expectedToBeReviewedDTO.noun);
-        assertEquals(toBeReviewedService.getLastAssignedForReview(), expectedToBeReviewed.getId());
+        // the phrase is leased to the reviewer for the default ten minutes
+        verify(toBeReviewedRepository).lease(expectedToBeReviewed.getId(), USER1_ID, 600L);
     }
 
     // test that when getReviewPhrase() finds no phrases to review, it returns an empty optional object
@@ -77,11 +79,11 @@ public class ToBeReviewedServiceImplTest implements PhraseTestConstants {
     public void testGetReviewPhraseWhenNoNextItemIsAvailable() {
 
         //Ensure the repository is returning an empty optional
-        Mockito.when(toBeReviewedRepository.findNextReviewEligible(any(Long.class))).thenReturn(Optional.empty());
+        Mockito.when(toBeReviewedRepository.findNextReviewEligibleForUpdate()).thenReturn(Optional.empty());
 
         //Success: test that the getReviewPhrase() method returns an empty Optional object
-        assertFalse(toBeReviewedService.getReviewPhrase().isPresent());
-        
+        assertFalse(toBeReviewedService.getReviewPhrase(USER1_ID).isPresent());
+        verify(toBeReviewedRepository, never()).lease(anyLong(), anyLong(), anyLong());
     }
 
     // TRIB-62
@@ -105,41 +107,45 @@ public class ToBeReviewedServiceImplTest implements PhraseTestConstants {
                 .noun(expectedToBeReviewed.getNoun())
                 .build();
 
-        Mockito.when(toBeReviewedRepository.findNextReviewEligible(any(Long.class))).thenReturn(Optional.of(expectedToBeReviewed));
+        Mockito.when(toBeReviewedRepository.findNextReviewEligibleForUpdate()).thenReturn(Optional.of(expectedToBeReviewed));
 
-        Optional<ToBeReviewedDTO> rtn = toBeReviewedService.getReviewPhrase();
+        Optional<ToBeReviewedDTO> rtn = toBeReviewedService.getReviewPhrase(USER1_ID);
 
         assertEquals(rtn.get().hasBeenGroomed, expectedToBeReviewedDTO.hasBeenGroomed);
         assertEquals(rtn.get().adverb, expectedToBeReviewedDTO.adverb);
         assertEquals(rtn.get().verb, expectedToBeReviewedDTO.verb);
         assertEquals(rtn.get().preposition, expectedToBeReviewedDTO.preposition);
         assertEquals(rtn.get().noun, expectedToBeReviewedDTO.noun);
-        assertEquals(toBeReviewedService.getLastAssignedForReview(), expectedToBeReviewed.getId());
+        verify(toBeReviewedRepository).lease(1L, USER1_ID, 600L);
 
-        expectedToBeReviewed.setId(2L);
-        expectedToBeReviewed.setHasBeenGroomed(true);
-        expectedToBeReviewed.setAdverb(ADVERB2_WORD);
-        expectedToBeReviewed.setVerb(VERB2_WORD);
-        expectedToBeReviewed.setPreposition(PREPOSITION2_WORD);
-        expectedToBeReviewed.setNoun(NOUN2_WORD);
+        // the first phrase is leased now, so the next one found is another
+        ToBeReviewed expectedToBeReviewed2 = new ToBeReviewed();
+        expectedToBeReviewed2.setId(2L);
+        expectedToBeReviewed2.setHasBeenGroomed(true);
+        expectedToBeReviewed2.setAdverb(ADVERB2_WORD);
+        expectedToBeReviewed2.setVerb(VERB2_WORD);
+        expectedToBeReviewed2.setPreposition(PREPOSITION2_WORD);
+        expectedToBeReviewed2.setNoun(NOUN2_WORD);
 
         ToBeReviewedDTO expectedToBeReviewedDTO2 = ToBeReviewedDTO.builder()
-                .id(expectedToBeReviewed.getId())
-                .hasBeenGroomed(expectedToBeReviewed.isHasBeenGroomed())
-                .adverb(expectedToBeReviewed.getAdverb())
-                .verb(expectedToBeReviewed.getVerb())
-                .preposition(expectedToBeReviewed.getPreposition())
-                .noun(expectedToBeReviewed.getNoun())
+                .id(expectedToBeReviewed2.getId())
+                .hasBeenGroomed(expectedToBeReviewed2.isHasBeenGroomed())
+                .adverb(expectedToBeReviewed2.getAdverb())
+                .verb(expectedToBeReviewed2.getVerb())
+                .preposition(expectedToBeReviewed2.getPreposition())
+                .noun(expectedToBeReviewed2.getNoun())
                 .build();
 
-        Optional<ToBeReviewedDTO> rtnTwo = toBeReviewedService.getReviewPhrase();
+        Mockito.when(toBeReviewedRepository.findNextReviewEligibleForUpdate()).thenReturn(Optional.of(expectedToBeReviewed2));
+
+        Optional<ToBeReviewedDTO> rtnTwo = toBeReviewedService.getReviewPhrase(USER1_ID);
 
         assertEquals(rtnTwo.get().hasBeenGroomed, expectedToBeReviewedDTO2.hasBeenGroomed);
         assertEquals(rtnTwo.get().adverb, expectedToBeReviewedDTO2.adverb);
         assertEquals(rtnTwo.get().verb, expectedToBeReviewedDTO2.verb);
         assertEquals(rtnTwo.get().preposition, expectedToBeReviewedDTO2.preposition);
         assertEquals(rtnTwo.get().noun, expectedToBeReviewedDTO2.noun);
-        assertEquals(toBeReviewedService.getLastAssignedForReview(), expectedToBeReviewed.getId());
+        verify(toBeReviewedRepository).lease(2L, USER1_ID, 600L);
     }
 
     @Test
@@ -154,12 +160,16 @@ public class ToBeReviewedServiceImplTest implements PhraseTestConstants {
         testTbr.setPreposition(Constants.NULL_VALUE_WORD);
         testTbr.setNoun(NOUN1_WORD);
 
-        Mockito.when(toBeReviewedRepository.findNextReviewEligible(anyLong())).thenReturn(Optional.of(testTbr));
+        Mockito.when(toBeReviewedRepository.findNextReviewEligibleForUpdate()).thenReturn(Optional.of(testTbr));
 
-        Optional<ToBeReviewedDTO> tbrDTOOptional = toBeReviewedService.getReviewPhrase();
+        Optional<ToBeReviewedDTO> tbrDTOOptional = toBeReviewedService.getReviewPhrase(USER1_ID);
         ToBeReviewedDTO tbrDTO = tbrDTOOptional.get();
 
         assertEquals(tbrDTO.adverb,testEmptyString);
         assertEquals(tbrDTO.preposition,testEmptyString);
+
+        // the phrase itself keeps its placeholders, so they aren't saved over
+        assertEquals(testTbr.getAdverb(), Constants.NULL_VALUE_WORD);
+        assertEquals(testTbr.getPreposition(), Constants.NULL_VALUE_WORD);
     }
 }
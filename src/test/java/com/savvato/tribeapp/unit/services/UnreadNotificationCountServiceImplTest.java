@@ -0,0 +1,78 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.constants.UserTestConstants;
+import com.savvato.tribeapp.entities.UnreadNotificationCount;
+import com.savvato.tribeapp.repositories.UnreadNotificationCountRepository;
+import com.savvato.tribeapp.services.UnreadNotificationCountService;
+import com.savvato.tribeapp.services.UnreadNotificationCountServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class UnreadNotificationCountServiceImplTest implements UserTestConstants {
+
+    @TestConfiguration
+    static class UnreadNotificationCountServiceTestContextConfiguration {
+        @Bean
+        public UnreadNotificationCountService unreadNotificationCountService() {
+            return new UnreadNotificationCountServiceImpl();
+        }
+    }
+
+    @Autowired
+    UnreadNotificationCountService unreadNotificationCountService;
+
+    @MockBean
+    UnreadNotificationCountRepository unreadNotificationCountRepository;
+
+    @Test
+    public void incrementAndDecrementUpdateTheCounterRow() {
+        unreadNotificationCountService.incrementUnreadCount(USER1_ID);
+        unreadNotificationCountService.decrementUnreadCount(USER1_ID);
+
+        verify(unreadNotificationCountRepository, times(1)).incrementUnreadCount(USER1_ID);
+        verify(unreadNotificationCountRepository, times(1)).decrementUnreadCount(USER1_ID);
+    }
+
+    @Test
+    public void getUnreadCountReadsTheCounterRow() {
+        when(unreadNotificationCountRepository.findById(USER1_ID)).thenReturn(Optional.of(new UnreadNotificationCount(USER1_ID, 3L)));
+
+        assertEquals(3L, unreadNotificationCountService.getUnreadCount(USER1_ID));
+    }
+
+    @Test
+    public void getUnreadCountIsZeroForAUserWithoutARow() {
+        when(unreadNotificationCountRepository.findById(USER1_ID)).thenReturn(Optional.empty());
+
+        assertEquals(0L, unreadNotificationCountService.getUnreadCount(USER1_ID));
+    }
+
+    @Test
+    public void reconcileRecomputesCountsWhenTheyHaveDrifted() {
+        when(unreadNotificationCountRepository.countDriftedUsers()).thenReturn(2L);
+
+        assertEquals(2L, unreadNotificationCountService.reconcileUnreadCounts());
+
+        verify(unreadNotificationCountRepository, times(1)).recomputeAllUnreadCounts();
+    }
+
+    @Test
+    public void reconcileLeavesCountsAloneWhenTheyAreInSync() {
+        when(unreadNotificationCountRepository.countDriftedUsers()).thenReturn(0L);
+
+        assertEquals(0L, unreadNotificationCountService.reconcileUnreadCounts());
+
+        verify(unreadNotificationCountRepository, never()).recomputeAllUnreadCounts();
+    }
+}
@@ -3,6 +3,7 @@ package com.savvato.tribeapp.unit.services;
 import com.savvato.tribeapp.constants.PhraseTestConstants;
 import com.savvato.tribeapp.constants.UserTestConstants;
 import com.savvato.tribeapp.repositories.UserPhraseRepository;
+import com.savvato.tribeapp.services.PhraseUserCountService;
 import com.savvato.tribeapp.services.UserPhraseService;
 import com.savvato.tribeapp.services.UserPhraseServiceImpl;
 import org.junit.jupiter.api.Test;
@@ -37,6 +38,8 @@ public class UserPhraseServiceImplTest implements UserTestConstants, PhraseTestC
     UserPhraseService userPhraseService;
     @MockBean
     UserPhraseRepository userPhraseRepository;
+    @MockBean
+    PhraseUserCountService phraseUserCountService;
 
     @Test
     public void findPhraseIdsByUserId() {
@@ -50,4 +53,23 @@ public class UserPhraseServiceImplTest implements UserTestConstants, PhraseTestC
         assertEquals(userId, userIdCaptor.getValue());
         assertThat(result).usingRecursiveComparison().isEqualTo(phraseIdsOpt);
     }
+
+    @Test
+    public void deletePhraseFromUserDecrementsUserCount() {
+        when(userPhraseRepository.deleteByUserIdAndPhraseId(USER1_ID, PHRASE1_ID)).thenReturn(1);
+
+        userPhraseService.deletePhraseFromUser(PHRASE1_ID, USER1_ID);
+
+        verify(userPhraseRepository, times(1)).deleteByUserIdAndPhraseId(USER1_ID, PHRASE1_ID);
+        verify(phraseUserCountService, times(1)).decrementUserCount(PHRASE1_ID);
+    }
+
+    @Test
+    public void deletePhraseFromUserLeavesUserCountWhenUserDidNotHavePhrase() {
+        when(userPhraseRepository.deleteByUserIdAndPhraseId(USER1_ID, PHRASE1_ID)).thenReturn(0);
+
+        userPhraseService.deletePhraseFromUser(PHRASE1_ID, USER1_ID);
+
+        verify(phraseUserCountService, never()).decrementUserCount(any());
+    }
 }
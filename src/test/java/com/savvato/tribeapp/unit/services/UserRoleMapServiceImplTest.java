@@ -1,5 +1,6 @@
 package com.savvato.tribeapp.unit.services;
 
+import com.savvato.tribeapp.config.principal.JwtPrincipalCache;
 import com.savvato.tribeapp.constants.UserTestConstants;
 import com.savvato.tribeapp.entities.User;
 import com.savvato.tribeapp.entities.UserRole;
@@ -45,6 +46,8 @@ public class UserRoleMapServiceImplTest implements UserTestConstants {
     private UserRepository userRepository;
     @MockBean
     private UserRoleMapRepository userRoleMapRepository;
+    @MockBean
+    private JwtPrincipalCache jwtPrincipalCache;
 
     @Test
     public void testAddRolesToUser() {
@@ -75,6 +78,7 @@ public class UserRoleMapServiceImplTest implements UserTestConstants {
         assertEquals(arg1.getAllValues().get(1).getUserRoleId(), userRole.ROLE_ACCOUNTHOLDER.getId());
         assertEquals(arg1.getAllValues().get(2).getUserId(), user.getId());
         assertEquals(arg1.getAllValues().get(2).getUserRoleId(), userRole.ROLE_PHRASEREVIEWER.getId());
+        verify(jwtPrincipalCache, times(3)).invalidateUser(user.getId());
     }
 
     @Test
@@ -112,6 +116,7 @@ public class UserRoleMapServiceImplTest implements UserTestConstants {
         assertEquals(arg1.getAllValues().get(1).getUserRoleId(), userRole.ROLE_PHRASEREVIEWER.getId());
 
         assertThat(returnedTrue).isTrue();
+        verify(jwtPrincipalCache, times(2)).invalidateUser(user.getId());
     }
 
     @Test
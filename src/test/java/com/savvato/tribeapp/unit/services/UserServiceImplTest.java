@@ -1,5 +1,6 @@
 package com.savvato.tribeapp.unit.services;
 
+import com.savvato.tribeapp.config.principal.JwtPrincipalCache;
 import com.savvato.tribeapp.config.principal.UserPrincipal;
 import com.savvato.tribeapp.constants.UserTestConstants;
 import com.savvato.tribeapp.controllers.dto.UserRequest;
@@ -65,6 +66,9 @@ public class UserServiceImplTest implements UserTestConstants {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private JwtPrincipalCache jwtPrincipalCache;
+
     @Test
     public void testCreateNewUser() {
         // given
@@ -207,6 +211,7 @@ public class UserServiceImplTest implements UserTestConstants {
         // assertThat(arg1.getValue().getPassword()).isNotEqualTo(userRequest.password); // password should be hashed, but in our test, is not
         assertThat(arg1.getValue().getEmail()).isEqualTo(userRequest.email);
         assertThat(arg1.getValue().getPhone()).isEqualTo(userRequest.phone);
+        verify(jwtPrincipalCache, times(1)).invalidateUser(user1.getId());
     }
 
     @Test
@@ -230,6 +235,7 @@ public class UserServiceImplTest implements UserTestConstants {
 
         ArgumentCaptor<User> arg1 = ArgumentCaptor.forClass(User.class);
         verify(userRepository, times(0)).save(arg1.capture());
+        verify(jwtPrincipalCache, never()).invalidateUser(any());
     }
 
     @ParameterizedTest
@@ -383,6 +389,7 @@ public class UserServiceImplTest implements UserTestConstants {
         Mockito.when(passwordEncoder.encode(any(String.class))).thenReturn(password);
 
         UserDTO rtn = userService.changePassword(password, phoneNumber, smsChallengeCode);
+        verify(jwtPrincipalCache, times(1)).invalidateUser(user.getId());
         assertEquals(rtn.id, userDTO.id);
         assertEquals(rtn.name, userDTO.name);
         assertEquals(rtn.password, userDTO.password);
@@ -0,0 +1,101 @@
+package com.savvato.tribeapp.unit.services;
+
+import com.savvato.tribeapp.constants.PhraseTestConstants;
+import com.savvato.tribeapp.repositories.AdverbRepository;
+import com.savvato.tribeapp.repositories.NounRepository;
+import com.savvato.tribeapp.repositories.PrepositionRepository;
+import com.savvato.tribeapp.repositories.VerbRepository;
+import com.savvato.tribeapp.services.VocabularyService;
+import com.savvato.tribeapp.services.VocabularyServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class VocabularyServiceImplTest implements PhraseTestConstants {
+
+    @TestConfiguration
+    static class VocabularyServiceTestContextConfiguration {
+        @Bean
+        public VocabularyService vocabularyService() {
+            return new VocabularyServiceImpl();
+        }
+    }
+
+    @Autowired
+    VocabularyService vocabularyService;
+
+    @MockBean
+    AdverbRepository adverbRepository;
+
+    @MockBean
+    VerbRepository verbRepository;
+
+    @MockBean
+    PrepositionRepository prepositionRepository;
+
+    @MockBean
+    NounRepository nounRepository;
+
+    @Test
+    public void loadVocabularyResolvesWordsAndIdsWithoutFurtherQueries() {
+        when(adverbRepository.findAll()).thenReturn(List.of(PhraseTestConstants.getTestAdverb1()));
+        when(verbRepository.findAll()).thenReturn(List.of(PhraseTestConstants.getTestVerb1()));
+        when(prepositionRepository.findAll()).thenReturn(List.of(PhraseTestConstants.getTestPreposition1()));
+        when(nounRepository.findAll()).thenReturn(List.of(PhraseTestConstants.getTestNoun1()));
+
+        vocabularyService.loadVocabulary();
+
+        assertEquals(Optional.of(ADVERB1_ID), vocabularyService.findAdverbId(ADVERB1_WORD));
+        assertEquals(Optional.of(VERB1_ID), vocabularyService.findVerbId(VERB1_WORD));
+        assertEquals(Optional.of(PREPOSITION1_ID), vocabularyService.findPrepositionId(PREPOSITION1_WORD));
+        assertEquals(Optional.of(NOUN1_ID), vocabularyService.findNounId(NOUN1_WORD));
+        assertEquals(Optional.of(ADVERB1_WORD), vocabularyService.findAdverbById(ADVERB1_ID));
+        assertEquals(Optional.of(VERB1_WORD), vocabularyService.findVerbById(VERB1_ID));
+        assertEquals(Optional.of(PREPOSITION1_WORD), vocabularyService.findPrepositionById(PREPOSITION1_ID));
+        assertEquals(Optional.of(NOUN1_WORD), vocabularyService.findNounById(NOUN1_ID));
+
+        verify(adverbRepository, never()).findByWord(anyString());
+        verify(verbRepository, never()).findByWord(anyString());
+        verify(prepositionRepository, never()).findByWord(anyString());
+        verify(nounRepository, never()).findByWord(anyString());
+        verify(adverbRepository, never()).findAdverbById(anyLong());
+        verify(verbRepository, never()).findVerbById(anyLong());
+        verify(prepositionRepository, never()).findPrepositionById(anyLong());
+        verify(nounRepository, never()).findNounById(anyLong());
+    }
+
+    @Test
+    public void findIdFallsBackToDatabaseOnceForUnknownWord() {
+        when(verbRepository.findByWord(VERB2_WORD)).thenReturn(Optional.of(PhraseTestConstants.getTestVerb2()));
+
+        assertEquals(Optional.of(VERB2_ID), vocabularyService.findVerbId(VERB2_WORD));
+        assertEquals(Optional.of(VERB2_ID), vocabularyService.findVerbId(VERB2_WORD));
+        assertEquals(Optional.of(VERB2_WORD), vocabularyService.findVerbById(VERB2_ID));
+
+        verify(verbRepository, times(1)).findByWord(VERB2_WORD);
+        verify(verbRepository, never()).findVerbById(anyLong());
+    }
+
+    @Test
+    public void findIdReturnsEmptyWhenWordIsNotInVocabulary() {
+        when(nounRepository.findByWord(anyString())).thenReturn(Optional.empty());
+
+        assertEquals(Optional.empty(), vocabularyService.findNounId(NOUN3_WORD));
+        assertEquals(Optional.empty(), vocabularyService.findNounId(null));
+    }
+}